@@ -0,0 +1,65 @@
+package br.com.dv.qrcodeapi.engine.benchmark;
+
+import br.com.dv.qrcodeapi.engine.ImageFormat;
+import br.com.dv.qrcodeapi.engine.QRCodeRenderer;
+import br.com.dv.qrcodeapi.engine.RenderOptions;
+import com.google.zxing.WriterException;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.QRCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The engine on its own, with none of the application's validation, caching or admission: an encoded
+ * symbol drawn in each format, either to a byte array or streamed to a sink.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RenderBenchmark {
+
+    private static final String PREFIX = "https://example.com/";
+    private static final int MARGIN = 4;
+
+    @Param({"16", "256"})
+    private int contentLength;
+
+    @Param({"PNG", "SVG", "MATRIX", "JPEG"})
+    private ImageFormat format;
+
+    @Param({"250", "1000"})
+    private int size;
+
+    private QRCode symbol;
+    private RenderOptions options;
+    private OutputStream sink;
+
+    @Setup
+    public void setUp() throws WriterException {
+        String content = (PREFIX + "a".repeat(contentLength)).substring(0, contentLength);
+        symbol = QRCodeRenderer.encode(content, ErrorCorrectionLevel.M, false);
+        options = RenderOptions.of(format, size, MARGIN, 0xFF000000, 0xFFFFFFFF);
+        sink = OutputStream.nullOutputStream();
+    }
+
+    @Benchmark
+    public byte[] render() {
+        return QRCodeRenderer.render(symbol, options);
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        QRCodeRenderer.write(symbol, options, sink);
+    }
+
+}
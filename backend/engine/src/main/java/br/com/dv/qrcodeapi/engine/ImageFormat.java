@@ -0,0 +1,33 @@
+package br.com.dv.qrcodeapi.engine;
+
+public enum ImageFormat {
+
+    PNG("image/png", false),
+    JPEG("image/jpeg", true),
+    GIF("image/gif", true),
+    SVG("image/svg+xml", false),
+    MATRIX("application/vnd.qrcode.matrix", false),
+    MATRIX_JSON("application/json", false);
+
+    private final String contentType;
+
+    /**
+     * Whether rendering goes through a full {@code BufferedImage}, so memory grows with the square of
+     * the size. The other formats are written row by row or as vectors.
+     */
+    private final boolean fullRaster;
+
+    ImageFormat(String contentType, boolean fullRaster) {
+        this.contentType = contentType;
+        this.fullRaster = fullRaster;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public boolean isFullRaster() {
+        return fullRaster;
+    }
+
+}
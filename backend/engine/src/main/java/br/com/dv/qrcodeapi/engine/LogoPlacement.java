@@ -0,0 +1,76 @@
+package br.com.dv.qrcodeapi.engine;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * A logo centred on a rendered symbol, with a border one module wide cleared to the background so
+ * the logo's edge does not run into the surrounding modules. The modules under the cleared area are
+ * lost; {@link #MAX_WIDTH_RATIO} keeps that well within what correction level H recovers.
+ */
+public record LogoPlacement(LogoRaster logo, int left, int top, int border) {
+
+    /**
+     * Widest a logo may be, as a fraction of the symbol's width. Level H recovers about 30% of the
+     * codewords; a logo this size, border included, hides well under a tenth of the modules.
+     */
+    public static final double MAX_WIDTH_RATIO = 0.2;
+
+    /**
+     * The longest side the logo is scaled to for this raster.
+     */
+    public static int maxLogoSide(SymbolRaster raster) {
+        return Math.max(1, (int) (Math.min(raster.getSymbolWidth(), raster.getSymbolHeight()) * MAX_WIDTH_RATIO));
+    }
+
+    public static LogoPlacement centered(SymbolRaster raster, LogoRaster logo) {
+        return new LogoPlacement(
+                logo,
+                raster.getSymbolLeft() + (raster.getSymbolWidth() - logo.getWidth()) / 2,
+                raster.getSymbolTop() + (raster.getSymbolHeight() - logo.getHeight()) / 2,
+                raster.getMultiple()
+        );
+    }
+
+    /**
+     * Overlays row {@code y} of an 8-bit RGB scanline. Rows outside the cleared area are untouched.
+     */
+    public void drawRow(int y, int backgroundColor, byte[] rgb) {
+        if (y < top - border || y >= top + logo.getHeight() + border) {
+            return;
+        }
+
+        int from = Math.max(0, left - border);
+        int to = Math.min(rgb.length / 3, left + logo.getWidth() + border);
+        byte red = (byte) (backgroundColor >> 16);
+        byte green = (byte) (backgroundColor >> 8);
+        byte blue = (byte) backgroundColor;
+        for (int offset = from * 3, end = to * 3; offset < end; offset += 3) {
+            rgb[offset] = red;
+            rgb[offset + 1] = green;
+            rgb[offset + 2] = blue;
+        }
+
+        if (y >= top && y < top + logo.getHeight()) {
+            logo.blendRow(y - top, backgroundColor, rgb, left);
+        }
+    }
+
+    /**
+     * Draws the cleared area and the logo onto a full-color image.
+     */
+    public void draw(BufferedImage image, int backgroundColor) {
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setColor(new Color(backgroundColor));
+            graphics.fillRect(
+                    left - border, top - border, logo.getWidth() + 2 * border, logo.getHeight() + 2 * border
+            );
+            graphics.drawImage(logo.getImage(), left, top, null);
+        } finally {
+            graphics.dispose();
+        }
+    }
+
+}
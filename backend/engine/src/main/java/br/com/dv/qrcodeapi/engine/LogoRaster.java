@@ -0,0 +1,98 @@
+package br.com.dv.qrcodeapi.engine;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * A logo already scaled to the size it is drawn at, held as premultiplied ARGB so compositing it
+ * over a background is one multiply-add per channel. Instances are shared between renders and never
+ * modified after construction.
+ */
+public final class LogoRaster {
+
+    private final BufferedImage image;
+    private final int[] pixels;
+
+    /**
+     * @param image a {@link BufferedImage#TYPE_INT_ARGB_PRE} image; it must not be modified afterwards
+     */
+    public LogoRaster(BufferedImage image) {
+        if (image.getType() != BufferedImage.TYPE_INT_ARGB_PRE) {
+            throw new IllegalArgumentException("Logo rasters must be TYPE_INT_ARGB_PRE");
+        }
+        this.image = image;
+        this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+
+    /**
+     * Scales {@code source} so its longest side is {@code maxSide}, keeping the aspect ratio. Large
+     * reductions halve the image repeatedly before the last step, since a single bilinear step skips
+     * most source pixels and aliases fine detail.
+     */
+    public static LogoRaster scaledToFit(BufferedImage source, int maxSide) {
+        double scale = (double) maxSide / Math.max(source.getWidth(), source.getHeight());
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage current = source;
+        while (current.getWidth() / 2 >= width && current.getHeight() / 2 >= height) {
+            current = resize(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        return new LogoRaster(resize(current, width, height));
+    }
+
+    public int getWidth() {
+        return image.getWidth();
+    }
+
+    public int getHeight() {
+        return image.getHeight();
+    }
+
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    /**
+     * Approximate heap taken by the pixels, for cache weighing.
+     */
+    public int sizeBytes() {
+        return pixels.length * Integer.BYTES;
+    }
+
+    /**
+     * Writes row {@code y} composited over {@code backgroundColor} (ARGB, alpha ignored) as 8-bit RGB
+     * triples into {@code rgb}, starting at pixel {@code x}.
+     */
+    public void blendRow(int y, int backgroundColor, byte[] rgb, int x) {
+        int backgroundRed = (backgroundColor >> 16) & 0xFF;
+        int backgroundGreen = (backgroundColor >> 8) & 0xFF;
+        int backgroundBlue = backgroundColor & 0xFF;
+
+        int width = getWidth();
+        int offset = x * 3;
+        for (int i = y * width, end = i + width; i < end; i++) {
+            int argb = pixels[i];
+            int transparency = 255 - (argb >>> 24);
+            rgb[offset++] = (byte) (((argb >> 16) & 0xFF) + backgroundRed * transparency / 255);
+            rgb[offset++] = (byte) (((argb >> 8) & 0xFF) + backgroundGreen * transparency / 255);
+            rgb[offset++] = (byte) ((argb & 0xFF) + backgroundBlue * transparency / 255);
+        }
+    }
+
+    private static BufferedImage resize(BufferedImage source, int width, int height) {
+        var resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return resized;
+    }
+
+}
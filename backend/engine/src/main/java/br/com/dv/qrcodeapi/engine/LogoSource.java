@@ -0,0 +1,16 @@
+package br.com.dv.qrcodeapi.engine;
+
+/**
+ * Supplies the logo drawn on a render. The engine only knows the size it needs once the symbol is
+ * laid out, so the logo is asked for at that size; implementations are expected to cache the scaled
+ * rasters rather than scale on every call.
+ */
+@FunctionalInterface
+public interface LogoSource {
+
+    /**
+     * Returns the logo scaled so its longest side is {@code maxSide}.
+     */
+    LogoRaster scaledTo(int maxSide);
+
+}
@@ -0,0 +1,103 @@
+package br.com.dv.qrcodeapi.engine;
+
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.QRCode;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Writes an encoded symbol's module matrix for clients that draw the code themselves, without any
+ * rasterising or image encoding. The quiet zone, size and colors are left to the client.
+ * <p>
+ * The binary form is a 6-byte header followed by the modules:
+ * <pre>
+ * byte 0     format version (1)
+ * byte 1     symbol version (1-40)
+ * byte 2     error correction level (0 = L, 1 = M, 2 = Q, 3 = H)
+ * byte 3     mask pattern (0-7)
+ * bytes 4-5  dimension in modules, big-endian
+ * bytes 6-   dimension&sup2; bits, row by row, most significant bit first, 1 for a dark module,
+ *            zero-padded to a whole byte at the end
+ * </pre>
+ * The JSON form carries the same fields, with the packed modules in base64.
+ */
+public final class ModuleMatrixEncoder {
+
+    private static final String CANNOT_INSTANTIATE_CLASS_MESSAGE = "ModuleMatrixEncoder class cannot be instantiated";
+
+    public static final int FORMAT_VERSION = 1;
+    public static final int HEADER_BYTES = 6;
+
+    private ModuleMatrixEncoder() {
+        throw new IllegalStateException(CANNOT_INSTANTIATE_CLASS_MESSAGE);
+    }
+
+    public static byte[] encode(QRCode code) {
+        ByteMatrix modules = code.getMatrix();
+        int dimension = modules.getWidth();
+        byte[] output = new byte[HEADER_BYTES + packedBytes(dimension)];
+
+        output[0] = FORMAT_VERSION;
+        output[1] = (byte) code.getVersion().getVersionNumber();
+        output[2] = (byte) code.getECLevel().ordinal();
+        output[3] = (byte) code.getMaskPattern();
+        output[4] = (byte) (dimension >>> 8);
+        output[5] = (byte) dimension;
+        pack(modules, output, HEADER_BYTES);
+        return output;
+    }
+
+    public static byte[] encodeJson(QRCode code) {
+        ByteMatrix modules = code.getMatrix();
+        int dimension = modules.getWidth();
+        byte[] packed = new byte[packedBytes(dimension)];
+        pack(modules, packed, 0);
+
+        // Every value is a number, a level letter or base64, so nothing needs escaping.
+        String json = "{\"formatVersion\":" + FORMAT_VERSION
+                + ",\"version\":" + code.getVersion().getVersionNumber()
+                + ",\"errorCorrection\":\"" + code.getECLevel().name() + '"'
+                + ",\"maskPattern\":" + code.getMaskPattern()
+                + ",\"dimension\":" + dimension
+                + ",\"modules\":\"" + Base64.getEncoder().encodeToString(packed) + "\"}";
+        return json.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    public static void write(QRCode code, OutputStream outputStream) {
+        writeBytes(encode(code), outputStream);
+    }
+
+    public static void writeJson(QRCode code, OutputStream outputStream) {
+        writeBytes(encodeJson(code), outputStream);
+    }
+
+    private static void pack(ByteMatrix modules, byte[] target, int offset) {
+        byte[][] rows = modules.getArray();
+        int bit = 0;
+        for (byte[] row : rows) {
+            for (byte module : row) {
+                if (module == 1) {
+                    target[offset + (bit >>> 3)] |= (byte) (0x80 >>> (bit & 7));
+                }
+                bit++;
+            }
+        }
+    }
+
+    private static int packedBytes(int dimension) {
+        return (dimension * dimension + 7) / 8;
+    }
+
+    private static void writeBytes(byte[] bytes, OutputStream outputStream) {
+        try {
+            outputStream.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,382 @@
+package br.com.dv.qrcodeapi.engine;
+
+import com.google.zxing.common.BitArray;
+import com.google.zxing.common.BitMatrix;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * PNG encoder specialised for two-color images. Writes a 1-bit, 2-entry palette PNG straight from a
+ * {@link BitMatrix} or a {@link SymbolRaster}, without going through {@code BufferedImage} or
+ * {@code ImageIO}. From a raster, rows are generated as they are compressed, so memory does not grow
+ * with the image's height. A raster with a {@link LogoPlacement} is written as 8-bit RGB instead, with
+ * the logo composited into each scanline as it is generated.
+ * <p>
+ * Scaled QR codes repeat every pixel row {@code multiple} times, so a row identical to the one above
+ * it is written with the PNG "Up" filter, which turns it into a run of zeros that deflate collapses
+ * almost for free.
+ */
+public final class PngEncoder {
+
+    private static final String CANNOT_INSTANTIATE_CLASS_MESSAGE = "PngEncoder class cannot be instantiated";
+
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] IHDR = "IHDR".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PLTE = "PLTE".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] IDAT = "IDAT".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] IEND = "IEND".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int PALETTE_BIT_DEPTH = 1;
+    private static final int TRUECOLOR_BIT_DEPTH = 8;
+    private static final int COLOR_TYPE_TRUECOLOR = 2;
+    private static final int COLOR_TYPE_PALETTE = 3;
+    private static final int TRUECOLOR_BYTES_PER_PIXEL = 3;
+    private static final int FILTER_NONE = 0;
+    private static final int FILTER_UP = 2;
+    private static final int IDAT_CHUNK_SIZE = 8 * 1024;
+    private static final int SCANLINE_BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_INITIAL_BUFFER_SIZE = 64 * 1024;
+    private static final int BACKGROUND_INDEX = 0;
+    private static final int FOREGROUND_INDEX = 1;
+
+    /*
+     * Up-filtered duplicate rows are all zeros, so anything above the default level barely shrinks
+     * the output (a few percent at 350px) while costing several times the CPU.
+     */
+    private static final int DEFLATE_LEVEL = 6;
+
+    private PngEncoder() {
+        throw new IllegalStateException(CANNOT_INSTANTIATE_CLASS_MESSAGE);
+    }
+
+    public static byte[] encode(BitMatrix matrix, int foregroundColor, int backgroundColor) {
+        var outputStream = new ByteArrayOutputStream(estimateSize(matrix.getWidth(), matrix.getHeight()));
+        write(matrix, foregroundColor, backgroundColor, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    public static byte[] encode(SymbolRaster raster, int foregroundColor, int backgroundColor) {
+        var outputStream = new ByteArrayOutputStream(estimateSize(raster.getWidth(), raster.getHeight()));
+        write(raster, foregroundColor, backgroundColor, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    public static byte[] encode(SymbolRaster raster, LogoPlacement logo, int foregroundColor, int backgroundColor) {
+        var outputStream = new ByteArrayOutputStream(estimateSize(raster.getWidth(), raster.getHeight()));
+        write(raster, logo, foregroundColor, backgroundColor, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Writes the matrix as a PNG where set bits take {@code foregroundColor} and unset bits take
+     * {@code backgroundColor} (both ARGB; alpha is ignored, as in the RGB image path).
+     */
+    public static void write(BitMatrix matrix, int foregroundColor, int backgroundColor, OutputStream outputStream) {
+        BitArray row = new BitArray(matrix.getWidth());
+        writePalette(
+                matrix.getWidth(),
+                matrix.getHeight(),
+                (y, packed) -> packRow(matrix.getRow(y, row), packed),
+                foregroundColor,
+                backgroundColor,
+                outputStream
+        );
+    }
+
+    /**
+     * Writes the raster as a PNG, with the same color mapping as the matrix variant.
+     */
+    public static void write(SymbolRaster raster, int foregroundColor, int backgroundColor, OutputStream outputStream) {
+        writePalette(
+                raster.getWidth(), raster.getHeight(), raster::packRow, foregroundColor, backgroundColor, outputStream
+        );
+    }
+
+    /**
+     * Writes the raster with a logo over it as an 8-bit RGB PNG. Rows the logo does not touch are
+     * still expanded from the packed module row only when it changes.
+     */
+    public static void write(
+            SymbolRaster raster,
+            LogoPlacement logo,
+            int foregroundColor,
+            int backgroundColor,
+            OutputStream outputStream
+    ) {
+        write(
+                raster.getWidth(),
+                raster.getHeight(),
+                COLOR_TYPE_TRUECOLOR,
+                TRUECOLOR_BIT_DEPTH,
+                null,
+                raster.getWidth() * TRUECOLOR_BYTES_PER_PIXEL,
+                new TruecolorRows(raster, logo, foregroundColor, backgroundColor),
+                outputStream
+        );
+    }
+
+    private static void writePalette(
+            int width,
+            int height,
+            RowSource rows,
+            int foregroundColor,
+            int backgroundColor,
+            OutputStream outputStream
+    ) {
+        write(
+                width,
+                height,
+                COLOR_TYPE_PALETTE,
+                PALETTE_BIT_DEPTH,
+                palette(foregroundColor, backgroundColor),
+                (width + 7) / 8,
+                rows,
+                outputStream
+        );
+    }
+
+    private static void write(
+            int width,
+            int height,
+            int colorType,
+            int bitDepth,
+            byte[] palette,
+            int rowBytes,
+            RowSource rows,
+            OutputStream outputStream
+    ) {
+        try {
+            outputStream.write(SIGNATURE);
+            writeChunk(outputStream, IHDR, header(width, height, colorType, bitDepth));
+            if (palette != null) {
+                writeChunk(outputStream, PLTE, palette);
+            }
+
+            Deflater deflater = new Deflater(DEFLATE_LEVEL);
+            try {
+                var idatStream = new IdatOutputStream(outputStream);
+                var deflaterStream = new DeflaterOutputStream(idatStream, deflater, IDAT_CHUNK_SIZE);
+                // Deflater has a fixed per-call cost, so hand it many scanlines at a time.
+                var scanlineStream = new BufferedOutputStream(deflaterStream, SCANLINE_BUFFER_SIZE);
+                writeScanlines(rowBytes, height, rows, scanlineStream);
+                scanlineStream.flush();
+                deflaterStream.finish();
+                idatStream.flushChunk();
+            } finally {
+                deflater.end();
+            }
+
+            writeChunk(outputStream, IEND, new byte[0]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeScanlines(int rowBytes, int height, RowSource rows, OutputStream outputStream)
+            throws IOException {
+        byte[] previous = new byte[rowBytes];
+        byte[] current = new byte[rowBytes];
+        byte[] zeros = new byte[rowBytes];
+
+        for (int y = 0; y < height; y++) {
+            rows.packRow(y, current);
+
+            if (y > 0 && Arrays.equals(current, previous)) {
+                outputStream.write(FILTER_UP);
+                outputStream.write(zeros);
+            } else {
+                outputStream.write(FILTER_NONE);
+                outputStream.write(current);
+                byte[] swap = previous;
+                previous = current;
+                current = swap;
+            }
+        }
+    }
+
+    /**
+     * Converts a zxing row (32 pixels per int, least significant bit first) into PNG's packed
+     * 1-bit layout (8 pixels per byte, most significant bit first). Set bits map to palette
+     * index 1, the foreground.
+     */
+    private static void packRow(BitArray row, byte[] packed) {
+        int[] bits = row.getBitArray();
+        for (int i = 0; i < packed.length; i++) {
+            int word = bits[i >> 2] >>> ((i & 3) << 3);
+            packed[i] = (byte) (Integer.reverse(word & 0xFF) >>> 24);
+        }
+    }
+
+    private static byte[] header(int width, int height, int colorType, int bitDepth) {
+        byte[] header = new byte[13];
+        writeInt(header, 0, width);
+        writeInt(header, 4, height);
+        header[8] = (byte) bitDepth;
+        header[9] = (byte) colorType;
+        return header;
+    }
+
+    private static byte[] palette(int foregroundColor, int backgroundColor) {
+        byte[] palette = new byte[6];
+        writeRgb(palette, BACKGROUND_INDEX * 3, backgroundColor);
+        writeRgb(palette, FOREGROUND_INDEX * 3, foregroundColor);
+        return palette;
+    }
+
+    private static void writeRgb(byte[] target, int offset, int argb) {
+        target[offset] = (byte) (argb >> 16);
+        target[offset + 1] = (byte) (argb >> 8);
+        target[offset + 2] = (byte) argb;
+    }
+
+    private static void writeChunk(OutputStream outputStream, byte[] type, byte[] data) throws IOException {
+        writeChunk(outputStream, type, data, data.length);
+    }
+
+    private static void writeChunk(OutputStream outputStream, byte[] type, byte[] data, int length) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(data, 0, length);
+
+        byte[] buffer = new byte[4];
+        writeInt(buffer, 0, length);
+        outputStream.write(buffer);
+        outputStream.write(type);
+        outputStream.write(data, 0, length);
+        writeInt(buffer, 0, (int) crc.getValue());
+        outputStream.write(buffer);
+    }
+
+    private static void writeInt(byte[] target, int offset, int value) {
+        target[offset] = (byte) (value >>> 24);
+        target[offset + 1] = (byte) (value >>> 16);
+        target[offset + 2] = (byte) (value >>> 8);
+        target[offset + 3] = (byte) value;
+    }
+
+    private static int estimateSize(int width, int height) {
+        // Typical output is a few percent of the raw 1-bit raster; start there to avoid regrowth, but
+        // never presize print-resolution images, whose repeated rows compress far better than that.
+        long rawSize = ((width + 7) / 8 + 1L) * height;
+        return (int) Math.min(MAX_INITIAL_BUFFER_SIZE, 256 + rawSize / 8);
+    }
+
+    /**
+     * Supplies row {@code y} in the image's scanline layout: packed at one bit per pixel, most
+     * significant bit first, for palette images, and as RGB triples for truecolor ones.
+     */
+    @FunctionalInterface
+    private interface RowSource {
+
+        void packRow(int y, byte[] packed);
+
+    }
+
+    /**
+     * RGB rows of a raster with a logo. The expanded module row is reused for every pixel row it
+     * repeats over, so only rows crossing the logo cost more than a copy.
+     */
+    private static final class TruecolorRows implements RowSource {
+
+        private final SymbolRaster raster;
+        private final LogoPlacement logo;
+        private final int backgroundColor;
+        private final byte[] foreground;
+        private final byte[] background;
+        private final byte[] packed;
+        private final byte[] expandedPacked;
+        private final byte[] expanded;
+        private boolean hasExpanded;
+
+        private TruecolorRows(SymbolRaster raster, LogoPlacement logo, int foregroundColor, int backgroundColor) {
+            this.raster = raster;
+            this.logo = logo;
+            this.backgroundColor = backgroundColor;
+            this.foreground = rgb(foregroundColor);
+            this.background = rgb(backgroundColor);
+            this.packed = new byte[raster.rowBytes()];
+            this.expandedPacked = new byte[raster.rowBytes()];
+            this.expanded = new byte[raster.getWidth() * TRUECOLOR_BYTES_PER_PIXEL];
+        }
+
+        @Override
+        public void packRow(int y, byte[] row) {
+            raster.packRow(y, packed);
+            if (!hasExpanded || !Arrays.equals(packed, expandedPacked)) {
+                expand();
+                System.arraycopy(packed, 0, expandedPacked, 0, packed.length);
+                hasExpanded = true;
+            }
+            System.arraycopy(expanded, 0, row, 0, expanded.length);
+            logo.drawRow(y, backgroundColor, row);
+        }
+
+        private void expand() {
+            for (int x = 0, offset = 0; x < raster.getWidth(); x++, offset += TRUECOLOR_BYTES_PER_PIXEL) {
+                boolean dark = (packed[x >> 3] & (0x80 >>> (x & 7))) != 0;
+                System.arraycopy(dark ? foreground : background, 0, expanded, offset, TRUECOLOR_BYTES_PER_PIXEL);
+            }
+        }
+
+        private static byte[] rgb(int argb) {
+            byte[] rgb = new byte[TRUECOLOR_BYTES_PER_PIXEL];
+            writeRgb(rgb, 0, argb);
+            return rgb;
+        }
+
+    }
+
+    /**
+     * Buffers compressed data and emits it as IDAT chunks of at most {@link #IDAT_CHUNK_SIZE} bytes.
+     */
+    private static final class IdatOutputStream extends OutputStream {
+
+        private final OutputStream outputStream;
+        private final byte[] buffer = new byte[IDAT_CHUNK_SIZE];
+        private int count;
+
+        private IdatOutputStream(OutputStream outputStream) {
+            this.outputStream = outputStream;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == buffer.length) {
+                flushChunk();
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (count == buffer.length) {
+                    flushChunk();
+                }
+                int n = Math.min(len, buffer.length - count);
+                System.arraycopy(b, off, buffer, count, n);
+                count += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        private void flushChunk() throws IOException {
+            if (count > 0) {
+                writeChunk(outputStream, IDAT, buffer, count);
+                count = 0;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,222 @@
+package br.com.dv.qrcodeapi.engine;
+
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.client.j2se.MatrixToImageConfig;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.Encoder;
+import com.google.zxing.qrcode.encoder.QRCode;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * Entry point of the rendering engine: encodes content into a symbol and draws the symbol in any
+ * {@link ImageFormat}. Everything is static and stateless; the only allocations are the ones the
+ * chosen format needs, so the engine can be embedded or benchmarked without a container.
+ * <p>
+ * A render is two steps, {@link #prepare} (scaling the symbol to pixels or modules) and
+ * {@link Rendering#writeTo} (encoding the image), which {@link #render} and {@link #write} combine.
+ */
+public final class QRCodeRenderer {
+
+    private static final String CANNOT_INSTANTIATE_CLASS_MESSAGE = "QRCodeRenderer class cannot be instantiated";
+
+    private static final long PNG_ENCODER_BYTES = 320 * 1024;
+    private static final long SVG_ENCODER_BYTES = 64 * 1024;
+    private static final long MATRIX_ENCODER_BYTES = 8 * 1024;
+    private static final Map<EncodeHintType, Object> COMPACT_HINTS = Map.of(EncodeHintType.QR_COMPACT, true);
+
+    private QRCodeRenderer() {
+        throw new IllegalStateException(CANNOT_INSTANTIATE_CLASS_MESSAGE);
+    }
+
+    /**
+     * Encodes {@code content} into a symbol. Compact mode lets zxing split the content into the
+     * cheapest sequence of numeric, alphanumeric and byte segments instead of encoding all of it in
+     * one mode.
+     *
+     * @throws WriterException if the content does not fit in a symbol at this correction level
+     */
+    public static QRCode encode(String content, ErrorCorrectionLevel correction, boolean compact)
+            throws WriterException {
+        return compact
+                ? Encoder.encode(content, correction, COMPACT_HINTS)
+                : Encoder.encode(content, correction);
+    }
+
+    /**
+     * Lays the symbol out for {@code options}. PNG is only set up here and generated row by row as it
+     * is written; SVG is reduced to one pixel per module; JPEG and GIF are drawn to a full image.
+     */
+    public static Rendering prepare(QRCode symbol, RenderOptions options) {
+        return switch (options.format()) {
+            case PNG -> {
+                var raster = new SymbolRaster(symbol, options.size(), options.margin());
+                yield new PngRendering(
+                        raster,
+                        options.logo() == null ? null : placeLogo(raster, options.logo()),
+                        options.foregroundColor(),
+                        options.backgroundColor()
+                );
+            }
+            case SVG -> new SvgRendering(
+                    SymbolUtils.toModuleMatrix(symbol, options.margin()),
+                    options.foregroundColor(),
+                    options.backgroundColor(),
+                    options.size()
+            );
+            case MATRIX -> new MatrixRendering(symbol, false);
+            case MATRIX_JSON -> new MatrixRendering(symbol, true);
+            case JPEG, GIF -> new ImageRendering(toBufferedImage(symbol, options), options.format().name());
+        };
+    }
+
+    public static byte[] render(QRCode symbol, RenderOptions options) {
+        return prepare(symbol, options).toByteArray();
+    }
+
+    public static void write(QRCode symbol, RenderOptions options, OutputStream outputStream) throws IOException {
+        prepare(symbol, options).writeTo(outputStream);
+    }
+
+    /**
+     * Centres the logo on the symbol at the size this raster calls for.
+     */
+    public static LogoPlacement placeLogo(SymbolRaster raster, LogoSource logo) {
+        return LogoPlacement.centered(raster, logo.scaledTo(LogoPlacement.maxLogoSide(raster)));
+    }
+
+    /**
+     * Rough peak memory of a render, for callers that bound concurrent renders by memory. PNG is
+     * generated a row at a time, so it costs the deflater's state plus a few rows; SVG and the module
+     * matrix only depend on the module count. The other formats go through a 32-bit
+     * {@code BufferedImage} built from a 1-bit matrix. A logo makes PNG rows 24-bit and adds a
+     * full-color copy of the other images.
+     */
+    public static long estimateMemory(RenderOptions options) {
+        long pixels = (long) options.size() * options.size();
+        boolean logo = options.logo() != null;
+        return switch (options.format()) {
+            case PNG -> PNG_ENCODER_BYTES + (logo ? options.size() * 8L : options.size());
+            case SVG -> SVG_ENCODER_BYTES;
+            case MATRIX, MATRIX_JSON -> MATRIX_ENCODER_BYTES;
+            case JPEG, GIF -> pixels * 4 + pixels / 8 + (logo ? pixels * 4 : 0);
+        };
+    }
+
+    private static BufferedImage toBufferedImage(QRCode symbol, RenderOptions options) {
+        BufferedImage image = MatrixToImageWriter.toBufferedImage(
+                SymbolUtils.toBitMatrix(symbol, options.size(), options.margin()),
+                new MatrixToImageConfig(options.foregroundColor(), options.backgroundColor())
+        );
+        if (options.logo() == null) {
+            return image;
+        }
+
+        // Black-on-white codes come back as 1-bit images, which cannot hold the logo's colors.
+        var composed = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = composed.createGraphics();
+        try {
+            graphics.drawImage(image, 0, 0, null);
+        } finally {
+            graphics.dispose();
+        }
+        var raster = new SymbolRaster(symbol, options.size(), options.margin());
+        placeLogo(raster, options.logo()).draw(composed, options.backgroundColor());
+        return composed;
+    }
+
+    private record PngRendering(
+            SymbolRaster raster,
+            LogoPlacement logo,
+            int foregroundColor,
+            int backgroundColor
+    ) implements Rendering {
+
+        @Override
+        public byte[] toByteArray() {
+            return logo == null
+                    ? PngEncoder.encode(raster, foregroundColor, backgroundColor)
+                    : PngEncoder.encode(raster, logo, foregroundColor, backgroundColor);
+        }
+
+        @Override
+        public void writeTo(OutputStream outputStream) {
+            if (logo == null) {
+                PngEncoder.write(raster, foregroundColor, backgroundColor, outputStream);
+            } else {
+                PngEncoder.write(raster, logo, foregroundColor, backgroundColor, outputStream);
+            }
+        }
+
+    }
+
+    private record SvgRendering(
+            BitMatrix modules,
+            int foregroundColor,
+            int backgroundColor,
+            int size
+    ) implements Rendering {
+
+        @Override
+        public byte[] toByteArray() {
+            return SvgEncoder.encode(modules, foregroundColor, backgroundColor, size);
+        }
+
+        @Override
+        public void writeTo(OutputStream outputStream) {
+            SvgEncoder.write(modules, foregroundColor, backgroundColor, size, outputStream);
+        }
+
+    }
+
+    private record MatrixRendering(QRCode symbol, boolean json) implements Rendering {
+
+        @Override
+        public byte[] toByteArray() {
+            return json ? ModuleMatrixEncoder.encodeJson(symbol) : ModuleMatrixEncoder.encode(symbol);
+        }
+
+        @Override
+        public void writeTo(OutputStream outputStream) {
+            if (json) {
+                ModuleMatrixEncoder.writeJson(symbol, outputStream);
+            } else {
+                ModuleMatrixEncoder.write(symbol, outputStream);
+            }
+        }
+
+    }
+
+    private record ImageRendering(BufferedImage image, String formatName) implements Rendering {
+
+        @Override
+        public byte[] toByteArray() {
+            var outputStream = new ByteArrayOutputStream();
+            try {
+                writeTo(outputStream);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return outputStream.toByteArray();
+        }
+
+        @Override
+        public void writeTo(OutputStream outputStream) throws IOException {
+            if (!ImageIO.write(image, formatName, outputStream)) {
+                throw new IOException("No ImageIO writer for " + formatName);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,31 @@
+package br.com.dv.qrcodeapi.engine;
+
+import java.util.Objects;
+
+/**
+ * How an encoded symbol is drawn. Colors are ARGB; {@code logo} is {@code null} for a plain symbol.
+ */
+public record RenderOptions(
+        ImageFormat format,
+        int size,
+        int margin,
+        int foregroundColor,
+        int backgroundColor,
+        LogoSource logo
+) {
+
+    public RenderOptions {
+        Objects.requireNonNull(format, "format");
+        if (size < 0) {
+            throw new IllegalArgumentException("Size must not be negative: " + size);
+        }
+        if (margin < 0) {
+            throw new IllegalArgumentException("Margin must not be negative: " + margin);
+        }
+    }
+
+    public static RenderOptions of(ImageFormat format, int size, int margin, int foregroundColor, int backgroundColor) {
+        return new RenderOptions(format, size, margin, foregroundColor, backgroundColor, null);
+    }
+
+}
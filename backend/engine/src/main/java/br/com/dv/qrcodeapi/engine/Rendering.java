@@ -0,0 +1,17 @@
+package br.com.dv.qrcodeapi.engine;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A symbol laid out for one render, ready to be written. Preparing and writing are separate steps so
+ * callers can time or schedule them independently. Instances hold per-render state and are not
+ * thread-safe.
+ */
+public interface Rendering {
+
+    byte[] toByteArray();
+
+    void writeTo(OutputStream outputStream) throws IOException;
+
+}
@@ -0,0 +1,88 @@
+package br.com.dv.qrcodeapi.engine;
+
+import com.google.zxing.common.BitArray;
+import com.google.zxing.common.BitMatrix;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes a module matrix as an SVG document. Coordinates are in modules (the viewBox spans the
+ * matrix), so the output is resolution-independent; {@code size} only sets the default display size.
+ * Horizontally adjacent dark modules are merged into a single path segment per run.
+ */
+public final class SvgEncoder {
+
+    private static final String CANNOT_INSTANTIATE_CLASS_MESSAGE = "SvgEncoder class cannot be instantiated";
+
+    private SvgEncoder() {
+        throw new IllegalStateException(CANNOT_INSTANTIATE_CLASS_MESSAGE);
+    }
+
+    public static byte[] encode(BitMatrix modules, int foregroundColor, int backgroundColor, int size) {
+        var outputStream = new ByteArrayOutputStream(estimateSize(modules));
+        write(modules, foregroundColor, backgroundColor, size, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    public static void write(
+            BitMatrix modules,
+            int foregroundColor,
+            int backgroundColor,
+            int size,
+            OutputStream outputStream
+    ) {
+        int width = modules.getWidth();
+        int height = modules.getHeight();
+        int displaySize = Math.max(size, width);
+
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.US_ASCII));
+
+            writer.write("<svg xmlns=\"http://www.w3.org/2000/svg\" version=\"1.1\"");
+            writer.write(" width=\"" + displaySize + "\" height=\"" + displaySize + "\"");
+            writer.write(" viewBox=\"0 0 " + width + " " + height + "\" shape-rendering=\"crispEdges\">");
+            writer.write("<rect width=\"" + width + "\" height=\"" + height + "\" fill=\"" + hex(backgroundColor) + "\"/>");
+            writer.write("<path fill=\"" + hex(foregroundColor) + "\" d=\"");
+            writeRuns(modules, writer);
+            writer.write("\"/></svg>");
+
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeRuns(BitMatrix modules, Writer writer) throws IOException {
+        int width = modules.getWidth();
+        BitArray row = new BitArray(width);
+
+        for (int y = 0; y < modules.getHeight(); y++) {
+            modules.getRow(y, row);
+            int x = row.getNextSet(0);
+
+            while (x < width) {
+                int end = row.getNextUnset(x);
+                int length = end - x;
+                writer.write("M" + x + " " + y + "h" + length + "v1h-" + length + "z");
+                x = row.getNextSet(end);
+            }
+        }
+    }
+
+    private static String hex(int argb) {
+        return String.format("#%06X", argb & 0xFFFFFF);
+    }
+
+    private static int estimateSize(BitMatrix modules) {
+        // Roughly one run per four modules, at about 20 characters per run.
+        return 512 + modules.getWidth() * modules.getHeight() * 5;
+    }
+
+}
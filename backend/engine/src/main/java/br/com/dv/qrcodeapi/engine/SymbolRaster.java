@@ -0,0 +1,134 @@
+package br.com.dv.qrcodeapi.engine;
+
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.QRCode;
+
+import java.util.Arrays;
+
+/**
+ * A scaled symbol whose pixel rows are generated on demand from the module matrix, so an image of any
+ * size is encoded with memory proportional to its width. Uses the same layout as
+ * {@link SymbolUtils#toBitMatrix}, so every row matches the corresponding row of that matrix.
+ * <p>
+ * The most recent module row is kept packed, since each one is repeated {@code multiple} times in a row.
+ * Instances are therefore not thread-safe and are meant for a single render.
+ */
+public final class SymbolRaster {
+
+    private final ByteMatrix modules;
+    private final int width;
+    private final int height;
+    private final int multiple;
+    private final int leftPadding;
+    private final int topPadding;
+
+    private final byte[] packedRow;
+    private int packedModuleRow = -1;
+
+    public SymbolRaster(QRCode code, int size, int margin) {
+        this.modules = code.getMatrix();
+        int inputWidth = modules.getWidth();
+        int inputHeight = modules.getHeight();
+        int qrWidth = inputWidth + (margin * 2);
+        int qrHeight = inputHeight + (margin * 2);
+        this.width = Math.max(size, qrWidth);
+        this.height = Math.max(size, qrHeight);
+
+        this.multiple = Math.min(width / qrWidth, height / qrHeight);
+        this.leftPadding = (width - (inputWidth * multiple)) / 2;
+        this.topPadding = (height - (inputHeight * multiple)) / 2;
+        this.packedRow = new byte[rowBytes()];
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Pixels per module.
+     */
+    public int getMultiple() {
+        return multiple;
+    }
+
+    /**
+     * Left edge of the symbol's modules, inside the quiet zone.
+     */
+    public int getSymbolLeft() {
+        return leftPadding;
+    }
+
+    public int getSymbolTop() {
+        return topPadding;
+    }
+
+    /**
+     * Width of the symbol's modules in pixels, excluding the quiet zone.
+     */
+    public int getSymbolWidth() {
+        return modules.getWidth() * multiple;
+    }
+
+    public int getSymbolHeight() {
+        return modules.getHeight() * multiple;
+    }
+
+    /**
+     * Bytes in a row packed at one bit per pixel.
+     */
+    public int rowBytes() {
+        return (width + 7) / 8;
+    }
+
+    /**
+     * Writes row {@code y} into {@code packed} at one bit per pixel, most significant bit first, with
+     * set bits marking dark modules. This is PNG's 1-bit layout.
+     */
+    public void packRow(int y, byte[] packed) {
+        int moduleRow = y < topPadding ? -1 : (y - topPadding) / multiple;
+        if (moduleRow >= modules.getHeight()) {
+            moduleRow = -1;
+        }
+
+        if (moduleRow != packedModuleRow) {
+            Arrays.fill(packedRow, (byte) 0);
+            if (moduleRow >= 0) {
+                fillModuleRow(moduleRow);
+            }
+            packedModuleRow = moduleRow;
+        }
+        System.arraycopy(packedRow, 0, packed, 0, packedRow.length);
+    }
+
+    private void fillModuleRow(int moduleRow) {
+        for (int moduleX = 0, x = leftPadding; moduleX < modules.getWidth(); moduleX++, x += multiple) {
+            if (modules.get(moduleX, moduleRow) == 1) {
+                setBits(x, x + multiple);
+            }
+        }
+    }
+
+    /**
+     * Sets the bits for pixels {@code from} (inclusive) to {@code to} (exclusive).
+     */
+    private void setBits(int from, int to) {
+        int x = from;
+        while (x < to && (x & 7) != 0) {
+            packedRow[x >> 3] |= (byte) (0x80 >>> (x & 7));
+            x++;
+        }
+        while (x + 8 <= to) {
+            packedRow[x >> 3] = (byte) 0xFF;
+            x += 8;
+        }
+        while (x < to) {
+            packedRow[x >> 3] |= (byte) (0x80 >>> (x & 7));
+            x++;
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+package br.com.dv.qrcodeapi.engine;
+
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.QRCode;
+
+public final class SymbolUtils {
+
+    private static final String CANNOT_INSTANTIATE_CLASS_MESSAGE = "SymbolUtils class cannot be instantiated";
+
+    private SymbolUtils() {
+        throw new IllegalStateException(CANNOT_INSTANTIATE_CLASS_MESSAGE);
+    }
+
+    /**
+     * Scales an encoded symbol to a square {@link BitMatrix} of (at least) {@code size} pixels,
+     * surrounded by a quiet zone of {@code margin} modules. Mirrors the layout performed by
+     * zxing's {@code QRCodeWriter}, so the output is pixel-identical to {@code QRCodeWriter.encode}.
+     */
+    public static BitMatrix toBitMatrix(QRCode code, int size, int margin) {
+        ByteMatrix input = code.getMatrix();
+        int inputWidth = input.getWidth();
+        int inputHeight = input.getHeight();
+        int qrWidth = inputWidth + (margin * 2);
+        int qrHeight = inputHeight + (margin * 2);
+        int outputWidth = Math.max(size, qrWidth);
+        int outputHeight = Math.max(size, qrHeight);
+
+        int multiple = Math.min(outputWidth / qrWidth, outputHeight / qrHeight);
+        int leftPadding = (outputWidth - (inputWidth * multiple)) / 2;
+        int topPadding = (outputHeight - (inputHeight * multiple)) / 2;
+
+        BitMatrix output = new BitMatrix(outputWidth, outputHeight);
+
+        for (int inputY = 0, outputY = topPadding; inputY < inputHeight; inputY++, outputY += multiple) {
+            for (int inputX = 0, outputX = leftPadding; inputX < inputWidth; inputX++, outputX += multiple) {
+                if (input.get(inputX, inputY) == 1) {
+                    output.setRegion(outputX, outputY, multiple, multiple);
+                }
+            }
+        }
+
+        return output;
+    }
+
+    /**
+     * Returns the symbol at one pixel per module, surrounded by a quiet zone of {@code margin} modules.
+     */
+    public static BitMatrix toModuleMatrix(QRCode code, int margin) {
+        return toBitMatrix(code, 0, margin);
+    }
+
+}
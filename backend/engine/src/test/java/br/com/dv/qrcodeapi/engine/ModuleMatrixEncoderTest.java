@@ -0,0 +1,92 @@
+package br.com.dv.qrcodeapi.engine;
+
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.Encoder;
+import com.google.zxing.qrcode.encoder.QRCode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModuleMatrixEncoderTest {
+
+    private static final Pattern MODULES_FIELD = Pattern.compile("\"modules\":\"([A-Za-z0-9+/=]*)\"");
+
+    @ParameterizedTest
+    @CsvSource({
+            "content,L",
+            "https://example.com/items/1234567890,M",
+            "content,Q",
+            "content,H"
+    })
+    @DisplayName("Should write the symbol's header fields followed by every module")
+    void shouldEncodeHeaderAndModules(String content, String correction) throws Exception {
+        QRCode symbol = Encoder.encode(content, ErrorCorrectionLevel.valueOf(correction));
+        int dimension = symbol.getMatrix().getWidth();
+
+        byte[] encoded = ModuleMatrixEncoder.encode(symbol);
+
+        assertEquals(ModuleMatrixEncoder.HEADER_BYTES + (dimension * dimension + 7) / 8, encoded.length);
+        assertEquals(ModuleMatrixEncoder.FORMAT_VERSION, encoded[0]);
+        assertEquals(symbol.getVersion().getVersionNumber(), encoded[1]);
+        assertEquals(symbol.getECLevel().ordinal(), encoded[2]);
+        assertEquals(symbol.getMaskPattern(), encoded[3]);
+        assertEquals(dimension, ((encoded[4] & 0xFF) << 8) | (encoded[5] & 0xFF));
+        assertModules(symbol.getMatrix(),
+                Arrays.copyOfRange(encoded, ModuleMatrixEncoder.HEADER_BYTES, encoded.length));
+    }
+
+    @Test
+    @DisplayName("Should carry the same modules in base64 in the JSON form")
+    void shouldEncodeJson() throws Exception {
+        QRCode symbol = Encoder.encode("content", ErrorCorrectionLevel.M);
+        byte[] binary = ModuleMatrixEncoder.encode(symbol);
+
+        String json = new String(ModuleMatrixEncoder.encodeJson(symbol), StandardCharsets.US_ASCII);
+
+        assertTrue(json.startsWith("{\"formatVersion\":1,\"version\":" + symbol.getVersion().getVersionNumber()
+                + ",\"errorCorrection\":\"M\",\"maskPattern\":" + symbol.getMaskPattern()
+                + ",\"dimension\":" + symbol.getMatrix().getWidth()));
+        Matcher matcher = MODULES_FIELD.matcher(json);
+        assertTrue(matcher.find());
+        assertArrayEquals(
+                Arrays.copyOfRange(binary, ModuleMatrixEncoder.HEADER_BYTES, binary.length),
+                Base64.getDecoder().decode(matcher.group(1))
+        );
+    }
+
+    @Test
+    @DisplayName("Should write the same bytes it encodes")
+    void shouldWriteEncodedBytes() throws Exception {
+        QRCode symbol = Encoder.encode("content", ErrorCorrectionLevel.L);
+        var outputStream = new ByteArrayOutputStream();
+
+        ModuleMatrixEncoder.write(symbol, outputStream);
+
+        assertArrayEquals(ModuleMatrixEncoder.encode(symbol), outputStream.toByteArray());
+    }
+
+    private static void assertModules(ByteMatrix modules, byte[] packed) {
+        int dimension = modules.getWidth();
+        for (int y = 0; y < dimension; y++) {
+            for (int x = 0; x < dimension; x++) {
+                int bit = y * dimension + x;
+                boolean dark = (packed[bit >>> 3] & (0x80 >>> (bit & 7))) != 0;
+                assertEquals(modules.get(x, y) == 1, dark, "module (" + x + ", " + y + ")");
+            }
+        }
+        int paddingBits = packed.length * 8 - dimension * dimension;
+        assertEquals(0, packed[packed.length - 1] & ((1 << paddingBits) - 1));
+    }
+
+}
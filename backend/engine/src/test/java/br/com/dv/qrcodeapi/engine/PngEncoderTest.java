@@ -0,0 +1,110 @@
+package br.com.dv.qrcodeapi.engine;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.client.j2se.MatrixToImageConfig;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.Encoder;
+import com.google.zxing.qrcode.encoder.QRCode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PngEncoderTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "content,L,250,4,000000,FFFFFF",
+            "https://example.com/items/1234567890,H,150,0,800080,FFFF00",
+            "content,Q,350,50,FFFFFF,000000",
+            "content,M,173,3,0000FF,0000FF"
+    })
+    @DisplayName("Should decode to the same pixels as the BufferedImage and ImageIO path")
+    void shouldMatchImageIOPixels(
+            String content, String correction, int size, int margin, String foreground, String background
+    ) throws Exception {
+        int foregroundColor = 0xFF000000 | Integer.parseInt(foreground, 16);
+        int backgroundColor = 0xFF000000 | Integer.parseInt(background, 16);
+        BitMatrix matrix = new QRCodeWriter().encode(
+                content,
+                BarcodeFormat.QR_CODE,
+                size,
+                size,
+                Map.of(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.valueOf(correction),
+                        EncodeHintType.MARGIN, margin)
+        );
+        BufferedImage expected = MatrixToImageWriter.toBufferedImage(
+                matrix,
+                new MatrixToImageConfig(foregroundColor, backgroundColor)
+        );
+
+        BufferedImage actual = decode(PngEncoder.encode(matrix, foregroundColor, backgroundColor));
+
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertEquals(expected.getRGB(x, y), actual.getRGB(x, y), "pixel (" + x + ", " + y + ")");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should split image data across several IDAT chunks when it exceeds the chunk size")
+    void shouldEncodeLargeNoisyMatrix() throws IOException {
+        BitMatrix matrix = new BitMatrix(2048, 2048);
+        Random random = new Random(42);
+        for (int y = 0; y < matrix.getHeight(); y++) {
+            for (int x = 0; x < matrix.getWidth(); x++) {
+                if (random.nextBoolean()) {
+                    matrix.set(x, y);
+                }
+            }
+        }
+
+        BufferedImage actual = decode(PngEncoder.encode(matrix, 0xFF000000, 0xFFFFFFFF));
+
+        for (int y = 0; y < matrix.getHeight(); y += 97) {
+            for (int x = 0; x < matrix.getWidth(); x++) {
+                assertEquals(matrix.get(x, y) ? 0xFF000000 : 0xFFFFFFFF, actual.getRGB(x, y));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "content,L,250,4",
+            "https://example.com/items/1234567890,H,150,0",
+            "content,M,4096,4"
+    })
+    @DisplayName("Should produce identical bytes from a SymbolRaster and from the equivalent BitMatrix")
+    void shouldEncodeRasterLikeMatrix(String content, String correction, int size, int margin) throws Exception {
+        QRCode symbol = Encoder.encode(content, ErrorCorrectionLevel.valueOf(correction));
+        BitMatrix matrix = SymbolUtils.toBitMatrix(symbol, size, margin);
+
+        byte[] fromRaster = PngEncoder.encode(new SymbolRaster(symbol, size, margin), 0xFF112233, 0xFFFFFFFF);
+
+        assertArrayEquals(PngEncoder.encode(matrix, 0xFF112233, 0xFFFFFFFF), fromRaster);
+        assertEquals(size, decode(fromRaster).getWidth());
+    }
+
+    private static BufferedImage decode(byte[] png) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        assertNotNull(image);
+        return image;
+    }
+
+}
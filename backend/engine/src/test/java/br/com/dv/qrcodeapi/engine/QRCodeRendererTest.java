@@ -0,0 +1,113 @@
+package br.com.dv.qrcodeapi.engine;
+
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.QRCode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QRCodeRendererTest {
+
+    private static final String CONTENT = "https://example.com/items/1234567890";
+    private static final int FOREGROUND = 0xFF000000;
+    private static final int BACKGROUND = 0xFFFFFFFF;
+
+    @ParameterizedTest
+    @EnumSource(ImageFormat.class)
+    @DisplayName("Should write the same bytes it returns")
+    void shouldWriteSameBytesAsRender(ImageFormat format) throws Exception {
+        QRCode symbol = QRCodeRenderer.encode(CONTENT, ErrorCorrectionLevel.M, false);
+        RenderOptions options = RenderOptions.of(format, 250, 4, FOREGROUND, BACKGROUND);
+
+        var written = new ByteArrayOutputStream();
+        QRCodeRenderer.write(symbol, options, written);
+
+        assertArrayEquals(QRCodeRenderer.render(symbol, options), written.toByteArray());
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = ImageFormat.class, names = {"PNG", "JPEG", "GIF"})
+    @DisplayName("Should render raster formats that decode back to the content")
+    void shouldRenderReadableRasters(ImageFormat format) throws Exception {
+        QRCode symbol = QRCodeRenderer.encode(CONTENT, ErrorCorrectionLevel.M, false);
+
+        byte[] image = QRCodeRenderer.render(symbol, RenderOptions.of(format, 250, 4, FOREGROUND, BACKGROUND));
+
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(image));
+        assertEquals(250, decoded.getWidth());
+        assertEquals(CONTENT, decode(decoded));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = ImageFormat.class, names = {"PNG", "JPEG"})
+    @DisplayName("Should ask for the logo at the size the symbol's layout calls for")
+    void shouldScaleLogoToLayout(ImageFormat format) throws Exception {
+        QRCode symbol = QRCodeRenderer.encode(CONTENT, ErrorCorrectionLevel.H, false);
+        List<Integer> requested = new ArrayList<>();
+        var options = new RenderOptions(format, 300, 4, FOREGROUND, BACKGROUND, maxSide -> {
+            requested.add(maxSide);
+            return new LogoRaster(new BufferedImage(maxSide, maxSide, BufferedImage.TYPE_INT_ARGB_PRE));
+        });
+
+        byte[] image = QRCodeRenderer.render(symbol, options);
+
+        int expected = LogoPlacement.maxLogoSide(new SymbolRaster(symbol, 300, 4));
+        assertFalse(requested.isEmpty());
+        assertTrue(requested.stream().allMatch(side -> side == expected));
+        assertEquals(CONTENT, decode(ImageIO.read(new ByteArrayInputStream(image))));
+    }
+
+    @Test
+    @DisplayName("Should not need a larger symbol in compact mode")
+    void shouldEncodeCompactly() throws Exception {
+        String content = "ORDER-0000000000000000000000000000000000000000000000000000000000000000000000000000000000";
+
+        QRCode plain = QRCodeRenderer.encode(content, ErrorCorrectionLevel.L, false);
+        QRCode compact = QRCodeRenderer.encode(content, ErrorCorrectionLevel.L, true);
+
+        assertTrue(compact.getVersion().getVersionNumber() <= plain.getVersion().getVersionNumber());
+    }
+
+    @Test
+    @DisplayName("Should estimate more memory for full rasters and logos")
+    void shouldEstimateMemory() {
+        long png = QRCodeRenderer.estimateMemory(RenderOptions.of(ImageFormat.PNG, 1000, 4, FOREGROUND, BACKGROUND));
+        long jpeg = QRCodeRenderer.estimateMemory(RenderOptions.of(ImageFormat.JPEG, 1000, 4, FOREGROUND, BACKGROUND));
+        long jpegWithLogo = QRCodeRenderer.estimateMemory(
+                new RenderOptions(ImageFormat.JPEG, 1000, 4, FOREGROUND, BACKGROUND, maxSide -> null)
+        );
+
+        assertTrue(jpeg > png);
+        assertTrue(jpegWithLogo > jpeg);
+    }
+
+    @Test
+    @DisplayName("Should reject options without a format or with a negative size or margin")
+    void shouldRejectInvalidOptions() {
+        assertThrows(NullPointerException.class, () -> RenderOptions.of(null, 250, 4, FOREGROUND, BACKGROUND));
+        assertThrows(IllegalArgumentException.class,
+                () -> RenderOptions.of(ImageFormat.PNG, -1, 4, FOREGROUND, BACKGROUND));
+        assertThrows(IllegalArgumentException.class,
+                () -> RenderOptions.of(ImageFormat.PNG, 250, -1, FOREGROUND, BACKGROUND));
+    }
+
+    private static String decode(BufferedImage image) throws Exception {
+        var bitmap = new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(image)));
+        return new QRCodeReader().decode(bitmap).getText();
+    }
+
+}
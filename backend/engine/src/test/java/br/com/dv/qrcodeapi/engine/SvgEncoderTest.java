@@ -0,0 +1,65 @@
+package br.com.dv.qrcodeapi.engine;
+
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.Encoder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SvgEncoderTest {
+
+    private static final Pattern RUN = Pattern.compile("M(\\d+) (\\d+)h(\\d+)v1h-(\\d+)z");
+
+    @Test
+    @DisplayName("Should produce a well-formed SVG whose path runs cover exactly the dark modules")
+    void shouldEncodeModulesAsRuns() throws Exception {
+        BitMatrix modules = SymbolUtils.toModuleMatrix(
+                Encoder.encode("https://example.com/items/1234567890", ErrorCorrectionLevel.M),
+                4
+        );
+
+        byte[] svg = SvgEncoder.encode(modules, 0xFF800080, 0xFFFFFFFF, 300);
+
+        Document document = DocumentBuilderFactory.newInstance()
+                .newDocumentBuilder()
+                .parse(new ByteArrayInputStream(svg));
+        Element root = document.getDocumentElement();
+        assertEquals("svg", root.getTagName());
+        assertEquals("300", root.getAttribute("width"));
+        assertEquals("0 0 " + modules.getWidth() + " " + modules.getHeight(), root.getAttribute("viewBox"));
+
+        Element path = (Element) root.getElementsByTagName("path").item(0);
+        assertEquals("#800080", path.getAttribute("fill"));
+
+        BitMatrix decoded = new BitMatrix(modules.getWidth(), modules.getHeight());
+        Matcher matcher = RUN.matcher(path.getAttribute("d"));
+        while (matcher.find()) {
+            int x = Integer.parseInt(matcher.group(1));
+            int y = Integer.parseInt(matcher.group(2));
+            int length = Integer.parseInt(matcher.group(3));
+            assertEquals(length, Integer.parseInt(matcher.group(4)));
+            decoded.setRegion(x, y, length, 1);
+        }
+        assertEquals(modules, decoded);
+    }
+
+    @Test
+    @DisplayName("Should never render smaller than one pixel per module")
+    void shouldUseModuleCountWhenSizeIsTooSmall() {
+        BitMatrix modules = new BitMatrix(41, 41);
+
+        String svg = new String(SvgEncoder.encode(modules, 0xFF000000, 0xFFFFFFFF, 10));
+
+        assertTrue(svg.contains("width=\"41\" height=\"41\""));
+    }
+
+}
@@ -0,0 +1,58 @@
+package br.com.dv.qrcodeapi.engine;
+
+import com.google.zxing.common.BitArray;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.Encoder;
+import com.google.zxing.qrcode.encoder.QRCode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymbolRasterTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "content,L,250,4",
+            "https://example.com/items/1234567890,M,150,0",
+            "content,Q,350,50",
+            "content,H,151,7",
+            "content,L,4096,4",
+            "content,M,1001,3"
+    })
+    @DisplayName("Should generate the same rows as the scaled BitMatrix")
+    void shouldMatchBitMatrixRows(String content, String correction, int size, int margin) throws Exception {
+        QRCode symbol = Encoder.encode(content, ErrorCorrectionLevel.valueOf(correction));
+        BitMatrix expected = SymbolUtils.toBitMatrix(symbol, size, margin);
+
+        var raster = new SymbolRaster(symbol, size, margin);
+
+        assertEquals(expected.getWidth(), raster.getWidth());
+        assertEquals(expected.getHeight(), raster.getHeight());
+        byte[] packed = new byte[raster.rowBytes()];
+        BitArray row = new BitArray(expected.getWidth());
+        for (int y = 0; y < raster.getHeight(); y++) {
+            raster.packRow(y, packed);
+            expected.getRow(y, row);
+            for (int x = 0; x < raster.getWidth(); x++) {
+                boolean set = (packed[x >> 3] & (0x80 >>> (x & 7))) != 0;
+                assertEquals(row.get(x), set, "pixel (" + x + ", " + y + ")");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should hold only a row's worth of pixels however large the image is")
+    void shouldKeepOnePackedRow() throws Exception {
+        QRCode symbol = Encoder.encode("content", ErrorCorrectionLevel.L);
+
+        var raster = new SymbolRaster(symbol, 10_000, 4);
+
+        assertEquals(10_000, raster.getWidth());
+        assertEquals(1250, raster.rowBytes());
+    }
+
+}
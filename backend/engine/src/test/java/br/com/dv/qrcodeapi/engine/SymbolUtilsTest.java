@@ -0,0 +1,42 @@
+package br.com.dv.qrcodeapi.engine;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.Encoder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SymbolUtilsTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "content,L,250,4",
+            "https://example.com/items/1234567890,M,150,0",
+            "content,Q,350,50",
+            "content,H,151,7"
+    })
+    @DisplayName("Should lay out an encoded symbol exactly like QRCodeWriter does")
+    void shouldMatchQRCodeWriterOutput(String content, String correction, int size, int margin) throws Exception {
+        ErrorCorrectionLevel level = ErrorCorrectionLevel.valueOf(correction);
+        BitMatrix expected = new QRCodeWriter().encode(
+                content,
+                BarcodeFormat.QR_CODE,
+                size,
+                size,
+                Map.of(EncodeHintType.ERROR_CORRECTION, level, EncodeHintType.MARGIN, margin)
+        );
+
+        BitMatrix actual = SymbolUtils.toBitMatrix(Encoder.encode(content, level), size, margin);
+
+        assertEquals(expected, actual);
+    }
+
+}
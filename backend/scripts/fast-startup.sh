@@ -0,0 +1,43 @@
+#!/bin/sh
+# Starts the fast-startup build of the API (./gradlew fastStartup): the AOT-processed application in
+# build/fast-startup, with its AppCDS archive when one has been recorded.
+#
+#   scripts/fast-startup.sh [args]    serve; args are passed to the application
+#   scripts/fast-startup.sh --train   record application.jsa from a training run, then exit
+#
+# The archive is only used by the exact JVM that recorded it, so train with the java that serves.
+# The training run always uses an in-memory H2 database, whatever DB_URL says, so the account and codes
+# it creates never reach a real one.
+#
+# Serving skips Hibernate's schema update (QRCODE_DDL_AUTO, default none); run one instance with
+# QRCODE_DDL_AUTO=update after entity changes. Extra JVM options go in JAVA_OPTS.
+set -eu
+
+# Spring Security 6.2.1 registers mvcHandlerMappingIntrospectorRequestTransformer both from the AOT
+# initializer and at runtime; the definitions are identical, so let the second one replace the first.
+AOT_OPTS="-Dspring.aot.enabled=true -Dspring.main.allow-bean-definition-overriding=true"
+
+APP_HOME=${FAST_STARTUP_HOME:-$(cd "$(dirname "$0")/.." && pwd)/build/fast-startup}
+ARCHIVE="$APP_HOME/application.jsa"
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+
+if [ "${1:-}" = "--train" ]; then
+    rm -f "$ARCHIVE"
+    # shellcheck disable=SC2086
+    exec "$JAVA" -XX:ArchiveClassesAtExit="$ARCHIVE" $AOT_OPTS \
+        -Dqrcode.training.run=true -Dserver.port=0 ${JAVA_OPTS:-} \
+        -Dspring.datasource.url=jdbc:h2:mem:training -Dspring.datasource.username=sa \
+        -Dspring.datasource.password= -Dspring.jpa.hibernate.ddl-auto=create-drop \
+        -jar "$APP_HOME/application.jar"
+fi
+
+if [ -f "$ARCHIVE" ]; then
+    set -- -XX:SharedArchiveFile="$ARCHIVE" -jar "$APP_HOME/application.jar" "$@"
+else
+    echo "No AppCDS archive at $ARCHIVE; starting without it" >&2
+    set -- -jar "$APP_HOME/application.jar" "$@"
+fi
+
+# shellcheck disable=SC2086
+exec "$JAVA" $AOT_OPTS -Dspring.jpa.hibernate.ddl-auto="${QRCODE_DDL_AUTO:-none}" \
+    ${JAVA_OPTS:-} "$@"
@@ -0,0 +1,73 @@
+#!/bin/sh
+# Measures how long the API takes to become useful after launch: until /api/health answers, and
+# until the first authenticated render succeeds (register + login, then GET /api/qrcode/generate).
+#
+#   scripts/measure-startup.sh [runs]               compare the Boot jar with scripts/fast-startup.sh
+#   scripts/measure-startup.sh [runs] -- command    measure a single launch command
+#
+# Needs a database the application can use as configured (DB_URL, DB_USERNAME, DB_PASSWORD; the
+# docker-compose postgres works) with the schema already in place, curl, and GNU date. Build first
+# with ./gradlew bootJar fastStartup. PORT (default 8181) must be free.
+set -eu
+
+cd "$(dirname "$0")/.."
+RUNS=${1:-5}
+[ $# -gt 0 ] && shift
+PORT=${PORT:-8181}
+API="http://localhost:$PORT/api"
+COOKIES=$(mktemp)
+trap 'rm -f "$COOKIES"' EXIT
+
+now_ms() {
+    date +%s%3N
+}
+
+wait_for() {
+    until curl -sf -o /dev/null "$@"; do
+        sleep 0.05
+    done
+}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+measure() {
+    label=$1
+    shift
+    health_file=$(mktemp)
+    render_file=$(mktemp)
+    i=1
+    while [ "$i" -le "$RUNS" ]; do
+        start=$(now_ms)
+        "$@" --server.port="$PORT" > /dev/null 2>&1 &
+        pid=$!
+        wait_for "$API/health"
+        health=$(( $(now_ms) - start ))
+
+        email="startup-$i-$start@example.com"
+        curl -sf -o /dev/null -H 'Content-Type: application/json' \
+            -d "{\"email\":\"$email\",\"password\":\"startup\",\"name\":\"Startup\"}" "$API/auth/register"
+        curl -sf -o /dev/null -c "$COOKIES" -H 'Content-Type: application/json' \
+            -d "{\"email\":\"$email\",\"password\":\"startup\"}" "$API/auth/login"
+        wait_for -b "$COOKIES" "$API/qrcode/generate?contents=startup-$i&size=250&type=png"
+        render=$(( $(now_ms) - start ))
+
+        kill "$pid"
+        wait "$pid" 2> /dev/null || true
+        echo "$label run $i: health ${health} ms, first render ${render} ms"
+        echo "$health" >> "$health_file"
+        echo "$render" >> "$render_file"
+        i=$((i + 1))
+    done
+    echo "$label median: health $(median < "$health_file") ms, first render $(median < "$render_file") ms"
+    rm -f "$health_file" "$render_file"
+}
+
+if [ "${1:-}" = "--" ]; then
+    shift
+    measure custom "$@"
+else
+    measure boot java -jar build/libs/qrcode-0.0.1-SNAPSHOT.jar
+    measure fast-startup sh scripts/fast-startup.sh
+fi
@@ -0,0 +1,30 @@
+package br.com.dv.qrcodeapi.benchmark;
+
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic benchmark payloads. Contents look like URLs with a random path, which keeps the
+ * encoder in byte mode like most real traffic.
+ */
+final class BenchmarkContents {
+
+    private static final String CANNOT_INSTANTIATE_CLASS_MESSAGE = "BenchmarkContents class cannot be instantiated";
+
+    private static final String PREFIX = "https://example.com/";
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789-_/";
+    private static final long SEED = 42L;
+
+    private BenchmarkContents() {
+        throw new IllegalStateException(CANNOT_INSTANTIATE_CLASS_MESSAGE);
+    }
+
+    static String ofLength(int length) {
+        var random = new SplittableRandom(SEED);
+        var content = new StringBuilder(length).append(PREFIX, 0, Math.min(length, PREFIX.length()));
+        while (content.length() < length) {
+            content.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return content.toString();
+    }
+
+}
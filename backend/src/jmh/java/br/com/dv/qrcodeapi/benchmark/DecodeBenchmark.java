@@ -0,0 +1,80 @@
+package br.com.dv.qrcodeapi.benchmark;
+
+import br.com.dv.qrcodeapi.decode.QRCodeDecoder;
+import br.com.dv.qrcodeapi.dto.DecodeResult.DecodedSymbol;
+import br.com.dv.qrcodeapi.engine.SymbolUtils;
+import br.com.dv.qrcodeapi.util.ImageUtils;
+import com.google.zxing.WriterException;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.Encoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes a photographed-sheet stand-in: a PNG of {@code codes} symbols laid out in rows of four at
+ * {@code codeSize} pixels each. Runs single-threaded, so the score is images per second per core.
+ * {@code downscale} 0 decodes at full resolution; the default setting searches a 2048-pixel copy first.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DecodeBenchmark {
+
+    private static final int COLUMNS = 4;
+    private static final int MARGIN = 4;
+    private static final long MAX_IMAGE_BYTES = 256L * 1024 * 1024;
+    private static final long MAX_IMAGE_PIXELS = 100_000_000L;
+
+    @Param({"1", "24"})
+    private int codes;
+
+    @Param({"800"})
+    private int codeSize;
+
+    @Param({"0", "2048"})
+    private int downscale;
+
+    private QRCodeDecoder decoder;
+    private byte[] sheet;
+
+    @Setup
+    public void setUp() throws WriterException {
+        decoder = new QRCodeDecoder(downscale, MAX_IMAGE_BYTES, MAX_IMAGE_PIXELS);
+
+        int columns = Math.min(codes, COLUMNS);
+        int rows = (codes + columns - 1) / columns;
+        var image = new BufferedImage(columns * codeSize, rows * codeSize, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+            for (int i = 0; i < codes; i++) {
+                var symbol = Encoder.encode(BenchmarkContents.ofLength(40 + i), ErrorCorrectionLevel.M);
+                BufferedImage code = MatrixToImageWriter.toBufferedImage(SymbolUtils.toBitMatrix(symbol, codeSize, MARGIN));
+                graphics.drawImage(code, (i % columns) * codeSize, (i / columns) * codeSize, null);
+            }
+        } finally {
+            graphics.dispose();
+        }
+        sheet = ImageUtils.writeImageToByteArray(image, "png");
+    }
+
+    @Benchmark
+    public List<DecodedSymbol> decodeSheet() {
+        return decoder.decode(sheet);
+    }
+
+}
@@ -0,0 +1,44 @@
+package br.com.dv.qrcodeapi.benchmark;
+
+import com.google.zxing.WriterException;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.Encoder;
+import com.google.zxing.qrcode.encoder.QRCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * zxing symbol encoding alone: mode selection, Reed-Solomon and mask evaluation, with no rendering.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EncodeBenchmark {
+
+    @Param({"16", "256", "1024"})
+    private int contentLength;
+
+    @Param({"L", "M", "Q", "H"})
+    private ErrorCorrectionLevel correction;
+
+    private String content;
+
+    @Setup
+    public void setUp() {
+        content = BenchmarkContents.ofLength(contentLength);
+    }
+
+    @Benchmark
+    public QRCode encode() throws WriterException {
+        return Encoder.encode(content, correction);
+    }
+
+}
@@ -0,0 +1,96 @@
+package br.com.dv.qrcodeapi.benchmark;
+
+import br.com.dv.qrcodeapi.cache.DisabledSharedImageCache;
+import br.com.dv.qrcodeapi.cache.LogoCache;
+import br.com.dv.qrcodeapi.cache.QRCodeDiskCache;
+import br.com.dv.qrcodeapi.cache.QRCodeImageCache;
+import br.com.dv.qrcodeapi.cache.QRCodeSymbolCache;
+import br.com.dv.qrcodeapi.concurrency.RenderBulkhead;
+import br.com.dv.qrcodeapi.decode.RenderVerifier;
+import br.com.dv.qrcodeapi.dto.ImageResponse;
+import br.com.dv.qrcodeapi.metrics.GenerationMetrics;
+import br.com.dv.qrcodeapi.metrics.StageTimings;
+import br.com.dv.qrcodeapi.render.RenderSpec;
+import br.com.dv.qrcodeapi.service.QRCodeGenerationService;
+import br.com.dv.qrcodeapi.service.QRCodeGenerationServiceImpl;
+import br.com.dv.qrcodeapi.validation.QRCodeParameterValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@link QRCodeGenerationService#parse} and {@link QRCodeGenerationService#generateQRCode} as
+ * the controller calls them. With {@code cached=false} both caches hold nothing, so every call validates,
+ * encodes, renders and writes; with {@code cached=true} this measures the hit path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GenerateQRCodeBenchmark {
+
+    private static final long CACHE_BYTES = 64L * 1024 * 1024;
+
+    @Param({"16", "256", "1024"})
+    private int contentLength;
+
+    @Param({"L", "H"})
+    private String correction;
+
+    @Param({"150", "350"})
+    private int size;
+
+    @Param({"png", "jpeg", "gif", "svg"})
+    private String format;
+
+    @Param({"false", "true"})
+    private boolean cached;
+
+    private RenderBulkhead renderBulkhead;
+    private RenderVerifier renderVerifier;
+    private QRCodeGenerationService qrCodeGenerationService;
+    private String content;
+
+    @Setup
+    public void setUp() {
+        long cacheBytes = cached ? CACHE_BYTES : 0;
+        renderBulkhead = new RenderBulkhead(0, Integer.MAX_VALUE, Long.MAX_VALUE, 1);
+        renderVerifier = new RenderVerifier(0, 1, 1, 0, new SimpleMeterRegistry());
+        qrCodeGenerationService = new QRCodeGenerationServiceImpl(
+                new QRCodeParameterValidator(4096, 350),
+                new QRCodeImageCache(cacheBytes),
+                new QRCodeDiskCache("", 0, 0, 0, 0),
+                new QRCodeSymbolCache(cacheBytes),
+                renderBulkhead,
+                new GenerationMetrics(new SimpleMeterRegistry()),
+                renderVerifier,
+                new LogoCache("", 32 * 1024 * 1024),
+                new DisabledSharedImageCache()
+        );
+        content = BenchmarkContents.ofLength(contentLength);
+    }
+
+    @TearDown
+    public void tearDown() {
+        renderBulkhead.destroy();
+        renderVerifier.destroy();
+    }
+
+    @Benchmark
+    public ImageResponse generateQRCode() {
+        var timings = new StageTimings();
+        RenderSpec spec = qrCodeGenerationService.parse(
+                content, size, correction, format, "#000000", "#FFFFFF", 4, false, null, timings
+        );
+        return qrCodeGenerationService.generateQRCode(spec, timings);
+    }
+
+}
@@ -0,0 +1,82 @@
+package br.com.dv.qrcodeapi.benchmark;
+
+import br.com.dv.qrcodeapi.engine.PngEncoder;
+import br.com.dv.qrcodeapi.engine.SvgEncoder;
+import br.com.dv.qrcodeapi.engine.SymbolUtils;
+import br.com.dv.qrcodeapi.util.ImageUtils;
+import com.google.zxing.WriterException;
+import com.google.zxing.client.j2se.MatrixToImageConfig;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.Encoder;
+import com.google.zxing.qrcode.encoder.QRCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Image encoding from an already scaled raster: the PNG and SVG encoders, and ImageIO for JPEG, GIF
+ * and (for comparison) PNG.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ImageWriteBenchmark {
+
+    private static final int FOREGROUND = 0xFF000000;
+    private static final int BACKGROUND = 0xFFFFFFFF;
+    private static final int MARGIN = 4;
+
+    @Param({"16", "256", "1024"})
+    private int contentLength;
+
+    @Param({"150", "250", "350"})
+    private int size;
+
+    private BitMatrix matrix;
+    private BitMatrix modules;
+    private BufferedImage image;
+
+    @Setup
+    public void setUp() throws WriterException {
+        QRCode symbol = Encoder.encode(BenchmarkContents.ofLength(contentLength), ErrorCorrectionLevel.L);
+        matrix = SymbolUtils.toBitMatrix(symbol, size, MARGIN);
+        modules = SymbolUtils.toModuleMatrix(symbol, MARGIN);
+        image = MatrixToImageWriter.toBufferedImage(matrix, new MatrixToImageConfig(FOREGROUND, BACKGROUND));
+    }
+
+    @Benchmark
+    public byte[] png() {
+        return PngEncoder.encode(matrix, FOREGROUND, BACKGROUND);
+    }
+
+    @Benchmark
+    public byte[] svg() {
+        return SvgEncoder.encode(modules, FOREGROUND, BACKGROUND, size);
+    }
+
+    @Benchmark
+    public byte[] imageIoPng() {
+        return ImageUtils.writeImageToByteArray(image, "png");
+    }
+
+    @Benchmark
+    public byte[] imageIoJpeg() {
+        return ImageUtils.writeImageToByteArray(image, "jpeg");
+    }
+
+    @Benchmark
+    public byte[] imageIoGif() {
+        return ImageUtils.writeImageToByteArray(image, "gif");
+    }
+
+}
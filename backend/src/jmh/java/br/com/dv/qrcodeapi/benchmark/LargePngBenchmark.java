@@ -0,0 +1,58 @@
+package br.com.dv.qrcodeapi.benchmark;
+
+import br.com.dv.qrcodeapi.engine.PngEncoder;
+import br.com.dv.qrcodeapi.engine.SymbolRaster;
+import br.com.dv.qrcodeapi.engine.SymbolUtils;
+import com.google.zxing.WriterException;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.Encoder;
+import com.google.zxing.qrcode.encoder.QRCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams print-resolution PNGs to a discarding stream, from a full
+ * {@link com.google.zxing.common.BitMatrix} and from a row-generating {@link SymbolRaster}. The gc profiler's {@code gc.alloc.rate.norm} shows the
+ * raster path's allocation staying flat as the size grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LargePngBenchmark {
+
+    private static final int FOREGROUND = 0xFF000000;
+    private static final int BACKGROUND = 0xFFFFFFFF;
+    private static final int MARGIN = 4;
+
+    @Param({"350", "4096", "10000"})
+    private int size;
+
+    private QRCode symbol;
+
+    @Setup
+    public void setUp() throws WriterException {
+        symbol = Encoder.encode(BenchmarkContents.ofLength(256), ErrorCorrectionLevel.M);
+    }
+
+    @Benchmark
+    public void matrix() {
+        var matrix = SymbolUtils.toBitMatrix(symbol, size, MARGIN);
+        PngEncoder.write(matrix, FOREGROUND, BACKGROUND, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void raster() {
+        var raster = new SymbolRaster(symbol, size, MARGIN);
+        PngEncoder.write(raster, FOREGROUND, BACKGROUND, OutputStream.nullOutputStream());
+    }
+
+}
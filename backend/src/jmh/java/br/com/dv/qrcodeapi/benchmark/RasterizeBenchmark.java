@@ -0,0 +1,61 @@
+package br.com.dv.qrcodeapi.benchmark;
+
+import br.com.dv.qrcodeapi.engine.SymbolUtils;
+import com.google.zxing.WriterException;
+import com.google.zxing.client.j2se.MatrixToImageConfig;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.Encoder;
+import com.google.zxing.qrcode.encoder.QRCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scaling an encoded symbol to the requested size, both to a {@link BitMatrix} (what the PNG and SVG
+ * encoders consume) and on to the {@link BufferedImage} the ImageIO formats need.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RasterizeBenchmark {
+
+    @Param({"16", "256", "1024"})
+    private int contentLength;
+
+    @Param({"L", "H"})
+    private ErrorCorrectionLevel correction;
+
+    @Param({"150", "250", "350"})
+    private int size;
+
+    private final MatrixToImageConfig config = new MatrixToImageConfig(0xFF000000, 0xFFFFFFFF);
+    private QRCode symbol;
+    private BitMatrix matrix;
+
+    @Setup
+    public void setUp() throws WriterException {
+        symbol = Encoder.encode(BenchmarkContents.ofLength(contentLength), correction);
+        matrix = SymbolUtils.toBitMatrix(symbol, size, 4);
+    }
+
+    @Benchmark
+    public BitMatrix toBitMatrix() {
+        return SymbolUtils.toBitMatrix(symbol, size, 4);
+    }
+
+    @Benchmark
+    public BufferedImage toBufferedImage() {
+        return MatrixToImageWriter.toBufferedImage(matrix, config);
+    }
+
+}
@@ -0,0 +1,49 @@
+package br.com.dv.qrcodeapi.benchmark;
+
+import br.com.dv.qrcodeapi.render.RenderSpec;
+import br.com.dv.qrcodeapi.validation.QRCodeParameterValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parameter validation on its own, with named and hex colors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValidationBenchmark {
+
+    @Param({"16", "256", "1024"})
+    private int contentLength;
+
+    @Param({"L", "H"})
+    private String correction;
+
+    @Param({"png", "jpeg", "gif", "svg"})
+    private String format;
+
+    @Param({"#000000", "PURPLE"})
+    private String foregroundColor;
+
+    private final QRCodeParameterValidator validator = new QRCodeParameterValidator(4096, 350);
+    private String content;
+
+    @Setup
+    public void setUp() {
+        content = BenchmarkContents.ofLength(contentLength);
+    }
+
+    @Benchmark
+    public RenderSpec validate() {
+        return validator.parse(content, 250, correction, format, foregroundColor, "#FFFFFF", 4);
+    }
+
+}
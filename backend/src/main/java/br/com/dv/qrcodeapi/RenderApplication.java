@@ -0,0 +1,86 @@
+package br.com.dv.qrcodeapi;
+
+import br.com.dv.qrcodeapi.cache.DisabledSharedImageCache;
+import br.com.dv.qrcodeapi.cache.InMemorySharedImageCache;
+import br.com.dv.qrcodeapi.cache.LogoCache;
+import br.com.dv.qrcodeapi.cache.QRCodeDiskCache;
+import br.com.dv.qrcodeapi.cache.QRCodeImageCache;
+import br.com.dv.qrcodeapi.cache.QRCodeSymbolCache;
+import br.com.dv.qrcodeapi.cache.RedisSharedImageCache;
+import br.com.dv.qrcodeapi.concurrency.RenderBulkhead;
+import br.com.dv.qrcodeapi.controller.HealthController;
+import br.com.dv.qrcodeapi.controller.QRCodeBatchController;
+import br.com.dv.qrcodeapi.controller.QRCodeGenerationController;
+import br.com.dv.qrcodeapi.controller.SignedUrlController;
+import br.com.dv.qrcodeapi.controller.WebConfig;
+import br.com.dv.qrcodeapi.decode.RenderVerifier;
+import br.com.dv.qrcodeapi.exception.GlobalExceptionHandler;
+import br.com.dv.qrcodeapi.metrics.GenerationMetrics;
+import br.com.dv.qrcodeapi.security.JwtService;
+import br.com.dv.qrcodeapi.security.RateLimitFilter;
+import br.com.dv.qrcodeapi.security.RenderSecurityConfig;
+import br.com.dv.qrcodeapi.security.UrlSigner;
+import br.com.dv.qrcodeapi.service.QRCodeBatchServiceImpl;
+import br.com.dv.qrcodeapi.service.QRCodeGenerationServiceImpl;
+import br.com.dv.qrcodeapi.service.SignedUrlServiceImpl;
+import br.com.dv.qrcodeapi.validation.QRCodeParameterValidator;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Entry point for render-only nodes: the generation, batch and signed-URL endpoints and what they need,
+ * without JPA, a datasource or user accounts. Requests are authorised by signed URL, or by a session token
+ * checked against {@code qrcode.jwt.secret} alone, so render nodes must share that secret and
+ * {@code qrcode.signing.secret} with the nodes running {@link Application}.
+ * <p>
+ * Beans are listed rather than scanned, and this class is not a {@code @Configuration}, so neither
+ * application's scan picks up the other. Start it from the application jar with
+ * {@code java -Dloader.main=br.com.dv.qrcodeapi.RenderApplication -cp app.jar
+ * org.springframework.boot.loader.launch.PropertiesLauncher}, or {@code ./gradlew bootRunRender}.
+ */
+@EnableAutoConfiguration(exclude = {
+        DataSourceAutoConfiguration.class,
+        DataSourceTransactionManagerAutoConfiguration.class,
+        HibernateJpaAutoConfiguration.class,
+        JpaRepositoriesAutoConfiguration.class,
+        UserDetailsServiceAutoConfiguration.class
+})
+@Import({
+        QRCodeGenerationController.class,
+        QRCodeBatchController.class,
+        SignedUrlController.class,
+        HealthController.class,
+        WebConfig.class,
+        GlobalExceptionHandler.class,
+        QRCodeGenerationServiceImpl.class,
+        QRCodeBatchServiceImpl.class,
+        SignedUrlServiceImpl.class,
+        QRCodeParameterValidator.class,
+        QRCodeImageCache.class,
+        QRCodeSymbolCache.class,
+        QRCodeDiskCache.class,
+        DisabledSharedImageCache.class,
+        InMemorySharedImageCache.class,
+        RedisSharedImageCache.class,
+        LogoCache.class,
+        RenderBulkhead.class,
+        RenderVerifier.class,
+        GenerationMetrics.class,
+        JwtService.class,
+        UrlSigner.class,
+        RateLimitFilter.class,
+        RenderSecurityConfig.class
+})
+public class RenderApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(RenderApplication.class, args);
+    }
+
+}
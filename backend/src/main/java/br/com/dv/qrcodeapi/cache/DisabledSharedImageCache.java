@@ -0,0 +1,23 @@
+package br.com.dv.qrcodeapi.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * The shared tier when none is configured: every lookup misses and nothing is stored.
+ */
+@Component
+@ConditionalOnProperty(name = "qrcode.cache.shared.type", havingValue = "none", matchIfMissing = true)
+public class DisabledSharedImageCache implements SharedImageCache {
+
+    @Override
+    public byte[] get(String key) {
+        return null;
+    }
+
+    @Override
+    public void put(String key, byte[] imageData) {
+        // Nothing to share with.
+    }
+
+}
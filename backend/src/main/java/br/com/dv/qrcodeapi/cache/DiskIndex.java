@@ -0,0 +1,120 @@
+package br.com.dv.qrcodeapi.cache;
+
+import java.util.function.LongPredicate;
+
+/**
+ * Open-addressing hash table from 64-bit key hashes to record locations, stored in two parallel
+ * {@code long} arrays: about 16 bytes per entry at the maximum load factor, with no per-entry objects.
+ * Not thread-safe; {@link QRCodeDiskCache} guards it with its own lock.
+ */
+final class DiskIndex {
+
+    static final long ABSENT = -1L;
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final double MAX_LOAD_FACTOR = 0.75;
+    private static final long EMPTY = 0L;
+
+    private long[] hashes;
+    private long[] locations;
+    private int size;
+
+    DiskIndex() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    long get(long hash) {
+        hash = nonEmpty(hash);
+        int mask = hashes.length - 1;
+        for (int slot = slot(hash, mask); hashes[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash) {
+                return locations[slot];
+            }
+        }
+        return ABSENT;
+    }
+
+    /**
+     * Maps the hash to the location and returns the location it replaced, or {@link #ABSENT}.
+     */
+    long put(long hash, long location) {
+        if (size + 1 > hashes.length * MAX_LOAD_FACTOR) {
+            rehash(hashes.length * 2);
+        }
+        hash = nonEmpty(hash);
+        int mask = hashes.length - 1;
+        int slot = slot(hash, mask);
+        while (hashes[slot] != EMPTY) {
+            if (hashes[slot] == hash) {
+                long previous = locations[slot];
+                locations[slot] = location;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        hashes[slot] = hash;
+        locations[slot] = location;
+        size++;
+        return ABSENT;
+    }
+
+    /**
+     * Drops every entry whose location matches. Rebuilds the table, so it is meant for bulk removals
+     * such as discarding a whole segment.
+     */
+    void removeIf(LongPredicate locationFilter) {
+        long[] oldHashes = hashes;
+        long[] oldLocations = locations;
+        allocate(oldHashes.length);
+        for (int i = 0; i < oldHashes.length; i++) {
+            if (oldHashes[i] != EMPTY && !locationFilter.test(oldLocations[i])) {
+                insertNew(oldHashes[i], oldLocations[i]);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldHashes = hashes;
+        long[] oldLocations = locations;
+        allocate(capacity);
+        for (int i = 0; i < oldHashes.length; i++) {
+            if (oldHashes[i] != EMPTY) {
+                insertNew(oldHashes[i], oldLocations[i]);
+            }
+        }
+    }
+
+    private void insertNew(long hash, long location) {
+        int mask = hashes.length - 1;
+        int slot = slot(hash, mask);
+        while (hashes[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        hashes[slot] = hash;
+        locations[slot] = location;
+        size++;
+    }
+
+    private void allocate(int capacity) {
+        hashes = new long[capacity];
+        locations = new long[capacity];
+        size = 0;
+    }
+
+    private static int slot(long hash, int mask) {
+        return (int) hash & mask;
+    }
+
+    /**
+     * Zero marks an empty slot, so a hash of zero is stored as one; the collision is resolved by the
+     * key comparison every lookup does against the record itself.
+     */
+    private static long nonEmpty(long hash) {
+        return hash == EMPTY ? 1L : hash;
+    }
+
+}
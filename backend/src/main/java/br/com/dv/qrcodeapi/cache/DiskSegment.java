@@ -0,0 +1,260 @@
+package br.com.dv.qrcodeapi.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32C;
+
+/**
+ * One append-only, memory-mapped file of cached images.
+ * <p>
+ * The file starts with a header holding a magic number and the renderer version, followed by
+ * records laid out as {@code keyLength, valueLength, crc32c, key, value}. The checksum covers both
+ * lengths and all payload bytes, so a record torn by a crash is detected when the segment is reopened.
+ * A zero key length marks the end of the written records.
+ * <p>
+ * Appends are made under {@link QRCodeDiskCache}'s lock; reads of published records are not. The
+ * segment is reference counted like the off-heap chunks, so a file is only closed and deleted once
+ * nothing is reading from it.
+ */
+final class DiskSegment {
+
+    static final int HEADER_BYTES = 8;
+    static final int RECORD_HEADER_BYTES = 12;
+    static final int NO_SPACE = -1;
+    static final int INVALID = -1;
+
+    private static final int MAGIC = 0x51524331;
+    private static final String FILE_PREFIX = "segment-";
+    private static final String FILE_SUFFIX = ".dat";
+
+    private final int id;
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    private int writePosition = HEADER_BYTES;
+    private long liveBytes;
+
+    private DiskSegment(int id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+        this.id = id;
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    static DiskSegment create(Path directory, int id, int capacity, int version) throws IOException {
+        Path path = directory.resolve(fileName(id));
+        FileChannel channel = FileChannel.open(
+                path,
+                StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE
+        );
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, version);
+        buffer.putInt(HEADER_BYTES, 0);
+        return new DiskSegment(id, path, channel, buffer);
+    }
+
+    /**
+     * Maps an existing segment file, or returns {@code null} if it was written by another renderer
+     * version or is not a segment at all. The caller scans it with {@link #validRecordBytes(int)}.
+     */
+    static DiskSegment open(Path path, int id, int version) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        if (size < HEADER_BYTES + RECORD_HEADER_BYTES || size > Integer.MAX_VALUE) {
+            channel.close();
+            return null;
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != version) {
+            channel.close();
+            return null;
+        }
+        return new DiskSegment(id, path, channel, buffer);
+    }
+
+    static String fileName(int id) {
+        return String.format("%s%08d%s", FILE_PREFIX, id, FILE_SUFFIX);
+    }
+
+    /**
+     * Returns the segment id encoded in a file name, or {@code -1} if the name is not a segment's.
+     */
+    static int parseId(String fileName) {
+        if (!fileName.startsWith(FILE_PREFIX) || !fileName.endsWith(FILE_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(fileName.substring(FILE_PREFIX.length(), fileName.length() - FILE_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    static int recordBytes(int keyLength, int valueLength) {
+        return RECORD_HEADER_BYTES + keyLength + valueLength;
+    }
+
+    int id() {
+        return id;
+    }
+
+    int capacity() {
+        return buffer.capacity();
+    }
+
+    int writePosition() {
+        return writePosition;
+    }
+
+    void setWritePosition(int writePosition) {
+        this.writePosition = writePosition;
+    }
+
+    long liveBytes() {
+        return liveBytes;
+    }
+
+    void addLiveBytes(long bytes) {
+        liveBytes += bytes;
+    }
+
+    /**
+     * Appends a record and returns its offset, or {@link #NO_SPACE} if it does not fit.
+     */
+    int append(byte[] key, byte[] value) {
+        int offset = writePosition;
+        int length = recordBytes(key.length, value.length);
+        if ((long) offset + length > buffer.capacity()) {
+            return NO_SPACE;
+        }
+
+        buffer.putInt(offset, key.length);
+        buffer.putInt(offset + 4, value.length);
+        buffer.put(offset + RECORD_HEADER_BYTES, key);
+        buffer.put(offset + RECORD_HEADER_BYTES + key.length, value);
+        buffer.putInt(offset + 8, checksum(offset, key.length, value.length));
+
+        writePosition = offset + length;
+        if (writePosition + 4 <= buffer.capacity()) {
+            buffer.putInt(writePosition, 0);
+        }
+        return offset;
+    }
+
+    /**
+     * Returns the size of the record at the offset if it is complete and its checksum matches, or
+     * {@link #INVALID} at the end of the records or at the first damaged one.
+     */
+    int validRecordBytes(int offset) {
+        if (offset + RECORD_HEADER_BYTES > buffer.capacity()) {
+            return INVALID;
+        }
+        int keyLength = buffer.getInt(offset);
+        int valueLength = buffer.getInt(offset + 4);
+        if (keyLength <= 0 || valueLength < 0
+                || (long) offset + RECORD_HEADER_BYTES + keyLength + valueLength > buffer.capacity()) {
+            return INVALID;
+        }
+        if (buffer.getInt(offset + 8) != checksum(offset, keyLength, valueLength)) {
+            return INVALID;
+        }
+        return recordBytes(keyLength, valueLength);
+    }
+
+    /**
+     * Whether the offset is a clean end of the records, as opposed to a damaged record.
+     */
+    boolean isEnd(int offset) {
+        return offset + 4 > buffer.capacity() || buffer.getInt(offset) == 0;
+    }
+
+    int recordBytes(int offset) {
+        return recordBytes(keyLength(offset), valueLength(offset));
+    }
+
+    int valueLength(int offset) {
+        return buffer.getInt(offset + 4);
+    }
+
+    byte[] key(int offset) {
+        byte[] key = new byte[keyLength(offset)];
+        buffer.get(offset + RECORD_HEADER_BYTES, key);
+        return key;
+    }
+
+    boolean keyEquals(int offset, byte[] key) {
+        return keyLength(offset) == key.length
+                && buffer.slice(offset + RECORD_HEADER_BYTES, key.length).equals(ByteBuffer.wrap(key));
+    }
+
+    byte[] value(int offset) {
+        byte[] value = new byte[valueLength(offset)];
+        buffer.get(valueOffset(offset), value);
+        return value;
+    }
+
+    /**
+     * Returns a read-only view of the record's value in the mapping, without copying it.
+     */
+    ByteBuffer valueBuffer(int offset) {
+        return buffer.slice(valueOffset(offset), valueLength(offset)).asReadOnlyBuffer();
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    boolean retain() {
+        int current;
+        do {
+            current = references.get();
+            if (current == 0) {
+                return false;
+            }
+        } while (!references.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Drops a reference. The last one closes the channel and deletes the file; the mapping itself is
+     * unmapped by the JVM once the buffer is collected.
+     */
+    void release() throws IOException {
+        if (references.decrementAndGet() == 0) {
+            channel.close();
+            Files.deleteIfExists(path);
+        }
+    }
+
+    void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private int keyLength(int offset) {
+        return buffer.getInt(offset);
+    }
+
+    private int valueOffset(int offset) {
+        return offset + RECORD_HEADER_BYTES + keyLength(offset);
+    }
+
+    private int checksum(int offset, int keyLength, int valueLength) {
+        var crc = new CRC32C();
+        crc.update(buffer.slice(offset, 8));
+        crc.update(buffer.slice(offset + RECORD_HEADER_BYTES, keyLength + valueLength));
+        return (int) crc.getValue();
+    }
+
+}
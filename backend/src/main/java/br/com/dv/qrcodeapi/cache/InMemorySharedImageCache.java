@@ -0,0 +1,56 @@
+package br.com.dv.qrcodeapi.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process shared tier: images held on the heap, bounded by their bytes. It is shared between the
+ * services of one process only, which suits single-node deployments and tests of the tiering; clusters
+ * use {@link RedisSharedImageCache}. Published as the {@code cache.*} meters tagged
+ * {@code cache=qrcode.image.shared}.
+ */
+@Component
+@ConditionalOnProperty(name = "qrcode.cache.shared.type", havingValue = "memory")
+public class InMemorySharedImageCache implements SharedImageCache, MeterBinder {
+
+    private static final String CACHE_NAME = "qrcode.image.shared";
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+
+    private final Cache<String, byte[]> cache;
+
+    public InMemorySharedImageCache(@Value("${qrcode.cache.shared.memory.max-bytes:67108864}") long maximumBytes) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .<String, byte[]>weigher((key, image) -> ENTRY_OVERHEAD_BYTES + key.length() + image.length)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public byte[] get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    @Override
+    public void put(String key, byte[] imageData) {
+        cache.put(key, imageData);
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        new CaffeineCacheMetrics<>(cache, CACHE_NAME, Tags.empty()).bindTo(registry);
+    }
+
+    Cache<String, byte[]> getCache() {
+        return cache;
+    }
+
+}
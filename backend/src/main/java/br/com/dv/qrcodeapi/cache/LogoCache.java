@@ -0,0 +1,152 @@
+package br.com.dv.qrcodeapi.cache;
+
+import br.com.dv.qrcodeapi.engine.LogoRaster;
+import br.com.dv.qrcodeapi.exception.ImageProcessingException;
+import br.com.dv.qrcodeapi.exception.LogoNotFoundException;
+import br.com.dv.qrcodeapi.exception.LogoStorageNotConfiguredException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.regex.Pattern;
+
+/**
+ * Uploaded logos and the rasters they are drawn from. Originals are stored once as PNG files in
+ * {@code directory}, which every node rendering logos must be able to read; without one, uploads are
+ * refused rather than kept somewhere they could be lost while codes still refer to them.
+ * <p>
+ * The first render that draws a logo at a given size decodes the original and scales it; later renders
+ * at that size reuse the raster from a cache bounded by the rasters' bytes, which evicts by Caffeine's
+ * frequency-based policy and is published as the {@code cache.*} meters tagged {@code cache=qrcode.logo}.
+ * An evicted raster is scaled again from the original on its next use.
+ */
+@Component
+public class LogoCache implements MeterBinder {
+
+    private static final String CACHE_NAME = "qrcode.logo";
+    private static final Pattern LOGO_ID = Pattern.compile("[0-9a-f]{32}");
+    private static final String FILE_EXTENSION = ".png";
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    private final Path directory;
+    private final Cache<ScaledKey, LogoRaster> scaled;
+
+    public LogoCache(
+            @Value("${qrcode.logo.directory:}") String directory,
+            @Value("${qrcode.logo.cache.max-bytes:33554432}") long maximumBytes
+    ) {
+        this.directory = directory.isBlank() ? null : Path.of(directory);
+        this.scaled = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .<ScaledKey, LogoRaster>weigher((key, raster) -> ENTRY_OVERHEAD_BYTES + raster.sizeBytes())
+                .recordStats()
+                .build();
+
+        if (this.directory != null) {
+            try {
+                Files.createDirectories(this.directory);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not open the logo directory " + directory, e);
+            }
+        }
+    }
+
+    /**
+     * Stores a logo's PNG under its ID. IDs are derived from the logo's content, so storing one that
+     * already exists is a no-op.
+     *
+     * @throws LogoStorageNotConfiguredException if there is no directory to store logos in
+     */
+    public void put(String id, byte[] png) {
+        if (!LOGO_ID.matcher(id).matches()) {
+            throw new IllegalArgumentException("Invalid logo ID: " + id);
+        }
+        if (directory == null) {
+            throw new LogoStorageNotConfiguredException();
+        }
+
+        Path target = path(id);
+        if (Files.exists(target)) {
+            return;
+        }
+        try {
+            Path temporary = Files.createTempFile(directory, id, ".tmp");
+            try {
+                Files.write(temporary, png);
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (FileAlreadyExistsException e) {
+            // Stored concurrently by another upload of the same logo.
+        } catch (IOException e) {
+            throw new ImageProcessingException(e);
+        }
+    }
+
+    /**
+     * Returns the logo scaled so its longest side is {@code maxSide}.
+     *
+     * @throws LogoNotFoundException if no logo has this ID
+     */
+    public LogoRaster get(String id, int maxSide) {
+        if (!LOGO_ID.matcher(id).matches()) {
+            throw new LogoNotFoundException(id);
+        }
+        return scaled.get(new ScaledKey(id, maxSide), key -> LogoRaster.scaledToFit(load(key.id()), key.maxSide()));
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        new CaffeineCacheMetrics<>(scaled, CACHE_NAME, Tags.empty()).bindTo(registry);
+    }
+
+    private BufferedImage load(String id) {
+        byte[] png = directory == null ? null : read(id);
+        if (png == null) {
+            throw new LogoNotFoundException(id);
+        }
+        try {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+            if (image == null) {
+                throw new IOException("Stored logo " + id + " is not a readable image");
+            }
+            return image;
+        } catch (IOException e) {
+            throw new ImageProcessingException(e);
+        }
+    }
+
+    private byte[] read(String id) {
+        try {
+            return Files.readAllBytes(path(id));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new ImageProcessingException(e);
+        }
+    }
+
+    private Path path(String id) {
+        return directory.resolve(id + FILE_EXTENSION);
+    }
+
+    private record ScaledKey(String id, int maxSide) {}
+
+}
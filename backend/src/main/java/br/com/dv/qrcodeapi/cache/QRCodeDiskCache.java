@@ -0,0 +1,507 @@
+package br.com.dv.qrcodeapi.cache;
+
+import br.com.dv.qrcodeapi.dto.ImageResponse;
+import br.com.dv.qrcodeapi.render.RenderSpec;
+import br.com.dv.qrcodeapi.util.ImageUtils;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Persistent second tier under {@link QRCodeImageCache}: rendered images appended to memory-mapped
+ * segment files in a local directory, found through an in-memory {@link DiskIndex} of key hashes.
+ * <p>
+ * Segments are reopened and rescanned on startup, so a restarted node keeps its rendering work. Every
+ * record is checksummed; scanning stops at the first damaged record of a segment, which is where a
+ * crash mid-append leaves one. When the directory outgrows its ceiling the oldest segment is dropped,
+ * and a background task rewrites segments that are mostly superseded records. Segments written by
+ * another {@link RenderSpec#RENDERER_VERSION} are discarded.
+ * <p>
+ * Disabled when no directory is configured. Published as the {@code qrcode.image.disk.*} meters.
+ */
+@Component
+public class QRCodeDiskCache implements MeterBinder, DisposableBean {
+
+    private static final String METRIC_PREFIX = "qrcode.image.disk.";
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long maximumBytes;
+    private final int segmentBytes;
+    private final double compactionGarbageRatio;
+    private final ScheduledExecutorService compactor;
+
+    private final NavigableMap<Integer, DiskSegment> segments = new TreeMap<>();
+    private final DiskIndex index = new DiskIndex();
+    private DiskSegment active;
+    private int nextSegmentId = 1;
+    private long totalBytes;
+    private boolean closed;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder corruptRecords = new LongAdder();
+    private final LongAdder compactions = new LongAdder();
+    private final LongAdder droppedSegments = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    public QRCodeDiskCache(
+            @Value("${qrcode.cache.disk.directory:}") String directory,
+            @Value("${qrcode.cache.disk.max-bytes:1073741824}") long maximumBytes,
+            @Value("${qrcode.cache.disk.segment-bytes:67108864}") int segmentBytes,
+            @Value("${qrcode.cache.disk.compaction-interval-seconds:60}") long compactionIntervalSeconds,
+            @Value("${qrcode.cache.disk.compaction-garbage-ratio:0.5}") double compactionGarbageRatio
+    ) {
+        this.enabled = !directory.isBlank();
+        this.directory = enabled ? Path.of(directory) : null;
+        this.maximumBytes = maximumBytes;
+        this.segmentBytes = segmentBytes;
+        this.compactionGarbageRatio = compactionGarbageRatio;
+
+        if (!enabled) {
+            this.compactor = null;
+            return;
+        }
+        if (segmentBytes <= DiskSegment.HEADER_BYTES + DiskSegment.RECORD_HEADER_BYTES) {
+            throw new IllegalArgumentException("Disk cache segments are too small: " + segmentBytes + " bytes");
+        }
+
+        try {
+            Files.createDirectories(this.directory);
+            openSegments();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the disk cache in " + directory, e);
+        }
+
+        this.compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "qrcode-disk-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (compactionIntervalSeconds > 0) {
+            compactor.scheduleWithFixedDelay(
+                    this::compact,
+                    compactionIntervalSeconds,
+                    compactionIntervalSeconds,
+                    TimeUnit.SECONDS
+            );
+        }
+    }
+
+    /**
+     * Returns a heap copy of the stored image, or {@code null} if it is not on disk.
+     */
+    public ImageResponse get(RenderSpec spec) {
+        DiskImage image = acquire(spec);
+        if (image == null) {
+            return null;
+        }
+        try {
+            return new ImageResponse(image.segment.value(image.offset), image.mediaType());
+        } finally {
+            image.release();
+        }
+    }
+
+    /**
+     * Returns the stored image with a reference held on its segment, or {@code null} if it is not on
+     * disk. The caller must release it once written.
+     */
+    public DiskImage acquire(RenderSpec spec) {
+        if (!enabled) {
+            return null;
+        }
+
+        byte[] key = encodeKey(spec);
+        DiskSegment segment;
+        int offset;
+        synchronized (this) {
+            long location = closed ? DiskIndex.ABSENT : index.get(hash(key));
+            segment = location == DiskIndex.ABSENT ? null : segments.get(segmentId(location));
+            if (segment == null || !segment.retain()) {
+                misses.increment();
+                return null;
+            }
+            offset = offset(location);
+        }
+
+        // Keys are compared in full, so a hash collision reads as a miss rather than a wrong image.
+        if (!segment.keyEquals(offset, key)) {
+            releaseQuietly(segment);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return new DiskImage(segment, offset, ImageUtils.getMediaType(spec.format()));
+    }
+
+    /**
+     * Appends the image. Write failures are counted and otherwise ignored, as the image has already
+     * been rendered for the caller.
+     */
+    public void put(RenderSpec spec, ImageResponse image) {
+        if (!enabled) {
+            return;
+        }
+
+        byte[] key = encodeKey(spec);
+        byte[] value = image.imageData();
+        if (DiskSegment.HEADER_BYTES + DiskSegment.recordBytes(key.length, value.length) > segmentBytes) {
+            return;
+        }
+
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            try {
+                append(hash(key), key, value);
+                writes.increment();
+            } catch (IOException e) {
+                errors.increment();
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder(METRIC_PREFIX + "gets", hits, LongAdder::sum)
+                .description("Disk cache lookups")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + "gets", misses, LongAdder::sum)
+                .description("Disk cache lookups")
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + "writes", writes, LongAdder::sum)
+                .description("Images appended to the disk cache")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + "corrupt.records", corruptRecords, LongAdder::sum)
+                .description("Damaged records found while reopening segments")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + "compactions", compactions, LongAdder::sum)
+                .description("Segments rewritten to reclaim superseded records")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + "dropped.segments", droppedSegments, LongAdder::sum)
+                .description("Oldest segments dropped to stay under the size ceiling")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + "errors", errors, LongAdder::sum)
+                .description("Disk cache I/O failures")
+                .register(registry);
+        Gauge.builder(METRIC_PREFIX + "size", this, QRCodeDiskCache::sizeBytes)
+                .description("Space taken by segment files")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder(METRIC_PREFIX + "live", this, QRCodeDiskCache::liveBytes)
+                .description("Space taken by the latest record of each image")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder(METRIC_PREFIX + "entries", this, QRCodeDiskCache::entryCount)
+                .description("Images in the disk cache")
+                .register(registry);
+        Gauge.builder(METRIC_PREFIX + "segments", this, QRCodeDiskCache::segmentCount)
+                .description("Segment files in the disk cache")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        compactor.shutdownNow();
+        synchronized (this) {
+            closed = true;
+            for (DiskSegment segment : segments.values()) {
+                segment.close();
+            }
+        }
+    }
+
+    /**
+     * Rewrites the live records of every sealed segment whose share of superseded bytes has reached the
+     * configured ratio into the active segment, then deletes it. Records are moved one at a time, so
+     * lookups only wait for a single copy.
+     */
+    void compact() {
+        List<DiskSegment> candidates = new ArrayList<>();
+        synchronized (this) {
+            for (DiskSegment segment : segments.values()) {
+                if (segment != active && garbageRatio(segment) >= compactionGarbageRatio) {
+                    candidates.add(segment);
+                }
+            }
+        }
+
+        try {
+            for (DiskSegment segment : candidates) {
+                compact(segment);
+            }
+        } catch (IOException e) {
+            errors.increment();
+        }
+    }
+
+    synchronized long sizeBytes() {
+        return totalBytes;
+    }
+
+    synchronized long liveBytes() {
+        return segments.values().stream().mapToLong(DiskSegment::liveBytes).sum();
+    }
+
+    synchronized int entryCount() {
+        return index.size();
+    }
+
+    synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    private void compact(DiskSegment segment) throws IOException {
+        int offset = DiskSegment.HEADER_BYTES;
+        int end = segment.writePosition();
+        while (offset < end) {
+            synchronized (this) {
+                if (closed || segments.get(segment.id()) != segment) {
+                    return;
+                }
+                int length = segment.recordBytes(offset);
+                byte[] key = segment.key(offset);
+                long hash = hash(key);
+                if (index.get(hash) == location(segment.id(), offset)) {
+                    append(hash, key, segment.value(offset));
+                }
+                offset += length;
+            }
+        }
+
+        synchronized (this) {
+            if (segments.remove(segment.id(), segment)) {
+                drop(segment);
+                compactions.increment();
+            }
+        }
+    }
+
+    private void openSegments() throws IOException {
+        List<Integer> ids;
+        try (Stream<Path> files = Files.list(directory)) {
+            ids = files.map(path -> DiskSegment.parseId(path.getFileName().toString()))
+                    .filter(id -> id >= 0)
+                    .sorted()
+                    .toList();
+        }
+
+        for (int id : ids) {
+            nextSegmentId = id + 1;
+            Path path = directory.resolve(DiskSegment.fileName(id));
+            DiskSegment segment = DiskSegment.open(path, id, RenderSpec.RENDERER_VERSION);
+            if (segment == null) {
+                Files.deleteIfExists(path);
+                continue;
+            }
+            segments.put(id, segment);
+            totalBytes += segment.capacity();
+            scan(segment);
+        }
+
+        DiskSegment last = segments.isEmpty() ? null : segments.lastEntry().getValue();
+        if (last != null && last.capacity() == segmentBytes) {
+            active = last;
+        } else {
+            roll();
+        }
+        dropOldestOverCeiling();
+    }
+
+    private void scan(DiskSegment segment) {
+        int offset = DiskSegment.HEADER_BYTES;
+        int length;
+        while ((length = segment.validRecordBytes(offset)) != DiskSegment.INVALID) {
+            index(hash(segment.key(offset)), segment, offset, length);
+            offset += length;
+        }
+        if (!segment.isEnd(offset)) {
+            corruptRecords.increment();
+        }
+        // Appends to the last segment overwrite anything after the last intact record.
+        segment.setWritePosition(offset);
+    }
+
+    private void append(long hash, byte[] key, byte[] value) throws IOException {
+        int offset = active.append(key, value);
+        if (offset == DiskSegment.NO_SPACE) {
+            roll();
+            offset = active.append(key, value);
+        }
+        index(hash, active, offset, DiskSegment.recordBytes(key.length, value.length));
+    }
+
+    private void index(long hash, DiskSegment segment, int offset, int length) {
+        long previous = index.put(hash, location(segment.id(), offset));
+        if (previous != DiskIndex.ABSENT) {
+            DiskSegment previousSegment = segments.get(segmentId(previous));
+            if (previousSegment != null) {
+                previousSegment.addLiveBytes(-previousSegment.recordBytes(offset(previous)));
+            }
+        }
+        segment.addLiveBytes(length);
+    }
+
+    private void roll() throws IOException {
+        if (active != null) {
+            active.force();
+        }
+        int id = nextSegmentId++;
+        active = DiskSegment.create(directory, id, segmentBytes, RenderSpec.RENDERER_VERSION);
+        segments.put(id, active);
+        totalBytes += segmentBytes;
+        dropOldestOverCeiling();
+    }
+
+    private void dropOldestOverCeiling() {
+        while (totalBytes > maximumBytes && segments.firstEntry().getValue() != active) {
+            drop(segments.pollFirstEntry().getValue());
+            droppedSegments.increment();
+        }
+    }
+
+    private void drop(DiskSegment segment) {
+        int id = segment.id();
+        index.removeIf(location -> segmentId(location) == id);
+        totalBytes -= segment.capacity();
+        releaseQuietly(segment);
+    }
+
+    private void releaseQuietly(DiskSegment segment) {
+        try {
+            segment.release();
+        } catch (IOException e) {
+            errors.increment();
+        }
+    }
+
+    private static double garbageRatio(DiskSegment segment) {
+        double used = segment.writePosition() - DiskSegment.HEADER_BYTES;
+        return used == 0 ? 0.0 : 1.0 - segment.liveBytes() / used;
+    }
+
+    /**
+     * The persisted key: every spec field, content last so the fixed fields can never be confused
+     * with it.
+     */
+    private static byte[] encodeKey(RenderSpec spec) {
+        String key = String.join("\n",
+                Integer.toString(spec.size()),
+                spec.correction().name(),
+                spec.format().name(),
+                Integer.toHexString(spec.foregroundColor()),
+                Integer.toHexString(spec.backgroundColor()),
+                Integer.toString(spec.margin()),
+                Boolean.toString(spec.compact()),
+                Objects.requireNonNullElse(spec.logo(), ""),
+                spec.content()
+        );
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long hash(byte[] key) {
+        long h = FNV_OFFSET_BASIS;
+        for (byte b : key) {
+            h = (h ^ (b & 0xFF)) * FNV_PRIME;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static long location(int segmentId, int offset) {
+        return ((long) segmentId << 32) | (offset & 0xFFFFFFFFL);
+    }
+
+    private static int segmentId(long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static int offset(long location) {
+        return (int) location;
+    }
+
+    /**
+     * An image in a segment file, holding a reference that keeps the file open until released.
+     */
+    public final class DiskImage implements StoredImage {
+
+        private final DiskSegment segment;
+        private final int offset;
+        private final MediaType mediaType;
+
+        private DiskImage(DiskSegment segment, int offset, MediaType mediaType) {
+            this.segment = segment;
+            this.offset = offset;
+            this.mediaType = mediaType;
+        }
+
+        @Override
+        public int length() {
+            return segment.valueLength(offset);
+        }
+
+        @Override
+        public MediaType mediaType() {
+            return mediaType;
+        }
+
+        /**
+         * Writes the image from the segment's mapping. Servlet streams only take arrays, so this is a
+         * buffered copy through the channel adapter's small transfer buffer, not a zero-copy send; it
+         * still avoids materialising the whole image on the heap.
+         */
+        @Override
+        public void writeTo(OutputStream outputStream) throws IOException {
+            ByteBuffer value = segment.valueBuffer(offset);
+            WritableByteChannel channel = Channels.newChannel(outputStream);
+            while (value.hasRemaining()) {
+                channel.write(value);
+            }
+        }
+
+        @Override
+        public void release() {
+            releaseQuietly(segment);
+        }
+
+    }
+
+}
@@ -0,0 +1,341 @@
+package br.com.dv.qrcodeapi.cache;
+
+import br.com.dv.qrcodeapi.dto.ImageResponse;
+import br.com.dv.qrcodeapi.dto.SymbolInfo;
+import br.com.dv.qrcodeapi.metrics.StageTimings;
+import br.com.dv.qrcodeapi.render.RenderSpec;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * In-process cache of encoded images keyed by {@link RenderSpec}. Image bytes live off-heap in a
+ * {@link SlabAllocator} whose ceiling is set by configuration rather than by {@code -Xmx}; the heap only
+ * holds the key and a small index entry per image, so a large cache adds little to GC work.
+ * <p>
+ * Eviction is frequency-aware (W-TinyLFU), so a burst of one-off codes does not flush the hot set, and
+ * is bounded by the off-heap chunk bytes in use. Entries are reference counted so a chunk being written
+ * to a response is not reused until the write ends. Hit, miss and eviction counters are published as
+ * the {@code cache.*} meters tagged {@code cache=qrcode.image}, slab usage as {@code qrcode.image.slab.*}.
+ */
+@Component
+public class QRCodeImageCache implements MeterBinder {
+
+    private static final String CACHE_NAME = "qrcode.image";
+    private static final String SLAB_METRIC_PREFIX = "qrcode.image.slab.";
+
+    private final SlabAllocator allocator;
+    private final Cache<RenderSpec, CachedImage> cache;
+    private final Map<RenderSpec, CompletableFuture<ImageResponse>> loads = new ConcurrentHashMap<>();
+    private final LongAdder slabEvictions = new LongAdder();
+    private final LongAdder allocationFailures = new LongAdder();
+
+    public QRCodeImageCache(@Value("${qrcode.cache.image.max-bytes:67108864}") long maximumBytes) {
+        this.allocator = new SlabAllocator(maximumBytes);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(allocator.capacityBytes())
+                .weigher((RenderSpec key, CachedImage value) -> value.chunkSize)
+                // Evict on the writing thread, so chunks are freed before the next allocation needs them.
+                .executor(Runnable::run)
+                .removalListener(QRCodeImageCache::onRemoval)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the image for the key, loading and storing it on a miss. A hit is copied out of off-heap
+     * memory into a new array; callers that can write to a stream should use {@link #acquire(RenderSpec)}.
+     * <p>
+     * The loader runs outside the cache's compute, as it may read from disk or the network and wait for
+     * a render thread; holding a Caffeine bin lock for that long would stall unrelated keys. Concurrent
+     * misses for the same key still share a single load, and the result is inserted once it completes.
+     */
+    public ImageResponse get(RenderSpec key, Function<RenderSpec, ImageResponse> loader) {
+        ImageResponse cached = copyOf(cache.getIfPresent(key));
+        if (cached != null) {
+            return cached;
+        }
+
+        var loading = new CompletableFuture<ImageResponse>();
+        CompletableFuture<ImageResponse> inFlight = loads.putIfAbsent(key, loading);
+        if (inFlight != null) {
+            return await(inFlight);
+        }
+
+        try {
+            // Another load may have finished between the lookup and claiming the key.
+            ImageResponse image = copyOf(cache.asMap().get(key));
+            if (image == null) {
+                image = loader.apply(key);
+                insert(key, image);
+            }
+            loading.complete(image);
+            return image;
+        } catch (RuntimeException | Error e) {
+            loading.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(key, loading);
+        }
+    }
+
+    /**
+     * Returns the cached image for the key with a reference held on it, or {@code null} on a miss.
+     * The caller must {@link CachedImage#release() release} it once the image has been read.
+     */
+    public CachedImage acquire(RenderSpec key) {
+        CachedImage cached = cache.getIfPresent(key);
+        return cached != null && cached.retain() ? cached : null;
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        new CaffeineCacheMetrics<>(cache, CACHE_NAME, Tags.empty()).bindTo(registry);
+
+        Gauge.builder(SLAB_METRIC_PREFIX + "capacity", allocator, SlabAllocator::capacityBytes)
+                .description("Off-heap ceiling for cached images")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder(SLAB_METRIC_PREFIX + "allocated", allocator, SlabAllocator::allocatedBytes)
+                .description("Off-heap memory reserved for slabs so far")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder(SLAB_METRIC_PREFIX + "used", allocator, SlabAllocator::usedBytes)
+                .description("Off-heap memory in chunks holding an image")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder(SLAB_METRIC_PREFIX + "stored", allocator, SlabAllocator::storedBytes)
+                .description("Image bytes held off-heap")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder(SLAB_METRIC_PREFIX + "occupancy", allocator, QRCodeImageCache::occupancy)
+                .description("Fraction of the off-heap ceiling holding image bytes")
+                .register(registry);
+        Gauge.builder(SLAB_METRIC_PREFIX + "fragmentation", allocator, QRCodeImageCache::fragmentation)
+                .description("Fraction of assigned slab memory not holding image bytes")
+                .register(registry);
+        FunctionCounter.builder(SLAB_METRIC_PREFIX + "evictions", slabEvictions, LongAdder::sum)
+                .description("Images evicted to free a chunk in a full size class")
+                .register(registry);
+        FunctionCounter.builder(SLAB_METRIC_PREFIX + "allocation.failures", allocationFailures, LongAdder::sum)
+                .description("Rendered images left uncached because no chunk could be freed for them")
+                .register(registry);
+    }
+
+    Cache<RenderSpec, CachedImage> getCache() {
+        return cache;
+    }
+
+    SlabAllocator getAllocator() {
+        return allocator;
+    }
+
+    private void insert(RenderSpec key, ImageResponse image) {
+        CachedImage stored = store(image);
+        if (stored == null) {
+            storeEvicting(key, image);
+        } else if (cache.asMap().putIfAbsent(key, stored) != null) {
+            stored.release();
+        }
+    }
+
+    private CachedImage store(ImageResponse image) {
+        byte[] data = image.imageData();
+        long handle = allocator.allocate(data.length);
+        if (handle == SlabAllocator.NO_SPACE) {
+            return null;
+        }
+        allocator.write(handle, data);
+        return new CachedImage(
+                allocator, handle, data.length, allocator.chunkSize(handle), image.mediaType(), image.symbol()
+        );
+    }
+
+    /**
+     * Makes room for an image whose size class has no free chunk, the way memcached does: evict the
+     * coldest image of the same class, or failing that the coldest images of any class until a slab
+     * frees up.
+     */
+    private void storeEvicting(RenderSpec key, ImageResponse image) {
+        int chunkSize = allocator.chunkSizeFor(image.imageData().length);
+        if (chunkSize == 0) {
+            allocationFailures.increment();
+            return;
+        }
+
+        var eviction = cache.policy().eviction().orElseThrow();
+        CachedImage stored = null;
+        while (stored == null) {
+            RenderSpec victim = eviction.coldest(entries -> entries
+                    .filter(entry -> entry.getValue().chunkSize == chunkSize)
+                    .map(Map.Entry::getKey)
+                    .findFirst()
+                    .orElse(null));
+            if (victim == null) {
+                victim = eviction.coldest(1).keySet().stream().findFirst().orElse(null);
+            }
+            if (victim == null) {
+                allocationFailures.increment();
+                return;
+            }
+            cache.invalidate(victim);
+            slabEvictions.increment();
+            stored = store(image);
+        }
+
+        if (cache.asMap().putIfAbsent(key, stored) != null) {
+            stored.release();
+        }
+    }
+
+    private static ImageResponse copyOf(CachedImage cached) {
+        if (cached == null || !cached.retain()) {
+            return null;
+        }
+        try {
+            return new ImageResponse(cached.toByteArray(), cached.mediaType(), new StageTimings(), cached.symbol);
+        } finally {
+            cached.release();
+        }
+    }
+
+    private static ImageResponse await(CompletableFuture<ImageResponse> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            // The loading thread has already seen this exception; rethrow it as it was thrown there.
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private static void onRemoval(RenderSpec key, CachedImage value, RemovalCause cause) {
+        if (value != null) {
+            value.release();
+        }
+    }
+
+    private static double occupancy(SlabAllocator allocator) {
+        long capacity = allocator.capacityBytes();
+        return capacity == 0 ? 0.0 : (double) allocator.storedBytes() / capacity;
+    }
+
+    private static double fragmentation(SlabAllocator allocator) {
+        long assigned = allocator.assignedBytes();
+        return assigned == 0 ? 0.0 : 1.0 - (double) allocator.storedBytes() / assigned;
+    }
+
+    /**
+     * An image held in a slab chunk. The cache owns one reference and each reader takes another; the
+     * chunk returns to the allocator when the last reference is released. The symbol it shows is kept
+     * on the heap with the index entry, so hits can report it without encoding again.
+     */
+    public static final class CachedImage implements StoredImage {
+
+        private final SlabAllocator allocator;
+        private final long handle;
+        private final int length;
+        private final int chunkSize;
+        private final MediaType mediaType;
+        private final SymbolInfo symbol;
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        private CachedImage(
+                SlabAllocator allocator,
+                long handle,
+                int length,
+                int chunkSize,
+                MediaType mediaType,
+                SymbolInfo symbol
+        ) {
+            this.allocator = allocator;
+            this.handle = handle;
+            this.length = length;
+            this.chunkSize = chunkSize;
+            this.mediaType = mediaType;
+            this.symbol = symbol;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public MediaType mediaType() {
+            return mediaType;
+        }
+
+        @Override
+        public SymbolInfo symbol() {
+            return symbol;
+        }
+
+        /**
+         * Writes the image straight from its chunk. Servlet streams only take arrays, so the bytes pass
+         * through the channel adapter's small transfer buffer rather than a copy of the whole image.
+         */
+        @Override
+        public void writeTo(OutputStream outputStream) throws IOException {
+            ByteBuffer buffer = allocator.read(handle, length);
+            WritableByteChannel channel = Channels.newChannel(outputStream);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        @Override
+        public void release() {
+            if (references.decrementAndGet() == 0) {
+                allocator.free(handle, length);
+            }
+        }
+
+        private boolean retain() {
+            int current;
+            do {
+                current = references.get();
+                if (current == 0) {
+                    return false;
+                }
+            } while (!references.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        private byte[] toByteArray() {
+            byte[] data = new byte[length];
+            allocator.read(handle, length).get(data);
+            return data;
+        }
+
+    }
+
+}
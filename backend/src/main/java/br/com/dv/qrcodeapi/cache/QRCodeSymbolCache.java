@@ -0,0 +1,63 @@
+package br.com.dv.qrcodeapi.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.zxing.qrcode.encoder.QRCode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+/**
+ * Cache of encoded QR symbols (the module matrix produced by the zxing encoder after
+ * Reed-Solomon encoding and mask selection). One entry serves every size, margin, color and
+ * format the same content is requested in. Bounded by the approximate bytes held by the module
+ * matrices and published as the {@code cache.*} meters tagged {@code cache=qrcode.symbol}.
+ */
+@Component
+public class QRCodeSymbolCache implements MeterBinder {
+
+    private static final String CACHE_NAME = "qrcode.symbol";
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    private final Cache<SymbolCacheKey, QRCode> cache;
+
+    public QRCodeSymbolCache(@Value("${qrcode.cache.symbol.max-bytes:16777216}") long maximumBytes) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher(QRCodeSymbolCache::weigh)
+                .recordStats()
+                .build();
+    }
+
+    public QRCode get(SymbolCacheKey key, Function<SymbolCacheKey, QRCode> encoder) {
+        return cache.get(key, encoder);
+    }
+
+    /**
+     * Returns the symbol if it is cached, without encoding it.
+     */
+    public QRCode getIfPresent(SymbolCacheKey key) {
+        return cache.getIfPresent(key);
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        new CaffeineCacheMetrics<>(cache, CACHE_NAME, Tags.empty()).bindTo(registry);
+    }
+
+    Cache<SymbolCacheKey, QRCode> getCache() {
+        return cache;
+    }
+
+    private static int weigh(SymbolCacheKey key, QRCode value) {
+        int dimension = value.getMatrix().getWidth();
+        return ENTRY_OVERHEAD_BYTES + key.content().length() * 2 + dimension * dimension;
+    }
+
+}
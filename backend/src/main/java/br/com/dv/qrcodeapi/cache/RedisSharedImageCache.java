@@ -0,0 +1,352 @@
+package br.com.dv.qrcodeapi.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shared tier on any server speaking the Redis protocol (Redis, Valkey, KeyDB, ...), written against
+ * the wire protocol directly so the application needs no client library.
+ * <p>
+ * The tier is built so a lookup costs a miss at most {@code timeout-millis} on top of rendering, which
+ * the default keeps near the render time of a typical image:
+ * <ul>
+ *     <li>Each lookup, connecting and writing included, is bounded by {@code timeout-millis}; a timeout
+ *     is a miss. Stores are bounded the same way, so a stalled server cannot wedge the writer.</li>
+ *     <li>After any failure the server is left alone for {@code backoff-millis}, during which lookups miss
+ *     at once instead of each waiting out the timeout.</li>
+ *     <li>Lookups never wait for a connection: past {@code max-connections} in use they miss.</li>
+ *     <li>Stores run on a background thread with a bounded queue and are dropped when it is full.</li>
+ * </ul>
+ * An optional near cache keeps recently fetched and stored images on this node's heap, bounded by their
+ * bytes, so repeat lookups skip the round trip. Buffered responses already keep shared hits off-heap in
+ * {@link QRCodeImageCache}, so it only helps repeated streamed responses and is off by default
+ * ({@code near.max-bytes} = 0); when enabled, count it against the heap. Images never change under a
+ * key, so the near cache needs no invalidation; entries expire so memory follows the current traffic.
+ * Replies over {@code max-image-bytes} are refused before they are read and count as a miss for that
+ * key, without backing off the server.
+ * <p>
+ * Lookups are counted in {@code qrcode.image.shared.gets}, tagged {@code result} = near, hit, miss,
+ * error or skipped, stores in {@code qrcode.image.shared.puts}; the near cache is published as the
+ * {@code cache.*} meters tagged {@code cache=qrcode.image.shared.near}.
+ */
+@Component
+@ConditionalOnProperty(name = "qrcode.cache.shared.type", havingValue = "redis")
+public class RedisSharedImageCache implements SharedImageCache, MeterBinder, DisposableBean {
+
+    private static final String METRIC_PREFIX = "qrcode.image.shared.";
+    private static final String NEAR_CACHE_NAME = "qrcode.image.shared.near";
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+    private static final byte[] AUTH = "AUTH".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] GET = "GET".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SET = "SET".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PX = "PX".getBytes(StandardCharsets.US_ASCII);
+
+    private final String host;
+    private final int port;
+    private final byte[] password;
+    private final String keyPrefix;
+    private final long timeoutNanos;
+    private final byte[] ttlMillis;
+    private final int maxConnections;
+    private final int maxImageBytes;
+    private final long backoffNanos;
+
+    private final Cache<String, byte[]> nearCache;
+    private final BlockingQueue<RespConnection> idle;
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicLong suspendedUntil = new AtomicLong(System.nanoTime());
+    private final ThreadPoolExecutor writer;
+    private final ScheduledThreadPoolExecutor watchdog;
+    private volatile boolean closed;
+
+    private final LongAdder nearHits = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder stored = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder writeErrors = new LongAdder();
+
+    public RedisSharedImageCache(
+            @Value("${qrcode.cache.shared.redis.host:localhost}") String host,
+            @Value("${qrcode.cache.shared.redis.port:6379}") int port,
+            @Value("${qrcode.cache.shared.redis.password:}") String password,
+            @Value("${qrcode.cache.shared.redis.key-prefix:qrcode:image:}") String keyPrefix,
+            @Value("${qrcode.cache.shared.redis.timeout-millis:5}") long timeoutMillis,
+            @Value("${qrcode.cache.shared.redis.backoff-millis:1000}") long backoffMillis,
+            @Value("${qrcode.cache.shared.redis.ttl-seconds:604800}") long ttlSeconds,
+            @Value("${qrcode.cache.shared.redis.max-connections:16}") int maxConnections,
+            @Value("${qrcode.cache.shared.redis.max-image-bytes:1048576}") int maxImageBytes,
+            @Value("${qrcode.cache.shared.redis.max-write-queue-depth:256}") int maxWriteQueueDepth,
+            @Value("${qrcode.cache.shared.near.max-bytes:0}") long nearCacheMaxBytes,
+            @Value("${qrcode.cache.shared.near.ttl-seconds:300}") long nearCacheTtlSeconds
+    ) {
+        this.host = host;
+        this.port = port;
+        this.password = password.isEmpty() ? null : password.getBytes(StandardCharsets.UTF_8);
+        this.keyPrefix = keyPrefix;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.ttlMillis = ttlSeconds > 0
+                ? Long.toString(TimeUnit.SECONDS.toMillis(ttlSeconds)).getBytes(StandardCharsets.US_ASCII)
+                : null;
+        this.maxConnections = Math.max(1, maxConnections);
+        this.maxImageBytes = maxImageBytes;
+        this.backoffNanos = TimeUnit.MILLISECONDS.toNanos(backoffMillis);
+
+        this.nearCache = nearCacheMaxBytes <= 0 ? null : Caffeine.newBuilder()
+                .maximumWeight(nearCacheMaxBytes)
+                .<String, byte[]>weigher((key, image) -> ENTRY_OVERHEAD_BYTES + key.length() + image.length)
+                .expireAfterWrite(Duration.ofSeconds(nearCacheTtlSeconds))
+                .recordStats()
+                .build();
+        this.idle = new ArrayBlockingQueue<>(this.maxConnections);
+        this.writer = new ThreadPoolExecutor(
+                1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, maxWriteQueueDepth)),
+                runnable -> {
+                    var thread = new Thread(runnable, "qrcode-shared-cache-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> dropped.increment()
+        );
+        this.watchdog = new ScheduledThreadPoolExecutor(1, runnable -> {
+            var thread = new Thread(runnable, "qrcode-shared-cache-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.watchdog.setRemoveOnCancelPolicy(true);
+    }
+
+    @Override
+    public byte[] get(String key) {
+        byte[] near = nearCache != null ? nearCache.getIfPresent(key) : null;
+        if (near != null) {
+            nearHits.increment();
+            return near;
+        }
+
+        if (suspended()) {
+            skipped.increment();
+            return null;
+        }
+
+        long deadline = System.nanoTime() + timeoutNanos;
+        RespConnection connection = null;
+        try {
+            connection = borrow(deadline);
+            if (connection == null) {
+                skipped.increment();
+                return null;
+            }
+            connection.send(deadline, GET, redisKey(key));
+            byte[] image = connection.readBulk(deadline, maxImageBytes);
+            giveBack(connection);
+            if (image == null) {
+                misses.increment();
+                return null;
+            }
+            if (nearCache != null) {
+                nearCache.put(key, image);
+            }
+            hits.increment();
+            return image;
+        } catch (RespConnection.OversizedReplyException e) {
+            // Dropping the connection skips the unread value; the server itself is fine, so no backoff.
+            discard(connection);
+            misses.increment();
+            return null;
+        } catch (IOException | RuntimeException e) {
+            fail(connection);
+            errors.increment();
+            return null;
+        }
+    }
+
+    @Override
+    public void put(String key, byte[] imageData) {
+        if (imageData.length > maxImageBytes || closed) {
+            dropped.increment();
+            return;
+        }
+        if (nearCache != null) {
+            nearCache.put(key, imageData);
+        }
+        writer.execute(() -> write(key, imageData));
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        if (nearCache != null) {
+            new CaffeineCacheMetrics<>(nearCache, NEAR_CACHE_NAME, Tags.empty()).bindTo(registry);
+        }
+
+        registerGets(registry, "near", nearHits);
+        registerGets(registry, "hit", hits);
+        registerGets(registry, "miss", misses);
+        registerGets(registry, "error", errors);
+        registerGets(registry, "skipped", skipped);
+        registerPuts(registry, "stored", stored);
+        registerPuts(registry, "dropped", dropped);
+        registerPuts(registry, "error", writeErrors);
+        Gauge.builder(METRIC_PREFIX + "connections", connections, AtomicInteger::get)
+                .description("Open connections to the shared cache server")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        closed = true;
+        writer.shutdownNow();
+        watchdog.shutdownNow();
+        RespConnection connection;
+        while ((connection = idle.poll()) != null) {
+            closeQuietly(connection);
+        }
+    }
+
+    Cache<String, byte[]> getNearCache() {
+        return nearCache;
+    }
+
+    private void write(String key, byte[] imageData) {
+        if (suspended()) {
+            dropped.increment();
+            return;
+        }
+
+        long deadline = System.nanoTime() + timeoutNanos;
+        RespConnection connection = null;
+        try {
+            connection = borrow(deadline);
+            if (connection == null) {
+                dropped.increment();
+                return;
+            }
+            if (ttlMillis == null) {
+                connection.send(deadline, SET, redisKey(key), imageData);
+            } else {
+                connection.send(deadline, SET, redisKey(key), imageData, PX, ttlMillis);
+            }
+            connection.readStatus(deadline);
+            giveBack(connection);
+            stored.increment();
+        } catch (IOException | RuntimeException e) {
+            fail(connection);
+            writeErrors.increment();
+        }
+    }
+
+    /**
+     * Takes an idle connection, or opens one if fewer than {@code maxConnections} are open. Returns
+     * {@code null} rather than waiting when all are in use.
+     */
+    private RespConnection borrow(long deadline) throws IOException {
+        RespConnection connection = idle.poll();
+        if (connection != null) {
+            return connection;
+        }
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            return null;
+        }
+
+        try {
+            connection = RespConnection.open(host, port, deadline, watchdog);
+        } catch (IOException | RuntimeException e) {
+            connections.decrementAndGet();
+            throw e;
+        }
+        if (password != null) {
+            try {
+                connection.send(deadline, AUTH, password);
+                connection.readStatus(deadline);
+            } catch (IOException | RuntimeException e) {
+                fail(connection);
+                throw e;
+            }
+        }
+        return connection;
+    }
+
+    private void giveBack(RespConnection connection) {
+        if (closed || !idle.offer(connection)) {
+            connections.decrementAndGet();
+            closeQuietly(connection);
+        }
+    }
+
+    /**
+     * Drops a connection whose state is unknown after a failure, if there is one, and backs off the server.
+     */
+    private void fail(RespConnection connection) {
+        if (connection != null) {
+            discard(connection);
+        }
+        suspend();
+    }
+
+    private void discard(RespConnection connection) {
+        connections.decrementAndGet();
+        closeQuietly(connection);
+    }
+
+    private boolean suspended() {
+        return closed || System.nanoTime() - suspendedUntil.get() < 0;
+    }
+
+    private void suspend() {
+        suspendedUntil.set(System.nanoTime() + backoffNanos);
+    }
+
+    private byte[] redisKey(String key) {
+        return (keyPrefix + key).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void registerGets(MeterRegistry registry, String result, LongAdder counter) {
+        FunctionCounter.builder(METRIC_PREFIX + "gets", counter, LongAdder::sum)
+                .description("Shared image cache lookups")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private void registerPuts(MeterRegistry registry, String result, LongAdder counter) {
+        FunctionCounter.builder(METRIC_PREFIX + "puts", counter, LongAdder::sum)
+                .description("Images offered to the shared image cache")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static void closeQuietly(RespConnection connection) {
+        try {
+            connection.close();
+        } catch (IOException e) {
+            // Already broken; nothing left to release.
+        }
+    }
+
+}
@@ -0,0 +1,217 @@
+package br.com.dv.qrcodeapi.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One blocking connection speaking RESP, the Redis serialization protocol, with just what
+ * {@link RedisSharedImageCache} needs: commands as arrays of bulk strings, and status, error and bulk
+ * string replies. Every read is bounded by a deadline covering the whole command rather than each
+ * socket read, so a slow server cannot stretch a lookup past its timeout a few bytes at a time.
+ * <p>
+ * Blocking socket writes have no timeout of their own, so each command is sent under a watchdog that
+ * closes the socket if the deadline passes first, which fails the stuck write.
+ * <p>
+ * Not thread-safe; connections are pooled and used by one thread at a time.
+ */
+final class RespConnection implements Closeable {
+
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final int BUFFER_BYTES = 8192;
+
+    private final Socket socket;
+    private final ScheduledExecutorService watchdog;
+    private final InputStream input;
+    private final OutputStream output;
+    private final byte[] buffer = new byte[BUFFER_BYTES];
+    private volatile boolean writeTimedOut;
+    private int position;
+    private int limit;
+
+    private RespConnection(Socket socket, ScheduledExecutorService watchdog) throws IOException {
+        this.socket = socket;
+        this.watchdog = watchdog;
+        this.input = socket.getInputStream();
+        this.output = new BufferedOutputStream(socket.getOutputStream(), BUFFER_BYTES);
+    }
+
+    static RespConnection open(
+            String host,
+            int port,
+            long deadlineNanos,
+            ScheduledExecutorService watchdog
+    ) throws IOException {
+        var socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(host, port), remainingMillis(deadlineNanos));
+            return new RespConnection(socket, watchdog);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Sends a command, giving up by closing the connection if it has not been written by the deadline.
+     */
+    void send(long deadlineNanos, byte[]... arguments) throws IOException {
+        ScheduledFuture<?> timeout = watchdog.schedule(
+                this::abortWrite, deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS
+        );
+        try {
+            writeHeader('*', arguments.length);
+            for (byte[] argument : arguments) {
+                writeHeader('$', argument.length);
+                output.write(argument);
+                output.write(CRLF);
+            }
+            output.flush();
+        } catch (IOException e) {
+            if (writeTimedOut) {
+                throw new SocketTimeoutException("Write deadline passed");
+            }
+            throw e;
+        } finally {
+            timeout.cancel(false);
+        }
+    }
+
+    /**
+     * Reads a status reply such as {@code +OK}.
+     */
+    void readStatus(long deadlineNanos) throws IOException {
+        int type = readByte(deadlineNanos);
+        String line = readLine(deadlineNanos);
+        if (type != '+') {
+            throw unexpected(type, line);
+        }
+    }
+
+    /**
+     * Reads a bulk string reply, or {@code null} for the nil reply. Values longer than {@code maxBytes}
+     * are refused with an {@link OversizedReplyException} before anything is allocated for them; the
+     * value is then still unread, so the connection cannot be reused.
+     */
+    byte[] readBulk(long deadlineNanos, int maxBytes) throws IOException {
+        int type = readByte(deadlineNanos);
+        String line = readLine(deadlineNanos);
+        if (type != '$') {
+            throw unexpected(type, line);
+        }
+
+        int length = Integer.parseInt(line);
+        if (length < 0) {
+            return null;
+        }
+        if (length > maxBytes) {
+            throw new OversizedReplyException(length, maxBytes);
+        }
+
+        byte[] value = new byte[length];
+        readFully(value, deadlineNanos);
+        if (readByte(deadlineNanos) != '\r' || readByte(deadlineNanos) != '\n') {
+            throw new IOException("Bulk string not terminated by CRLF");
+        }
+        return value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    private void abortWrite() {
+        writeTimedOut = true;
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Closing is all that was wanted; the blocked write fails either way.
+        }
+    }
+
+    private void writeHeader(char type, int count) throws IOException {
+        output.write(type);
+        output.write(Integer.toString(count).getBytes(StandardCharsets.US_ASCII));
+        output.write(CRLF);
+    }
+
+    private int readByte(long deadlineNanos) throws IOException {
+        if (position == limit) {
+            fill(deadlineNanos);
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    private String readLine(long deadlineNanos) throws IOException {
+        var line = new StringBuilder();
+        int b;
+        while ((b = readByte(deadlineNanos)) != '\r') {
+            line.append((char) b);
+        }
+        if (readByte(deadlineNanos) != '\n') {
+            throw new IOException("Reply line not terminated by CRLF");
+        }
+        return line.toString();
+    }
+
+    private void readFully(byte[] target, long deadlineNanos) throws IOException {
+        int offset = 0;
+        while (offset < target.length) {
+            if (position == limit) {
+                fill(deadlineNanos);
+            }
+            int count = Math.min(limit - position, target.length - offset);
+            System.arraycopy(buffer, position, target, offset, count);
+            position += count;
+            offset += count;
+        }
+    }
+
+    private void fill(long deadlineNanos) throws IOException {
+        socket.setSoTimeout(remainingMillis(deadlineNanos));
+        int count = input.read(buffer);
+        if (count < 0) {
+            throw new EOFException("Connection closed by the server");
+        }
+        position = 0;
+        limit = count;
+    }
+
+    private static int remainingMillis(long deadlineNanos) throws SocketTimeoutException {
+        long remaining = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+        if (remaining <= 0) {
+            throw new SocketTimeoutException("Deadline passed");
+        }
+        return (int) Math.min(remaining, Integer.MAX_VALUE);
+    }
+
+    private static IOException unexpected(int type, String line) {
+        return type == '-'
+                ? new IOException("Server error: " + line)
+                : new IOException("Unexpected reply type '" + (char) type + "'");
+    }
+
+    /**
+     * A well-formed reply too large to accept. The server is healthy; only the connection is unusable.
+     */
+    static final class OversizedReplyException extends IOException {
+
+        OversizedReplyException(int length, int maxBytes) {
+            super("Reply of " + length + " bytes exceeds the limit of " + maxBytes);
+        }
+
+    }
+
+}
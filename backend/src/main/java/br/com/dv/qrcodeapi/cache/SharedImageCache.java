@@ -0,0 +1,29 @@
+package br.com.dv.qrcodeapi.cache;
+
+/**
+ * Cluster-wide tier for rendered images, shared by every node so the working set is rendered once per
+ * cluster rather than once per node. It sits under the node's own {@link QRCodeImageCache} and
+ * {@link QRCodeDiskCache} and is only consulted when both miss.
+ * <p>
+ * Keys identify a render (see {@code QRCodeGenerationServiceImpl}) and include
+ * {@link br.com.dv.qrcodeapi.render.RenderSpec#RENDERER_VERSION}, so nodes running different renderers
+ * never share images. Every lookup that misses is paid on top of rendering, so implementations bound
+ * lookups by a timeout close to the cost of a render, report failures as misses rather than throwing,
+ * and do not make the caller wait for a store.
+ * <p>
+ * Selected with {@code qrcode.cache.shared.type}: {@code none} (the default), {@code memory}
+ * ({@link InMemorySharedImageCache}) or {@code redis} ({@link RedisSharedImageCache}).
+ */
+public interface SharedImageCache {
+
+    /**
+     * Returns the stored image, or {@code null} on a miss, a timeout or any failure of the tier.
+     */
+    byte[] get(String key);
+
+    /**
+     * Offers a freshly rendered image to the tier. May return before the image is stored, or drop it.
+     */
+    void put(String key, byte[] imageData);
+
+}
@@ -0,0 +1,219 @@
+package br.com.dv.qrcodeapi.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Fixed-ceiling allocator of off-heap chunks, in the style of memcached's slab allocator.
+ * <p>
+ * Memory is split into equally sized slabs of direct memory, allocated lazily up to the ceiling and
+ * never returned to the JVM. A slab is carved into equal chunks of one size class the first time that
+ * class needs space, and goes back to the unassigned pool once all its chunks are free, so the split
+ * between size classes follows the workload instead of being fixed at startup.
+ * <p>
+ * A chunk is addressed by a handle that packs the slab index and chunk index into a {@code long}.
+ * All bookkeeping is synchronized; reading and writing chunk contents is not, as each chunk has a
+ * single owner between {@link #allocate(int)} and {@link #free(long, int)}.
+ */
+final class SlabAllocator {
+
+    static final int DEFAULT_SLAB_SIZE = 1024 * 1024;
+    static final long NO_SPACE = -1L;
+
+    private static final int MIN_CHUNK_SIZE = 256;
+    private static final int CHUNK_ALIGNMENT = 64;
+    private static final double CHUNK_GROWTH_FACTOR = 1.25;
+    private static final int UNASSIGNED = -1;
+
+    private final int slabSize;
+    private final int[] classChunkSizes;
+    private final ByteBuffer[] slabs;
+    private final int[] slabClasses;
+    private final int[][] slabFreeChunks;
+    private final int[] slabFreeCounts;
+    private final List<Deque<Integer>> partialSlabs;
+    private final Deque<Integer> unassignedSlabs = new ArrayDeque<>();
+
+    private int allocatedSlabs;
+    private int assignedSlabs;
+    private long usedBytes;
+    private long storedBytes;
+
+    SlabAllocator(long capacityBytes) {
+        this(capacityBytes, DEFAULT_SLAB_SIZE);
+    }
+
+    SlabAllocator(long capacityBytes, int maximumSlabSize) {
+        // A capacity below one minimum chunk leaves no slabs at all, and every allocation fails.
+        this.slabSize = (int) Math.max(MIN_CHUNK_SIZE, Math.min(maximumSlabSize, capacityBytes));
+        this.classChunkSizes = chunkSizes(slabSize);
+        int slabCount = (int) Math.min(Integer.MAX_VALUE, capacityBytes / slabSize);
+        this.slabs = new ByteBuffer[slabCount];
+        this.slabClasses = new int[slabCount];
+        this.slabFreeChunks = new int[slabCount][];
+        this.slabFreeCounts = new int[slabCount];
+        this.partialSlabs = new ArrayList<>(classChunkSizes.length);
+        for (int i = 0; i < classChunkSizes.length; i++) {
+            partialSlabs.add(new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Returns a handle to a chunk of at least {@code length} bytes, or {@link #NO_SPACE} when the length
+     * exceeds the slab size or no chunk of the matching class can be found or made.
+     */
+    synchronized long allocate(int length) {
+        int sizeClass = sizeClass(length);
+        if (sizeClass < 0) {
+            return NO_SPACE;
+        }
+
+        Deque<Integer> partial = partialSlabs.get(sizeClass);
+        if (partial.isEmpty() && !assignSlab(sizeClass)) {
+            return NO_SPACE;
+        }
+
+        int slab = partial.peekFirst();
+        int chunk = slabFreeChunks[slab][--slabFreeCounts[slab]];
+        if (slabFreeCounts[slab] == 0) {
+            partial.pollFirst();
+        }
+
+        usedBytes += classChunkSizes[sizeClass];
+        storedBytes += length;
+        return handle(slab, chunk);
+    }
+
+    synchronized void free(long handle, int length) {
+        int slab = slabIndex(handle);
+        int sizeClass = slabClasses[slab];
+        int chunksPerSlab = slabSize / classChunkSizes[sizeClass];
+
+        if (slabFreeCounts[slab] == 0) {
+            partialSlabs.get(sizeClass).addFirst(slab);
+        }
+        slabFreeChunks[slab][slabFreeCounts[slab]++] = chunkIndex(handle);
+        usedBytes -= classChunkSizes[sizeClass];
+        storedBytes -= length;
+
+        if (slabFreeCounts[slab] == chunksPerSlab) {
+            partialSlabs.get(sizeClass).remove(slab);
+            slabClasses[slab] = UNASSIGNED;
+            slabFreeChunks[slab] = null;
+            unassignedSlabs.push(slab);
+            assignedSlabs--;
+        }
+    }
+
+    void write(long handle, byte[] data) {
+        slabs[slabIndex(handle)].put(offset(handle), data);
+    }
+
+    /**
+     * Returns a read-only view of {@code length} bytes at the chunk, positioned at zero. Views are
+     * independent, so several threads may read the same chunk at once.
+     */
+    ByteBuffer read(long handle, int length) {
+        return slabs[slabIndex(handle)].slice(offset(handle), length).asReadOnlyBuffer();
+    }
+
+    int chunkSize(long handle) {
+        return classChunkSizes[chunkClass(handle)];
+    }
+
+    int chunkSizeFor(int length) {
+        int sizeClass = sizeClass(length);
+        return sizeClass < 0 ? 0 : classChunkSizes[sizeClass];
+    }
+
+    long capacityBytes() {
+        return (long) slabs.length * slabSize;
+    }
+
+    synchronized long allocatedBytes() {
+        return (long) allocatedSlabs * slabSize;
+    }
+
+    synchronized long assignedBytes() {
+        return (long) assignedSlabs * slabSize;
+    }
+
+    synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    synchronized long storedBytes() {
+        return storedBytes;
+    }
+
+    private boolean assignSlab(int sizeClass) {
+        int slab;
+        if (!unassignedSlabs.isEmpty()) {
+            slab = unassignedSlabs.pop();
+        } else if (allocatedSlabs < slabs.length) {
+            slab = allocatedSlabs++;
+            slabs[slab] = ByteBuffer.allocateDirect(slabSize);
+        } else {
+            return false;
+        }
+
+        int chunksPerSlab = slabSize / classChunkSizes[sizeClass];
+        int[] freeChunks = new int[chunksPerSlab];
+        // Pushed in reverse so chunks are handed out from the start of the slab.
+        for (int i = 0; i < chunksPerSlab; i++) {
+            freeChunks[i] = chunksPerSlab - 1 - i;
+        }
+
+        slabClasses[slab] = sizeClass;
+        slabFreeChunks[slab] = freeChunks;
+        slabFreeCounts[slab] = chunksPerSlab;
+        partialSlabs.get(sizeClass).addFirst(slab);
+        assignedSlabs++;
+        return true;
+    }
+
+    private int sizeClass(int length) {
+        for (int i = 0; i < classChunkSizes.length; i++) {
+            if (classChunkSizes[i] >= length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int chunkClass(long handle) {
+        return slabClasses[slabIndex(handle)];
+    }
+
+    private int offset(long handle) {
+        return chunkIndex(handle) * classChunkSizes[chunkClass(handle)];
+    }
+
+    private static long handle(int slab, int chunk) {
+        return ((long) slab << 32) | (chunk & 0xFFFFFFFFL);
+    }
+
+    private static int slabIndex(long handle) {
+        return (int) (handle >>> 32);
+    }
+
+    private static int chunkIndex(long handle) {
+        return (int) handle;
+    }
+
+    private static int[] chunkSizes(int slabSize) {
+        List<Integer> sizes = new ArrayList<>();
+        int size = MIN_CHUNK_SIZE;
+        while (size < slabSize) {
+            sizes.add(size);
+            int next = (int) Math.ceil(size * CHUNK_GROWTH_FACTOR);
+            size = (next + CHUNK_ALIGNMENT - 1) / CHUNK_ALIGNMENT * CHUNK_ALIGNMENT;
+        }
+        sizes.add(slabSize);
+        return sizes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+}
@@ -0,0 +1,30 @@
+package br.com.dv.qrcodeapi.cache;
+
+import br.com.dv.qrcodeapi.dto.SymbolInfo;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A cached image held outside the Java heap, with a reference taken on it for the caller. The image
+ * stays readable until {@link #release()}, even if the cache evicts it in the meantime.
+ */
+public interface StoredImage {
+
+    int length();
+
+    MediaType mediaType();
+
+    /**
+     * The symbol the image shows, or {@code null} when the store does not record it.
+     */
+    default SymbolInfo symbol() {
+        return null;
+    }
+
+    void writeTo(OutputStream outputStream) throws IOException;
+
+    void release();
+
+}
@@ -0,0 +1,9 @@
+package br.com.dv.qrcodeapi.cache;
+
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+
+/**
+ * Inputs that determine the encoded QR symbol. Size, margin, colors and format only affect
+ * rasterization, so they are deliberately not part of this key.
+ */
+public record SymbolCacheKey(String content, ErrorCorrectionLevel correction, boolean compact) {}
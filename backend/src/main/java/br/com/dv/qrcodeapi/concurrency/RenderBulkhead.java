@@ -0,0 +1,250 @@
+package br.com.dv.qrcodeapi.concurrency;
+
+import br.com.dv.qrcodeapi.exception.ImageProcessingException;
+import br.com.dv.qrcodeapi.exception.RenderCapacityExceededException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs CPU-bound rendering on a dedicated pool sized to the core count, so a burst of generate
+ * requests cannot take every core away from the CRUD and auth endpoints served by the request threads.
+ * <p>
+ * Work is admitted up front against two limits: the number of renders waiting for a thread, and the
+ * estimated bytes held by admitted renders. Anything over either limit is rejected immediately with a
+ * {@link RenderCapacityExceededException} rather than queued, so overload shows up as fast rejections
+ * instead of growing latency. Queue depth, active renders, pending bytes, rejections and queue wait time
+ * are published as {@code qrcode.render.*} meters.
+ */
+@Component
+public class RenderBulkhead implements MeterBinder, DisposableBean {
+
+    private static final String METRIC_PREFIX = "qrcode.render.";
+
+    private final ThreadPoolExecutor executor;
+    private final int maxQueueDepth;
+    private final long maxPendingBytes;
+    private final long retryAfterSeconds;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong pendingBytes = new AtomicLong();
+    private final LongAdder queueFullRejections = new LongAdder();
+    private final LongAdder memoryRejections = new LongAdder();
+    private final LongAdder waitCount = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+
+    public RenderBulkhead(
+            @Value("${qrcode.render.threads:0}") int threads,
+            @Value("${qrcode.render.max-queue-depth:64}") int maxQueueDepth,
+            @Value("${qrcode.render.max-pending-bytes:134217728}") long maxPendingBytes,
+            @Value("${qrcode.render.retry-after-seconds:1}") long retryAfterSeconds
+    ) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+
+        // Admission bounds the queue, so the executor's own queue never needs to reject.
+        this.executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                new RenderThreadFactory()
+        );
+        this.maxQueueDepth = maxQueueDepth;
+        this.maxPendingBytes = maxPendingBytes;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Admits a render of the given estimated cost and runs it on the render pool, blocking until it
+     * completes. Exceptions thrown by the task are rethrown unchanged.
+     */
+    public <T, E extends Exception> T execute(long estimatedBytes, RenderTask<T, E> task) throws E {
+        return admit(estimatedBytes).execute(task);
+    }
+
+    /**
+     * Reserves capacity for a render that will run later, such as one written from a streaming response
+     * body. Rejection happens here, while an error status can still be sent. The returned permit must be
+     * either executed or {@link Permit#abandon() abandoned}.
+     */
+    public Permit admit(long estimatedBytes) {
+        synchronized (this) {
+            if (queued.get() >= maxQueueDepth) {
+                queueFullRejections.increment();
+                throw new RenderCapacityExceededException(retryAfterSeconds);
+            }
+            // A single render is always admitted when nothing else is pending, however large it is.
+            long pending = pendingBytes.get();
+            if (pending > 0 && pending + estimatedBytes > maxPendingBytes) {
+                memoryRejections.increment();
+                throw new RenderCapacityExceededException(retryAfterSeconds);
+            }
+            queued.incrementAndGet();
+            pendingBytes.addAndGet(estimatedBytes);
+        }
+        return new Permit(estimatedBytes);
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder(METRIC_PREFIX + "queue.depth", queued, AtomicInteger::get)
+                .description("Admitted renders waiting for a render thread")
+                .register(registry);
+        Gauge.builder(METRIC_PREFIX + "active", active, AtomicInteger::get)
+                .description("Renders currently running")
+                .register(registry);
+        Gauge.builder(METRIC_PREFIX + "pending.bytes", pendingBytes, AtomicLong::get)
+                .description("Estimated memory held by admitted renders")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + "rejected", queueFullRejections, LongAdder::sum)
+                .description("Renders rejected at admission")
+                .tag("reason", "queue")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + "rejected", memoryRejections, LongAdder::sum)
+                .description("Renders rejected at admission")
+                .tag("reason", "memory")
+                .register(registry);
+        FunctionTimer.builder(
+                        METRIC_PREFIX + "queue.wait",
+                        this,
+                        bulkhead -> bulkhead.waitCount.sum(),
+                        bulkhead -> bulkhead.waitNanos.sum(),
+                        TimeUnit.NANOSECONDS
+                )
+                .description("Time admitted renders spent waiting for a render thread")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    @FunctionalInterface
+    public interface RenderTask<T, E extends Exception> {
+
+        T run() throws E;
+
+    }
+
+    /**
+     * Capacity reserved by {@link #admit(long)}. Released when its task finishes, or when the caller
+     * stops waiting before the task has started.
+     */
+    public final class Permit {
+
+        private final long estimatedBytes;
+        private final long admittedAt = System.nanoTime();
+        private final AtomicBoolean used = new AtomicBoolean();
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        private Permit(long estimatedBytes) {
+            this.estimatedBytes = estimatedBytes;
+        }
+
+        public <T, E extends Exception> T execute(RenderTask<T, E> task) throws E {
+            if (!used.compareAndSet(false, true)) {
+                throw new IllegalStateException("Render permit has already been used");
+            }
+
+            Future<T> future;
+            try {
+                future = executor.submit(() -> run(task));
+            } catch (RuntimeException e) {
+                abandon();
+                throw e;
+            }
+
+            return await(future);
+        }
+
+        private <T, E extends Exception> T run(RenderTask<T, E> task) throws E {
+            if (!started.compareAndSet(false, true)) {
+                return null;
+            }
+
+            waitNanos.add(System.nanoTime() - admittedAt);
+            waitCount.increment();
+            queued.decrementAndGet();
+            active.incrementAndGet();
+            try {
+                return task.run();
+            } finally {
+                active.decrementAndGet();
+                pendingBytes.addAndGet(-estimatedBytes);
+            }
+        }
+
+        /**
+         * Releases the reserved capacity if the task has not started, for a caller that will not run it
+         * after all. Has no effect once the task has started; it then releases when it finishes.
+         */
+        public void abandon() {
+            if (started.compareAndSet(false, true)) {
+                queued.decrementAndGet();
+                pendingBytes.addAndGet(-estimatedBytes);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T, E extends Exception> T await(Future<T> future) throws E {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                // A render that is already running finishes on its own; one still queued is skipped.
+                abandon();
+                future.cancel(false);
+                Thread.currentThread().interrupt();
+                throw new ImageProcessingException(e);
+            } catch (CancellationException e) {
+                throw new ImageProcessingException(e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                if (cause instanceof Error error) {
+                    throw error;
+                }
+                // Anything else is a checked exception declared by the task itself.
+                throw (E) cause;
+            }
+        }
+
+    }
+
+    private static final class RenderThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            Thread thread = new Thread(runnable, "qrcode-render-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+
+    }
+
+}
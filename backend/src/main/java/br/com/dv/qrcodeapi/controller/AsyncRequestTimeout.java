@@ -0,0 +1,38 @@
+package br.com.dv.qrcodeapi.controller;
+
+import jakarta.servlet.ServletRequest;
+import org.springframework.lang.NonNull;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Overrides the async timeout of a single request, for endpoints whose streamed response may run far
+ * longer than the default allows. The timeout is set just before async processing starts, which is the
+ * last point the container accepts it.
+ */
+final class AsyncRequestTimeout implements CallableProcessingInterceptor {
+
+    private final long timeoutMillis;
+
+    private AsyncRequestTimeout(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    static void apply(ServletRequest request, long timeoutMillis) {
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(
+                AsyncRequestTimeout.class.getName(), new AsyncRequestTimeout(timeoutMillis)
+        );
+    }
+
+    @Override
+    public <T> void beforeConcurrentHandling(@NonNull NativeWebRequest request, @NonNull Callable<T> task) {
+        if (request instanceof AsyncWebRequest asyncWebRequest) {
+            asyncWebRequest.setTimeout(timeoutMillis);
+        }
+    }
+
+}
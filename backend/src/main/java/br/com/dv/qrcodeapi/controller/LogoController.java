@@ -0,0 +1,46 @@
+package br.com.dv.qrcodeapi.controller;
+
+import br.com.dv.qrcodeapi.dto.LogoResponse;
+import br.com.dv.qrcodeapi.service.LogoService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RequestMapping("/api/qrcode/logos")
+@RestController
+public class LogoController {
+
+    private static final String IMAGE_ANY_VALUE = "image/*";
+
+    private final LogoService logoService;
+
+    public LogoController(LogoService logoService) {
+        this.logoService = logoService;
+    }
+
+    @PostMapping(consumes = IMAGE_ANY_VALUE)
+    public ResponseEntity<LogoResponse> uploadImage(HttpServletRequest request) throws IOException {
+        return created(logoService.upload(request.getInputStream()));
+    }
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<LogoResponse> uploadPart(@RequestParam("logo") MultipartFile logo) throws IOException {
+        try (InputStream image = logo.getInputStream()) {
+            return created(logoService.upload(image));
+        }
+    }
+
+    private static ResponseEntity<LogoResponse> created(LogoResponse logo) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(logo);
+    }
+
+}
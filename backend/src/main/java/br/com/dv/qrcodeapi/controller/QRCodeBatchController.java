@@ -0,0 +1,53 @@
+package br.com.dv.qrcodeapi.controller;
+
+import br.com.dv.qrcodeapi.service.QRCodeBatchService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.concurrent.TimeUnit;
+
+@RequestMapping("/api/qrcode/generate/batch")
+@RestController
+public class QRCodeBatchController {
+
+    private static final MediaType APPLICATION_ZIP = new MediaType("application", "zip");
+    private static final String ARCHIVE_FILENAME = "qrcodes.zip";
+
+    private final QRCodeBatchService qrCodeBatchService;
+    private final long timeoutMillis;
+
+    public QRCodeBatchController(
+            QRCodeBatchService qrCodeBatchService,
+            @Value("${qrcode.batch.timeout-seconds:1800}") long timeoutSeconds
+    ) {
+        this.qrCodeBatchService = qrCodeBatchService;
+        this.timeoutMillis = TimeUnit.SECONDS.toMillis(timeoutSeconds);
+    }
+
+    @PostMapping(consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> generateBatch(HttpServletRequest request) {
+        // An archive streams for as long as the batch takes to render, far beyond the default timeout.
+        AsyncRequestTimeout.apply(request, timeoutMillis);
+        StreamingResponseBody body = outputStream ->
+                qrCodeBatchService.generateBatch(request.getInputStream(), outputStream);
+
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .contentType(APPLICATION_ZIP)
+                .header(
+                        HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(ARCHIVE_FILENAME).build().toString()
+                )
+                .body(body);
+    }
+
+}
@@ -0,0 +1,66 @@
+package br.com.dv.qrcodeapi.controller;
+
+import br.com.dv.qrcodeapi.service.QRCodeDecodeService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@RequestMapping("/api/qrcode/decode")
+@RestController
+public class QRCodeDecodeController {
+
+    private static final String APPLICATION_ZIP_VALUE = "application/zip";
+    private static final String IMAGE_ANY_VALUE = "image/*";
+
+    private final QRCodeDecodeService qrCodeDecodeService;
+    private final long timeoutMillis;
+
+    public QRCodeDecodeController(
+            QRCodeDecodeService qrCodeDecodeService,
+            @Value("${qrcode.decode.timeout-seconds:300}") long timeoutSeconds
+    ) {
+        this.qrCodeDecodeService = qrCodeDecodeService;
+        this.timeoutMillis = TimeUnit.SECONDS.toMillis(timeoutSeconds);
+    }
+
+    @PostMapping(consumes = IMAGE_ANY_VALUE)
+    public ResponseEntity<StreamingResponseBody> decodeImage(HttpServletRequest request) {
+        return results(request, outputStream -> qrCodeDecodeService.decodeImage(request.getInputStream(), outputStream));
+    }
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<StreamingResponseBody> decodeParts(MultipartHttpServletRequest request) {
+        List<MultipartFile> images = request.getMultiFileMap().values().stream()
+                .flatMap(List::stream)
+                .toList();
+        return results(request, outputStream -> qrCodeDecodeService.decodeParts(images, outputStream));
+    }
+
+    @PostMapping(consumes = APPLICATION_ZIP_VALUE)
+    public ResponseEntity<StreamingResponseBody> decodeArchive(HttpServletRequest request) {
+        return results(request, outputStream -> qrCodeDecodeService.decodeArchive(request.getInputStream(), outputStream));
+    }
+
+    /**
+     * Results stream while the upload is decoded, which for an archive can outlast the default timeout.
+     */
+    private ResponseEntity<StreamingResponseBody> results(HttpServletRequest request, StreamingResponseBody body) {
+        AsyncRequestTimeout.apply(request, timeoutMillis);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+}
@@ -1,51 +1,220 @@
 package br.com.dv.qrcodeapi.controller;
 
-import br.com.dv.qrcodeapi.dto.ImageResponse;
+import br.com.dv.qrcodeapi.dto.StreamingImageResponse;
+import br.com.dv.qrcodeapi.dto.SymbolInfo;
+import br.com.dv.qrcodeapi.metrics.StageTimings;
+import br.com.dv.qrcodeapi.render.RenderSpec;
 import br.com.dv.qrcodeapi.service.QRCodeGenerationService;
+import br.com.dv.qrcodeapi.service.SignedUrlService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 
-@RequestMapping("/api/qrcode/generate")
 @RestController
 public class QRCodeGenerationController {
 
+    public static final String GENERATE_PATH = "/api/qrcode/generate";
+    public static final String SIGNED_PATH = "/api/public/qrcode/generate";
+
+    private static final String SERVER_TIMING_HEADER = "Server-Timing";
+    private static final String SYMBOL_VERSION_HEADER = "X-QRCode-Version";
+    private static final String SYMBOL_MODULES_HEADER = "X-QRCode-Modules";
+
     private final QRCodeGenerationService qrCodeGenerationService;
+    private final SignedUrlService signedUrlService;
+    private final long cacheMaxAgeSeconds;
+    private final CacheControl cacheControl;
 
-    public QRCodeGenerationController(QRCodeGenerationService qrCodeGenerationService) {
+    public QRCodeGenerationController(
+            QRCodeGenerationService qrCodeGenerationService,
+            SignedUrlService signedUrlService,
+            @Value("${qrcode.generate.cache-max-age-seconds:86400}") long cacheMaxAgeSeconds
+    ) {
         this.qrCodeGenerationService = qrCodeGenerationService;
+        this.signedUrlService = signedUrlService;
+        this.cacheMaxAgeSeconds = cacheMaxAgeSeconds;
+        // Images are a pure function of the query string, so shared caches may store and reuse them.
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(cacheMaxAgeSeconds)).cachePublic();
     }
 
-    @GetMapping
-    public ResponseEntity<byte[]> generateQrCode(
+    @GetMapping(GENERATE_PATH)
+    public ResponseEntity<StreamingImageResponse> generateQrCode(
             @RequestParam(name = "contents") String content,
             @RequestParam(required = false, defaultValue = "250") int size,
             @RequestParam(required = false, defaultValue = "L") String correction,
             @RequestParam(name = "type", required = false, defaultValue = "png") String format,
             @RequestParam(required = false, defaultValue = "#000000") String fcolor,
             @RequestParam(required = false, defaultValue = "#FFFFFF") String bcolor,
-            @RequestParam(required = false, defaultValue = "4") int margin
+            @RequestParam(required = false, defaultValue = "4") int margin,
+            @RequestParam(required = false, defaultValue = "false") boolean compact,
+            @RequestParam(required = false) String logo,
+            WebRequest webRequest
     ) {
-        ImageResponse response = qrCodeGenerationService.generateQRCode(
-                content,
-                size,
-                correction,
-                format,
-                URLDecoder.decode(fcolor, StandardCharsets.UTF_8),
-                URLDecoder.decode(bcolor, StandardCharsets.UTF_8),
-                margin
+        String decodedFcolor = URLDecoder.decode(fcolor, StandardCharsets.UTF_8);
+        String decodedBcolor = URLDecoder.decode(bcolor, StandardCharsets.UTF_8);
+
+        return generate(
+                content, size, correction, format, decodedFcolor, decodedBcolor, margin, compact, logo,
+                cacheControl, webRequest
         );
+    }
 
-        return ResponseEntity
+    /**
+     * Renders from a URL minted by {@code POST /api/qrcode/signed-urls}. It carries its own authorisation,
+     * so it is served outside the authenticated filter chain: no token is parsed and no user is loaded,
+     * and shared caches may keep the image until the URL expires.
+     */
+    @GetMapping(SIGNED_PATH)
+    public ResponseEntity<StreamingImageResponse> generateSignedQrCode(
+            @RequestParam(name = "contents") String content,
+            @RequestParam int size,
+            @RequestParam String correction,
+            @RequestParam(name = "type") String format,
+            @RequestParam String fcolor,
+            @RequestParam String bcolor,
+            @RequestParam int margin,
+            @RequestParam boolean compact,
+            @RequestParam(required = false) String logo,
+            @RequestParam long expires,
+            @RequestParam String signature,
+            WebRequest webRequest
+    ) {
+        signedUrlService.verify(
+                content, size, correction, format, fcolor, bcolor, margin, compact, logo, expires, signature
+        );
+
+        long maxAgeSeconds = Math.min(cacheMaxAgeSeconds, signedUrlService.secondsUntil(expires));
+        return generate(
+                content, size, correction, format, fcolor, bcolor, margin, compact, logo,
+                CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic(), webRequest
+        );
+    }
+
+    @GetMapping(path = GENERATE_PATH, params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamQrCode(
+            @RequestParam(name = "contents") String content,
+            @RequestParam(required = false, defaultValue = "250") int size,
+            @RequestParam(required = false, defaultValue = "L") String correction,
+            @RequestParam(name = "type", required = false, defaultValue = "png") String format,
+            @RequestParam(required = false, defaultValue = "#000000") String fcolor,
+            @RequestParam(required = false, defaultValue = "#FFFFFF") String bcolor,
+            @RequestParam(required = false, defaultValue = "4") int margin,
+            @RequestParam(required = false, defaultValue = "false") boolean compact,
+            @RequestParam(required = false) String logo,
+            WebRequest webRequest
+    ) {
+        String decodedFcolor = URLDecoder.decode(fcolor, StandardCharsets.UTF_8);
+        String decodedBcolor = URLDecoder.decode(bcolor, StandardCharsets.UTF_8);
+
+        var timings = new StageTimings();
+        RenderSpec spec = qrCodeGenerationService.parse(
+                content, size, correction, format, decodedFcolor, decodedBcolor, margin, compact, logo, timings
+        );
+        String eTag = eTag(spec);
+        if (webRequest.checkNotModified(eTag)) {
+            return notModified(eTag, cacheControl);
+        }
+
+        StreamingImageResponse response = qrCodeGenerationService.streamQRCode(spec, timings);
+        StreamedImageCleanup.track(webRequest, response);
+
+        return ok(response, eTag, cacheControl).body(response.body());
+    }
+
+    /**
+     * Cache hits are written by {@link StreamingImageResponseConverter} from off-heap memory or the
+     * segment file they are stored in; only misses, rendered onto the heap anyway, are served from a
+     * byte array.
+     */
+    private ResponseEntity<StreamingImageResponse> generate(
+            String content,
+            int size,
+            String correction,
+            String format,
+            String foregroundColor,
+            String backgroundColor,
+            int margin,
+            boolean compact,
+            String logo,
+            CacheControl cacheControl,
+            WebRequest webRequest
+    ) {
+        var timings = new StageTimings();
+        RenderSpec spec = qrCodeGenerationService.parse(
+                content, size, correction, format, foregroundColor, backgroundColor, margin, compact, logo, timings
+        );
+        String eTag = eTag(spec);
+        if (webRequest.checkNotModified(eTag)) {
+            return notModified(eTag, cacheControl);
+        }
+
+        StreamingImageResponse response = qrCodeGenerationService.getStoredQRCode(spec, timings);
+        if (response != null) {
+            StreamedImageCleanup.track(webRequest, response);
+        } else {
+            response = StreamingImageResponse.of(qrCodeGenerationService.generateQRCode(spec, timings));
+        }
+
+        return ok(response, eTag, cacheControl).body(response);
+    }
+
+    private static ResponseEntity.BodyBuilder ok(
+            StreamingImageResponse response,
+            String eTag,
+            CacheControl cacheControl
+    ) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity
                 .status(HttpStatus.OK)
                 .contentType(response.mediaType())
-                .body(response.imageData());
+                .eTag(eTag)
+                .cacheControl(cacheControl)
+                .headers(headers -> {
+                    addServerTiming(headers, response.timings());
+                    addSymbolInfo(headers, response.symbol());
+                });
+
+        if (response.hasContentLength()) {
+            builder.contentLength(response.contentLength());
+        }
+
+        return builder;
+    }
+
+    private static String eTag(RenderSpec spec) {
+        return '"' + spec.renderKey() + '"';
+    }
+
+    private static void addServerTiming(HttpHeaders headers, StageTimings timings) {
+        String serverTiming = timings.toServerTiming();
+        if (!serverTiming.isEmpty()) {
+            headers.add(SERVER_TIMING_HEADER, serverTiming);
+        }
+    }
+
+    private static void addSymbolInfo(HttpHeaders headers, SymbolInfo symbol) {
+        if (symbol != null) {
+            headers.add(SYMBOL_VERSION_HEADER, Integer.toString(symbol.version()));
+            headers.add(SYMBOL_MODULES_HEADER, Integer.toString(symbol.modules()));
+        }
+    }
+
+    private static <T> ResponseEntity<T> notModified(String eTag, CacheControl cacheControl) {
+        return ResponseEntity
+                .status(HttpStatus.NOT_MODIFIED)
+                .eTag(eTag)
+                .cacheControl(cacheControl)
+                .build();
     }
 
 }
@@ -0,0 +1,30 @@
+package br.com.dv.qrcodeapi.controller;
+
+import br.com.dv.qrcodeapi.dto.SignedUrlRequest;
+import br.com.dv.qrcodeapi.dto.SignedUrlResponse;
+import br.com.dv.qrcodeapi.service.SignedUrlService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+@RequestMapping("/api/qrcode/signed-urls")
+@RestController
+public class SignedUrlController {
+
+    private final SignedUrlService signedUrlService;
+
+    public SignedUrlController(SignedUrlService signedUrlService) {
+        this.signedUrlService = signedUrlService;
+    }
+
+    @PostMapping
+    public ResponseEntity<SignedUrlResponse> sign(@RequestBody SignedUrlRequest request) {
+        var target = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path(QRCodeGenerationController.SIGNED_PATH);
+        return ResponseEntity.ok(signedUrlService.sign(request, target));
+    }
+
+}
@@ -0,0 +1,54 @@
+package br.com.dv.qrcodeapi.controller;
+
+import br.com.dv.qrcodeapi.dto.StreamingImageResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Discards a streamed image once its request is over, so the cache reference or render permit its body
+ * holds is released even when the body never runs: the client went away or the request timed out
+ * before the body was called, or handling failed before async processing started.
+ * <p>
+ * Registered both as a handler interceptor, which sees requests that complete without going async and
+ * the async dispatch, and as a callable interceptor, whose completion callback runs when the container
+ * completes the async request even if it never dispatches again. Discarding is idempotent and does
+ * nothing once the body has run.
+ */
+public class StreamedImageCleanup implements HandlerInterceptor, CallableProcessingInterceptor {
+
+    private static final String RESPONSE_ATTRIBUTE = StreamedImageCleanup.class.getName() + ".response";
+
+    public static void track(WebRequest webRequest, StreamingImageResponse response) {
+        webRequest.setAttribute(RESPONSE_ATTRIBUTE, response, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    @Override
+    public void afterCompletion(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull Object handler,
+            Exception ex
+    ) {
+        discard(request.getAttribute(RESPONSE_ATTRIBUTE));
+    }
+
+    @Override
+    public <T> void afterCompletion(@NonNull NativeWebRequest request, @NonNull Callable<T> task) {
+        discard(request.getAttribute(RESPONSE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST));
+    }
+
+    private static void discard(Object response) {
+        if (response instanceof StreamingImageResponse streamed) {
+            streamed.discard();
+        }
+    }
+
+}
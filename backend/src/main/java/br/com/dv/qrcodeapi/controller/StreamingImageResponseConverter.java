@@ -0,0 +1,61 @@
+package br.com.dv.qrcodeapi.controller;
+
+import br.com.dv.qrcodeapi.dto.StreamingImageResponse;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.NonNull;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link StreamingImageResponse} body on the request thread, so a cached image is copied from
+ * where it is stored straight to the response instead of through a heap array. The body releases what
+ * it holds once written; {@link StreamedImageCleanup} releases it if the converter never runs.
+ */
+class StreamingImageResponseConverter extends AbstractHttpMessageConverter<StreamingImageResponse> {
+
+    StreamingImageResponseConverter() {
+        super(MediaType.ALL);
+    }
+
+    @Override
+    protected boolean supports(@NonNull Class<?> clazz) {
+        return StreamingImageResponse.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    @NonNull
+    protected StreamingImageResponse readInternal(
+            @NonNull Class<? extends StreamingImageResponse> clazz,
+            @NonNull HttpInputMessage inputMessage
+    ) {
+        throw new HttpMessageNotReadableException("Images are not read from requests", inputMessage);
+    }
+
+    @Override
+    protected MediaType getDefaultContentType(@NonNull StreamingImageResponse response) {
+        return response.mediaType();
+    }
+
+    @Override
+    protected Long getContentLength(@NonNull StreamingImageResponse response, MediaType contentType) {
+        return response.hasContentLength() ? response.contentLength() : null;
+    }
+
+    @Override
+    protected void writeInternal(
+            @NonNull StreamingImageResponse response,
+            @NonNull HttpOutputMessage outputMessage
+    ) throws IOException {
+        response.body().writeTo(outputMessage.getBody());
+    }
+
+}
@@ -0,0 +1,33 @@
+package br.com.dv.qrcodeapi.controller;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final StreamedImageCleanup streamedImageCleanup = new StreamedImageCleanup();
+
+    @Override
+    public void addInterceptors(@NonNull InterceptorRegistry registry) {
+        registry.addInterceptor(streamedImageCleanup)
+                .addPathPatterns(QRCodeGenerationController.GENERATE_PATH, QRCodeGenerationController.SIGNED_PATH);
+    }
+
+    @Override
+    public void extendMessageConverters(@NonNull List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new StreamingImageResponseConverter());
+    }
+
+    @Override
+    public void configureAsyncSupport(@NonNull AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(streamedImageCleanup);
+    }
+
+}
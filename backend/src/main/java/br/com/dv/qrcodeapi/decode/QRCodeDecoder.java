@@ -0,0 +1,133 @@
+package br.com.dv.qrcodeapi.decode;
+
+import br.com.dv.qrcodeapi.dto.DecodeResult.DecodedSymbol;
+import br.com.dv.qrcodeapi.dto.DecodeResult.Point;
+import br.com.dv.qrcodeapi.util.ImageUtils;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.Result;
+import com.google.zxing.ResultPoint;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.multi.qrcode.QRCodeMultiReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds every QR code in an uploaded image.
+ * <p>
+ * Photos larger than {@code downscaleMaxDimension} on their longest side are first searched in a
+ * grayscale copy scaled down to that size, which is much cheaper to binarize and scan. Only when that
+ * pass finds nothing is the full-resolution image searched again, with {@code TRY_HARDER}. Codes whose
+ * modules end up smaller than about two pixels in the scaled copy are therefore missed whenever a
+ * larger code in the same photo is found; raise the dimension for sheets of very small codes.
+ * <p>
+ * Uploads are read with {@link ImageUtils#readImage}, which rejects oversized images from their header.
+ */
+@Component
+public class QRCodeDecoder {
+
+    private static final Map<DecodeHintType, Object> HINTS = Map.of(
+            DecodeHintType.POSSIBLE_FORMATS, List.of(BarcodeFormat.QR_CODE)
+    );
+    private static final Map<DecodeHintType, Object> TRY_HARDER_HINTS = Map.of(
+            DecodeHintType.POSSIBLE_FORMATS, List.of(BarcodeFormat.QR_CODE),
+            DecodeHintType.TRY_HARDER, Boolean.TRUE
+    );
+
+    private final int downscaleMaxDimension;
+    private final long maxImageBytes;
+    private final long maxImagePixels;
+
+    public QRCodeDecoder(
+            @Value("${qrcode.decode.downscale-max-dimension:2048}") int downscaleMaxDimension,
+            @Value("${qrcode.decode.max-image-bytes:20971520}") long maxImageBytes,
+            @Value("${qrcode.decode.max-image-pixels:50000000}") long maxImagePixels
+    ) {
+        this.downscaleMaxDimension = downscaleMaxDimension;
+        this.maxImageBytes = maxImageBytes;
+        this.maxImagePixels = maxImagePixels;
+    }
+
+    public long getMaxImageBytes() {
+        return maxImageBytes;
+    }
+
+    public List<DecodedSymbol> decode(byte[] imageData) {
+        return decode(ImageUtils.readImage(imageData, maxImageBytes, maxImagePixels));
+    }
+
+    public List<DecodedSymbol> decode(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int longestSide = Math.max(width, height);
+
+        if (downscaleMaxDimension > 0 && longestSide > downscaleMaxDimension) {
+            double scale = (double) downscaleMaxDimension / longestSide;
+            BufferedImage scaled = toGrayscale(
+                    image,
+                    Math.max(1, (int) Math.round(width * scale)),
+                    Math.max(1, (int) Math.round(height * scale))
+            );
+            List<DecodedSymbol> symbols = scan(scaled, HINTS, (float) (1 / scale));
+            if (!symbols.isEmpty()) {
+                return symbols;
+            }
+        }
+        return scan(image, TRY_HARDER_HINTS, 1);
+    }
+
+    private static List<DecodedSymbol> scan(BufferedImage image, Map<DecodeHintType, Object> hints, float scale) {
+        var bitmap = new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(image)));
+        Result[] results;
+        try {
+            results = new QRCodeMultiReader().decodeMultiple(bitmap, hints);
+        } catch (NotFoundException e) {
+            return List.of();
+        }
+
+        List<DecodedSymbol> symbols = new ArrayList<>(results.length);
+        for (Result result : results) {
+            symbols.add(new DecodedSymbol(result.getText(), points(result, scale)));
+        }
+        return symbols;
+    }
+
+    private static List<Point> points(Result result, float scale) {
+        ResultPoint[] resultPoints = result.getResultPoints();
+        if (resultPoints == null) {
+            return List.of();
+        }
+        List<Point> points = new ArrayList<>(resultPoints.length);
+        for (ResultPoint point : resultPoints) {
+            points.add(new Point(point.getX() * scale, point.getY() * scale));
+        }
+        return points;
+    }
+
+    private static BufferedImage toGrayscale(BufferedImage image, int width, int height) {
+        var scaled = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            // Transparent pixels read as white, as BufferedImageLuminanceSource does at full size.
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+}
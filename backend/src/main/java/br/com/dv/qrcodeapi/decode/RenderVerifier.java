@@ -0,0 +1,188 @@
+package br.com.dv.qrcodeapi.decode;
+
+import br.com.dv.qrcodeapi.engine.ImageFormat;
+import br.com.dv.qrcodeapi.render.RenderSpec;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.ReaderException;
+import com.google.zxing.Result;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes rendered images with zxing and checks that they carry the requested content, so a
+ * rendering change that makes codes hard to scan shows up in metrics instead of customer reports.
+ * <p>
+ * Sampled verifications run on a small background pool with a bounded queue; when it is full the
+ * sample is dropped rather than delaying the request. {@link #verify} runs synchronously, for callers
+ * such as batch jobs that want every output checked. Only raster formats are decoded, and only up to
+ * {@code maxSize}, since verification reads the whole image into memory.
+ * <p>
+ * Outcomes are counted in {@code qrcode.verify.results}, tagged by outcome and format, and decode time
+ * goes to the {@code qrcode.verify.decode} timer.
+ */
+@Component
+public class RenderVerifier implements DisposableBean {
+
+    private static final Map<DecodeHintType, Object> HINTS = Map.of(
+            DecodeHintType.POSSIBLE_FORMATS, List.of(BarcodeFormat.QR_CODE)
+    );
+    private static final Set<ImageFormat> DECODABLE_FORMATS = EnumSet.of(
+            ImageFormat.PNG, ImageFormat.JPEG, ImageFormat.GIF
+    );
+    private static final Duration MINIMUM_EXPECTED_DURATION = Duration.ofMillis(1).dividedBy(10);
+    private static final Duration MAXIMUM_EXPECTED_DURATION = Duration.ofSeconds(10);
+
+    private final double sampleRate;
+    private final int maxSize;
+    private final ThreadPoolExecutor executor;
+    private final MeterRegistry registry;
+    private final Map<ResultKey, Counter> results = new ConcurrentHashMap<>();
+    private final Map<ImageFormat, Timer> decodeTimers = new ConcurrentHashMap<>();
+    private final Counter dropped;
+
+    public RenderVerifier(
+            @Value("${qrcode.verify.sample-rate:0}") double sampleRate,
+            @Value("${qrcode.verify.threads:1}") int threads,
+            @Value("${qrcode.verify.max-queue-depth:64}") int maxQueueDepth,
+            @Value("${qrcode.verify.max-size:1024}") int maxSize,
+            MeterRegistry registry
+    ) {
+        this.sampleRate = sampleRate;
+        this.maxSize = maxSize;
+        this.registry = registry;
+        this.dropped = Counter.builder("qrcode.verify.dropped")
+                .description("Sampled verifications dropped because the verification queue was full")
+                .register(registry);
+        this.executor = new ThreadPoolExecutor(
+                Math.max(1, threads), Math.max(1, threads), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, maxQueueDepth)),
+                runnable -> {
+                    var thread = new Thread(runnable, "qrcode-verify");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                (runnable, pool) -> dropped.increment()
+        );
+    }
+
+    /**
+     * Decides on the calling thread whether this render is sampled, so a streamed response knows
+     * whether to keep a copy of what it writes.
+     */
+    public boolean shouldSample() {
+        return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    /**
+     * Verifies a rendered image in the background at the configured sample rate.
+     */
+    public void sample(RenderSpec spec, byte[] imageData) {
+        if (shouldSample()) {
+            submit(spec, imageData);
+        }
+    }
+
+    /**
+     * Verifies a rendered image in the background, regardless of the sample rate.
+     */
+    public void submit(RenderSpec spec, byte[] imageData) {
+        if (verifiable(spec.format(), spec.size())) {
+            executor.execute(() -> verify(spec.content(), spec.format(), spec.size(), imageData));
+        } else {
+            count(spec.format(), Outcome.SKIPPED);
+        }
+    }
+
+    /**
+     * Decodes the image on the calling thread and reports whether it carries {@code content}.
+     */
+    public Outcome verify(String content, ImageFormat format, int size, byte[] imageData) {
+        if (!verifiable(format, size)) {
+            return count(format, Outcome.SKIPPED);
+        }
+
+        long start = System.nanoTime();
+        Outcome outcome = decode(content, imageData);
+        decodeTimer(format).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return count(format, outcome);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private boolean verifiable(ImageFormat format, int size) {
+        return DECODABLE_FORMATS.contains(format) && size <= maxSize;
+    }
+
+    private static Outcome decode(String content, byte[] imageData) {
+        try {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(imageData));
+            if (image == null) {
+                return Outcome.UNREADABLE;
+            }
+            var bitmap = new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(image)));
+            Result result = new QRCodeReader().decode(bitmap, HINTS);
+            return content.equals(result.getText()) ? Outcome.MATCH : Outcome.MISMATCH;
+        } catch (ReaderException | IOException e) {
+            return Outcome.UNREADABLE;
+        }
+    }
+
+    private Outcome count(ImageFormat format, Outcome outcome) {
+        results.computeIfAbsent(new ResultKey(format, outcome), k -> Counter.builder("qrcode.verify.results")
+                        .description("Round-trip verifications of rendered QR codes")
+                        .tag("format", k.format().name().toLowerCase(Locale.ROOT))
+                        .tag("outcome", k.outcome().name().toLowerCase(Locale.ROOT))
+                        .register(registry))
+                .increment();
+        return outcome;
+    }
+
+    private Timer decodeTimer(ImageFormat format) {
+        return decodeTimers.computeIfAbsent(format, f -> Timer.builder("qrcode.verify.decode")
+                .description("Time spent decoding rendered QR codes for verification")
+                .tag("format", f.name().toLowerCase(Locale.ROOT))
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MINIMUM_EXPECTED_DURATION)
+                .maximumExpectedValue(MAXIMUM_EXPECTED_DURATION)
+                .register(registry));
+    }
+
+    public enum Outcome {
+        MATCH,
+        MISMATCH,
+        UNREADABLE,
+        SKIPPED
+    }
+
+    private record ResultKey(ImageFormat format, Outcome outcome) {}
+
+}
@@ -0,0 +1,15 @@
+package br.com.dv.qrcodeapi.dto;
+
+import java.util.List;
+
+public record BatchManifest(
+        int total,
+        int succeeded,
+        List<BatchFailure> failures,
+        List<BatchFailure> verificationFailures,
+        String inputError
+) {
+
+    public record BatchFailure(int index, String name, String error) {}
+
+}
@@ -0,0 +1,16 @@
+package br.com.dv.qrcodeapi.dto;
+
+import java.util.List;
+
+public record DecodeResult(
+        int index,
+        String name,
+        List<DecodedSymbol> symbols,
+        String error
+) {
+
+    public record DecodedSymbol(String text, List<Point> points) {}
+
+    public record Point(float x, float y) {}
+
+}
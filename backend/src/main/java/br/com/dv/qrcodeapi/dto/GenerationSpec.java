@@ -0,0 +1,22 @@
+package br.com.dv.qrcodeapi.dto;
+
+/**
+ * One item of a batch generation request. Fields mirror the query parameters of
+ * {@code GET /api/qrcode/generate}; every field except {@code contents} is optional and falls back
+ * to the same default. {@code logo} is the ID returned by {@code POST /api/qrcode/logos}.
+ * {@code name} is used in the archive entry name. With {@code verify} set, the rendered image is
+ * decoded before it is archived and any mismatch is listed in the manifest.
+ */
+public record GenerationSpec(
+        String name,
+        String contents,
+        Integer size,
+        String correction,
+        String type,
+        String fcolor,
+        String bcolor,
+        Integer margin,
+        Boolean compact,
+        String logo,
+        Boolean verify
+) {}
@@ -1,10 +1,24 @@
 package br.com.dv.qrcodeapi.dto;
 
+import br.com.dv.qrcodeapi.metrics.StageTimings;
 import org.springframework.http.MediaType;
 import java.util.Arrays;
 import java.util.Objects;
 
-public record ImageResponse(byte[] imageData, MediaType mediaType) {
+/**
+ * Encoded image bytes. {@code timings} describes how this particular response was produced and
+ * {@code symbol} the symbol it shows (null when unknown); neither is part of equality, so a cached image
+ * and a fresh render of the same parameters compare equal.
+ */
+public record ImageResponse(byte[] imageData, MediaType mediaType, StageTimings timings, SymbolInfo symbol) {
+
+    public ImageResponse(byte[] imageData, MediaType mediaType) {
+        this(imageData, mediaType, new StageTimings(), null);
+    }
+
+    public ImageResponse withDetails(StageTimings timings, SymbolInfo symbol) {
+        return new ImageResponse(imageData, mediaType, timings, symbol);
+    }
 
     @Override
     public boolean equals(Object o) {
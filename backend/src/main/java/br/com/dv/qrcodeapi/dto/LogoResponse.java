@@ -0,0 +1,7 @@
+package br.com.dv.qrcodeapi.dto;
+
+/**
+ * A stored logo: {@code id} is what {@code logo} takes on the generate endpoints, and the dimensions
+ * are those of the stored copy.
+ */
+public record LogoResponse(String id, int width, int height) {}
@@ -14,6 +14,7 @@ public record QRCodeResponse(
         String backgroundColor,
         Integer margin,
         String errorCorrection,
+        boolean compact,
         LocalDateTime createdAt,
         LocalDateTime updatedAt
 ) {}
@@ -19,5 +19,6 @@ public record SaveQRCodeRequest(
         String foregroundColor,
         String backgroundColor,
         Integer margin,
-        String errorCorrection
+        String errorCorrection,
+        Boolean compact
 ) {}
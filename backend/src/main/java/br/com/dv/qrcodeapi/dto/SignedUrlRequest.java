@@ -0,0 +1,19 @@
+package br.com.dv.qrcodeapi.dto;
+
+/**
+ * A render to pre-authorise. Fields mirror the query parameters of {@code GET /api/qrcode/generate}
+ * and fall back to the same defaults; {@code ttlSeconds} is how long the URL stays valid, defaulting
+ * to {@code qrcode.signing.default-ttl-seconds}.
+ */
+public record SignedUrlRequest(
+        String contents,
+        Integer size,
+        String correction,
+        String type,
+        String fcolor,
+        String bcolor,
+        Integer margin,
+        Boolean compact,
+        String logo,
+        Long ttlSeconds
+) {}
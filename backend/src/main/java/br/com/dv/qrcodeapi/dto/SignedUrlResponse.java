@@ -0,0 +1,5 @@
+package br.com.dv.qrcodeapi.dto;
+
+import java.time.Instant;
+
+public record SignedUrlResponse(String url, Instant expiresAt) {}
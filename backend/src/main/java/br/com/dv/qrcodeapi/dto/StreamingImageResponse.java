@@ -0,0 +1,55 @@
+package br.com.dv.qrcodeapi.dto;
+
+import br.com.dv.qrcodeapi.metrics.StageTimings;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * An image that is written straight to the response output stream. {@code contentLength} is
+ * {@link #UNKNOWN_LENGTH} when the size is only known once encoding finishes, in which case the
+ * response is sent with chunked transfer encoding. {@code timings} only covers the stages that ran
+ * before the body is written. {@code symbol} is null when unknown.
+ * <p>
+ * The body may hold a cache reference or render capacity until it has been written. Whoever sends
+ * the response must call {@link #discard()} once the request completes, whether or not the body ran;
+ * it releases them if the body never did, and does nothing otherwise.
+ */
+public record StreamingImageResponse(
+        StreamingResponseBody body,
+        MediaType mediaType,
+        long contentLength,
+        StageTimings timings,
+        SymbolInfo symbol,
+        Runnable onDiscard
+) {
+
+    public static final long UNKNOWN_LENGTH = -1;
+
+    public StreamingImageResponse(StreamingResponseBody body, MediaType mediaType, long contentLength) {
+        this(body, mediaType, contentLength, new StageTimings(), null, () -> { });
+    }
+
+    public void discard() {
+        onDiscard.run();
+    }
+
+    /**
+     * Writes an image already held on the heap, such as a fresh render.
+     */
+    public static StreamingImageResponse of(ImageResponse image) {
+        byte[] imageData = image.imageData();
+        return new StreamingImageResponse(
+                outputStream -> outputStream.write(imageData),
+                image.mediaType(),
+                imageData.length,
+                image.timings(),
+                image.symbol(),
+                () -> { }
+        );
+    }
+
+    public boolean hasContentLength() {
+        return contentLength != UNKNOWN_LENGTH;
+    }
+
+}
@@ -0,0 +1,15 @@
+package br.com.dv.qrcodeapi.dto;
+
+import com.google.zxing.qrcode.encoder.QRCode;
+
+/**
+ * Size of an encoded symbol: its QR version (1-40) and the number of modules per side, excluding
+ * the quiet zone.
+ */
+public record SymbolInfo(int version, int modules) {
+
+    public static SymbolInfo of(QRCode symbol) {
+        return new SymbolInfo(symbol.getVersion().getVersionNumber(), symbol.getMatrix().getWidth());
+    }
+
+}
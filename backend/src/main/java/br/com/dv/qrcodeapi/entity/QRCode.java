@@ -3,6 +3,7 @@ package br.com.dv.qrcodeapi.entity;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -45,6 +46,10 @@ public class QRCode {
     @Column(nullable = false)
     private String errorCorrection;
 
+    @ColumnDefault("false")
+    @Column(nullable = false)
+    private boolean compact;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
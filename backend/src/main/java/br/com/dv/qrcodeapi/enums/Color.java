@@ -15,9 +15,11 @@ public enum Color {
     GRAY("#808080");
 
     private final String hexCode;
+    private final int argb;
 
     Color(String hexCode) {
         this.hexCode = hexCode;
+        this.argb = (0xFF << 24) | Integer.parseInt(hexCode.substring(1), 16);
     }
 
 }
@@ -1,6 +1,7 @@
 package br.com.dv.qrcodeapi.exception;
 
 import org.springframework.beans.TypeMismatchException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -8,6 +9,7 @@ import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -45,18 +47,44 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ApiError(errorMessage));
     }
 
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<ApiError> handleMaxUploadSizeExceededException(MaxUploadSizeExceededException e) {
+        return getResponseEntity(e, HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    @ExceptionHandler(ImageTooLargeException.class)
+    public ResponseEntity<ApiError> handleImageTooLargeException(ImageTooLargeException e) {
+        return getResponseEntity(e, HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
     @ExceptionHandler(ImageProcessingException.class)
     public ResponseEntity<ApiError> handleImageProcessingException(ImageProcessingException e) {
         return getResponseEntity(e, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
+    @ExceptionHandler(RenderCapacityExceededException.class)
+    public ResponseEntity<ApiError> handleRenderCapacityExceededException(RenderCapacityExceededException e) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()))
+                .body(new ApiError(e.getMessage()));
+    }
+
+    @ExceptionHandler(LogoStorageNotConfiguredException.class)
+    public ResponseEntity<ApiError> handleLogoStorageNotConfiguredException(LogoStorageNotConfiguredException e) {
+        return getResponseEntity(e, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler({
             InvalidImageSizeException.class,
             InvalidImageFormatException.class,
             InvalidContentException.class,
             InvalidCorrectionLevelException.class,
             InvalidColorException.class,
-            InvalidMarginException.class
+            InvalidMarginException.class,
+            LogoNotSupportedException.class,
+            UnreadableImageException.class,
+            InvalidExpiryException.class
     })
     public ResponseEntity<ApiError> handleAllBadRequestExceptions(Exception e) {
         return getResponseEntity(e, HttpStatus.BAD_REQUEST);
@@ -72,11 +100,21 @@ public class GlobalExceptionHandler {
         return getResponseEntity(e, HttpStatus.UNAUTHORIZED);
     }
 
+    @ExceptionHandler(InvalidSignatureException.class)
+    public ResponseEntity<ApiError> handleInvalidSignatureException(InvalidSignatureException e) {
+        return getResponseEntity(e, HttpStatus.FORBIDDEN);
+    }
+
     @ExceptionHandler(QRCodeNotFoundException.class)
     public ResponseEntity<ApiError> handleQrCodeNotFoundException(QRCodeNotFoundException e) {
         return getResponseEntity(e, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(LogoNotFoundException.class)
+    public ResponseEntity<ApiError> handleLogoNotFoundException(LogoNotFoundException e) {
+        return getResponseEntity(e, HttpStatus.NOT_FOUND);
+    }
+
     private ResponseEntity<ApiError> getResponseEntity(Exception e, HttpStatus status) {
         ApiError error = new ApiError(e.getMessage());
         return ResponseEntity.status(status).body(error);
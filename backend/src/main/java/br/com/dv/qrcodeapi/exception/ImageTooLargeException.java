@@ -0,0 +1,11 @@
+package br.com.dv.qrcodeapi.exception;
+
+public class ImageTooLargeException extends RuntimeException {
+
+    private static final String IMAGE_TOO_LARGE_MESSAGE = "Image must be at most %d bytes and %d pixels";
+
+    public ImageTooLargeException(long maximumBytes, long maximumPixels) {
+        super(IMAGE_TOO_LARGE_MESSAGE.formatted(maximumBytes, maximumPixels));
+    }
+
+}
@@ -0,0 +1,11 @@
+package br.com.dv.qrcodeapi.exception;
+
+public class InvalidExpiryException extends RuntimeException {
+
+    private static final String INVALID_EXPIRY_MESSAGE_TEMPLATE = "Signed URLs must expire within 1 to %d seconds";
+
+    public InvalidExpiryException(long maxTtlSeconds) {
+        super(String.format(INVALID_EXPIRY_MESSAGE_TEMPLATE, maxTtlSeconds));
+    }
+
+}
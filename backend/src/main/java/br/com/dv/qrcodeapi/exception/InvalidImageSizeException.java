@@ -2,10 +2,10 @@ package br.com.dv.qrcodeapi.exception;
 
 public class InvalidImageSizeException extends RuntimeException {
 
-    private static final String INVALID_IMAGE_SIZE_MESSAGE = "Image size must be between 150 and 350 pixels";
+    private static final String INVALID_IMAGE_SIZE_MESSAGE = "Image size must be between %d and %d pixels";
 
-    public InvalidImageSizeException() {
-        super(INVALID_IMAGE_SIZE_MESSAGE);
+    public InvalidImageSizeException(int minimumSize, int maximumSize) {
+        super(INVALID_IMAGE_SIZE_MESSAGE.formatted(minimumSize, maximumSize));
     }
 
 }
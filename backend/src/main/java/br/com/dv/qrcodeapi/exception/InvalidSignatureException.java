@@ -0,0 +1,11 @@
+package br.com.dv.qrcodeapi.exception;
+
+public class InvalidSignatureException extends RuntimeException {
+
+    private static final String INVALID_SIGNATURE_MESSAGE = "Signed URL is invalid or has expired";
+
+    public InvalidSignatureException() {
+        super(INVALID_SIGNATURE_MESSAGE);
+    }
+
+}
@@ -0,0 +1,11 @@
+package br.com.dv.qrcodeapi.exception;
+
+public class LogoNotFoundException extends RuntimeException {
+
+    private static final String LOGO_NOT_FOUND_MESSAGE_TEMPLATE = "Logo with ID '%s' not found";
+
+    public LogoNotFoundException(String id) {
+        super(String.format(LOGO_NOT_FOUND_MESSAGE_TEMPLATE, id));
+    }
+
+}
@@ -0,0 +1,11 @@
+package br.com.dv.qrcodeapi.exception;
+
+public class LogoNotSupportedException extends RuntimeException {
+
+    private static final String LOGO_NOT_SUPPORTED_MESSAGE = "Logos can only be drawn on png, jpeg and gif images";
+
+    public LogoNotSupportedException() {
+        super(LOGO_NOT_SUPPORTED_MESSAGE);
+    }
+
+}
@@ -0,0 +1,11 @@
+package br.com.dv.qrcodeapi.exception;
+
+public class LogoStorageNotConfiguredException extends RuntimeException {
+
+    private static final String LOGO_STORAGE_NOT_CONFIGURED_MESSAGE = "Logo uploads are not available on this server";
+
+    public LogoStorageNotConfiguredException() {
+        super(LOGO_STORAGE_NOT_CONFIGURED_MESSAGE);
+    }
+
+}
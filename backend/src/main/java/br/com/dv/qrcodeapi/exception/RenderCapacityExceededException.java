@@ -0,0 +1,18 @@
+package br.com.dv.qrcodeapi.exception;
+
+public class RenderCapacityExceededException extends RuntimeException {
+
+    private static final String RENDER_CAPACITY_EXCEEDED_MESSAGE = "Too many QR codes are being generated, retry later";
+
+    private final long retryAfterSeconds;
+
+    public RenderCapacityExceededException(long retryAfterSeconds) {
+        super(RENDER_CAPACITY_EXCEEDED_MESSAGE);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+}
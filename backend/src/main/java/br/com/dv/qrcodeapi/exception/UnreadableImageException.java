@@ -0,0 +1,15 @@
+package br.com.dv.qrcodeapi.exception;
+
+public class UnreadableImageException extends RuntimeException {
+
+    private static final String UNREADABLE_IMAGE_MESSAGE = "Image could not be read";
+
+    public UnreadableImageException() {
+        super(UNREADABLE_IMAGE_MESSAGE);
+    }
+
+    public UnreadableImageException(Throwable cause) {
+        super(UNREADABLE_IMAGE_MESSAGE, cause);
+    }
+
+}
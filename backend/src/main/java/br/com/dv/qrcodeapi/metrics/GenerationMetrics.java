@@ -0,0 +1,96 @@
+package br.com.dv.qrcodeapi.metrics;
+
+import br.com.dv.qrcodeapi.engine.ImageFormat;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times each {@link GenerationStage} into the {@code qrcode.generation.stage} timer, tagged by stage,
+ * format, correction level and size bucket, with a percentile histogram so latency quantiles can be
+ * aggregated across instances. The same durations are added to the request's {@link StageTimings}.
+ */
+@Component
+public class GenerationMetrics {
+
+    private static final String TIMER_NAME = "qrcode.generation.stage";
+    private static final Duration MINIMUM_EXPECTED_DURATION = Duration.ofMillis(1).dividedBy(100);
+    private static final Duration MAXIMUM_EXPECTED_DURATION = Duration.ofSeconds(10);
+    private static final int SMALLEST_SIZE_BUCKET = 256;
+    private static final int LARGEST_SIZE_BUCKET = 4096;
+
+    private final MeterRegistry registry;
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public GenerationMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public <T, E extends Exception> T time(
+            GenerationStage stage,
+            ImageFormat format,
+            ErrorCorrectionLevel correction,
+            int size,
+            StageTimings timings,
+            StageTask<T, E> task
+    ) throws E {
+        long start = System.nanoTime();
+        T result = task.run();
+        record(stage, format, correction, size, System.nanoTime() - start, timings);
+        return result;
+    }
+
+    public void record(
+            GenerationStage stage,
+            ImageFormat format,
+            ErrorCorrectionLevel correction,
+            int size,
+            long durationNanos,
+            StageTimings timings
+    ) {
+        timer(new TimerKey(stage, format, correction, sizeBucket(size))).record(durationNanos, TimeUnit.NANOSECONDS);
+        timings.record(stage, durationNanos);
+    }
+
+    /**
+     * Buckets sizes by the next power of two, so the size tag stays low-cardinality whatever
+     * sizes clients ask for.
+     */
+    static String sizeBucket(int size) {
+        if (size > LARGEST_SIZE_BUCKET) {
+            return "gt" + LARGEST_SIZE_BUCKET;
+        }
+        int bucket = Math.max(SMALLEST_SIZE_BUCKET, Integer.highestOneBit(Math.max(size - 1, 1)) << 1);
+        return "le" + bucket;
+    }
+
+    private Timer timer(TimerKey key) {
+        return timers.computeIfAbsent(key, k -> Timer.builder(TIMER_NAME)
+                .description("Time spent in each QR code generation stage")
+                .tag("stage", k.stage().getMetricName())
+                .tag("format", k.format().name().toLowerCase(Locale.ROOT))
+                .tag("correction", k.correction().name())
+                .tag("size", k.sizeBucket())
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MINIMUM_EXPECTED_DURATION)
+                .maximumExpectedValue(MAXIMUM_EXPECTED_DURATION)
+                .register(registry));
+    }
+
+    @FunctionalInterface
+    public interface StageTask<T, E extends Exception> {
+
+        T run() throws E;
+
+    }
+
+    private record TimerKey(GenerationStage stage, ImageFormat format, ErrorCorrectionLevel correction, String sizeBucket) {}
+
+}
@@ -0,0 +1,24 @@
+package br.com.dv.qrcodeapi.metrics;
+
+/**
+ * The stages a QR code goes through on its way to image bytes. The name is used both as the
+ * {@code stage} tag on the stage timer and as the metric name in the {@code Server-Timing} header.
+ */
+public enum GenerationStage {
+
+    VALIDATE("validate"),
+    ENCODE("encode"),
+    RASTERIZE("rasterize"),
+    WRITE("write");
+
+    private final String metricName;
+
+    GenerationStage(String metricName) {
+        this.metricName = metricName;
+    }
+
+    public String getMetricName() {
+        return metricName;
+    }
+
+}
@@ -0,0 +1,68 @@
+package br.com.dv.qrcodeapi.metrics;
+
+import java.util.Locale;
+
+/**
+ * Time spent in each {@link GenerationStage} while serving one request, rendered as a
+ * {@code Server-Timing} header value. Stages may be recorded from a render thread; the request thread
+ * only reads them after waiting for that render, which makes the writes visible.
+ */
+public final class StageTimings {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final long[] nanos = new long[GenerationStage.values().length];
+    private volatile boolean rendered;
+
+    public void record(GenerationStage stage, long durationNanos) {
+        nanos[stage.ordinal()] += durationNanos;
+    }
+
+    /**
+     * Marks the image as rendered for this request rather than served from the image cache.
+     */
+    public void markRendered() {
+        rendered = true;
+    }
+
+    public long getNanos(GenerationStage stage) {
+        return nanos[stage.ordinal()];
+    }
+
+    public boolean isRendered() {
+        return rendered;
+    }
+
+    /**
+     * Returns the timings as a {@code Server-Timing} header value, e.g.
+     * {@code validate;dur=0.041, encode;dur=2.310, cache;desc=miss}, or an empty string when nothing
+     * was recorded.
+     */
+    public String toServerTiming() {
+        var header = new StringBuilder();
+
+        for (GenerationStage stage : GenerationStage.values()) {
+            long duration = nanos[stage.ordinal()];
+            if (duration > 0) {
+                appendSeparator(header);
+                header.append(stage.getMetricName())
+                        .append(";dur=")
+                        .append(String.format(Locale.ROOT, "%.3f", duration / NANOS_PER_MILLI));
+            }
+        }
+
+        if (!header.isEmpty()) {
+            appendSeparator(header);
+            header.append("cache;desc=").append(rendered ? "miss" : "hit");
+        }
+
+        return header.toString();
+    }
+
+    private static void appendSeparator(StringBuilder header) {
+        if (!header.isEmpty()) {
+            header.append(", ");
+        }
+    }
+
+}
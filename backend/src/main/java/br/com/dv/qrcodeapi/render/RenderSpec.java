@@ -0,0 +1,250 @@
+package br.com.dv.qrcodeapi.render;
+
+import br.com.dv.qrcodeapi.engine.ImageFormat;
+import com.github.benmanes.caffeine.cache.Interner;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Objects;
+
+/**
+ * Fully parsed generation parameters: colors as packed ARGB ints, the correction level and format as
+ * enum constants. Equivalent spellings ("black", "BLACK", "#000000") produce equal specs, which makes a
+ * spec usable directly as the image cache key. {@code compact} selects zxing's minimal multi-segment
+ * encoding, which can produce a smaller symbol for the same content. {@code logo} is the ID of an
+ * uploaded logo drawn over the centre of the symbol, or {@code null}.
+ * <p>
+ * Instances are interned, so concurrent requests for the same image share one spec and most equality
+ * checks end at the identity comparison. The 64-bit hash is computed once at construction; the content
+ * is the only part whose hashing cost grows with the request. The {@link #renderKey() render key} is
+ * computed the first time it is asked for and kept with the spec, so it is hashed once per interned
+ * spec rather than once per request.
+ */
+public final class RenderSpec {
+
+    /**
+     * Part of every ETag and of the disk cache's segment header. Bump it whenever a change alters the
+     * bytes produced for the same spec, so clients, proxies and persisted caches stop serving images
+     * from the previous renderer.
+     */
+    public static final int RENDERER_VERSION = 1;
+
+    private static final Interner<RenderSpec> INTERNER = Interner.newWeakInterner();
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final int RENDER_KEY_BYTES = 16;
+
+    private final String content;
+    private final int size;
+    private final ErrorCorrectionLevel correction;
+    private final ImageFormat format;
+    private final int foregroundColor;
+    private final int backgroundColor;
+    private final int margin;
+    private final boolean compact;
+    private final String logo;
+    private final long hash;
+    private String renderKey;
+
+    private RenderSpec(
+            String content,
+            int size,
+            ErrorCorrectionLevel correction,
+            ImageFormat format,
+            int foregroundColor,
+            int backgroundColor,
+            int margin,
+            boolean compact,
+            String logo
+    ) {
+        this.content = Objects.requireNonNull(content);
+        this.size = size;
+        this.correction = Objects.requireNonNull(correction);
+        this.format = Objects.requireNonNull(format);
+        this.foregroundColor = foregroundColor;
+        this.backgroundColor = backgroundColor;
+        this.margin = margin;
+        this.compact = compact;
+        this.logo = logo;
+        this.hash = computeHash();
+    }
+
+    public static RenderSpec of(
+            String content,
+            int size,
+            ErrorCorrectionLevel correction,
+            ImageFormat format,
+            int foregroundColor,
+            int backgroundColor,
+            int margin
+    ) {
+        return of(content, size, correction, format, foregroundColor, backgroundColor, margin, false, null);
+    }
+
+    public static RenderSpec of(
+            String content,
+            int size,
+            ErrorCorrectionLevel correction,
+            ImageFormat format,
+            int foregroundColor,
+            int backgroundColor,
+            int margin,
+            boolean compact,
+            String logo
+    ) {
+        return INTERNER.intern(new RenderSpec(
+                content, size, correction, format, foregroundColor, backgroundColor, margin, compact, logo
+        ));
+    }
+
+    public String content() {
+        return content;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public ErrorCorrectionLevel correction() {
+        return correction;
+    }
+
+    public ImageFormat format() {
+        return format;
+    }
+
+    public int foregroundColor() {
+        return foregroundColor;
+    }
+
+    public int backgroundColor() {
+        return backgroundColor;
+    }
+
+    public int margin() {
+        return margin;
+    }
+
+    public boolean compact() {
+        return compact;
+    }
+
+    public String logo() {
+        return logo;
+    }
+
+    public long hash64() {
+        return hash;
+    }
+
+    /**
+     * Identifies the image this spec renders to, across nodes and restarts: a hash of every field and
+     * {@link #RENDERER_VERSION}. Used as the ETag and as the shared cache key.
+     */
+    public String renderKey() {
+        // Racy single-check: strings are immutable, so a thread that misses the write only hashes again.
+        String key = renderKey;
+        if (key == null) {
+            key = computeRenderKey();
+            renderKey = key;
+        }
+        return key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RenderSpec that)) return false;
+        return hash == that.hash
+                && size == that.size
+                && margin == that.margin
+                && compact == that.compact
+                && foregroundColor == that.foregroundColor
+                && backgroundColor == that.backgroundColor
+                && correction == that.correction
+                && format == that.format
+                && content.equals(that.content)
+                && Objects.equals(logo, that.logo);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "RenderSpec[content=" + content + ", size=" + size + ", correction=" + correction
+                + ", format=" + format + ", foregroundColor=" + Integer.toHexString(foregroundColor)
+                + ", backgroundColor=" + Integer.toHexString(backgroundColor) + ", margin=" + margin + ", compact=" + compact + ", logo=" + logo + "]";
+    }
+
+    private long computeHash() {
+        // FNV-1a over the content, then the fixed-width fields mixed in one word at a time.
+        long h = FNV_OFFSET_BASIS;
+        for (int i = 0; i < content.length(); i++) {
+            h = (h ^ content.charAt(i)) * FNV_PRIME;
+        }
+        h = mix(h, size);
+        h = mix(h, correction.ordinal());
+        h = mix(h, format.ordinal());
+        h = mix(h, foregroundColor);
+        h = mix(h, backgroundColor);
+        h = mix(h, margin);
+        h = mix(h, compact ? 1 : 0);
+        if (logo != null) {
+            for (int i = 0; i < logo.length(); i++) {
+                h = (h ^ logo.charAt(i)) * FNV_PRIME;
+            }
+        }
+        return finalizeHash(h);
+    }
+
+    private String computeRenderKey() {
+        String canonical = String.join("\n",
+                Integer.toString(RENDERER_VERSION),
+                content,
+                Integer.toString(size),
+                correction.name(),
+                format.name(),
+                Integer.toHexString(foregroundColor),
+                Integer.toHexString(backgroundColor),
+                Integer.toString(margin)
+        );
+        // Only marked when set, so the keys of existing images without them stay valid.
+        if (compact) {
+            canonical += "\ncompact";
+        }
+        if (logo != null) {
+            canonical += "\nlogo=" + logo;
+        }
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, RENDER_KEY_BYTES);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long mix(long h, int value) {
+        return (h ^ (value & 0xFFFFFFFFL)) * FNV_PRIME;
+    }
+
+    /**
+     * The murmur3 64-bit finalizer, so every input bit affects the low bits used by hash tables.
+     */
+    private static long finalizeHash(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+}
@@ -2,23 +2,38 @@ package br.com.dv.qrcodeapi.security;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
 
+/**
+ * Issues and checks the session tokens. The key is {@code qrcode.jwt.secret}, base64-encoded; nodes that
+ * verify tokens issued by another, such as render nodes, need the same one. Without it, a random key is
+ * made at startup, and tokens only work on the node that issued them until it restarts.
+ */
 @Component
 public class JwtService {
 
-    private static final SecretKey SECRET_KEY = Jwts.SIG.HS256.key().build();
     private static final long JWT_EXPIRATION = 24 * 60 * 60 * 1000L;
 
+    private final SecretKey secretKey;
+
+    public JwtService(@Value("${qrcode.jwt.secret:}") String secret) {
+        this.secretKey = secret.isBlank()
+                ? Jwts.SIG.HS256.key().build()
+                : Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+    }
+
     public String generateToken(String email) {
         return Jwts.builder()
                 .subject(email)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + JWT_EXPIRATION))
-                .signWith(SECRET_KEY)
+                .signWith(secretKey)
                 .compact();
     }
 
@@ -40,7 +55,7 @@ public class JwtService {
 
     private Claims extractAllClaims(String token) {
         return Jwts.parser()
-                .verifyWith(SECRET_KEY)
+                .verifyWith(secretKey)
                 .build()
                 .parseSignedClaims(token)
                 .getPayload();
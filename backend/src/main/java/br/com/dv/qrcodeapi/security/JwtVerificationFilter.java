@@ -0,0 +1,59 @@
+package br.com.dv.qrcodeapi.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Collections;
+
+/**
+ * Authenticates the session token by its signature and expiry alone. Unlike
+ * {@link JwtAuthenticationFilter}, the user is not loaded, so a node using this filter needs the
+ * issuer's {@code qrcode.jwt.secret} but no database; a deleted account keeps access until its token
+ * expires.
+ */
+public class JwtVerificationFilter extends OncePerRequestFilter {
+
+    private final JwtService jwtService;
+
+    public JwtVerificationFilter(JwtService jwtService) {
+        this.jwtService = jwtService;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        String token = JwtAuthenticationFilter.extractToken(request);
+        if (token == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String userEmail;
+        try {
+            // Parsing checks the signature and rejects expired tokens.
+            userEmail = jwtService.extractEmail(token);
+        } catch (RuntimeException e) {
+            userEmail = null;
+        }
+        if (userEmail == null) {
+            JwtAuthenticationFilter.sendUnauthorizedError(response);
+            return;
+        }
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userEmail, null, Collections.emptyList())
+        );
+        filterChain.doFilter(request, response);
+    }
+
+}
@@ -0,0 +1,171 @@
+package br.com.dv.qrcodeapi.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles each client of each class of endpoint with its own {@link RateLimiter}. Runs after
+ * {@link JwtAuthenticationFilter}, so signed-in users are limited by account wherever they connect from,
+ * and everyone else by address. Signed image URLs carry no session, so they are always limited by address.
+ * <p>
+ * Every limited response carries {@code RateLimit-Limit}, {@code RateLimit-Remaining},
+ * {@code RateLimit-Reset} and {@code RateLimit-Policy}; throttled ones are answered with 429 and a
+ * {@code Retry-After}. Decisions are published as {@code qrcode.ratelimit.requests}, tagged by endpoint
+ * and outcome, with the number of tracked clients as {@code qrcode.ratelimit.clients}.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private static final String METRIC_PREFIX = "qrcode.ratelimit.";
+    private static final String RATE_LIMIT_LIMIT = "RateLimit-Limit";
+    private static final String RATE_LIMIT_REMAINING = "RateLimit-Remaining";
+    private static final String RATE_LIMIT_RESET = "RateLimit-Reset";
+    private static final String RATE_LIMIT_POLICY = "RateLimit-Policy";
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final Map<EndpointClass, RateLimiter> limiters = new EnumMap<>(EndpointClass.class);
+
+    public RateLimitFilter(
+            @Value("${qrcode.rate-limit.enabled:true}") boolean enabled,
+            @Value("${qrcode.rate-limit.window-seconds:60}") long windowSeconds,
+            @Value("${qrcode.rate-limit.max-clients:100000}") long maxClients,
+            @Value("${qrcode.rate-limit.generate:600}") int generateLimit,
+            @Value("${qrcode.rate-limit.batch:20}") int batchLimit,
+            @Value("${qrcode.rate-limit.decode:120}") int decodeLimit,
+            @Value("${qrcode.rate-limit.management:300}") int managementLimit,
+            @Value("${qrcode.rate-limit.auth:20}") int authLimit
+    ) {
+        if (!enabled) {
+            return;
+        }
+        Duration window = Duration.ofSeconds(windowSeconds);
+        addLimiter(EndpointClass.GENERATE, generateLimit, window, maxClients);
+        addLimiter(EndpointClass.BATCH, batchLimit, window, maxClients);
+        addLimiter(EndpointClass.DECODE, decodeLimit, window, maxClients);
+        addLimiter(EndpointClass.MANAGEMENT, managementLimit, window, maxClients);
+        addLimiter(EndpointClass.AUTH, authLimit, window, maxClients);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        RateLimiter limiter = limiters.get(EndpointClass.of(request));
+        if (limiter == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RateLimiter.Decision decision = limiter.tryAcquire(client(request));
+        response.setHeader(RATE_LIMIT_LIMIT, Integer.toString(decision.limit()));
+        response.setHeader(RATE_LIMIT_REMAINING, Long.toString(decision.remaining()));
+        response.setHeader(RATE_LIMIT_RESET, Long.toString(toSeconds(decision.resetNanos())));
+        response.setHeader(RATE_LIMIT_POLICY, limiter.getLimit() + ";w=" + limiter.getWindow().toSeconds());
+
+        if (decision.allowed()) {
+            filterChain.doFilter(request, response);
+        } else {
+            sendTooManyRequestsError(response, Math.max(1, toSeconds(decision.retryAfterNanos())));
+        }
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        limiters.forEach((endpoint, limiter) -> {
+            String tag = endpoint.name().toLowerCase(Locale.ROOT);
+            FunctionCounter.builder(METRIC_PREFIX + "requests", limiter, RateLimiter::allowedCount)
+                    .description("Requests checked against a rate limit")
+                    .tags("endpoint", tag, "outcome", "allowed")
+                    .register(registry);
+            FunctionCounter.builder(METRIC_PREFIX + "requests", limiter, RateLimiter::throttledCount)
+                    .description("Requests checked against a rate limit")
+                    .tags("endpoint", tag, "outcome", "throttled")
+                    .register(registry);
+            Gauge.builder(METRIC_PREFIX + "clients", limiter, RateLimiter::clientCount)
+                    .description("Clients with a partly used rate limit")
+                    .tag("endpoint", tag)
+                    .register(registry);
+        });
+    }
+
+    private void addLimiter(EndpointClass endpoint, int limit, Duration window, long maxClients) {
+        if (limit > 0) {
+            limiters.put(endpoint, new RateLimiter(limit, window, maxClients, System::nanoTime));
+        }
+    }
+
+    private static String client(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static long toSeconds(long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    private void sendTooManyRequestsError(HttpServletResponse response, long retryAfterSeconds) throws IOException {
+        response.setStatus(TOO_MANY_REQUESTS);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType("application/json;charset=UTF-8");
+        response.getWriter().write("{\"error\":\"Too many requests\"}");
+    }
+
+    enum EndpointClass {
+        GENERATE,
+        BATCH,
+        DECODE,
+        MANAGEMENT,
+        AUTH;
+
+        /**
+         * Returns the class of the requested endpoint, or null for endpoints that are not limited.
+         */
+        static EndpointClass of(HttpServletRequest request) {
+            String path = request.getRequestURI().substring(request.getContextPath().length());
+            if (path.startsWith("/api/qrcode/generate/batch")) {
+                return BATCH;
+            }
+            if (path.startsWith("/api/qrcode/generate") || path.startsWith("/api/public/qrcode/generate")) {
+                return GENERATE;
+            }
+            if (path.startsWith("/api/qrcode/decode")) {
+                return DECODE;
+            }
+            if (path.startsWith("/api/qrcode")) {
+                return MANAGEMENT;
+            }
+            if (path.startsWith("/api/auth")) {
+                return AUTH;
+            }
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+package br.com.dv.qrcodeapi.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket per client that holds {@code limit} requests and refills over {@code window}.
+ * <p>
+ * Each bucket is a single {@link AtomicLong}: the time at which it will be full again (the generic cell
+ * rate algorithm). Taking a token moves that time forward by one refill interval with a compare-and-set,
+ * so there is no lock, and clients only contend with their own concurrent requests. A bucket idle for a
+ * whole window is full, so expiring it loses nothing; past {@code maxClients}, the least recently used
+ * are dropped the same way.
+ */
+public final class RateLimiter {
+
+    private final int limit;
+    private final long windowNanos;
+    private final long intervalNanos;
+    private final LongSupplier nanoTime;
+    private final Cache<String, AtomicLong> buckets;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    public RateLimiter(int limit, Duration window, long maxClients, LongSupplier nanoTime) {
+        if (limit <= 0 || window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("Rate limits need a positive limit and window");
+        }
+        this.limit = limit;
+        this.intervalNanos = Math.max(1, window.toNanos() / limit);
+        this.windowNanos = intervalNanos * limit;
+        this.nanoTime = nanoTime;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(windowNanos, TimeUnit.NANOSECONDS)
+                .build();
+    }
+
+    public Decision tryAcquire(String client) {
+        long now = nanoTime.getAsLong();
+        AtomicLong fullAt = buckets.get(client, key -> new AtomicLong(now));
+
+        while (true) {
+            long current = fullAt.get();
+            long next = (current - now > 0 ? current : now) + intervalNanos;
+            long untilFull = next - now;
+
+            if (untilFull > windowNanos) {
+                throttled.increment();
+                long retryAfter = untilFull - windowNanos;
+                return new Decision(false, limit, 0, current - now, retryAfter);
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                allowed.increment();
+                return new Decision(true, limit, (windowNanos - untilFull) / intervalNanos, untilFull, 0);
+            }
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public Duration getWindow() {
+        return Duration.ofNanos(windowNanos);
+    }
+
+    public long allowedCount() {
+        return allowed.sum();
+    }
+
+    public long throttledCount() {
+        return throttled.sum();
+    }
+
+    public long clientCount() {
+        return buckets.estimatedSize();
+    }
+
+    /**
+     * The outcome of one request. {@code resetNanos} is how long until the bucket is full again, and
+     * {@code retryAfterNanos}, for a throttled request, how long until the next token.
+     */
+    public record Decision(boolean allowed, int limit, long remaining, long resetNanos, long retryAfterNanos) {}
+
+}
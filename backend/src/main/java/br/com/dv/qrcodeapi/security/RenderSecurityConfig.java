@@ -0,0 +1,81 @@
+package br.com.dv.qrcodeapi.security;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AnonymousAuthenticationFilter;
+
+/**
+ * Security for {@code RenderApplication}: signed URLs as on every node, and session tokens checked by
+ * signature only, with {@link JwtVerificationFilter} in place of the user lookup.
+ * <p>
+ * Deliberately not a {@code @Configuration}, so the full application's component scan never picks it up;
+ * it only takes effect where it is imported.
+ */
+public class RenderSecurityConfig {
+
+    @Bean
+    @Order(1)
+    public SecurityFilterChain signedUrlFilterChain(
+            HttpSecurity http,
+            RateLimitFilter rateLimitFilter
+    ) throws Exception {
+        return SecurityConfig.buildSignedUrlFilterChain(http, rateLimitFilter);
+    }
+
+    @Bean
+    public SecurityFilterChain securityFilterChain(
+            HttpSecurity http,
+            JwtVerificationFilter jwtVerificationFilter,
+            RateLimitFilter rateLimitFilter
+    ) throws Exception {
+        http
+                .csrf(AbstractHttpConfigurer::disable)
+                .authorizeHttpRequests(auth -> auth
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .requestMatchers("/api/health/**").permitAll()
+                        .anyRequest().authenticated()
+                )
+                .sessionManagement(session -> session
+                        .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                )
+                .exceptionHandling(exception -> exception
+                        .authenticationEntryPoint((
+                                request,
+                                response,
+                                ex
+                        ) -> response.sendError(
+                                HttpServletResponse.SC_UNAUTHORIZED,
+                                "Unauthorized"
+                        ))
+                )
+                .addFilterBefore(jwtVerificationFilter, AnonymousAuthenticationFilter.class)
+                .addFilterAfter(rateLimitFilter, JwtVerificationFilter.class);
+
+        return http.build();
+    }
+
+    @Bean
+    public JwtVerificationFilter jwtVerificationFilter(JwtService jwtService) {
+        return new JwtVerificationFilter(jwtService);
+    }
+
+    @Bean
+    public FilterRegistrationBean<JwtVerificationFilter> jwtVerificationFilterRegistration(
+            JwtVerificationFilter jwtVerificationFilter
+    ) {
+        return SecurityConfig.disabledRegistration(jwtVerificationFilter);
+    }
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        return SecurityConfig.disabledRegistration(rateLimitFilter);
+    }
+
+}
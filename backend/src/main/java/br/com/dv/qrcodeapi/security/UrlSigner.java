@@ -0,0 +1,130 @@
+package br.com.dv.qrcodeapi.security;
+
+import br.com.dv.qrcodeapi.exception.InvalidExpiryException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.Base64;
+
+/**
+ * Signs and checks pre-authorised image URLs with HMAC-SHA256. A signature covers every field of the
+ * URL and its expiry, so checking one needs no token, user or database: only the key.
+ * <p>
+ * The key is {@code qrcode.signing.secret}, base64-encoded. Without one, a random key is made at
+ * startup, and URLs only work on the node that signed them until it restarts.
+ */
+@Component
+public class UrlSigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int GENERATED_KEY_BYTES = 32;
+    private static final byte[] ABSENT_FIELD = ";-".getBytes(StandardCharsets.US_ASCII);
+
+    private static final Base64.Encoder SIGNATURE_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder SIGNATURE_DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final long defaultTtlSeconds;
+    private final long maxTtlSeconds;
+    private final Clock clock;
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
+
+    @Autowired
+    public UrlSigner(
+            @Value("${qrcode.signing.secret:}") String secret,
+            @Value("${qrcode.signing.default-ttl-seconds:86400}") long defaultTtlSeconds,
+            @Value("${qrcode.signing.max-ttl-seconds:31536000}") long maxTtlSeconds
+    ) {
+        this(secret, defaultTtlSeconds, maxTtlSeconds, Clock.systemUTC());
+    }
+
+    UrlSigner(String secret, long defaultTtlSeconds, long maxTtlSeconds, Clock clock) {
+        this.key = new SecretKeySpec(secret.isBlank() ? generateKey() : Base64.getDecoder().decode(secret), ALGORITHM);
+        this.defaultTtlSeconds = defaultTtlSeconds;
+        this.maxTtlSeconds = maxTtlSeconds;
+        this.clock = clock;
+        newMac();
+    }
+
+    /**
+     * Returns the epoch second at which a URL signed now for {@code ttlSeconds} expires.
+     *
+     * @throws InvalidExpiryException if the TTL is not positive or exceeds the configured maximum
+     */
+    public long expiresAt(Long ttlSeconds) {
+        long ttl = ttlSeconds != null ? ttlSeconds : defaultTtlSeconds;
+        if (ttl <= 0 || ttl > maxTtlSeconds) {
+            throw new InvalidExpiryException(maxTtlSeconds);
+        }
+        return clock.instant().getEpochSecond() + ttl;
+    }
+
+    public String sign(long expiresAt, String... fields) {
+        return SIGNATURE_ENCODER.encodeToString(mac(expiresAt, fields));
+    }
+
+    /**
+     * Checks a signature in constant time. Expired, malformed and forged signatures are all just invalid.
+     */
+    public boolean verify(String signature, long expiresAt, String... fields) {
+        if (signature == null || expiresAt <= clock.instant().getEpochSecond()) {
+            return false;
+        }
+        byte[] expected;
+        try {
+            expected = SIGNATURE_DECODER.decode(signature);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return MessageDigest.isEqual(expected, mac(expiresAt, fields));
+    }
+
+    /**
+     * Seconds until the given expiry, for capping how long shared caches keep a signed response.
+     */
+    public long secondsUntil(long expiresAt) {
+        return Math.max(0, expiresAt - clock.instant().getEpochSecond());
+    }
+
+    // Fields are length-prefixed and an absent field has its own marker, so no choice of values can make
+    // two different URLs sign the same bytes; leaving a parameter out is not the same as sending it empty.
+    private byte[] mac(long expiresAt, String... fields) {
+        Mac mac = macs.get();
+        mac.update(Long.toString(expiresAt).getBytes(StandardCharsets.US_ASCII));
+        for (String field : fields) {
+            if (field == null) {
+                mac.update(ABSENT_FIELD);
+                continue;
+            }
+            byte[] bytes = field.getBytes(StandardCharsets.UTF_8);
+            mac.update((";" + bytes.length + ":").getBytes(StandardCharsets.US_ASCII));
+            mac.update(bytes);
+        }
+        return mac.doFinal();
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] generateKey() {
+        byte[] key = new byte[GENERATED_KEY_BYTES];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+
+}
@@ -0,0 +1,12 @@
+package br.com.dv.qrcodeapi.service;
+
+import br.com.dv.qrcodeapi.dto.LogoResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface LogoService {
+
+    LogoResponse upload(InputStream image) throws IOException;
+
+}
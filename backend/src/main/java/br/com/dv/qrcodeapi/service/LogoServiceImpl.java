@@ -0,0 +1,82 @@
+package br.com.dv.qrcodeapi.service;
+
+import br.com.dv.qrcodeapi.cache.LogoCache;
+import br.com.dv.qrcodeapi.dto.LogoResponse;
+import br.com.dv.qrcodeapi.engine.LogoRaster;
+import br.com.dv.qrcodeapi.util.ImageUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Decodes an uploaded logo once, shrinks it to at most {@code maxDimension} on its longest side and
+ * stores it as PNG. The ID is a hash of the uploaded bytes, so uploading the same file again returns
+ * the same ID and images that use it stay cacheable.
+ */
+@Service
+public class LogoServiceImpl implements LogoService {
+
+    private static final int ID_HASH_BYTES = 16;
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+    private final LogoCache logoCache;
+    private final long maxImageBytes;
+    private final long maxImagePixels;
+    private final int maxDimension;
+
+    public LogoServiceImpl(
+            LogoCache logoCache,
+            @Value("${qrcode.logo.max-image-bytes:2097152}") long maxImageBytes,
+            @Value("${qrcode.logo.max-image-pixels:16777216}") long maxImagePixels,
+            @Value("${qrcode.logo.max-dimension:1024}") int maxDimension
+    ) {
+        this.logoCache = logoCache;
+        this.maxImageBytes = maxImageBytes;
+        this.maxImagePixels = maxImagePixels;
+        this.maxDimension = maxDimension;
+    }
+
+    @Override
+    public LogoResponse upload(InputStream image) throws IOException {
+        byte[] imageData = image.readNBytes((int) Math.min(MAX_ARRAY_LENGTH, maxImageBytes + 1));
+        BufferedImage logo = normalize(ImageUtils.readImage(imageData, maxImageBytes, maxImagePixels));
+
+        String id = HexFormat.of().formatHex(sha256(imageData), 0, ID_HASH_BYTES);
+        logoCache.put(id, ImageUtils.writeImageToByteArray(logo, "png"));
+        return new LogoResponse(id, logo.getWidth(), logo.getHeight());
+    }
+
+    /**
+     * Converts to ARGB, so every stored logo reads back the same way, scaling down on the way if needed.
+     */
+    private BufferedImage normalize(BufferedImage image) {
+        BufferedImage source = Math.max(image.getWidth(), image.getHeight()) > maxDimension
+                ? LogoRaster.scaledToFit(image, maxDimension).getImage()
+                : image;
+
+        var normalized = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = normalized.createGraphics();
+        try {
+            graphics.drawImage(source, 0, 0, null);
+        } finally {
+            graphics.dispose();
+        }
+        return normalized;
+    }
+
+    private byte[] sha256(byte[] input) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(input);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
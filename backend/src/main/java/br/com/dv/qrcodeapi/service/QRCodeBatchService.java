@@ -0,0 +1,11 @@
+package br.com.dv.qrcodeapi.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface QRCodeBatchService {
+
+    void generateBatch(InputStream specs, OutputStream zip) throws IOException;
+
+}
@@ -0,0 +1,246 @@
+package br.com.dv.qrcodeapi.service;
+
+import br.com.dv.qrcodeapi.decode.RenderVerifier;
+import br.com.dv.qrcodeapi.dto.BatchManifest;
+import br.com.dv.qrcodeapi.dto.BatchManifest.BatchFailure;
+import br.com.dv.qrcodeapi.dto.GenerationSpec;
+import br.com.dv.qrcodeapi.dto.ImageResponse;
+import br.com.dv.qrcodeapi.exception.ImageProcessingException;
+import br.com.dv.qrcodeapi.metrics.StageTimings;
+import br.com.dv.qrcodeapi.render.RenderSpec;
+import br.com.dv.qrcodeapi.util.ImageUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Renders batches of QR codes into a ZIP archive.
+ * <p>
+ * Specs are read lazily from the request (a JSON array or NDJSON) and rendered on a work-stealing
+ * pool. At most {@code maxInFlight} items are pending at any time, and items are written in request
+ * order, so memory stays constant regardless of batch size. When the client reads slowly, writing
+ * blocks and no further specs are read or submitted. Failed items are listed in
+ * {@value #MANIFEST_ENTRY_NAME} instead of aborting the batch.
+ * <p>
+ * Items are rendered on the batch pool itself rather than handed to the render bulkhead: the pool
+ * already bounds how many run at once, and going through admission would let a large batch fail its
+ * own items and take the slots interactive requests are admitted against. Nor do items go through
+ * the image caches: a batch is mostly one-off images, which would evict the ones interactive requests
+ * reuse.
+ * <p>
+ * Items that ask to be verified are decoded on the batch pool right after rendering, whatever the
+ * sampling rate, and are still archived when they fail; the manifest lists them separately.
+ */
+@Service
+public class QRCodeBatchServiceImpl implements QRCodeBatchService, DisposableBean {
+
+    static final String MANIFEST_ENTRY_NAME = "manifest.json";
+
+    private static final int DEFAULT_SIZE = 250;
+    private static final String DEFAULT_CORRECTION = "L";
+    private static final String DEFAULT_FORMAT = "png";
+    private static final String DEFAULT_FOREGROUND_COLOR = "#000000";
+    private static final String DEFAULT_BACKGROUND_COLOR = "#FFFFFF";
+    private static final int DEFAULT_MARGIN = 4;
+    private static final int IN_FLIGHT_ITEMS_PER_THREAD = 4;
+    private static final int MAX_NAME_LENGTH = 64;
+    private static final Pattern UNSAFE_NAME_CHARACTERS = Pattern.compile("[^A-Za-z0-9._-]");
+
+    private final QRCodeGenerationService qrCodeGenerationService;
+    private final RenderVerifier renderVerifier;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader specReader;
+    private final ExecutorService executor;
+    private final int maxInFlight;
+
+    public QRCodeBatchServiceImpl(
+            QRCodeGenerationService qrCodeGenerationService,
+            RenderVerifier renderVerifier,
+            ObjectMapper objectMapper,
+            @Value("${qrcode.batch.parallelism:0}") int parallelism
+    ) {
+        this.qrCodeGenerationService = qrCodeGenerationService;
+        this.renderVerifier = renderVerifier;
+        this.objectMapper = objectMapper;
+        this.specReader = objectMapper.readerFor(GenerationSpec.class);
+
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.executor = Executors.newWorkStealingPool(threads);
+        this.maxInFlight = threads * IN_FLIGHT_ITEMS_PER_THREAD;
+    }
+
+    @Override
+    public void generateBatch(InputStream specs, OutputStream outputStream) throws IOException {
+        var zip = new ZipOutputStream(outputStream);
+        Deque<Future<BatchItem>> pending = new ArrayDeque<>();
+        List<BatchFailure> failures = new ArrayList<>();
+        List<BatchFailure> verificationFailures = new ArrayList<>();
+        String inputError = null;
+        int total = 0;
+
+        try {
+            try (MappingIterator<GenerationSpec> iterator = specReader.readValues(specs)) {
+                while (iterator.hasNextValue()) {
+                    GenerationSpec spec = iterator.nextValue();
+                    int index = total++;
+                    pending.add(executor.submit(() -> render(index, spec)));
+
+                    if (pending.size() >= maxInFlight) {
+                        writeItem(zip, pending.poll(), failures, verificationFailures);
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                inputError = "Invalid batch input after item " + total + ": " + e.getOriginalMessage();
+            }
+
+            while (!pending.isEmpty()) {
+                writeItem(zip, pending.poll(), failures, verificationFailures);
+            }
+
+            var manifest = new BatchManifest(
+                    total, total - failures.size(), failures, verificationFailures, inputError
+            );
+            zip.putNextEntry(new ZipEntry(MANIFEST_ENTRY_NAME));
+            zip.write(objectMapper.writeValueAsBytes(manifest));
+            zip.closeEntry();
+            zip.finish();
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private BatchItem render(int index, GenerationSpec spec) {
+        if (spec == null) {
+            return new BatchItem(index, null, null, "Batch item must be an object", null);
+        }
+
+        String format = Objects.requireNonNullElse(spec.type(), DEFAULT_FORMAT);
+
+        int size = Objects.requireNonNullElse(spec.size(), DEFAULT_SIZE);
+
+        try {
+            var timings = new StageTimings();
+            RenderSpec renderSpec = qrCodeGenerationService.parse(
+                    spec.contents(),
+                    size,
+                    Objects.requireNonNullElse(spec.correction(), DEFAULT_CORRECTION),
+                    format,
+                    Objects.requireNonNullElse(spec.fcolor(), DEFAULT_FOREGROUND_COLOR),
+                    Objects.requireNonNullElse(spec.bcolor(), DEFAULT_BACKGROUND_COLOR),
+                    Objects.requireNonNullElse(spec.margin(), DEFAULT_MARGIN),
+                    Boolean.TRUE.equals(spec.compact()),
+                    spec.logo(),
+                    timings
+            );
+            ImageResponse image = qrCodeGenerationService.renderQRCode(renderSpec, timings);
+            String verification = Boolean.TRUE.equals(spec.verify())
+                    ? verify(spec.contents(), format, size, image)
+                    : null;
+            return new BatchItem(index, entryName(index, spec.name(), format), image, null, verification);
+        } catch (RuntimeException e) {
+            return new BatchItem(index, spec.name(), null, e.getMessage(), null);
+        }
+    }
+
+    /**
+     * Returns why the image failed verification, or {@code null} when it decodes to its content or
+     * its format cannot be decoded.
+     */
+    private String verify(String content, String format, int size, ImageResponse image) {
+        RenderVerifier.Outcome outcome = renderVerifier.verify(
+                content, ImageUtils.getImageFormat(format), size, image.imageData()
+        );
+        return switch (outcome) {
+            case MATCH, SKIPPED -> null;
+            case MISMATCH -> "Decoded content does not match";
+            case UNREADABLE -> "Rendered image could not be decoded";
+        };
+    }
+
+    private void writeItem(
+            ZipOutputStream zip,
+            Future<BatchItem> future,
+            List<BatchFailure> failures,
+            List<BatchFailure> verificationFailures
+    ) throws IOException {
+        BatchItem item = await(future);
+
+        if (item.error() != null) {
+            failures.add(new BatchFailure(item.index(), item.name(), item.error()));
+            return;
+        }
+        if (item.verification() != null) {
+            verificationFailures.add(new BatchFailure(item.index(), item.name(), item.verification()));
+        }
+
+        byte[] imageData = item.image().imageData();
+        var crc = new CRC32();
+        crc.update(imageData);
+
+        // Images are already compressed; storing them avoids deflating every entry a second time.
+        var entry = new ZipEntry(item.name());
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(imageData.length);
+        entry.setCompressedSize(imageData.length);
+        entry.setCrc(crc.getValue());
+
+        zip.putNextEntry(entry);
+        zip.write(imageData);
+        zip.closeEntry();
+    }
+
+    private BatchItem await(Future<BatchItem> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ImageProcessingException(e);
+        } catch (ExecutionException e) {
+            throw new ImageProcessingException(e.getCause());
+        }
+    }
+
+    private static String entryName(int index, String name, String format) {
+        String prefix = String.format("%06d", index);
+        String extension = format.toLowerCase();
+
+        if (name == null || name.isBlank()) {
+            return prefix + "." + extension;
+        }
+
+        String safeName = UNSAFE_NAME_CHARACTERS.matcher(name).replaceAll("_");
+        if (safeName.length() > MAX_NAME_LENGTH) {
+            safeName = safeName.substring(0, MAX_NAME_LENGTH);
+        }
+        return prefix + "-" + safeName + "." + extension;
+    }
+
+    private record BatchItem(int index, String name, ImageResponse image, String error, String verification) {}
+
+}
@@ -0,0 +1,18 @@
+package br.com.dv.qrcodeapi.service;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+
+public interface QRCodeDecodeService {
+
+    void decodeImage(InputStream image, OutputStream results) throws IOException;
+
+    void decodeParts(Collection<MultipartFile> images, OutputStream results) throws IOException;
+
+    void decodeArchive(InputStream zip, OutputStream results) throws IOException;
+
+}
@@ -0,0 +1,180 @@
+package br.com.dv.qrcodeapi.service;
+
+import br.com.dv.qrcodeapi.decode.QRCodeDecoder;
+import br.com.dv.qrcodeapi.dto.DecodeResult;
+import br.com.dv.qrcodeapi.dto.DecodeResult.DecodedSymbol;
+import br.com.dv.qrcodeapi.exception.ImageProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Decodes uploaded images and writes one NDJSON line per image.
+ * <p>
+ * Images are read one at a time from the request and decoded on a work-stealing pool. As with batch
+ * generation, at most {@code maxInFlight} images are held at once and results are written in upload
+ * order, each followed by a flush so clients see progress while a large upload is still decoding. A
+ * failing image gets an {@code error} on its own line instead of aborting the rest.
+ */
+@Service
+public class QRCodeDecodeServiceImpl implements QRCodeDecodeService, DisposableBean {
+
+    private static final int IN_FLIGHT_IMAGES_PER_THREAD = 2;
+    private static final byte NEWLINE = '\n';
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+    private final QRCodeDecoder qrCodeDecoder;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService executor;
+    private final int maxInFlight;
+
+    public QRCodeDecodeServiceImpl(
+            QRCodeDecoder qrCodeDecoder,
+            ObjectMapper objectMapper,
+            @Value("${qrcode.decode.parallelism:0}") int parallelism
+    ) {
+        this.qrCodeDecoder = qrCodeDecoder;
+        this.objectMapper = objectMapper;
+
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.executor = Executors.newWorkStealingPool(threads);
+        this.maxInFlight = threads * IN_FLIGHT_IMAGES_PER_THREAD;
+    }
+
+    @Override
+    public void decodeImage(InputStream image, OutputStream results) throws IOException {
+        Iterator<InputStream> images = List.of(image).iterator();
+        decodeAll(() -> images.hasNext() ? readImage(null, images.next()) : null, results);
+    }
+
+    @Override
+    public void decodeParts(Collection<MultipartFile> images, OutputStream results) throws IOException {
+        Iterator<MultipartFile> parts = images.iterator();
+        decodeAll(() -> {
+            if (!parts.hasNext()) {
+                return null;
+            }
+            MultipartFile part = parts.next();
+            try (InputStream image = part.getInputStream()) {
+                return readImage(part.getOriginalFilename(), image);
+            }
+        }, results);
+    }
+
+    @Override
+    public void decodeArchive(InputStream zip, OutputStream results) throws IOException {
+        var archive = new ZipInputStream(zip);
+        decodeAll(() -> {
+            ZipEntry entry;
+            while ((entry = archive.getNextEntry()) != null) {
+                if (!entry.isDirectory()) {
+                    return readImage(entry.getName(), archive);
+                }
+            }
+            return null;
+        }, results);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private void decodeAll(ImageSource images, OutputStream results) throws IOException {
+        Deque<Future<DecodeResult>> pending = new ArrayDeque<>();
+        String inputError = null;
+        int index = 0;
+
+        try {
+            try {
+                UploadedImage image;
+                while ((image = images.next()) != null) {
+                    int imageIndex = index++;
+                    UploadedImage uploaded = image;
+                    pending.add(executor.submit(() -> decode(imageIndex, uploaded)));
+
+                    if (pending.size() >= maxInFlight) {
+                        writeResult(results, await(pending.poll()));
+                    }
+                }
+            } catch (ZipException e) {
+                inputError = "Invalid archive after image " + index + ": " + e.getMessage();
+            }
+
+            while (!pending.isEmpty()) {
+                writeResult(results, await(pending.poll()));
+            }
+            if (inputError != null) {
+                writeResult(results, new DecodeResult(index, null, List.of(), inputError));
+            }
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private DecodeResult decode(int index, UploadedImage image) {
+        try {
+            List<DecodedSymbol> symbols = qrCodeDecoder.decode(image.data());
+            return new DecodeResult(index, image.name(), symbols, null);
+        } catch (RuntimeException e) {
+            return new DecodeResult(index, image.name(), List.of(), e.getMessage());
+        }
+    }
+
+    private void writeResult(OutputStream results, DecodeResult result) throws IOException {
+        results.write(objectMapper.writeValueAsBytes(result));
+        results.write(NEWLINE);
+        results.flush();
+    }
+
+    private DecodeResult await(Future<DecodeResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ImageProcessingException(e);
+        } catch (ExecutionException e) {
+            throw new ImageProcessingException(e.getCause());
+        }
+    }
+
+    /**
+     * Reads at most one byte past the limit: enough for the decoder to reject an oversized image
+     * without the rest of it being buffered.
+     */
+    private UploadedImage readImage(String name, InputStream input) throws IOException {
+        long limit = Math.min(MAX_ARRAY_LENGTH, qrCodeDecoder.getMaxImageBytes() + 1);
+        return new UploadedImage(name, input.readNBytes((int) limit));
+    }
+
+    @FunctionalInterface
+    private interface ImageSource {
+
+        /**
+         * Returns the next image, or {@code null} once the upload is exhausted.
+         */
+        UploadedImage next() throws IOException;
+
+    }
+
+    private record UploadedImage(String name, byte[] data) {}
+
+}
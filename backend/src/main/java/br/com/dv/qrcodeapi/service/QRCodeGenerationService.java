@@ -1,17 +1,50 @@
 package br.com.dv.qrcodeapi.service;
 
 import br.com.dv.qrcodeapi.dto.ImageResponse;
+import br.com.dv.qrcodeapi.dto.StreamingImageResponse;
+import br.com.dv.qrcodeapi.metrics.StageTimings;
+import br.com.dv.qrcodeapi.render.RenderSpec;
 
 public interface QRCodeGenerationService {
 
-    ImageResponse generateQRCode(
+    /**
+     * Validates the request parameters once, recording the time taken in {@code timings}. The returned
+     * spec is what the other methods take, and its {@link RenderSpec#renderKey() render key} is the
+     * image's ETag.
+     */
+    RenderSpec parse(
             String content,
             int size,
             String correction,
             String format,
             String fcolor,
             String bcolor,
-            int margin
+            int margin,
+            boolean compact,
+            String logo,
+            StageTimings timings
     );
 
+    /**
+     * Returns the image, loading or rendering it on a miss. A cache hit is copied onto the heap; callers
+     * that write the image out should try {@link #getStoredQRCode} first.
+     */
+    ImageResponse generateQRCode(RenderSpec spec, StageTimings timings);
+
+    /**
+     * Returns the image if the in-memory or disk cache holds it, written from where it is stored without
+     * a heap copy, or {@code null} on a miss. The response must be written or discarded.
+     */
+    StreamingImageResponse getStoredQRCode(RenderSpec spec, StageTimings timings);
+
+    /**
+     * Renders the image on the calling thread, without render pool admission, so it waits for a core
+     * instead of being rejected. No cache is read or filled and the render is not sampled for
+     * verification, so one-off images do not displace the ones interactive requests reuse. For callers
+     * that bound their own concurrency, such as batches.
+     */
+    ImageResponse renderQRCode(RenderSpec spec, StageTimings timings);
+
+    StreamingImageResponse streamQRCode(RenderSpec spec, StageTimings timings);
+
 }
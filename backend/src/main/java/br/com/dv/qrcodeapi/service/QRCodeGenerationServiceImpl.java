@@ -1,111 +1,380 @@
 package br.com.dv.qrcodeapi.service;
 
+import br.com.dv.qrcodeapi.cache.LogoCache;
+import br.com.dv.qrcodeapi.cache.QRCodeDiskCache;
+import br.com.dv.qrcodeapi.cache.QRCodeImageCache;
+import br.com.dv.qrcodeapi.cache.QRCodeSymbolCache;
+import br.com.dv.qrcodeapi.cache.SharedImageCache;
+import br.com.dv.qrcodeapi.cache.StoredImage;
+import br.com.dv.qrcodeapi.cache.SymbolCacheKey;
+import br.com.dv.qrcodeapi.concurrency.RenderBulkhead;
+import br.com.dv.qrcodeapi.decode.RenderVerifier;
 import br.com.dv.qrcodeapi.dto.ImageResponse;
-import br.com.dv.qrcodeapi.enums.Color;
+import br.com.dv.qrcodeapi.dto.StreamingImageResponse;
+import br.com.dv.qrcodeapi.dto.SymbolInfo;
+import br.com.dv.qrcodeapi.engine.QRCodeRenderer;
+import br.com.dv.qrcodeapi.engine.RenderOptions;
+import br.com.dv.qrcodeapi.engine.Rendering;
+import br.com.dv.qrcodeapi.engine.SymbolRaster;
 import br.com.dv.qrcodeapi.exception.ImageProcessingException;
-import br.com.dv.qrcodeapi.exception.InvalidColorException;
-import br.com.dv.qrcodeapi.exception.InvalidCorrectionLevelException;
+import br.com.dv.qrcodeapi.metrics.GenerationMetrics;
+import br.com.dv.qrcodeapi.metrics.GenerationStage;
+import br.com.dv.qrcodeapi.metrics.StageTimings;
+import br.com.dv.qrcodeapi.render.RenderSpec;
 import br.com.dv.qrcodeapi.util.ImageUtils;
 import br.com.dv.qrcodeapi.validation.QRCodeParameterValidator;
-import com.google.zxing.BarcodeFormat;
-import com.google.zxing.EncodeHintType;
 import com.google.zxing.WriterException;
-import com.google.zxing.client.j2se.MatrixToImageConfig;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
-import com.google.zxing.common.BitMatrix;
-import com.google.zxing.qrcode.QRCodeWriter;
-import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
-import org.springframework.http.MediaType;
+import com.google.zxing.qrcode.encoder.QRCode;
+import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.awt.image.BufferedImage;
-import java.util.EnumMap;
-import java.util.Map;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 public class QRCodeGenerationServiceImpl implements QRCodeGenerationService {
-    
+
     private final QRCodeParameterValidator qrCodeParameterValidator;
-    private final QRCodeWriter qrCodeWriter = new QRCodeWriter();
+    private final QRCodeImageCache qrCodeImageCache;
+    private final QRCodeDiskCache qrCodeDiskCache;
+    private final QRCodeSymbolCache qrCodeSymbolCache;
+    private final RenderBulkhead renderBulkhead;
+    private final GenerationMetrics generationMetrics;
+    private final RenderVerifier renderVerifier;
+    private final LogoCache logoCache;
+    private final SharedImageCache sharedImageCache;
 
-    public QRCodeGenerationServiceImpl(QRCodeParameterValidator qrCodeParameterValidator) {
+    public QRCodeGenerationServiceImpl(
+            QRCodeParameterValidator qrCodeParameterValidator,
+            QRCodeImageCache qrCodeImageCache,
+            QRCodeDiskCache qrCodeDiskCache,
+            QRCodeSymbolCache qrCodeSymbolCache,
+            RenderBulkhead renderBulkhead,
+            GenerationMetrics generationMetrics,
+            RenderVerifier renderVerifier,
+            LogoCache logoCache,
+            SharedImageCache sharedImageCache
+    ) {
         this.qrCodeParameterValidator = qrCodeParameterValidator;
+        this.qrCodeImageCache = qrCodeImageCache;
+        this.qrCodeDiskCache = qrCodeDiskCache;
+        this.qrCodeSymbolCache = qrCodeSymbolCache;
+        this.renderBulkhead = renderBulkhead;
+        this.generationMetrics = generationMetrics;
+        this.renderVerifier = renderVerifier;
+        this.logoCache = logoCache;
+        this.sharedImageCache = sharedImageCache;
     }
 
     @Override
-    public ImageResponse generateQRCode(
+    public RenderSpec parse(
             String content,
             int size,
             String correction,
             String format,
             String fcolor,
             String bcolor,
-            int margin
+            int margin,
+            boolean compact,
+            String logo,
+            StageTimings timings
     ) {
-        qrCodeParameterValidator.validate(content, size, correction, format, fcolor, bcolor, margin);
+        // The stage is tagged with the parsed parameters, so only successful validations are recorded.
+        long start = System.nanoTime();
+        RenderSpec spec = qrCodeParameterValidator.parse(
+                content, size, correction, format, fcolor, bcolor, margin, compact, logo
+        );
+        generationMetrics.record(
+                GenerationStage.VALIDATE,
+                spec.format(),
+                spec.correction(),
+                spec.size(),
+                System.nanoTime() - start,
+                timings
+        );
+        return spec;
+    }
 
-        BufferedImage qrCodeImage = generateQRCodeImage(content, size, correction, fcolor, bcolor, margin);
-        byte[] qrCodeImageData = ImageUtils.writeImageToByteArray(qrCodeImage, format);
-        MediaType mediaType = ImageUtils.getMediaTypeForImageFormat(format);
+    @Override
+    public ImageResponse generateQRCode(RenderSpec spec, StageTimings timings) {
+        // Cache hits never touch the render pool; only misses are subject to admission.
+        ImageResponse image = qrCodeImageCache.get(spec, missed -> loadQRCode(missed, timings));
+        return image.withDetails(timings, image.symbol());
+    }
 
-        return new ImageResponse(qrCodeImageData, mediaType);
+    @Override
+    public ImageResponse renderQRCode(RenderSpec spec, StageTimings timings) {
+        timings.markRendered();
+        QRCode cached = qrCodeSymbolCache.getIfPresent(symbolKey(spec));
+        QRCode symbol = cached != null
+                ? cached
+                : timed(GenerationStage.ENCODE, spec, timings, () -> encodeSymbol(symbolKey(spec)));
+        return renderQRCode(symbol, spec, toOptions(spec), timings);
     }
 
-    private BufferedImage generateQRCodeImage(
-            String content,
-            int size,
-            String correction,
-            String fcolor,
-            String bcolor,
-            int margin
-    ) {
-        Map<EncodeHintType, ?> hints = getQRCodeHints(correction.toUpperCase(), margin);
+    @Override
+    public StreamingImageResponse getStoredQRCode(RenderSpec spec, StageTimings timings) {
+        // Written straight from off-heap memory or the segment file; the reference keeps the chunk or
+        // file alive until the body has written it or the response is discarded.
+        StoredImage stored = qrCodeImageCache.acquire(spec);
+        if (stored == null) {
+            stored = qrCodeDiskCache.acquire(spec);
+        }
+        if (stored == null) {
+            return null;
+        }
 
-        try {
-            BitMatrix bitMatrix = qrCodeWriter.encode(content, BarcodeFormat.QR_CODE, size, size, hints);
-
-            return MatrixToImageWriter.toBufferedImage(
-                    bitMatrix,
-                    new MatrixToImageConfig(
-                            parseColor(fcolor, Color.BLACK),
-                            parseColor(bcolor, Color.WHITE)
-                    )
+        var body = new ReleasingBody(stored::writeTo, stored::release);
+        return new StreamingImageResponse(
+                body,
+                stored.mediaType(),
+                stored.length(),
+                timings,
+                stored.symbol() != null ? stored.symbol() : knownSymbol(spec),
+                body::discard
+        );
+    }
+
+    @Override
+    public StreamingImageResponse streamQRCode(RenderSpec spec, StageTimings timings) {
+        StreamingImageResponse stored = getStoredQRCode(spec, timings);
+        if (stored != null) {
+            return stored;
+        }
+
+        byte[] shared = sharedImageCache.get(spec.renderKey());
+        if (shared != null) {
+            return new StreamingImageResponse(
+                    outputStream -> outputStream.write(shared),
+                    ImageUtils.getMediaType(spec.format()),
+                    shared.length,
+                    timings,
+                    knownSymbol(spec),
+                    () -> { }
             );
-        } catch (WriterException e) {
-            throw new ImageProcessingException(e);
         }
+
+        // Cache misses are rendered into the response and not retained, which is what keeps this path
+        // free of per-request image buffers. The symbol is encoded and the logo scaled up front, so their
+        // errors surface before the response is committed; both run on the render pool unless the symbol
+        // is already cached and there is no logo.
+        timings.markRendered();
+        RenderOptions options = toOptions(spec);
+        long estimatedBytes = QRCodeRenderer.estimateMemory(options);
+        QRCode cachedSymbol = options.logo() == null ? qrCodeSymbolCache.getIfPresent(symbolKey(spec)) : null;
+        QRCode symbol = cachedSymbol != null
+                ? cachedSymbol
+                : renderBulkhead.execute(estimatedBytes, () -> prepareSymbol(spec, options, timings));
+        RenderBulkhead.Permit permit = renderBulkhead.admit(estimatedBytes);
+        boolean verify = renderVerifier.shouldSample();
+
+        var body = new ReleasingBody(
+                outputStream -> permit.execute(() -> {
+                    if (verify) {
+                        var copy = new CopyingOutputStream(outputStream);
+                        writeQRCode(symbol, spec, options, copy, timings);
+                        renderVerifier.submit(spec, copy.toByteArray());
+                    } else {
+                        writeQRCode(symbol, spec, options, outputStream, timings);
+                    }
+                    return null;
+                }),
+                permit::abandon
+        );
+        return new StreamingImageResponse(
+                body,
+                ImageUtils.getMediaType(spec.format()),
+                StreamingImageResponse.UNKNOWN_LENGTH,
+                timings,
+                SymbolInfo.of(symbol),
+                body::discard
+        );
     }
 
-    private Map<EncodeHintType, ?> getQRCodeHints(String correction, int margin) {
-        Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+    /**
+     * Loads an image missing from the in-memory cache: from disk if a previous run rendered it, then
+     * from the cluster's shared tier, otherwise rendered on the render pool. Renders are offered to the
+     * shared tier, and everything not already on disk is written there for the next restart.
+     */
+    private ImageResponse loadQRCode(RenderSpec spec, StageTimings timings) {
+        ImageResponse stored = qrCodeDiskCache.get(spec);
+        if (stored != null) {
+            return stored.withDetails(timings, knownSymbol(spec));
+        }
 
-        switch (correction) {
-            case "L" -> hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.L);
-            case "M" -> hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.M);
-            case "Q" -> hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.Q);
-            case "H" -> hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H);
-            default -> throw new InvalidCorrectionLevelException();
+        String key = spec.renderKey();
+        byte[] shared = sharedImageCache.get(key);
+        if (shared != null) {
+            ImageResponse image = new ImageResponse(
+                    shared, ImageUtils.getMediaType(spec.format()), timings, knownSymbol(spec)
+            );
+            qrCodeDiskCache.put(spec, image);
+            return image;
         }
 
-        hints.put(EncodeHintType.MARGIN, margin);
+        RenderOptions options = toOptions(spec);
+        ImageResponse image = renderBulkhead.execute(QRCodeRenderer.estimateMemory(options), () -> {
+            timings.markRendered();
+            return renderQRCode(encodeTimed(spec, timings), spec, options, timings);
+        });
+        sharedImageCache.put(key, image.imageData());
+        qrCodeDiskCache.put(spec, image);
+        renderVerifier.sample(spec, image.imageData());
+        return image;
+    }
+
+    private ImageResponse renderQRCode(QRCode symbol, RenderSpec spec, RenderOptions options, StageTimings timings) {
+        Rendering rendering = timed(GenerationStage.RASTERIZE, spec, timings,
+                () -> QRCodeRenderer.prepare(symbol, options));
+        byte[] qrCodeImageData = timed(GenerationStage.WRITE, spec, timings, rendering::toByteArray);
+        return new ImageResponse(
+                qrCodeImageData, ImageUtils.getMediaType(spec.format()), timings, SymbolInfo.of(symbol)
+        );
+    }
+
+    private QRCode prepareSymbol(RenderSpec spec, RenderOptions options, StageTimings timings) {
+        QRCode symbol = encodeTimed(spec, timings);
+        if (options.logo() != null) {
+            // Scales the logo now, so an unknown logo is reported before the response is committed.
+            QRCodeRenderer.placeLogo(new SymbolRaster(symbol, spec.size(), spec.margin()), options.logo());
+        }
+        return symbol;
+    }
+
+    private void writeQRCode(
+            QRCode symbol,
+            RenderSpec spec,
+            RenderOptions options,
+            OutputStream outputStream,
+            StageTimings timings
+    ) throws IOException {
+        Rendering rendering = timed(GenerationStage.RASTERIZE, spec, timings,
+                () -> QRCodeRenderer.prepare(symbol, options));
+        timed(GenerationStage.WRITE, spec, timings, () -> {
+            rendering.writeTo(outputStream);
+            return null;
+        });
+    }
 
-        return hints;
+    private QRCode encodeTimed(RenderSpec spec, StageTimings timings) {
+        return timed(GenerationStage.ENCODE, spec, timings, () -> getSymbol(spec));
     }
 
-    private int parseColor(String color, Color defaultColor) {
+    private <T, E extends Exception> T timed(
+            GenerationStage stage,
+            RenderSpec spec,
+            StageTimings timings,
+            GenerationMetrics.StageTask<T, E> task
+    ) throws E {
+        return generationMetrics.time(stage, spec.format(), spec.correction(), spec.size(), timings, task);
+    }
+
+    private QRCode getSymbol(RenderSpec spec) {
+        return qrCodeSymbolCache.get(symbolKey(spec), this::encodeSymbol);
+    }
+
+    /**
+     * The symbol of an image served from a cache that does not record it: known only while the symbol
+     * is still cached, as a hit never encodes. {@code null} omits the symbol headers.
+     */
+    private SymbolInfo knownSymbol(RenderSpec spec) {
+        QRCode symbol = qrCodeSymbolCache.getIfPresent(symbolKey(spec));
+        return symbol != null ? SymbolInfo.of(symbol) : null;
+    }
+
+    private static SymbolCacheKey symbolKey(RenderSpec spec) {
+        return new SymbolCacheKey(spec.content(), spec.correction(), spec.compact());
+    }
+
+    /**
+     * The engine asks for the logo at the size the symbol's layout calls for; only the first render at
+     * a given size scales it.
+     */
+    private RenderOptions toOptions(RenderSpec spec) {
+        return new RenderOptions(
+                spec.format(),
+                spec.size(),
+                spec.margin(),
+                spec.foregroundColor(),
+                spec.backgroundColor(),
+                spec.logo() == null ? null : maxSide -> logoCache.get(spec.logo(), maxSide)
+        );
+    }
+
+    private QRCode encodeSymbol(SymbolCacheKey key) {
         try {
-            String hexColor = color;
+            return QRCodeRenderer.encode(key.content(), key.correction(), key.compact());
+        } catch (WriterException e) {
+            throw new ImageProcessingException(e);
+        }
+    }
+
+    /**
+     * A streamed body holding a cache reference or a render permit, which is released exactly once:
+     * after the body has written, or by {@link #discard()} when the body is never run.
+     */
+    private static final class ReleasingBody implements StreamingResponseBody {
+
+        private final StreamingResponseBody body;
+        private final Runnable release;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        ReleasingBody(StreamingResponseBody body, Runnable release) {
+            this.body = body;
+            this.release = release;
+        }
 
-            if (hexColor == null) {
-                hexColor = defaultColor.getHexCode();
-            } else if (!hexColor.startsWith("#")) {
-                hexColor = Color.valueOf(color.toUpperCase()).getHexCode();
+        @Override
+        public void writeTo(@NonNull OutputStream outputStream) throws IOException {
+            if (!claimed.compareAndSet(false, true)) {
+                throw new IllegalStateException("Streamed image has already been written or discarded");
+            }
+            try {
+                body.writeTo(outputStream);
+            } finally {
+                release.run();
             }
+        }
 
-            return (0xFF << 24) | Integer.parseInt(hexColor.substring(1), 16);
-        } catch (IllegalArgumentException e) {
-            throw new InvalidColorException();
+        void discard() {
+            if (claimed.compareAndSet(false, true)) {
+                release.run();
+            }
         }
+
+    }
+
+    /**
+     * Keeps a copy of a streamed render for verification, which only happens for sampled requests.
+     */
+    private static final class CopyingOutputStream extends FilterOutputStream {
+
+        private final ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        CopyingOutputStream(OutputStream outputStream) {
+            super(outputStream);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            copy.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            copy.write(b, off, len);
+        }
+
+        byte[] toByteArray() {
+            return copy.toByteArray();
+        }
+
     }
 
 }
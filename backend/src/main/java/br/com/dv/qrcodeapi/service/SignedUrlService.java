@@ -0,0 +1,30 @@
+package br.com.dv.qrcodeapi.service;
+
+import br.com.dv.qrcodeapi.dto.SignedUrlRequest;
+import br.com.dv.qrcodeapi.dto.SignedUrlResponse;
+import org.springframework.web.util.UriComponentsBuilder;
+
+public interface SignedUrlService {
+
+    SignedUrlResponse sign(SignedUrlRequest request, UriComponentsBuilder target);
+
+    void verify(
+            String content,
+            int size,
+            String correction,
+            String format,
+            String foregroundColor,
+            String backgroundColor,
+            int margin,
+            boolean compact,
+            String logo,
+            long expiresAt,
+            String signature
+    );
+
+    /**
+     * Seconds until a signed URL expires, so responses to it are never cached beyond its validity.
+     */
+    long secondsUntil(long expiresAt);
+
+}
@@ -0,0 +1,134 @@
+package br.com.dv.qrcodeapi.service;
+
+import br.com.dv.qrcodeapi.dto.SignedUrlRequest;
+import br.com.dv.qrcodeapi.dto.SignedUrlResponse;
+import br.com.dv.qrcodeapi.exception.InvalidContentException;
+import br.com.dv.qrcodeapi.exception.InvalidSignatureException;
+import br.com.dv.qrcodeapi.metrics.StageTimings;
+import br.com.dv.qrcodeapi.security.UrlSigner;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Mints URLs that render one QR code without a session. The spec is validated when the URL is minted,
+ * so a signed URL only ever fails on capacity or a since-deleted logo.
+ */
+@Service
+public class SignedUrlServiceImpl implements SignedUrlService {
+
+    private static final int DEFAULT_SIZE = 250;
+    private static final String DEFAULT_CORRECTION = "L";
+    private static final String DEFAULT_FORMAT = "png";
+    private static final String DEFAULT_FOREGROUND_COLOR = "#000000";
+    private static final String DEFAULT_BACKGROUND_COLOR = "#FFFFFF";
+    private static final int DEFAULT_MARGIN = 4;
+
+    private final QRCodeGenerationService qrCodeGenerationService;
+    private final UrlSigner urlSigner;
+
+    public SignedUrlServiceImpl(QRCodeGenerationService qrCodeGenerationService, UrlSigner urlSigner) {
+        this.qrCodeGenerationService = qrCodeGenerationService;
+        this.urlSigner = urlSigner;
+    }
+
+    @Override
+    public SignedUrlResponse sign(SignedUrlRequest request, UriComponentsBuilder target) {
+        String content = request.contents();
+        if (content == null) {
+            throw new InvalidContentException();
+        }
+        int size = Objects.requireNonNullElse(request.size(), DEFAULT_SIZE);
+        String correction = Objects.requireNonNullElse(request.correction(), DEFAULT_CORRECTION);
+        String format = Objects.requireNonNullElse(request.type(), DEFAULT_FORMAT);
+        String foregroundColor = Objects.requireNonNullElse(request.fcolor(), DEFAULT_FOREGROUND_COLOR);
+        String backgroundColor = Objects.requireNonNullElse(request.bcolor(), DEFAULT_BACKGROUND_COLOR);
+        int margin = Objects.requireNonNullElse(request.margin(), DEFAULT_MARGIN);
+        boolean compact = Boolean.TRUE.equals(request.compact());
+        String logo = request.logo() == null || request.logo().isBlank() ? null : request.logo();
+
+        // Rejects anything the render would reject.
+        qrCodeGenerationService.parse(
+                content, size, correction, format, foregroundColor, backgroundColor, margin, compact, logo,
+                new StageTimings()
+        );
+
+        long expiresAt = urlSigner.expiresAt(request.ttlSeconds());
+        String signature = urlSigner.sign(expiresAt, fields(
+                content, size, correction, format, foregroundColor, backgroundColor, margin, compact, logo
+        ));
+
+        target.queryParam("contents", "{contents}")
+                .queryParam("size", size)
+                .queryParam("correction", "{correction}")
+                .queryParam("type", "{type}")
+                .queryParam("fcolor", "{fcolor}")
+                .queryParam("bcolor", "{bcolor}")
+                .queryParam("margin", margin)
+                .queryParam("compact", compact);
+        if (logo != null) {
+            target.queryParam("logo", "{logo}");
+        }
+        String url = target.queryParam("expires", expiresAt)
+                .queryParam("signature", signature)
+                .encode()
+                .buildAndExpand(content, correction, format, foregroundColor, backgroundColor, logo)
+                .toUriString();
+
+        return new SignedUrlResponse(url, Instant.ofEpochSecond(expiresAt));
+    }
+
+    @Override
+    public void verify(
+            String content,
+            int size,
+            String correction,
+            String format,
+            String foregroundColor,
+            String backgroundColor,
+            int margin,
+            boolean compact,
+            String logo,
+            long expiresAt,
+            String signature
+    ) {
+        String[] fields = fields(
+                content, size, correction, format, foregroundColor, backgroundColor, margin, compact, logo
+        );
+        if (!urlSigner.verify(signature, expiresAt, fields)) {
+            throw new InvalidSignatureException();
+        }
+    }
+
+    @Override
+    public long secondsUntil(long expiresAt) {
+        return urlSigner.secondsUntil(expiresAt);
+    }
+
+    private static String[] fields(
+            String content,
+            int size,
+            String correction,
+            String format,
+            String foregroundColor,
+            String backgroundColor,
+            int margin,
+            boolean compact,
+            String logo
+    ) {
+        return new String[] {
+                content,
+                Integer.toString(size),
+                correction,
+                format,
+                foregroundColor,
+                backgroundColor,
+                Integer.toString(margin),
+                Boolean.toString(compact),
+                logo
+        };
+    }
+
+}
@@ -0,0 +1,154 @@
+package br.com.dv.qrcodeapi.startup;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Drives the application through the requests real traffic makes and then exits, so that a JVM
+ * started with {@code -XX:ArchiveClassesAtExit} records every class those requests load in its AppCDS
+ * archive. Enabled with {@code qrcode.training.run=true} by the fast-startup launcher's training mode
+ * and a no-op otherwise.
+ * <p>
+ * The switch is a property rather than a profile because AOT processing fixes the set of beans at build
+ * time, while the same AOT-processed application is used for training and for serving.
+ * <p>
+ * Training registers an account and saves codes through the real endpoints, so it refuses to run unless
+ * the datasource is an in-memory H2 database, which disappears with the training JVM.
+ */
+@Component
+public class TrainingRun implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Pattern TOKEN_COOKIE = Pattern.compile("token=([^;]+)");
+    private static final Pattern QR_CODE_ID = Pattern.compile("\"id\"\\s*:\\s*\"([0-9a-f-]{36})\"");
+    private static final List<String> GENERATE_QUERIES = List.of(
+            "contents=training&type=png",
+            "contents=training&type=png&stream=true",
+            "contents=training&type=jpeg&size=300&correction=M",
+            "contents=training&type=gif&fcolor=%23FF0000",
+            "contents=training&type=svg&correction=H",
+            "contents=training&type=matrix_json",
+            "contents=training&type=png&size=2048&stream=true"
+    );
+
+    private static final String IN_MEMORY_DATASOURCE_PREFIX = "jdbc:h2:mem:";
+
+    private final boolean enabled;
+    private final String datasourceUrl;
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    public TrainingRun(
+            @Value("${qrcode.training.run:false}") boolean enabled,
+            @Value("${spring.datasource.url:}") String datasourceUrl
+    ) {
+        this.enabled = enabled;
+        this.datasourceUrl = datasourceUrl;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (!datasourceUrl.startsWith(IN_MEMORY_DATASOURCE_PREFIX)) {
+            throw new IllegalStateException(
+                    "Training would leave its account behind; run it against an in-memory H2 datasource"
+            );
+        }
+
+        // A failed request propagates and fails startup, so a broken training run never yields an archive
+        // that looks complete.
+        try {
+            int port = ((WebServerApplicationContext) event.getApplicationContext()).getWebServer().getPort();
+            exercise("http://localhost:" + port + "/api");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+
+        System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+
+    private void exercise(String api) throws IOException, InterruptedException {
+        send(get(api + "/health", null));
+
+        String email = "training-" + UUID.randomUUID() + "@example.com";
+        String credentials = "{\"email\":\"" + email + "\",\"password\":\"training\"";
+        send(post(api + "/auth/register", credentials + ",\"name\":\"Training\"}", null));
+        HttpResponse<String> login = send(post(api + "/auth/login", credentials + "}", null));
+        String cookie = "token=" + match(TOKEN_COOKIE, login.headers().firstValue("Set-Cookie").orElse(""));
+
+        for (String query : GENERATE_QUERIES) {
+            send(get(api + "/qrcode/generate?" + query, cookie));
+        }
+
+        String saved = send(post(api + "/qrcode", savedCode("Training"), cookie)).body();
+        String id = match(QR_CODE_ID, saved);
+        send(get(api + "/qrcode", cookie));
+        send(get(api + "/qrcode/" + id, cookie));
+        send(HttpRequest.newBuilder(URI.create(api + "/qrcode/" + id))
+                .header("Cookie", cookie)
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(savedCode("Renamed")))
+                .build());
+        send(HttpRequest.newBuilder(URI.create(api + "/qrcode/" + id)).header("Cookie", cookie).DELETE().build());
+        send(post(api + "/auth/logout", "", cookie));
+    }
+
+    private static String savedCode(String name) {
+        return """
+                {"content":"training","name":"%s","description":"Startup training","size":250,\
+                "format":"png","foregroundColor":"#000000","backgroundColor":"#FFFFFF","margin":4,\
+                "errorCorrection":"L"}""".formatted(name);
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException(request.method() + " " + request.uri() + " returned " + response.statusCode());
+        }
+        return response;
+    }
+
+    private static HttpRequest get(String uri, String cookie) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(uri)).GET();
+        if (cookie != null) {
+            builder.header("Cookie", cookie);
+        }
+        return builder.build();
+    }
+
+    private static HttpRequest post(String uri, String json, String cookie) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(uri))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (cookie != null) {
+            builder.header("Cookie", cookie);
+        }
+        return builder.build();
+    }
+
+    private static String match(Pattern pattern, String input) {
+        Matcher matcher = pattern.matcher(input);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Unexpected training response: " + input);
+        }
+        return matcher.group(1);
+    }
+
+}
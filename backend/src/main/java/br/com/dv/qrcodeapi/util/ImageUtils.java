@@ -1,19 +1,28 @@
 package br.com.dv.qrcodeapi.util;
 
-import br.com.dv.qrcodeapi.enums.ImageFormat;
+import br.com.dv.qrcodeapi.engine.ImageFormat;
 import br.com.dv.qrcodeapi.exception.ImageProcessingException;
+import br.com.dv.qrcodeapi.exception.ImageTooLargeException;
 import br.com.dv.qrcodeapi.exception.InvalidImageFormatException;
+import br.com.dv.qrcodeapi.exception.UnreadableImageException;
 import org.springframework.http.MediaType;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
 
 public final class ImageUtils {
 
     private static final String CANNOT_INSTANTIATE_CLASS_MESSAGE = "ImageUtils class cannot be instantiated";
+    private static final Map<ImageFormat, MediaType> MEDIA_TYPES = mediaTypes();
 
     private ImageUtils() {
         throw new IllegalStateException(CANNOT_INSTANTIATE_CLASS_MESSAGE);
@@ -28,12 +37,53 @@ public final class ImageUtils {
         }
     }
 
-    public static MediaType getMediaTypeForImageFormat(String format) {
+    /**
+     * Decodes an uploaded image. Dimensions are read from the image header before any pixels are
+     * decoded, so an oversized image is rejected without allocating its raster.
+     */
+    public static BufferedImage readImage(byte[] imageData, long maxImageBytes, long maxImagePixels) {
+        if (imageData.length > maxImageBytes) {
+            throw new ImageTooLargeException(maxImageBytes, maxImagePixels);
+        }
+
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(imageData))) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                throw new UnreadableImageException();
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxImagePixels) {
+                    throw new ImageTooLargeException(maxImageBytes, maxImagePixels);
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            throw new UnreadableImageException(e);
+        }
+    }
+
+    public static MediaType getMediaType(ImageFormat format) {
+        return MEDIA_TYPES.get(format);
+    }
+
+    public static ImageFormat getImageFormat(String format) {
         return Arrays.stream(ImageFormat.values())
                 .filter(f -> f.name().equalsIgnoreCase(format))
                 .findFirst()
-                .map(ImageFormat::getMediaType)
                 .orElseThrow(InvalidImageFormatException::new);
     }
 
+    private static Map<ImageFormat, MediaType> mediaTypes() {
+        var mediaTypes = new EnumMap<ImageFormat, MediaType>(ImageFormat.class);
+        for (ImageFormat format : ImageFormat.values()) {
+            mediaTypes.put(format, MediaType.valueOf(format.getContentType()));
+        }
+        return mediaTypes;
+    }
+
 }
@@ -1,26 +1,54 @@
 package br.com.dv.qrcodeapi.validation;
 
+import br.com.dv.qrcodeapi.engine.ImageFormat;
 import br.com.dv.qrcodeapi.enums.Color;
-import br.com.dv.qrcodeapi.enums.ImageFormat;
 import br.com.dv.qrcodeapi.exception.*;
+import br.com.dv.qrcodeapi.render.RenderSpec;
 import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.Set;
 
+/**
+ * Validates generation parameters and parses them into a {@link RenderSpec} in the same pass, so
+ * each parameter string is inspected exactly once per request. Parameters are checked in declaration
+ * order and the first invalid one determines the exception.
+ * <p>
+ * PNG and SVG are rendered in memory proportional to the width, so they share one configurable size
+ * ceiling. JPEG and GIF still go through a full {@code BufferedImage} and have a lower one.
+ * <p>
+ * A logo hides part of the symbol, so codes with one are always encoded at correction level H,
+ * whatever level was requested.
+ */
 @Component
 public class QRCodeParameterValidator {
 
     private static final int MIN_IMAGE_SIZE = 150;
-    private static final int MAX_IMAGE_SIZE = 350;
     private static final int MIN_MARGIN = 0;
     private static final int MAX_MARGIN = 50;
-    private static final Set<ImageFormat> SUPPORTED_IMAGE_FORMATS = EnumSet.allOf(ImageFormat.class);
-    private static final Set<ErrorCorrectionLevel> CORRECTION_LEVELS = EnumSet.allOf(ErrorCorrectionLevel.class);
+    private static final int HEX_COLOR_LENGTH = 7;
+    private static final ImageFormat[] SUPPORTED_IMAGE_FORMATS = ImageFormat.values();
+    private static final Color[] NAMED_COLORS = Color.values();
+    private static final Set<ImageFormat> LOGO_FORMATS = EnumSet.of(ImageFormat.PNG, ImageFormat.JPEG, ImageFormat.GIF);
 
-    public void validate(
+    private final int maximumImageSize;
+    private final int maximumFullRasterImageSize;
+
+    public QRCodeParameterValidator(
+            @Value("${qrcode.generate.max-size:4096}") int maximumImageSize,
+            @Value("${qrcode.generate.max-full-raster-size:350}") int maximumFullRasterImageSize
+    ) {
+        this.maximumImageSize = maximumImageSize;
+        this.maximumFullRasterImageSize = Math.min(maximumFullRasterImageSize, maximumImageSize);
+    }
+
+    /**
+     * Validates the parameters and returns their parsed form. A {@code null} color falls back to
+     * black for the foreground and white for the background.
+     */
+    public RenderSpec parse(
             String content,
             int size,
             String correction,
@@ -28,14 +56,44 @@ public class QRCodeParameterValidator {
             String fcolor,
             String bcolor,
             int margin
+    ) {
+        return parse(content, size, correction, format, fcolor, bcolor, margin, false, null);
+    }
+
+    /**
+     * As {@link #parse(String, int, String, String, String, String, int)}, optionally selecting compact
+     * encoding and a logo. A blank {@code logo} means none; whether the logo exists is only known when
+     * it is drawn.
+     */
+    public RenderSpec parse(
+            String content,
+            int size,
+            String correction,
+            String format,
+            String fcolor,
+            String bcolor,
+            int margin,
+            boolean compact,
+            String logo
     ) {
         validateContent(content);
         validateImageSize(size);
-        validateCorrectionLevel(correction);
-        validateImageFormat(format);
-        validateColorValue(fcolor);
-        validateColorValue(bcolor);
+        ErrorCorrectionLevel correctionLevel = parseCorrectionLevel(correction);
+        ImageFormat imageFormat = parseImageFormat(format);
+        validateFullRasterImageSize(size, imageFormat);
+        int foregroundColor = parseColor(fcolor, Color.BLACK);
+        int backgroundColor = parseColor(bcolor, Color.WHITE);
         validateMargin(margin);
+
+        String logoId = logo == null || logo.isBlank() ? null : logo;
+        if (logoId != null) {
+            validateLogoFormat(imageFormat);
+            correctionLevel = ErrorCorrectionLevel.H;
+        }
+
+        return RenderSpec.of(
+                content, size, correctionLevel, imageFormat, foregroundColor, backgroundColor, margin, compact, logoId
+        );
     }
 
     private void validateContent(String content) {
@@ -46,26 +104,65 @@ public class QRCodeParameterValidator {
 
     private void validateImageSize(int size) {
         if (isSizeInvalid(size)) {
-            throw new InvalidImageSizeException();
+            throw new InvalidImageSizeException(MIN_IMAGE_SIZE, maximumImageSize);
         }
     }
 
-    private void validateCorrectionLevel(String correction) {
-        if (isCorrectionLevelInvalid(correction)) {
+    private void validateFullRasterImageSize(int size, ImageFormat imageFormat) {
+        if (imageFormat.isFullRaster() && size > maximumFullRasterImageSize) {
+            throw new InvalidImageSizeException(MIN_IMAGE_SIZE, maximumFullRasterImageSize);
+        }
+    }
+
+    private ErrorCorrectionLevel parseCorrectionLevel(String correction) {
+        if (correction == null || correction.length() != 1) {
             throw new InvalidCorrectionLevelException();
         }
+        return switch (correction.charAt(0)) {
+            case 'L', 'l' -> ErrorCorrectionLevel.L;
+            case 'M', 'm' -> ErrorCorrectionLevel.M;
+            case 'Q', 'q' -> ErrorCorrectionLevel.Q;
+            case 'H', 'h' -> ErrorCorrectionLevel.H;
+            default -> throw new InvalidCorrectionLevelException();
+        };
     }
 
-    private void validateImageFormat(String format) {
-        if (isFormatInvalid(format)) {
-            throw new InvalidImageFormatException();
+    private ImageFormat parseImageFormat(String format) {
+        if (format != null) {
+            for (ImageFormat imageFormat : SUPPORTED_IMAGE_FORMATS) {
+                if (imageFormat.name().equalsIgnoreCase(format)) {
+                    return imageFormat;
+                }
+            }
         }
+        throw new InvalidImageFormatException();
     }
 
-    private void validateColorValue(String color) {
-        if (isColorInvalid(color)) {
-            throw new InvalidColorException();
+    private int parseColor(String color, Color defaultColor) {
+        if (color == null) {
+            return defaultColor.getArgb();
+        }
+        if (color.length() == HEX_COLOR_LENGTH && color.charAt(0) == '#') {
+            return parseHexColor(color);
+        }
+        for (Color namedColor : NAMED_COLORS) {
+            if (namedColor.name().equalsIgnoreCase(color)) {
+                return namedColor.getArgb();
+            }
         }
+        throw new InvalidColorException();
+    }
+
+    private int parseHexColor(String color) {
+        int rgb = 0;
+        for (int i = 1; i < HEX_COLOR_LENGTH; i++) {
+            int digit = hexDigit(color.charAt(i));
+            if (digit < 0) {
+                throw new InvalidColorException();
+            }
+            rgb = (rgb << 4) | digit;
+        }
+        return (0xFF << 24) | rgb;
     }
 
     private void validateMargin(int margin) {
@@ -74,42 +171,38 @@ public class QRCodeParameterValidator {
         }
     }
 
+    private void validateLogoFormat(ImageFormat imageFormat) {
+        if (!LOGO_FORMATS.contains(imageFormat)) {
+            throw new LogoNotSupportedException();
+        }
+    }
+
     private boolean isContentInvalid(String content) {
         return content == null || content.isBlank();
     }
 
     private boolean isSizeInvalid(int size) {
-        return size < MIN_IMAGE_SIZE || size > MAX_IMAGE_SIZE;
+        return size < MIN_IMAGE_SIZE || size > maximumImageSize;
     }
 
-    private boolean isCorrectionLevelInvalid(String correction) {
-        return correction == null ||
-                CORRECTION_LEVELS.stream().noneMatch(c -> c.name().equalsIgnoreCase(correction));
-    }
-
-    private boolean isFormatInvalid(String format) {
-        return format == null ||
-                SUPPORTED_IMAGE_FORMATS.stream().noneMatch(f -> f.name().equalsIgnoreCase(format));
+    private boolean isMarginInvalid(int margin) {
+        return margin < MIN_MARGIN || margin > MAX_MARGIN;
     }
 
-    private boolean isColorInvalid(String color) {
-        if (color == null) {
-            return false;
+    /**
+     * ASCII-only, unlike {@link Character#digit(char, int)}, which also accepts other scripts' digits.
+     */
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
         }
-        return !isValidHexColor(color) && !isValidNamedColor(color);
-    }
-
-    private boolean isValidHexColor(String color) {
-        return color.matches("^#([A-Fa-f0-9]{6})$");
-    }
-
-    private boolean isValidNamedColor(String color) {
-        return Arrays.stream(Color.values())
-                .anyMatch(c -> c.name().equalsIgnoreCase(color));
-    }
-
-    private boolean isMarginInvalid(int margin) {
-        return margin < MIN_MARGIN || margin > MAX_MARGIN;
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        return -1;
     }
 
 }
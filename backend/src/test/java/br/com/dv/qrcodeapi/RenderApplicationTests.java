@@ -0,0 +1,76 @@
+package br.com.dv.qrcodeapi;
+
+import br.com.dv.qrcodeapi.dto.SignedUrlRequest;
+import br.com.dv.qrcodeapi.security.JwtService;
+import br.com.dv.qrcodeapi.service.SignedUrlService;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import javax.sql.DataSource;
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(
+        classes = RenderApplication.class,
+        properties = "qrcode.jwt.secret=MDEyMzQ1Njc4OWFiY2RlZjAxMjM0NTY3ODlhYmNkZWY="
+)
+@AutoConfigureMockMvc
+class RenderApplicationTests {
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void contextLoadsWithoutDatabaseOrUsers() {
+        assertTrue(applicationContext.getBeansOfType(DataSource.class).isEmpty());
+        assertTrue(applicationContext.getBeansOfType(UserDetailsService.class).isEmpty());
+    }
+
+    @Test
+    void shouldRenderForTokensIssuedWithTheSharedSecret() throws Exception {
+        var issuer = new JwtService("MDEyMzQ1Njc4OWFiY2RlZjAxMjM0NTY3ODlhYmNkZWY=");
+
+        mockMvc.perform(get("/api/qrcode/generate")
+                        .cookie(new Cookie("token", issuer.generateToken("test@example.com")))
+                        .param("contents", "test"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_PNG));
+        mockMvc.perform(get("/api/qrcode/generate")
+                        .cookie(new Cookie("token", new JwtService("").generateToken("test@example.com")))
+                        .param("contents", "test"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/qrcode/generate")
+                        .param("contents", "test"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void shouldRenderSignedUrlsAndLeaveOutAccountEndpoints() throws Exception {
+        var signedUrl = applicationContext.getBean(SignedUrlService.class).sign(
+                new SignedUrlRequest("test", null, null, null, null, null, null, null, null, null),
+                UriComponentsBuilder.fromPath("/api/public/qrcode/generate")
+        );
+        var token = new Cookie("token", applicationContext.getBean(JwtService.class).generateToken("a@b.com"));
+
+        mockMvc.perform(get(URI.create(signedUrl.url())))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/qrcode/1").cookie(token))
+                .andExpect(status().isNotFound());
+    }
+
+}
@@ -0,0 +1,61 @@
+package br.com.dv.qrcodeapi;
+
+import br.com.dv.qrcodeapi.dto.SignedUrlRequest;
+import br.com.dv.qrcodeapi.service.SignedUrlService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(
+        classes = RenderApplication.class,
+        properties = {
+                "qrcode.jwt.secret=MDEyMzQ1Njc4OWFiY2RlZjAxMjM0NTY3ODlhYmNkZWY=",
+                "qrcode.rate-limit.generate=2"
+        }
+)
+@AutoConfigureMockMvc
+class SignedUrlRateLimitTests {
+
+    @Autowired
+    private SignedUrlService signedUrlService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void shouldThrottleSignedRequestsByAddress() throws Exception {
+        URI signedUrl = URI.create(signedUrlService.sign(
+                new SignedUrlRequest("test", null, null, null, null, null, null, null, null, null),
+                UriComponentsBuilder.fromPath("/api/public/qrcode/generate")
+        ).url());
+
+        mockMvc.perform(get(signedUrl).with(from("10.0.0.1")))
+                .andExpect(status().isOk())
+                .andExpect(header().string("RateLimit-Limit", "2"));
+        mockMvc.perform(get(signedUrl).with(from("10.0.0.1")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(signedUrl).with(from("10.0.0.1")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+        mockMvc.perform(get(signedUrl).with(from("10.0.0.2")))
+                .andExpect(status().isOk());
+    }
+
+    private static RequestPostProcessor from(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+
+}
@@ -0,0 +1,52 @@
+package br.com.dv.qrcodeapi.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiskIndexTest {
+
+    @Test
+    @DisplayName("Should map hashes to locations and report the location a put replaced")
+    void shouldPutAndGet() {
+        var index = new DiskIndex();
+
+        assertEquals(DiskIndex.ABSENT, index.put(42L, 100L));
+        assertEquals(100L, index.put(42L, 200L));
+
+        assertEquals(200L, index.get(42L));
+        assertEquals(DiskIndex.ABSENT, index.get(43L));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    @DisplayName("Should keep every entry across resizes, including a zero hash")
+    void shouldGrow() {
+        var index = new DiskIndex();
+        for (long hash = 0; hash < 10_000; hash++) {
+            index.put(hash * 0x9E3779B97F4A7C15L, hash);
+        }
+
+        assertEquals(10_000, index.size());
+        for (long hash = 0; hash < 10_000; hash++) {
+            assertEquals(hash, index.get(hash * 0x9E3779B97F4A7C15L));
+        }
+    }
+
+    @Test
+    @DisplayName("Should remove only the entries whose location matches")
+    void shouldRemoveByLocation() {
+        var index = new DiskIndex();
+        for (long hash = 1; hash <= 100; hash++) {
+            index.put(hash, hash % 2 == 0 ? (1L << 32) | hash : (2L << 32) | hash);
+        }
+
+        index.removeIf(location -> (location >>> 32) == 1);
+
+        assertEquals(50, index.size());
+        assertEquals(DiskIndex.ABSENT, index.get(2L));
+        assertEquals((2L << 32) | 3L, index.get(3L));
+    }
+
+}
@@ -0,0 +1,39 @@
+package br.com.dv.qrcodeapi.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemorySharedImageCacheTest {
+
+    @Test
+    @DisplayName("Should return stored images and publish hits and misses")
+    void shouldStoreImages() {
+        var cache = new InMemorySharedImageCache(1024 * 1024);
+        var meterRegistry = new SimpleMeterRegistry();
+        cache.bindTo(meterRegistry);
+
+        assertNull(cache.get("key"));
+        cache.put("key", new byte[]{1, 2, 3});
+
+        assertArrayEquals(new byte[]{1, 2, 3}, cache.get("key"));
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Should bound the images held by their bytes")
+    void shouldBoundBytes() {
+        var cache = new InMemorySharedImageCache(64 * 1024);
+
+        for (int i = 0; i < 16; i++) {
+            cache.put("key" + i, new byte[16 * 1024]);
+        }
+        cache.getCache().cleanUp();
+
+        assertTrue(cache.getCache().estimatedSize() <= 4);
+    }
+
+}
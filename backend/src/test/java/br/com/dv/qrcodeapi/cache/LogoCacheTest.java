@@ -0,0 +1,76 @@
+package br.com.dv.qrcodeapi.cache;
+
+import br.com.dv.qrcodeapi.engine.LogoRaster;
+import br.com.dv.qrcodeapi.exception.LogoNotFoundException;
+import br.com.dv.qrcodeapi.exception.LogoStorageNotConfiguredException;
+import br.com.dv.qrcodeapi.util.ImageUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogoCacheTest {
+
+    private static final String LOGO_ID = "0123456789abcdef0123456789abcdef";
+
+    @Test
+    @DisplayName("Should scale a logo once per size and serve later draws from the cache")
+    void shouldScaleOncePerSize(@TempDir Path directory) {
+        var logoCache = new LogoCache(directory.toString(), 1024 * 1024);
+        var meterRegistry = new SimpleMeterRegistry();
+        logoCache.bindTo(meterRegistry);
+        logoCache.put(LOGO_ID, png(200, 100));
+
+        LogoRaster first = logoCache.get(LOGO_ID, 50);
+        LogoRaster second = logoCache.get(LOGO_ID, 50);
+        LogoRaster larger = logoCache.get(LOGO_ID, 80);
+
+        assertSame(first, second);
+        assertEquals(50, first.getWidth());
+        assertEquals(25, first.getHeight());
+        assertEquals(80, larger.getWidth());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Should keep logos stored in a directory across instances")
+    void shouldReadLogosFromDirectory(@TempDir Path directory) {
+        new LogoCache(directory.toString(), 1024 * 1024).put(LOGO_ID, png(40, 40));
+
+        var restarted = new LogoCache(directory.toString(), 1024 * 1024);
+
+        assertTrue(Files.exists(directory.resolve(LOGO_ID + ".png")));
+        assertEquals(40, restarted.get(LOGO_ID, 40).getWidth());
+    }
+
+    @Test
+    @DisplayName("Should reject unknown and malformed logo IDs")
+    void shouldRejectUnknownLogos(@TempDir Path directory) {
+        var logoCache = new LogoCache(directory.toString(), 1024 * 1024);
+
+        assertThrows(LogoNotFoundException.class, () -> logoCache.get(LOGO_ID, 40));
+        assertThrows(LogoNotFoundException.class, () -> logoCache.get("../" + LOGO_ID, 40));
+        assertThrows(IllegalArgumentException.class, () -> logoCache.put("../logo", png(40, 40)));
+    }
+
+    @Test
+    @DisplayName("Should refuse to store logos without a directory to keep them in")
+    void shouldRefuseLogosWithoutDirectory() {
+        var logoCache = new LogoCache("", 1024 * 1024);
+
+        assertThrows(LogoStorageNotConfiguredException.class, () -> logoCache.put(LOGO_ID, png(40, 40)));
+        assertThrows(LogoNotFoundException.class, () -> logoCache.get(LOGO_ID, 40));
+    }
+
+    private static byte[] png(int width, int height) {
+        return ImageUtils.writeImageToByteArray(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png");
+    }
+
+}
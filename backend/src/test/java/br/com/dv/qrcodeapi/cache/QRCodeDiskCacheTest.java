@@ -0,0 +1,209 @@
+package br.com.dv.qrcodeapi.cache;
+
+import br.com.dv.qrcodeapi.dto.ImageResponse;
+import br.com.dv.qrcodeapi.engine.ImageFormat;
+import br.com.dv.qrcodeapi.render.RenderSpec;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QRCodeDiskCacheTest {
+
+    private static final int SEGMENT_BYTES = 4096;
+
+    @TempDir
+    Path directory;
+
+    private QRCodeDiskCache qrCodeDiskCache;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (qrCodeDiskCache != null) {
+            qrCodeDiskCache.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Should return the stored image and miss on unknown specs")
+    void shouldStoreAndLoadImages() {
+        qrCodeDiskCache = open(1024 * 1024);
+        byte[] data = image(500, 7);
+
+        qrCodeDiskCache.put(key("content"), new ImageResponse(data, MediaType.IMAGE_PNG));
+
+        ImageResponse stored = qrCodeDiskCache.get(key("content"));
+        assertArrayEquals(data, stored.imageData());
+        assertEquals(MediaType.IMAGE_PNG, stored.mediaType());
+        assertNull(qrCodeDiskCache.get(key("other")));
+    }
+
+    @Test
+    @DisplayName("Should write an acquired image through the file channel")
+    void shouldTransferAcquiredImage() throws IOException {
+        qrCodeDiskCache = open(1024 * 1024);
+        byte[] data = image(1500, 3);
+        qrCodeDiskCache.put(key("content"), new ImageResponse(data, MediaType.IMAGE_PNG));
+
+        QRCodeDiskCache.DiskImage image = qrCodeDiskCache.acquire(key("content"));
+        var outputStream = new ByteArrayOutputStream();
+        try {
+            image.writeTo(outputStream);
+        } finally {
+            image.release();
+        }
+
+        assertEquals(data.length, image.length());
+        assertArrayEquals(data, outputStream.toByteArray());
+    }
+
+    @Test
+    @DisplayName("Should find images written before a restart")
+    void shouldReopenSegments() throws IOException {
+        qrCodeDiskCache = open(1024 * 1024);
+        for (int i = 0; i < 20; i++) {
+            qrCodeDiskCache.put(key("content-" + i), new ImageResponse(image(400, i), MediaType.IMAGE_PNG));
+        }
+        qrCodeDiskCache.destroy();
+
+        qrCodeDiskCache = open(1024 * 1024);
+
+        assertEquals(20, qrCodeDiskCache.entryCount());
+        for (int i = 0; i < 20; i++) {
+            assertArrayEquals(image(400, i), qrCodeDiskCache.get(key("content-" + i)).imageData());
+        }
+        qrCodeDiskCache.put(key("after-restart"), new ImageResponse(image(10, 1), MediaType.IMAGE_PNG));
+        assertNotNull(qrCodeDiskCache.get(key("after-restart")));
+    }
+
+    @Test
+    @DisplayName("Should stop at a record whose checksum does not match and keep the ones before it")
+    void shouldDetectCorruptRecords() throws IOException {
+        qrCodeDiskCache = open(1024 * 1024);
+        qrCodeDiskCache.put(key("first"), new ImageResponse(image(100, 1), MediaType.IMAGE_PNG));
+        qrCodeDiskCache.put(key("second"), new ImageResponse(image(100, 2), MediaType.IMAGE_PNG));
+        qrCodeDiskCache.destroy();
+
+        // Flip the last value byte of the second record.
+        try (var file = new RandomAccessFile(segmentFile(1).toFile(), "rw")) {
+            long position = lastRecordEnd(segmentFile(1)) - 1;
+            file.seek(position);
+            int original = file.read();
+            file.seek(position);
+            file.write(original ^ 0xFF);
+        }
+
+        qrCodeDiskCache = open(1024 * 1024);
+        var meterRegistry = new SimpleMeterRegistry();
+        qrCodeDiskCache.bindTo(meterRegistry);
+
+        assertNotNull(qrCodeDiskCache.get(key("first")));
+        assertNull(qrCodeDiskCache.get(key("second")));
+        assertEquals(1.0, meterRegistry.get("qrcode.image.disk.corrupt.records").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Should drop the oldest segments once the directory outgrows its ceiling")
+    void shouldDropOldestSegments() {
+        qrCodeDiskCache = open(3 * SEGMENT_BYTES);
+        for (int i = 0; i < 40; i++) {
+            qrCodeDiskCache.put(key("content-" + i), new ImageResponse(image(500, i), MediaType.IMAGE_PNG));
+        }
+
+        assertTrue(qrCodeDiskCache.sizeBytes() <= 3 * SEGMENT_BYTES);
+        assertTrue(qrCodeDiskCache.segmentCount() <= 3);
+        assertNull(qrCodeDiskCache.get(key("content-0")));
+        assertArrayEquals(image(500, 39), qrCodeDiskCache.get(key("content-39")).imageData());
+    }
+
+    @Test
+    @DisplayName("Should rewrite mostly superseded segments and keep their live images")
+    void shouldCompactSegments() {
+        qrCodeDiskCache = open(1024 * 1024);
+        qrCodeDiskCache.put(key("kept"), new ImageResponse(image(500, 1), MediaType.IMAGE_PNG));
+        for (int i = 0; i < 30; i++) {
+            qrCodeDiskCache.put(key("rewritten"), new ImageResponse(image(500, i), MediaType.IMAGE_PNG));
+        }
+        int segmentsBefore = qrCodeDiskCache.segmentCount();
+
+        qrCodeDiskCache.compact();
+
+        assertTrue(qrCodeDiskCache.segmentCount() < segmentsBefore);
+        assertArrayEquals(image(500, 1), qrCodeDiskCache.get(key("kept")).imageData());
+        assertArrayEquals(image(500, 29), qrCodeDiskCache.get(key("rewritten")).imageData());
+        assertEquals(2, qrCodeDiskCache.entryCount());
+    }
+
+    @Test
+    @DisplayName("Should discard files that are not segments of this renderer version")
+    void shouldDiscardForeignSegments() throws IOException {
+        Files.write(segmentFile(1), new byte[SEGMENT_BYTES]);
+
+        qrCodeDiskCache = open(1024 * 1024);
+
+        assertFalse(Files.exists(segmentFile(1)));
+        assertEquals(0, qrCodeDiskCache.entryCount());
+    }
+
+    @Test
+    @DisplayName("Should do nothing when no directory is configured")
+    void shouldBeDisabledWithoutDirectory() {
+        qrCodeDiskCache = new QRCodeDiskCache("", 0, 0, 0, 0);
+
+        qrCodeDiskCache.put(key("content"), new ImageResponse(image(10, 1), MediaType.IMAGE_PNG));
+
+        assertNull(qrCodeDiskCache.get(key("content")));
+        assertNull(qrCodeDiskCache.acquire(key("content")));
+    }
+
+    private QRCodeDiskCache open(long maximumBytes) {
+        return new QRCodeDiskCache(directory.toString(), maximumBytes, SEGMENT_BYTES, 0, 0.5);
+    }
+
+    private Path segmentFile(int id) {
+        return directory.resolve(DiskSegment.fileName(id));
+    }
+
+    private static long lastRecordEnd(Path segment) throws IOException {
+        byte[] bytes = Files.readAllBytes(segment);
+        int offset = DiskSegment.HEADER_BYTES;
+        int end = offset;
+        while (readInt(bytes, offset) != 0) {
+            end = offset + DiskSegment.RECORD_HEADER_BYTES + readInt(bytes, offset) + readInt(bytes, offset + 4);
+            offset = end;
+        }
+        return end;
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16)
+                | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+    }
+
+    private static RenderSpec key(String content) {
+        return RenderSpec.of(
+                content, 250, ErrorCorrectionLevel.L, ImageFormat.PNG,
+                0xFF000000, 0xFFFFFFFF, 4
+        );
+    }
+
+    private static byte[] image(int length, int seed) {
+        byte[] data = new byte[length];
+        Arrays.fill(data, (byte) seed);
+        data[0] = (byte) length;
+        return data;
+    }
+
+}
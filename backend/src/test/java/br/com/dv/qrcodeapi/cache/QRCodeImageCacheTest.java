@@ -0,0 +1,204 @@
+package br.com.dv.qrcodeapi.cache;
+
+import br.com.dv.qrcodeapi.dto.ImageResponse;
+import br.com.dv.qrcodeapi.engine.ImageFormat;
+import br.com.dv.qrcodeapi.render.RenderSpec;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QRCodeImageCacheTest {
+
+    private static final long MAXIMUM_BYTES = 16 * 1024;
+
+    private QRCodeImageCache qrCodeImageCache;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        qrCodeImageCache = new QRCodeImageCache(MAXIMUM_BYTES);
+        meterRegistry = new SimpleMeterRegistry();
+        qrCodeImageCache.bindTo(meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should render once and serve subsequent lookups for the same key from the cache")
+    void shouldRenderOncePerKey() {
+        AtomicInteger renders = new AtomicInteger();
+        RenderSpec key = key("content");
+
+        ImageResponse first = qrCodeImageCache.get(key, k -> {
+            renders.incrementAndGet();
+            return image(100);
+        });
+        ImageResponse second = qrCodeImageCache.get(key, k -> {
+            renders.incrementAndGet();
+            return image(100);
+        });
+
+        assertArrayEquals(first.imageData(), second.imageData());
+        assertEquals(first.mediaType(), second.mediaType());
+        assertEquals(1, renders.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Should share one load between concurrent misses without blocking other keys")
+    void shouldLoadOutsideCacheCompute() throws Exception {
+        AtomicInteger renders = new AtomicInteger();
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        RenderSpec key = key("slow");
+        Function<RenderSpec, ImageResponse> slowLoader = k -> {
+            renders.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return image(100);
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ImageResponse> first = executor.submit(() -> qrCodeImageCache.get(key, slowLoader));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<ImageResponse> second = executor.submit(() -> qrCodeImageCache.get(key, slowLoader));
+
+            for (int i = 0; i < 64; i++) {
+                qrCodeImageCache.get(key("other-" + i), k -> image(100));
+            }
+            assertFalse(first.isDone());
+
+            release.countDown();
+            assertEquals(100, first.get(5, TimeUnit.SECONDS).imageData().length);
+            assertEquals(100, second.get(5, TimeUnit.SECONDS).imageData().length);
+            assertEquals(1, renders.get());
+            QRCodeImageCache.CachedImage cached = qrCodeImageCache.acquire(key);
+            assertNotNull(cached);
+            cached.release();
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should evict entries once the off-heap slabs are full")
+    void shouldBoundCacheByTotalBytes() {
+        for (int i = 0; i < 64; i++) {
+            qrCodeImageCache.get(key("content-" + i), k -> image(1024));
+        }
+        qrCodeImageCache.getCache().cleanUp();
+
+        long cachedBytes = qrCodeImageCache.getCache().asMap().values().stream()
+                .mapToLong(QRCodeImageCache.CachedImage::length)
+                .sum();
+
+        assertTrue(cachedBytes <= MAXIMUM_BYTES);
+        assertEquals(cachedBytes, qrCodeImageCache.getAllocator().storedBytes());
+        assertTrue(qrCodeImageCache.getCache().estimatedSize() < 64);
+        assertTrue(meterRegistry.get("qrcode.image.slab.evictions").functionCounter().count() > 0);
+    }
+
+    @Test
+    @DisplayName("Should stream a cached image from off-heap memory")
+    void shouldWriteAcquiredImage() throws IOException {
+        byte[] data = new byte[5000];
+        new Random(42).nextBytes(data);
+        RenderSpec key = key("content");
+        qrCodeImageCache.get(key, k -> new ImageResponse(data, MediaType.IMAGE_PNG));
+
+        QRCodeImageCache.CachedImage cached = qrCodeImageCache.acquire(key);
+        var outputStream = new ByteArrayOutputStream();
+        try {
+            cached.writeTo(outputStream);
+        } finally {
+            cached.release();
+        }
+
+        assertEquals(data.length, cached.length());
+        assertEquals(MediaType.IMAGE_PNG, cached.mediaType());
+        assertArrayEquals(data, outputStream.toByteArray());
+        assertNull(qrCodeImageCache.acquire(key("missing")));
+    }
+
+    @Test
+    @DisplayName("Should keep an acquired image readable until it is released, even after eviction")
+    void shouldFreeEvictedImageOnlyAfterRelease() throws IOException {
+        RenderSpec key = key("content");
+        qrCodeImageCache.get(key, k -> new ImageResponse(new byte[] {1, 2, 3}, MediaType.IMAGE_PNG));
+        QRCodeImageCache.CachedImage cached = qrCodeImageCache.acquire(key);
+
+        qrCodeImageCache.getCache().invalidate(key);
+        assertEquals(3, qrCodeImageCache.getAllocator().storedBytes());
+
+        var outputStream = new ByteArrayOutputStream();
+        cached.writeTo(outputStream);
+        cached.release();
+
+        assertArrayEquals(new byte[] {1, 2, 3}, outputStream.toByteArray());
+        assertEquals(0, qrCodeImageCache.getAllocator().storedBytes());
+    }
+
+    @Test
+    @DisplayName("Should serve images too large for a slab without caching them")
+    void shouldNotCacheImagesLargerThanASlab() {
+        AtomicInteger renders = new AtomicInteger();
+        RenderSpec key = key("content");
+
+        for (int i = 0; i < 2; i++) {
+            ImageResponse image = qrCodeImageCache.get(key, k -> {
+                renders.incrementAndGet();
+                return image((int) MAXIMUM_BYTES + 1);
+            });
+            assertEquals(MAXIMUM_BYTES + 1, image.imageData().length);
+        }
+
+        assertEquals(2, renders.get());
+        assertEquals(0, qrCodeImageCache.getAllocator().storedBytes());
+        assertEquals(2.0, meterRegistry.get("qrcode.image.slab.allocation.failures").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Should publish slab occupancy and fragmentation")
+    void shouldPublishSlabGauges() {
+        qrCodeImageCache.get(key("content"), k -> image(100));
+
+        int chunkSize = qrCodeImageCache.getAllocator().chunkSizeFor(100);
+        assertEquals(MAXIMUM_BYTES, meterRegistry.get("qrcode.image.slab.capacity").gauge().value());
+        assertEquals(100.0 / MAXIMUM_BYTES, meterRegistry.get("qrcode.image.slab.occupancy").gauge().value(), 1e-9);
+        assertEquals(chunkSize, meterRegistry.get("qrcode.image.slab.used").gauge().value());
+        assertEquals(1.0 - 100.0 / MAXIMUM_BYTES, meterRegistry.get("qrcode.image.slab.fragmentation").gauge().value(), 1e-9);
+    }
+
+    private static RenderSpec key(String content) {
+        return RenderSpec.of(
+                content, 250, ErrorCorrectionLevel.L, ImageFormat.PNG,
+                0xFF000000, 0xFFFFFFFF, 4
+        );
+    }
+
+    private static ImageResponse image(int length) {
+        return new ImageResponse(new byte[length], MediaType.IMAGE_PNG);
+    }
+
+}
@@ -0,0 +1,193 @@
+package br.com.dv.qrcodeapi.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisSharedImageCacheTest {
+
+    private static final String KEY = "0123456789abcdef0123456789abcdef";
+    private static final byte[] IMAGE = {1, 2, 3, 4, 5, 6, 7, 8};
+
+    private RespStandInServer server;
+    private final List<RedisSharedImageCache> caches = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new RespStandInServer(null);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        caches.forEach(RedisSharedImageCache::destroy);
+        server.close();
+    }
+
+    @Test
+    @DisplayName("Should share stored images between nodes and serve repeat lookups from the near cache")
+    void shouldShareImagesBetweenNodes() throws Exception {
+        cache(server.port(), "", 1000, 1024).put(KEY, IMAGE);
+        awaitTrue(() -> server.values().containsKey("qrcode:image:" + KEY));
+
+        var otherNode = cache(server.port(), "", 1000, 1024);
+        var meterRegistry = new SimpleMeterRegistry();
+        otherNode.bindTo(meterRegistry);
+
+        assertArrayEquals(IMAGE, otherNode.get(KEY));
+        assertArrayEquals(IMAGE, otherNode.get(KEY));
+        assertEquals(1, server.count("GET"));
+        assertEquals(1.0, meterRegistry.get("qrcode.image.shared.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("qrcode.image.shared.gets").tag("result", "near").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Should fetch every lookup from the server when the near cache is off")
+    void shouldSkipNearCacheWhenDisabled() throws Exception {
+        var cache = new RedisSharedImageCache(
+                "127.0.0.1", server.port(), "", "qrcode:image:", 1000, 60_000, 3600, 4, 1024, 16, 0, 300
+        );
+        caches.add(cache);
+        var meterRegistry = new SimpleMeterRegistry();
+        cache.bindTo(meterRegistry);
+        cache.put(KEY, IMAGE);
+        awaitTrue(() -> server.values().containsKey("qrcode:image:" + KEY));
+
+        assertArrayEquals(IMAGE, cache.get(KEY));
+        assertArrayEquals(IMAGE, cache.get(KEY));
+        assertEquals(2, server.count("GET"));
+        assertEquals(0.0, meterRegistry.get("qrcode.image.shared.gets").tag("result", "near").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Should report a miss for images no node has stored")
+    void shouldMissUnknownImages() {
+        var cache = cache(server.port(), "", 1000, 1024);
+
+        assertNull(cache.get(KEY));
+        assertNull(cache.get(KEY));
+        assertEquals(2, server.count("GET"));
+    }
+
+    @Test
+    @DisplayName("Should give up on a slow server within the timeout and back off it")
+    void shouldTimeOutAndBackOff() {
+        server.values().put("qrcode:image:" + KEY, IMAGE);
+        server.delay(1000);
+        var cache = cache(server.port(), "", 50, 1024);
+        var meterRegistry = new SimpleMeterRegistry();
+        cache.bindTo(meterRegistry);
+
+        long start = System.nanoTime();
+        byte[] first = cache.get(KEY);
+        byte[] second = cache.get(KEY);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertNull(first);
+        assertNull(second);
+        assertTrue(elapsedMillis < 500, "took " + elapsedMillis + " ms");
+        assertEquals(1, server.count("GET"));
+        assertEquals(1.0, meterRegistry.get("qrcode.image.shared.gets").tag("result", "error").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("qrcode.image.shared.gets").tag("result", "skipped").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Should give up on a store the server never reads within the timeout")
+    void shouldTimeOutStalledWrites() throws Exception {
+        // Connections complete in the accept backlog, but nothing ever reads from them.
+        try (var stalled = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            var cache = cache(stalled.getLocalPort(), "", 100, 64 * 1024 * 1024);
+            var meterRegistry = new SimpleMeterRegistry();
+            cache.bindTo(meterRegistry);
+
+            cache.put(KEY, new byte[32 * 1024 * 1024]);
+
+            awaitTrue(() -> meterRegistry.get("qrcode.image.shared.puts")
+                    .tag("result", "error").functionCounter().count() == 1.0);
+            assertEquals(0.0, meterRegistry.get("qrcode.image.shared.connections").gauge().value());
+        }
+    }
+
+    @Test
+    @DisplayName("Should miss without throwing when the server is down")
+    void shouldMissWhenServerIsDown() throws Exception {
+        int port = server.port();
+        server.close();
+        var cache = cache(port, "", 100, 1024);
+
+        assertNull(cache.get(KEY));
+        cache.put(KEY, IMAGE);
+        assertArrayEquals(IMAGE, cache.get(KEY));
+    }
+
+    @Test
+    @DisplayName("Should authenticate with the configured password")
+    void shouldAuthenticate() throws Exception {
+        server.close();
+        server = new RespStandInServer("secret");
+        server.values().put("qrcode:image:" + KEY, IMAGE);
+
+        assertNull(cache(server.port(), "wrong", 1000, 1024).get(KEY));
+        assertArrayEquals(IMAGE, cache(server.port(), "secret", 1000, 1024).get(KEY));
+    }
+
+    @Test
+    @DisplayName("Should neither store nor read images over the size limit")
+    void shouldRefuseOversizedImages() throws Exception {
+        var cache = cache(server.port(), "", 1000, 4);
+        server.values().put("qrcode:image:" + KEY, IMAGE);
+
+        cache.put("other", IMAGE);
+
+        assertNull(cache.get(KEY));
+        assertNull(cache.get("other"));
+        assertFalse(server.values().containsKey("qrcode:image:other"));
+        assertEquals(0, cache.getNearCache().estimatedSize());
+    }
+
+    @Test
+    @DisplayName("Should treat an oversized reply as a miss for that key without backing off the server")
+    void shouldNotBackOffOnOversizedReply() throws Exception {
+        var cache = cache(server.port(), "", 1000, 4);
+        var meterRegistry = new SimpleMeterRegistry();
+        cache.bindTo(meterRegistry);
+        server.values().put("qrcode:image:" + KEY, IMAGE);
+        server.values().put("qrcode:image:small", new byte[] {1, 2});
+
+        assertNull(cache.get(KEY));
+        assertArrayEquals(new byte[] {1, 2}, cache.get("small"));
+
+        assertEquals(2, server.count("GET"));
+        assertEquals(1.0, meterRegistry.get("qrcode.image.shared.gets").tag("result", "miss").functionCounter().count());
+        assertEquals(0.0, meterRegistry.get("qrcode.image.shared.gets").tag("result", "error").functionCounter().count());
+        assertEquals(0.0, meterRegistry.get("qrcode.image.shared.gets").tag("result", "skipped").functionCounter().count());
+    }
+
+    private RedisSharedImageCache cache(int port, String password, long timeoutMillis, int maxImageBytes) {
+        var cache = new RedisSharedImageCache(
+                "127.0.0.1", port, password, "qrcode:image:", timeoutMillis, 60_000, 3600,
+                4, maxImageBytes, 16, 1024 * 1024, 300
+        );
+        caches.add(cache);
+        return cache;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+}
@@ -0,0 +1,161 @@
+package br.com.dv.qrcodeapi.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for a Redis server: speaks RESP and implements AUTH, PING, GET and SET (with an
+ * optional PX) over an in-memory map, with a thread per connection. Replies can be delayed to
+ * exercise client timeouts.
+ */
+final class RespStandInServer implements Closeable {
+
+    private final ServerSocket serverSocket;
+    private final String password;
+    private final Map<String, byte[]> values = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> commands = new ConcurrentHashMap<>();
+    private final List<Socket> connections = new CopyOnWriteArrayList<>();
+    private volatile long delayMillis;
+
+    RespStandInServer(String password) throws IOException {
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        this.password = password;
+        var acceptor = new Thread(this::accept, "resp-stand-in");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    Map<String, byte[]> values() {
+        return values;
+    }
+
+    int count(String command) {
+        AtomicInteger count = commands.get(command);
+        return count == null ? 0 : count.get();
+    }
+
+    void delay(long millis) {
+        this.delayMillis = millis;
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket connection : connections) {
+            connection.close();
+        }
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket connection = serverSocket.accept();
+                connections.add(connection);
+                var handler = new Thread(() -> serve(connection), "resp-stand-in-connection");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket connection) {
+        try (connection) {
+            InputStream input = new BufferedInputStream(connection.getInputStream());
+            OutputStream output = new BufferedOutputStream(connection.getOutputStream());
+            boolean authenticated = password == null;
+            while (true) {
+                List<byte[]> command = readCommand(input);
+                String name = new String(command.get(0), StandardCharsets.US_ASCII).toUpperCase();
+                commands.computeIfAbsent(name, key -> new AtomicInteger()).incrementAndGet();
+                if (delayMillis > 0) {
+                    Thread.sleep(delayMillis);
+                }
+
+                if (name.equals("AUTH")) {
+                    authenticated = password != null
+                            && password.equals(new String(command.get(1), StandardCharsets.UTF_8));
+                    write(output, authenticated ? "+OK\r\n" : "-WRONGPASS invalid password\r\n");
+                } else if (!authenticated) {
+                    write(output, "-NOAUTH Authentication required.\r\n");
+                } else if (name.equals("PING")) {
+                    write(output, "+PONG\r\n");
+                } else if (name.equals("GET")) {
+                    byte[] value = values.get(key(command));
+                    if (value == null) {
+                        write(output, "$-1\r\n");
+                    } else {
+                        write(output, "$" + value.length + "\r\n");
+                        output.write(value);
+                        write(output, "\r\n");
+                    }
+                } else if (name.equals("SET")) {
+                    values.put(key(command), command.get(2));
+                    write(output, "+OK\r\n");
+                } else {
+                    write(output, "-ERR unknown command '" + name + "'\r\n");
+                }
+                output.flush();
+            }
+        } catch (IOException | InterruptedException e) {
+            // Client went away or the server is closing.
+        }
+    }
+
+    private static String key(List<byte[]> command) {
+        return new String(command.get(1), StandardCharsets.UTF_8);
+    }
+
+    private static List<byte[]> readCommand(InputStream input) throws IOException {
+        String header = readLine(input);
+        if (header.charAt(0) != '*') {
+            throw new IOException("Expected an array, got " + header);
+        }
+        int count = Integer.parseInt(header.substring(1));
+        List<byte[]> arguments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int length = Integer.parseInt(readLine(input).substring(1));
+            arguments.add(input.readNBytes(length));
+            readLine(input);
+        }
+        return arguments;
+    }
+
+    private static String readLine(InputStream input) throws IOException {
+        var line = new StringBuilder();
+        int b;
+        while ((b = input.read()) != '\r') {
+            if (b < 0) {
+                throw new EOFException();
+            }
+            line.append((char) b);
+        }
+        input.read();
+        return line.toString();
+    }
+
+    private static void write(OutputStream output, String text) throws IOException {
+        output.write(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
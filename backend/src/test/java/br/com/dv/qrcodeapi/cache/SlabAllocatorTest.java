@@ -0,0 +1,101 @@
+package br.com.dv.qrcodeapi.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlabAllocatorTest {
+
+    private static final int SLAB_SIZE = 4096;
+
+    @Test
+    @DisplayName("Should read back exactly the bytes written to a chunk")
+    void shouldRoundTripChunkContents() {
+        var allocator = new SlabAllocator(4 * SLAB_SIZE, SLAB_SIZE);
+        byte[] first = {1, 2, 3};
+        byte[] second = {4, 5, 6, 7};
+
+        long firstHandle = allocator.allocate(first.length);
+        long secondHandle = allocator.allocate(second.length);
+        allocator.write(firstHandle, first);
+        allocator.write(secondHandle, second);
+
+        assertEquals(ByteBuffer.wrap(first), allocator.read(firstHandle, first.length));
+        assertEquals(ByteBuffer.wrap(second), allocator.read(secondHandle, second.length));
+        assertTrue(allocator.read(firstHandle, first.length).isReadOnly());
+        assertEquals(7, allocator.storedBytes());
+        assertEquals(2L * allocator.chunkSizeFor(3), allocator.usedBytes());
+    }
+
+    @Test
+    @DisplayName("Should place each length in the smallest size class that fits it")
+    void shouldPickSmallestFittingChunk() {
+        var allocator = new SlabAllocator(SLAB_SIZE, SLAB_SIZE);
+
+        assertEquals(256, allocator.chunkSizeFor(1));
+        assertEquals(256, allocator.chunkSizeFor(256));
+        assertTrue(allocator.chunkSizeFor(257) > 256);
+        assertEquals(SLAB_SIZE, allocator.chunkSizeFor(SLAB_SIZE));
+        assertEquals(0, allocator.chunkSizeFor(SLAB_SIZE + 1));
+        assertEquals(SlabAllocator.NO_SPACE, allocator.allocate(SLAB_SIZE + 1));
+    }
+
+    @Test
+    @DisplayName("Should never allocate slabs beyond the configured capacity")
+    void shouldRespectCapacity() {
+        var allocator = new SlabAllocator(2 * SLAB_SIZE, SLAB_SIZE);
+
+        assertNotEquals(SlabAllocator.NO_SPACE, allocator.allocate(SLAB_SIZE));
+        assertNotEquals(SlabAllocator.NO_SPACE, allocator.allocate(SLAB_SIZE));
+        assertEquals(SlabAllocator.NO_SPACE, allocator.allocate(SLAB_SIZE));
+        assertEquals(SlabAllocator.NO_SPACE, allocator.allocate(1));
+        assertEquals(2L * SLAB_SIZE, allocator.allocatedBytes());
+    }
+
+    @Test
+    @DisplayName("Should return fully freed slabs to the pool for other size classes")
+    void shouldReassignEmptySlabs() {
+        var allocator = new SlabAllocator(SLAB_SIZE, SLAB_SIZE);
+        List<Long> handles = new ArrayList<>();
+        long handle;
+        while ((handle = allocator.allocate(100)) != SlabAllocator.NO_SPACE) {
+            handles.add(handle);
+        }
+
+        assertEquals(SLAB_SIZE / 256, handles.size());
+        assertEquals(SlabAllocator.NO_SPACE, allocator.allocate(1000));
+
+        handles.forEach(h -> allocator.free(h, 100));
+
+        assertEquals(0, allocator.assignedBytes());
+        assertEquals(0, allocator.storedBytes());
+        assertNotEquals(SlabAllocator.NO_SPACE, allocator.allocate(1000));
+    }
+
+    @Test
+    @DisplayName("Should reuse a freed chunk for the next allocation of the same class")
+    void shouldReuseFreedChunks() {
+        var allocator = new SlabAllocator(SLAB_SIZE, SLAB_SIZE);
+        long first = allocator.allocate(100);
+        allocator.allocate(100);
+
+        allocator.free(first, 100);
+
+        assertEquals(first, allocator.allocate(200));
+    }
+
+    @Test
+    @DisplayName("Should reject every allocation when the capacity is below one chunk")
+    void shouldDisableBelowMinimumCapacity() {
+        var allocator = new SlabAllocator(0);
+
+        assertEquals(0, allocator.capacityBytes());
+        assertEquals(SlabAllocator.NO_SPACE, allocator.allocate(1));
+    }
+
+}
@@ -0,0 +1,113 @@
+package br.com.dv.qrcodeapi.concurrency;
+
+import br.com.dv.qrcodeapi.exception.RenderCapacityExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RenderBulkheadTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RenderBulkhead renderBulkhead;
+
+    @AfterEach
+    void tearDown() {
+        renderBulkhead.destroy();
+    }
+
+    @Test
+    @DisplayName("Should run admitted renders on the render pool and return their result")
+    void shouldRunOnRenderPool() {
+        renderBulkhead = bulkhead(1, 4, 1024);
+
+        String threadName = renderBulkhead.execute(100, () -> Thread.currentThread().getName());
+
+        assertTrue(threadName.startsWith("qrcode-render-"));
+        assertEquals(1L, meterRegistry.get("qrcode.render.queue.wait").functionTimer().count());
+        assertEquals(0.0, meterRegistry.get("qrcode.render.pending.bytes").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should reject renders once the queue is full and count the rejection")
+    void shouldRejectWhenQueueIsFull() throws Exception {
+        renderBulkhead = bulkhead(1, 1, Long.MAX_VALUE);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> {
+            try {
+                renderBulkhead.execute(1, () -> {
+                    running.countDown();
+                    return release.await(5, TimeUnit.SECONDS);
+                });
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        RenderBulkhead.Permit queued = renderBulkhead.admit(1);
+
+        var exception = assertThrows(RenderCapacityExceededException.class, () -> renderBulkhead.admit(1));
+
+        assertEquals(3, exception.getRetryAfterSeconds());
+        assertEquals(1.0, meterRegistry.get("qrcode.render.queue.depth").gauge().value());
+        assertEquals(1.0, meterRegistry.get("qrcode.render.rejected").tag("reason", "queue").functionCounter().count());
+
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        assertEquals("done", queued.execute(() -> "done"));
+        assertEquals(0.0, meterRegistry.get("qrcode.render.queue.depth").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should reject renders that would exceed the pending memory budget")
+    void shouldRejectWhenMemoryBudgetIsExceeded() {
+        renderBulkhead = bulkhead(1, 8, 1000);
+
+        RenderBulkhead.Permit large = renderBulkhead.admit(800);
+
+        assertThrows(RenderCapacityExceededException.class, () -> renderBulkhead.admit(300));
+        assertEquals(1.0, meterRegistry.get("qrcode.render.rejected").tag("reason", "memory").functionCounter().count());
+        assertDoesNotThrow(() -> renderBulkhead.admit(200));
+
+        large.execute(() -> null);
+    }
+
+    @Test
+    @DisplayName("Should admit a single render larger than the budget when nothing else is pending")
+    void shouldAdmitOversizedRenderWhenIdle() {
+        renderBulkhead = bulkhead(1, 8, 1000);
+
+        assertEquals(42, renderBulkhead.execute(5000, () -> 42));
+    }
+
+    @Test
+    @DisplayName("Should rethrow exceptions thrown by the render task unchanged")
+    void shouldPropagateTaskExceptions() {
+        renderBulkhead = bulkhead(1, 8, 1000);
+
+        assertThrows(IOException.class, () -> renderBulkhead.execute(1, () -> {
+            throw new IOException("broken pipe");
+        }));
+        assertThrows(IllegalArgumentException.class, () -> renderBulkhead.execute(1, () -> {
+            throw new IllegalArgumentException();
+        }));
+        assertEquals(0.0, meterRegistry.get("qrcode.render.pending.bytes").gauge().value());
+    }
+
+    private RenderBulkhead bulkhead(int threads, int maxQueueDepth, long maxPendingBytes) {
+        var bulkhead = new RenderBulkhead(threads, maxQueueDepth, maxPendingBytes, 3);
+        bulkhead.bindTo(meterRegistry);
+        return bulkhead;
+    }
+
+}
@@ -0,0 +1,112 @@
+package br.com.dv.qrcodeapi.controller;
+
+import br.com.dv.qrcodeapi.dto.LogoResponse;
+import br.com.dv.qrcodeapi.exception.LogoStorageNotConfiguredException;
+import br.com.dv.qrcodeapi.exception.UnreadableImageException;
+import br.com.dv.qrcodeapi.security.JwtService;
+import br.com.dv.qrcodeapi.security.TestSecurityConfig;
+import br.com.dv.qrcodeapi.service.LogoService;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(LogoController.class)
+@Import(TestSecurityConfig.class)
+class LogoControllerTest {
+
+    private static final String LOGO_ID = "0123456789abcdef0123456789abcdef";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private LogoService logoService;
+
+    @MockBean
+    private JwtService jwtService;
+
+    private Cookie authCookie;
+
+    @BeforeEach
+    void setUp() {
+        authCookie = new Cookie("token", "test.jwt.token");
+        when(jwtService.extractEmail("test.jwt.token")).thenReturn("test@example.com");
+        when(jwtService.validateToken("test.jwt.token", "test@example.com")).thenReturn(true);
+    }
+
+    @Test
+    @DisplayName("Should store a logo sent as the request body")
+    void shouldUploadImageBody() throws Exception {
+        when(logoService.upload(any())).thenReturn(new LogoResponse(LOGO_ID, 64, 32));
+
+        mockMvc.perform(post("/api/qrcode/logos")
+                        .cookie(authCookie)
+                        .contentType(MediaType.IMAGE_PNG)
+                        .content("png"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(LOGO_ID))
+                .andExpect(jsonPath("$.width").value(64))
+                .andExpect(jsonPath("$.height").value(32));
+    }
+
+    @Test
+    @DisplayName("Should store a logo sent as a multipart form field")
+    void shouldUploadMultipartLogo() throws Exception {
+        when(logoService.upload(any())).thenReturn(new LogoResponse(LOGO_ID, 64, 64));
+
+        mockMvc.perform(multipart("/api/qrcode/logos")
+                        .file(new MockMultipartFile("logo", "logo.png", MediaType.IMAGE_PNG_VALUE, "png".getBytes()))
+                        .cookie(authCookie))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(LOGO_ID));
+    }
+
+    @Test
+    @DisplayName("Should reject logos that are not readable images")
+    void shouldRejectUnreadableLogo() throws Exception {
+        when(logoService.upload(any())).thenThrow(new UnreadableImageException());
+
+        mockMvc.perform(post("/api/qrcode/logos")
+                        .cookie(authCookie)
+                        .contentType(MediaType.IMAGE_PNG)
+                        .content("not an image"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should refuse logos when the server has nowhere to store them")
+    void shouldRefuseLogoWithoutStorage() throws Exception {
+        when(logoService.upload(any())).thenThrow(new LogoStorageNotConfiguredException());
+
+        mockMvc.perform(post("/api/qrcode/logos")
+                        .cookie(authCookie)
+                        .contentType(MediaType.IMAGE_PNG)
+                        .content("png"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    @DisplayName("Should require authentication to upload logos")
+    void shouldRequireAuthentication() throws Exception {
+        mockMvc.perform(post("/api/qrcode/logos")
+                        .contentType(MediaType.IMAGE_PNG)
+                        .content("png"))
+                .andExpect(status().isUnauthorized());
+    }
+
+}
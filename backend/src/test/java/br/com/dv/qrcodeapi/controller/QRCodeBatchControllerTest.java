@@ -0,0 +1,112 @@
+package br.com.dv.qrcodeapi.controller;
+
+import br.com.dv.qrcodeapi.security.JwtService;
+import br.com.dv.qrcodeapi.security.TestSecurityConfig;
+import br.com.dv.qrcodeapi.service.QRCodeBatchService;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.when;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(QRCodeBatchController.class)
+@Import(TestSecurityConfig.class)
+class QRCodeBatchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private QRCodeBatchService qrCodeBatchService;
+
+    @MockBean
+    private JwtService jwtService;
+
+    private Cookie authCookie;
+
+    @BeforeEach
+    void setUp() {
+        authCookie = new Cookie("token", "test.jwt.token");
+        when(jwtService.extractEmail("test.jwt.token")).thenReturn("test@example.com");
+        when(jwtService.validateToken("test.jwt.token", "test@example.com")).thenReturn(true);
+    }
+
+    @Test
+    @DisplayName("Should stream the batch archive produced from the request body")
+    void shouldStreamBatchArchive() throws Exception {
+        doAnswer(invocation -> {
+            InputStream specs = invocation.getArgument(0);
+            OutputStream zip = invocation.getArgument(1);
+            zip.write(specs.readAllBytes());
+            return null;
+        }).when(qrCodeBatchService).generateBatch(any(), any());
+
+        MvcResult result = mockMvc.perform(post("/api/qrcode/generate/batch")
+                        .cookie(authCookie)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"contents\": \"test\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/zip"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"qrcodes.zip\""))
+                .andExpect(content().string("{\"contents\": \"test\"}"));
+    }
+
+    @Test
+    @DisplayName("Should give the batch archive its own async timeout")
+    void shouldSetBatchTimeout() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/qrcode/generate/batch")
+                        .cookie(authCookie)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"contents\": \"test\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertEquals(TimeUnit.MINUTES.toMillis(30), result.getRequest().getAsyncContext().getTimeout());
+    }
+
+    @Test
+    @DisplayName("Should return 415 Unsupported Media Type when the body is neither JSON nor NDJSON")
+    void shouldRejectUnsupportedContentType() throws Exception {
+        mockMvc.perform(post("/api/qrcode/generate/batch")
+                        .cookie(authCookie)
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("test"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    @DisplayName("Should return 401 Unauthorized when authentication cookie is missing")
+    void shouldReturnUnauthorizedForMissingAuth() throws Exception {
+        mockMvc.perform(post("/api/qrcode/generate/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isUnauthorized());
+    }
+
+}
@@ -0,0 +1,145 @@
+package br.com.dv.qrcodeapi.controller;
+
+import br.com.dv.qrcodeapi.security.JwtService;
+import br.com.dv.qrcodeapi.security.TestSecurityConfig;
+import br.com.dv.qrcodeapi.service.QRCodeDecodeService;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.when;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(QRCodeDecodeController.class)
+@Import(TestSecurityConfig.class)
+class QRCodeDecodeControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private QRCodeDecodeService qrCodeDecodeService;
+
+    @MockBean
+    private JwtService jwtService;
+
+    private Cookie authCookie;
+
+    @BeforeEach
+    void setUp() {
+        authCookie = new Cookie("token", "test.jwt.token");
+        when(jwtService.extractEmail("test.jwt.token")).thenReturn("test@example.com");
+        when(jwtService.validateToken("test.jwt.token", "test@example.com")).thenReturn(true);
+    }
+
+    @Test
+    @DisplayName("Should stream NDJSON results for a single image body")
+    void shouldDecodeImageBody() throws Exception {
+        doAnswer(invocation -> {
+            InputStream image = invocation.getArgument(0);
+            OutputStream results = invocation.getArgument(1);
+            results.write(("image:" + new String(image.readAllBytes(), StandardCharsets.UTF_8) + "\n").getBytes());
+            return null;
+        }).when(qrCodeDecodeService).decodeImage(any(), any());
+
+        MvcResult result = mockMvc.perform(post("/api/qrcode/decode")
+                        .cookie(authCookie)
+                        .contentType(MediaType.IMAGE_PNG)
+                        .content("png"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("image:png\n"));
+    }
+
+    @Test
+    @DisplayName("Should pass every multipart file to the service")
+    void shouldDecodeMultipartFiles() throws Exception {
+        doAnswer(invocation -> {
+            Collection<MultipartFile> images = invocation.getArgument(0);
+            OutputStream results = invocation.getArgument(1);
+            for (MultipartFile image : images) {
+                results.write((image.getOriginalFilename() + "\n").getBytes());
+            }
+            return null;
+        }).when(qrCodeDecodeService).decodeParts(any(), any());
+
+        MvcResult result = mockMvc.perform(multipart("/api/qrcode/decode")
+                        .file(new MockMultipartFile("images", "a.png", "image/png", new byte[]{1}))
+                        .file(new MockMultipartFile("images", "b.png", "image/png", new byte[]{2}))
+                        .file(new MockMultipartFile("other", "c.jpg", "image/jpeg", new byte[]{3}))
+                        .cookie(authCookie))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("a.png\nb.png\nc.jpg\n"));
+    }
+
+    @Test
+    @DisplayName("Should route ZIP uploads to archive decoding")
+    void shouldDecodeArchive() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream results = invocation.getArgument(1);
+            results.write("archive\n".getBytes());
+            return null;
+        }).when(qrCodeDecodeService).decodeArchive(any(), any());
+
+        MvcResult result = mockMvc.perform(post("/api/qrcode/decode")
+                        .cookie(authCookie)
+                        .contentType("application/zip")
+                        .content(new byte[]{0x50, 0x4B}))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("archive\n"));
+    }
+
+    @Test
+    @DisplayName("Should return 415 Unsupported Media Type for other bodies")
+    void shouldRejectUnsupportedContentType() throws Exception {
+        mockMvc.perform(post("/api/qrcode/decode")
+                        .cookie(authCookie)
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("test"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    @DisplayName("Should return 401 Unauthorized when authentication cookie is missing")
+    void shouldReturnUnauthorizedForMissingAuth() throws Exception {
+        mockMvc.perform(post("/api/qrcode/decode")
+                        .contentType(MediaType.IMAGE_PNG)
+                        .content("png"))
+                .andExpect(status().isUnauthorized());
+    }
+
+}
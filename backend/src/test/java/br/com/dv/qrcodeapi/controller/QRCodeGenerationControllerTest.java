@@ -1,13 +1,20 @@
 package br.com.dv.qrcodeapi.controller;
 
 import br.com.dv.qrcodeapi.dto.ImageResponse;
-import br.com.dv.qrcodeapi.exception.InvalidColorException;
-import br.com.dv.qrcodeapi.exception.InvalidContentException;
-import br.com.dv.qrcodeapi.exception.InvalidCorrectionLevelException;
-import br.com.dv.qrcodeapi.exception.InvalidMarginException;
+import br.com.dv.qrcodeapi.dto.SignedUrlRequest;
+import br.com.dv.qrcodeapi.dto.StreamingImageResponse;
+import br.com.dv.qrcodeapi.dto.SymbolInfo;
+import br.com.dv.qrcodeapi.exception.RenderCapacityExceededException;
+import br.com.dv.qrcodeapi.metrics.GenerationStage;
+import br.com.dv.qrcodeapi.metrics.StageTimings;
+import br.com.dv.qrcodeapi.render.RenderSpec;
 import br.com.dv.qrcodeapi.security.JwtService;
 import br.com.dv.qrcodeapi.security.TestSecurityConfig;
+import br.com.dv.qrcodeapi.security.UrlSigner;
 import br.com.dv.qrcodeapi.service.QRCodeGenerationService;
+import br.com.dv.qrcodeapi.service.SignedUrlService;
+import br.com.dv.qrcodeapi.service.SignedUrlServiceImpl;
+import br.com.dv.qrcodeapi.validation.QRCodeParameterValidator;
 import jakarta.servlet.http.Cookie;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -20,30 +27,51 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.when;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
 @WebMvcTest(QRCodeGenerationController.class)
-@Import(TestSecurityConfig.class)
+@Import({TestSecurityConfig.class, SignedUrlServiceImpl.class, UrlSigner.class})
 class QRCodeGenerationControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
 
+    private final QRCodeParameterValidator validator = new QRCodeParameterValidator(4096, 350);
+
+    private final String defaultETag = '"' + spec("test", "png", "#000000", "#FFFFFF", 4, false).renderKey() + '"';
+
     @MockBean
     private QRCodeGenerationService qrCodeGenerationService;
 
     @MockBean
     private JwtService jwtService;
 
+    @Autowired
+    private SignedUrlService signedUrlService;
+
     private Cookie authCookie;
 
     @BeforeEach
@@ -51,6 +79,23 @@ class QRCodeGenerationControllerTest {
         authCookie = new Cookie("token", "test.jwt.token");
         when(jwtService.extractEmail("test.jwt.token")).thenReturn("test@example.com");
         when(jwtService.validateToken("test.jwt.token", "test@example.com")).thenReturn(true);
+        when(qrCodeGenerationService.parse(
+                any(), anyInt(), any(), any(), any(), any(), anyInt(), anyBoolean(), any(), any())
+        ).thenAnswer(invocation -> validator.parse(
+                invocation.getArgument(0),
+                invocation.<Integer>getArgument(1),
+                invocation.getArgument(2),
+                invocation.getArgument(3),
+                invocation.getArgument(4),
+                invocation.getArgument(5),
+                invocation.<Integer>getArgument(6),
+                invocation.<Boolean>getArgument(7),
+                invocation.getArgument(8)
+        ));
+    }
+
+    private RenderSpec spec(String content, String format, String fcolor, String bcolor, int margin, boolean compact) {
+        return validator.parse(content, 250, "L", format, fcolor, bcolor, margin, compact, null);
     }
 
     private MockHttpServletRequestBuilder withCookie(MockHttpServletRequestBuilder builder) {
@@ -61,9 +106,7 @@ class QRCodeGenerationControllerTest {
     @DisplayName("Should successfully generate QR code when all parameters are valid")
     void shouldGenerateQRCodeWithValidParameters() throws Exception {
         var mockResponse = new ImageResponse(new byte[]{1, 2, 3}, MediaType.IMAGE_PNG);
-        when(qrCodeGenerationService.generateQRCode(
-                anyString(), anyInt(), anyString(), anyString(), anyString(), anyString(), anyInt())
-        ).thenReturn(mockResponse);
+        when(qrCodeGenerationService.generateQRCode(any(), any())).thenReturn(mockResponse);
 
         mockMvc.perform(withCookie(get("/api/qrcode/generate"))
                         .param("contents", "test")
@@ -82,9 +125,7 @@ class QRCodeGenerationControllerTest {
     @DisplayName("Should successfully generate QR code when only required parameters are provided")
     void shouldGenerateQRCodeWithDefaultParameters() throws Exception {
         var mockResponse = new ImageResponse(new byte[]{1, 2, 3}, MediaType.IMAGE_PNG);
-        when(qrCodeGenerationService.generateQRCode(
-                anyString(), anyInt(), anyString(), anyString(), anyString(), anyString(), anyInt())
-        ).thenReturn(mockResponse);
+        when(qrCodeGenerationService.generateQRCode(any(), any())).thenReturn(mockResponse);
 
         mockMvc.perform(withCookie(get("/api/qrcode/generate")).param("contents", "test"))
                 .andExpect(status().isOk())
@@ -106,10 +147,6 @@ class QRCodeGenerationControllerTest {
     @ValueSource(strings = {"X", "Y", "invalid", "A"})
     @DisplayName("Should return 400 Bad Request when correction level is not L, M, Q, or H")
     void shouldReturnBadRequestForInvalidCorrectionLevel(String correction) throws Exception {
-        when(qrCodeGenerationService.generateQRCode(
-                anyString(), anyInt(), eq(correction), anyString(), anyString(), anyString(), anyInt())
-        ).thenThrow(new InvalidCorrectionLevelException());
-
         mockMvc.perform(withCookie(get("/api/qrcode/generate"))
                         .param("contents", "test")
                         .param("size", "250")
@@ -121,10 +158,6 @@ class QRCodeGenerationControllerTest {
     @Test
     @DisplayName("Should return 400 Bad Request when content parameter is empty")
     void shouldReturnBadRequestForEmptyContent() throws Exception {
-        when(qrCodeGenerationService.generateQRCode(
-                eq(""), anyInt(), anyString(), anyString(), anyString(), anyString(), anyInt())
-        ).thenThrow(new InvalidContentException());
-
         mockMvc.perform(withCookie(get("/api/qrcode/generate")).param("contents", ""))
                 .andExpect(status().isBadRequest());
     }
@@ -139,9 +172,8 @@ class QRCodeGenerationControllerTest {
             default -> MediaType.IMAGE_PNG;
         };
         var mockResponse = new ImageResponse(new byte[]{1, 2, 3}, expectedType);
-        when(qrCodeGenerationService.generateQRCode(
-                anyString(), anyInt(), anyString(), eq(format), anyString(), anyString(), anyInt())
-        ).thenReturn(mockResponse);
+        when(qrCodeGenerationService.generateQRCode(eq(spec("test", format, "#000000", "#FFFFFF", 4, false)), any())).thenReturn(mockResponse);
+
 
         mockMvc.perform(withCookie(get("/api/qrcode/generate"))
                         .param("contents", "test")
@@ -155,9 +187,7 @@ class QRCodeGenerationControllerTest {
     void shouldGenerateQRCodeWithSpecialCharacters() throws Exception {
         String specialContent = "Hello! こんにちは! ❤️ #@$%";
         var mockResponse = new ImageResponse(new byte[]{1, 2, 3}, MediaType.IMAGE_PNG);
-        when(qrCodeGenerationService.generateQRCode(
-                anyString(), anyInt(), anyString(), anyString(), anyString(), anyString(), anyInt())
-        ).thenReturn(mockResponse);
+        when(qrCodeGenerationService.generateQRCode(any(), any())).thenReturn(mockResponse);
 
         mockMvc.perform(withCookie(get("/api/qrcode/generate")).param("contents", specialContent))
                 .andExpect(status().isOk())
@@ -169,9 +199,7 @@ class QRCodeGenerationControllerTest {
     void shouldGenerateQRCodeWithLongContent() throws Exception {
         String longContent = "a".repeat(1000);
         var mockResponse = new ImageResponse(new byte[]{1, 2, 3}, MediaType.IMAGE_PNG);
-        when(qrCodeGenerationService.generateQRCode(
-                anyString(), anyInt(), anyString(), anyString(), anyString(), anyString(), anyInt())
-        ).thenReturn(mockResponse);
+        when(qrCodeGenerationService.generateQRCode(any(), any())).thenReturn(mockResponse);
 
         mockMvc.perform(withCookie(get("/api/qrcode/generate")).param("contents", longContent))
                 .andExpect(status().isOk())
@@ -182,9 +210,8 @@ class QRCodeGenerationControllerTest {
     @DisplayName("Should successfully generate QR code with valid named color")
     void shouldGenerateQRCodeWithValidNamedColor() throws Exception {
         var mockResponse = new ImageResponse(new byte[]{1, 2, 3}, MediaType.IMAGE_PNG);
-        when(qrCodeGenerationService.generateQRCode(
-                anyString(), anyInt(), anyString(), anyString(), eq("RED"), anyString(), anyInt())
-        ).thenReturn(mockResponse);
+        when(qrCodeGenerationService.generateQRCode(eq(spec("test", "png", "RED", "#FFFFFF", 4, false)), any())).thenReturn(mockResponse);
+
 
         mockMvc.perform(withCookie(get("/api/qrcode/generate"))
                         .param("contents", "test")
@@ -196,10 +223,6 @@ class QRCodeGenerationControllerTest {
     @Test
     @DisplayName("Should return 400 Bad Request when color name is invalid")
     void shouldReturnBadRequestForInvalidColor() throws Exception {
-        when(qrCodeGenerationService.generateQRCode(
-                anyString(), anyInt(), anyString(), anyString(), eq("RANDOM"), anyString(), anyInt())
-        ).thenThrow(new InvalidColorException());
-
         mockMvc.perform(withCookie(get("/api/qrcode/generate"))
                         .param("contents", "test")
                         .param("fcolor", "RANDOM"))
@@ -210,9 +233,8 @@ class QRCodeGenerationControllerTest {
     @DisplayName("Should successfully generate QR code with custom background color")
     void shouldGenerateQRCodeWithCustomBackgroundColor() throws Exception {
         var mockResponse = new ImageResponse(new byte[]{4, 5, 6}, MediaType.IMAGE_PNG);
-        when(qrCodeGenerationService.generateQRCode(
-                anyString(), anyInt(), anyString(), anyString(), anyString(), eq("#FFFF00"), anyInt())
-        ).thenReturn(mockResponse);
+        when(qrCodeGenerationService.generateQRCode(eq(spec("test", "png", "#000000", "#FFFF00", 4, false)), any())).thenReturn(mockResponse);
+
 
         mockMvc.perform(withCookie(get("/api/qrcode/generate"))
                         .param("contents", "test")
@@ -226,9 +248,8 @@ class QRCodeGenerationControllerTest {
     @DisplayName("Should successfully generate QR code with valid margin value")
     void shouldGenerateQRCodeWithValidMargin() throws Exception {
         var mockResponse = new ImageResponse(new byte[]{7, 8, 9}, MediaType.IMAGE_PNG);
-        when(qrCodeGenerationService.generateQRCode(
-                anyString(), anyInt(), anyString(), anyString(), anyString(), anyString(), eq(10))
-        ).thenReturn(mockResponse);
+        when(qrCodeGenerationService.generateQRCode(eq(spec("test", "png", "#000000", "#FFFFFF", 10, false)), any())).thenReturn(mockResponse);
+
 
         mockMvc.perform(withCookie(get("/api/qrcode/generate"))
                         .param("contents", "test")
@@ -241,16 +262,243 @@ class QRCodeGenerationControllerTest {
     @Test
     @DisplayName("Should return 400 Bad Request when margin value is out of allowed range")
     void shouldReturnBadRequestForInvalidMargin() throws Exception {
-        when(qrCodeGenerationService.generateQRCode(
-                anyString(), anyInt(), anyString(), anyString(), anyString(), anyString(), eq(999))
-        ).thenThrow(new InvalidMarginException());
-
         mockMvc.perform(withCookie(get("/api/qrcode/generate"))
                         .param("contents", "test")
                         .param("margin", "999"))
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @DisplayName("Should return 503 Service Unavailable with Retry-After when rendering is at capacity")
+    void shouldReturnServiceUnavailableWhenRenderingIsAtCapacity() throws Exception {
+        when(qrCodeGenerationService.generateQRCode(any(), any())).thenThrow(new RenderCapacityExceededException(2));
+
+        mockMvc.perform(withCookie(get("/api/qrcode/generate")).param("contents", "test"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"));
+    }
+
+    @Test
+    @DisplayName("Should send the ETag and shared-cache headers with a generated QR code")
+    void shouldSendValidatorsWithGeneratedQRCode() throws Exception {
+        var mockResponse = new ImageResponse(new byte[]{1, 2, 3}, MediaType.IMAGE_PNG);
+        when(qrCodeGenerationService.generateQRCode(any(), any())).thenReturn(mockResponse);
+
+        mockMvc.perform(withCookie(get("/api/qrcode/generate")).param("contents", "test"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, defaultETag))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=86400, public"))
+                .andExpect(content().bytes(new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    @DisplayName("Should send the stage breakdown of a generated QR code as a Server-Timing header")
+    void shouldSendServerTimingWithGeneratedQRCode() throws Exception {
+        var timings = new StageTimings();
+        timings.record(GenerationStage.VALIDATE, 100_000);
+        timings.record(GenerationStage.ENCODE, 1_000_000);
+        timings.markRendered();
+        var mockResponse = new ImageResponse(new byte[]{1, 2, 3}, MediaType.IMAGE_PNG, timings, null);
+        when(qrCodeGenerationService.generateQRCode(any(), any())).thenReturn(mockResponse);
+
+        mockMvc.perform(withCookie(get("/api/qrcode/generate")).param("contents", "test"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Server-Timing", "validate;dur=0.100, encode;dur=1.000, cache;desc=miss"));
+    }
+
+    @Test
+    @DisplayName("Should pass compact mode through and report the symbol version and module count")
+    void shouldGenerateCompactQRCode() throws Exception {
+        var mockResponse = new ImageResponse(
+                new byte[]{1, 2, 3}, MediaType.IMAGE_PNG, new StageTimings(), new SymbolInfo(3, 29)
+        );
+        when(qrCodeGenerationService.generateQRCode(eq(spec("test", "png", "#000000", "#FFFFFF", 4, true)), any())).thenReturn(mockResponse);
+
+
+        mockMvc.perform(withCookie(get("/api/qrcode/generate"))
+                        .param("contents", "test")
+                        .param("compact", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-QRCode-Version", "3"))
+                .andExpect(header().string("X-QRCode-Modules", "29"));
+    }
+
+    @Test
+    @DisplayName("Should return 304 Not Modified without rendering when If-None-Match matches the ETag")
+    void shouldReturnNotModifiedWhenETagMatches() throws Exception {
+        mockMvc.perform(withCookie(get("/api/qrcode/generate"))
+                        .param("contents", "test")
+                        .header(HttpHeaders.IF_NONE_MATCH, defaultETag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, defaultETag))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=86400, public"))
+                .andExpect(content().bytes(new byte[0]));
+
+        verify(qrCodeGenerationService, never()).generateQRCode(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should return 304 Not Modified without streaming when If-None-Match matches the ETag")
+    void shouldReturnNotModifiedForStreamWhenETagMatches() throws Exception {
+        mockMvc.perform(withCookie(get("/api/qrcode/generate"))
+                        .param("contents", "test")
+                        .param("stream", "true")
+                        .header(HttpHeaders.IF_NONE_MATCH, defaultETag))
+                .andExpect(status().isNotModified());
+
+        verify(qrCodeGenerationService, never()).streamQRCode(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should stream the image with a Content-Length when the size is known up front")
+    void shouldStreamQRCodeWithContentLength() throws Exception {
+        byte[] imageData = {1, 2, 3};
+        var mockResponse = new StreamingImageResponse(
+                outputStream -> outputStream.write(imageData), MediaType.IMAGE_PNG, imageData.length
+        );
+        when(qrCodeGenerationService.streamQRCode(any(), any())).thenReturn(mockResponse);
+
+        MvcResult result = mockMvc.perform(withCookie(get("/api/qrcode/generate"))
+                        .param("contents", "test")
+                        .param("stream", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, imageData.length))
+                .andExpect(content().bytes(imageData));
+    }
+
+    @Test
+    @DisplayName("Should discard a streamed image once its request completes")
+    void shouldDiscardStreamedImageOnCompletion() throws Exception {
+        var discards = new AtomicInteger();
+        var mockResponse = new StreamingImageResponse(
+                outputStream -> outputStream.write(new byte[]{1, 2, 3}),
+                MediaType.IMAGE_PNG,
+                3,
+                new StageTimings(),
+                null,
+                discards::incrementAndGet
+        );
+        when(qrCodeGenerationService.streamQRCode(any(), any())).thenReturn(mockResponse);
+
+        MvcResult result = mockMvc.perform(withCookie(get("/api/qrcode/generate"))
+                        .param("contents", "test")
+                        .param("stream", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(0, discards.get());
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+        assertTrue(discards.get() > 0);
+    }
+
+    @Test
+    @DisplayName("Should write a stored image without generating a heap copy and discard it afterwards")
+    void shouldServeStoredImage() throws Exception {
+        byte[] imageData = {7, 8, 9};
+        var discards = new AtomicInteger();
+        var mockResponse = new StreamingImageResponse(
+                outputStream -> outputStream.write(imageData),
+                MediaType.IMAGE_PNG,
+                imageData.length,
+                new StageTimings(),
+                null,
+                discards::incrementAndGet
+        );
+        when(qrCodeGenerationService.getStoredQRCode(eq(spec("test", "png", "#000000", "#FFFFFF", 4, false)), any()))
+                .thenReturn(mockResponse);
+
+        mockMvc.perform(withCookie(get("/api/qrcode/generate"))
+                        .param("contents", "test"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, imageData.length))
+                .andExpect(header().string(HttpHeaders.ETAG, defaultETag))
+                .andExpect(content().bytes(imageData));
+
+        verify(qrCodeGenerationService, never()).generateQRCode(any(), any());
+        assertEquals(1, discards.get());
+    }
+
+    @Test
+    @DisplayName("Should stream the image without a Content-Length when the size is not known up front")
+    void shouldStreamQRCodeWithoutContentLength() throws Exception {
+        byte[] imageData = {4, 5, 6};
+        var mockResponse = new StreamingImageResponse(
+                outputStream -> outputStream.write(imageData),
+                MediaType.IMAGE_GIF,
+                StreamingImageResponse.UNKNOWN_LENGTH
+        );
+        when(qrCodeGenerationService.streamQRCode(eq(spec("test", "gif", "#000000", "#FFFFFF", 4, false)), any())).thenReturn(mockResponse);
+
+
+        MvcResult result = mockMvc.perform(withCookie(get("/api/qrcode/generate"))
+                        .param("contents", "test")
+                        .param("type", "gif")
+                        .param("stream", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_GIF))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_LENGTH))
+                .andExpect(content().bytes(imageData));
+    }
+
+    @Test
+    @DisplayName("Should return 400 Bad Request when streaming with invalid parameters")
+    void shouldReturnBadRequestForInvalidStreamParameters() throws Exception {
+        mockMvc.perform(withCookie(get("/api/qrcode/generate"))
+                        .param("contents", "test")
+                        .param("margin", "999")
+                        .param("stream", "true"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should serve a signed URL without authentication and cache it no longer than it is valid")
+    void shouldServeSignedUrlWithoutAuthentication() throws Exception {
+        var signedSpec = validator.parse("a&b=#c", 300, "H", "png", "#112233", "#FFFFFF", 4);
+        when(qrCodeGenerationService.generateQRCode(eq(signedSpec), any()))
+                .thenReturn(new ImageResponse(new byte[]{1, 2, 3}, MediaType.IMAGE_PNG));
+
+
+        var signedUrl = signedUrlService.sign(
+                new SignedUrlRequest("a&b=#c", 300, "H", null, "#112233", null, null, null, null, 600L),
+                UriComponentsBuilder.fromPath(QRCodeGenerationController.SIGNED_PATH)
+        );
+
+        mockMvc.perform(get(URI.create(signedUrl.url())))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(new byte[]{1, 2, 3}))
+                .andExpect(header().string(HttpHeaders.ETAG, '"' + signedSpec.renderKey() + '"'))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, matchesPattern("max-age=(600|599), public")));
+        verify(jwtService, never()).extractEmail(anyString());
+    }
+
+    @Test
+    @DisplayName("Should return 403 Forbidden for a signed URL whose parameters were changed")
+    void shouldRejectTamperedSignedUrl() throws Exception {
+        var signedUrl = signedUrlService.sign(
+                new SignedUrlRequest("test", null, null, null, null, null, null, null, null, null),
+                UriComponentsBuilder.fromPath(QRCodeGenerationController.SIGNED_PATH)
+        );
+
+        mockMvc.perform(get(URI.create(signedUrl.url().replace("size=250", "size=4000"))))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get(URI.create(signedUrl.url().replaceAll("signature=[^&]+", "signature=AAAA"))))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get(URI.create(signedUrl.url() + "&logo=")))
+                .andExpect(status().isForbidden());
+        verify(qrCodeGenerationService, never()).generateQRCode(any(), any());
+    }
+
     @Test
     @DisplayName("Should return 401 Unauthorized when authentication cookie is missing")
     void shouldReturnUnauthorizedForMissingAuth() throws Exception {
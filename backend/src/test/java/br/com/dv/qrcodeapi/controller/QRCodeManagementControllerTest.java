@@ -239,7 +239,8 @@ class QRCodeManagementControllerTest {
                 "#000000",
                 "#FFFFFF",
                 4,
-                "M"
+                "M",
+                false
         );
 
         mockMvc.perform(post("/api/qrcode")
@@ -262,7 +263,8 @@ class QRCodeManagementControllerTest {
                 "#000000",
                 "#FFFFFF",
                 4,
-                "M"
+                "M",
+                false
         );
     }
 
@@ -278,6 +280,7 @@ class QRCodeManagementControllerTest {
                 "#FFFFFF",
                 4,
                 "M",
+                false,
                 LocalDateTime.now(),
                 LocalDateTime.now()
         );
@@ -312,6 +315,7 @@ class QRCodeManagementControllerTest {
                 qrCode.getBackgroundColor(),
                 qrCode.getMargin(),
                 qrCode.getErrorCorrection(),
+                qrCode.isCompact(),
                 qrCode.getCreatedAt(),
                 qrCode.getUpdatedAt()
         );
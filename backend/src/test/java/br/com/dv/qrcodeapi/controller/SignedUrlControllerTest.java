@@ -0,0 +1,94 @@
+package br.com.dv.qrcodeapi.controller;
+
+import br.com.dv.qrcodeapi.exception.InvalidColorException;
+import br.com.dv.qrcodeapi.security.JwtService;
+import br.com.dv.qrcodeapi.security.TestSecurityConfig;
+import br.com.dv.qrcodeapi.security.UrlSigner;
+import br.com.dv.qrcodeapi.service.QRCodeGenerationService;
+import br.com.dv.qrcodeapi.service.SignedUrlServiceImpl;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(SignedUrlController.class)
+@Import({TestSecurityConfig.class, SignedUrlServiceImpl.class, UrlSigner.class})
+class SignedUrlControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private QRCodeGenerationService qrCodeGenerationService;
+
+    @MockBean
+    private JwtService jwtService;
+
+    private Cookie authCookie;
+
+    @BeforeEach
+    void setUp() {
+        authCookie = new Cookie("token", "test.jwt.token");
+        when(jwtService.extractEmail("test.jwt.token")).thenReturn("test@example.com");
+        when(jwtService.validateToken("test.jwt.token", "test@example.com")).thenReturn(true);
+    }
+
+    @Test
+    @DisplayName("Should mint a signed URL with every parameter of the render")
+    void shouldSignUrl() throws Exception {
+        mockMvc.perform(post("/api/qrcode/signed-urls")
+                        .cookie(authCookie)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"contents\":\"hello world\",\"size\":300,\"ttlSeconds\":60}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.url").value(matchesPattern(
+                        "http://localhost/api/public/qrcode/generate\\?contents=hello%20world&size=300"
+                                + "&correction=L&type=png&fcolor=%23000000&bcolor=%23FFFFFF&margin=4&compact=false"
+                                + "&expires=\\d+&signature=[A-Za-z0-9_-]{43}"
+                )))
+                .andExpect(jsonPath("$.expiresAt").value(notNullValue()));
+    }
+
+    @Test
+    @DisplayName("Should refuse to sign invalid renders and expiries")
+    void shouldRejectInvalidRequests() throws Exception {
+        when(qrCodeGenerationService.parse(
+                anyString(), anyInt(), anyString(), anyString(), eq("nope"), anyString(), anyInt(), anyBoolean(), any(), any())
+        ).thenThrow(new InvalidColorException());
+
+        mockMvc.perform(post("/api/qrcode/signed-urls")
+                        .cookie(authCookie)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"contents\":\"test\",\"fcolor\":\"nope\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/qrcode/signed-urls")
+                        .cookie(authCookie)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"contents\":\"test\",\"ttlSeconds\":0}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should require authentication to mint signed URLs")
+    void shouldRequireAuthentication() throws Exception {
+        mockMvc.perform(post("/api/qrcode/signed-urls")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"contents\":\"test\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+}
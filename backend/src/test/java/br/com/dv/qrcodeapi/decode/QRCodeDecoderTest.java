@@ -0,0 +1,116 @@
+package br.com.dv.qrcodeapi.decode;
+
+import br.com.dv.qrcodeapi.dto.DecodeResult.DecodedSymbol;
+import br.com.dv.qrcodeapi.engine.SymbolUtils;
+import br.com.dv.qrcodeapi.exception.ImageTooLargeException;
+import br.com.dv.qrcodeapi.exception.UnreadableImageException;
+import br.com.dv.qrcodeapi.util.ImageUtils;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.Encoder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QRCodeDecoderTest {
+
+    private final QRCodeDecoder qrCodeDecoder = new QRCodeDecoder(1024, 20 * 1024 * 1024, 50_000_000);
+
+    @Test
+    @DisplayName("Should decode a single generated code and report its corner points")
+    void shouldDecodeSingleCode() throws Exception {
+        byte[] png = ImageUtils.writeImageToByteArray(sheet(1, 250), "png");
+
+        List<DecodedSymbol> symbols = qrCodeDecoder.decode(png);
+
+        assertEquals(1, symbols.size());
+        assertEquals("code-0", symbols.get(0).text());
+        assertFalse(symbols.get(0).points().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should find every code on a sheet")
+    void shouldDecodeEveryCodeOnSheet() throws Exception {
+        BufferedImage sheet = sheet(6, 250);
+
+        Set<String> texts = texts(qrCodeDecoder.decode(sheet));
+
+        assertEquals(Set.of("code-0", "code-1", "code-2", "code-3", "code-4", "code-5"), texts);
+    }
+
+    @Test
+    @DisplayName("Should decode a large photo in the downscaled pass with points in original coordinates")
+    void shouldDecodeDownscaledPhoto() throws Exception {
+        BufferedImage sheet = sheet(4, 800);
+        var fullSize = new QRCodeDecoder(0, 20 * 1024 * 1024, 50_000_000);
+
+        List<DecodedSymbol> scaled = qrCodeDecoder.decode(sheet);
+        List<DecodedSymbol> full = fullSize.decode(sheet);
+
+        assertEquals(texts(full), texts(scaled));
+        float maxX = (float) scaled.stream()
+                .flatMap(symbol -> symbol.points().stream())
+                .mapToDouble(point -> point.x())
+                .max()
+                .orElseThrow();
+        assertTrue(maxX > 1024, "points should be scaled back to the original width, got " + maxX);
+    }
+
+    @Test
+    @DisplayName("Should return no symbols for an image without codes")
+    void shouldReturnNothingForBlankImage() {
+        var blank = new BufferedImage(300, 300, BufferedImage.TYPE_INT_RGB);
+
+        assertTrue(qrCodeDecoder.decode(blank).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reject images over the byte or pixel limits before decoding them")
+    void shouldRejectOversizedImages() throws Exception {
+        byte[] png = ImageUtils.writeImageToByteArray(sheet(1, 250), "png");
+
+        assertThrows(ImageTooLargeException.class, () -> new QRCodeDecoder(0, 100, 50_000_000).decode(png));
+        assertThrows(ImageTooLargeException.class, () -> new QRCodeDecoder(0, png.length, 1000).decode(png));
+    }
+
+    @Test
+    @DisplayName("Should throw UnreadableImageException for bytes that are not an image")
+    void shouldRejectUnreadableImages() {
+        assertThrows(UnreadableImageException.class, () -> qrCodeDecoder.decode(new byte[]{1, 2, 3, 4}));
+    }
+
+    /**
+     * Lays out {@code count} codes in rows of three, each {@code size} pixels wide.
+     */
+    static BufferedImage sheet(int count, int size) throws Exception {
+        int columns = Math.min(count, 3);
+        int rows = (count + columns - 1) / columns;
+        var sheet = new BufferedImage(columns * size, rows * size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = sheet.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, sheet.getWidth(), sheet.getHeight());
+            for (int i = 0; i < count; i++) {
+                var symbol = Encoder.encode("code-" + i, ErrorCorrectionLevel.M);
+                BufferedImage code = MatrixToImageWriter.toBufferedImage(SymbolUtils.toBitMatrix(symbol, size, 4));
+                graphics.drawImage(code, (i % columns) * size, (i / columns) * size, null);
+            }
+        } finally {
+            graphics.dispose();
+        }
+        return sheet;
+    }
+
+    private static Set<String> texts(List<DecodedSymbol> symbols) {
+        return symbols.stream().map(DecodedSymbol::text).collect(Collectors.toSet());
+    }
+
+}
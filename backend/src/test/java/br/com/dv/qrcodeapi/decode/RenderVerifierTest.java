@@ -0,0 +1,82 @@
+package br.com.dv.qrcodeapi.decode;
+
+import br.com.dv.qrcodeapi.engine.ImageFormat;
+import br.com.dv.qrcodeapi.engine.PngEncoder;
+import br.com.dv.qrcodeapi.engine.SymbolRaster;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.Encoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RenderVerifierTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RenderVerifier renderVerifier = new RenderVerifier(0, 1, 16, 1024, meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        renderVerifier.destroy();
+    }
+
+    @Test
+    @DisplayName("Should match an image that decodes to its content and time the decode")
+    void shouldMatchReadableImage() throws Exception {
+        byte[] png = png("content", 0xFF000000, 0xFFFFFFFF);
+
+        assertEquals(RenderVerifier.Outcome.MATCH, renderVerifier.verify("content", ImageFormat.PNG, 250, png));
+        assertEquals(1.0, meterRegistry.get("qrcode.verify.results")
+                .tag("format", "png").tag("outcome", "match").counter().count());
+        assertEquals(1, meterRegistry.get("qrcode.verify.decode").tag("format", "png").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should report a mismatch when the image decodes to other content")
+    void shouldReportMismatch() throws Exception {
+        byte[] png = png("other", 0xFF000000, 0xFFFFFFFF);
+
+        assertEquals(RenderVerifier.Outcome.MISMATCH, renderVerifier.verify("content", ImageFormat.PNG, 250, png));
+    }
+
+    @Test
+    @DisplayName("Should report an image without contrast as unreadable")
+    void shouldReportUnreadableImage() throws Exception {
+        byte[] png = png("content", 0xFFFFFFFF, 0xFFFFFFFF);
+
+        assertEquals(RenderVerifier.Outcome.UNREADABLE, renderVerifier.verify("content", ImageFormat.PNG, 250, png));
+        assertEquals(1.0, meterRegistry.get("qrcode.verify.results").tag("outcome", "unreadable").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should skip formats it cannot decode and sizes above the limit")
+    void shouldSkipUndecodableRenders() throws Exception {
+        byte[] png = png("content", 0xFF000000, 0xFFFFFFFF);
+
+        assertEquals(RenderVerifier.Outcome.SKIPPED, renderVerifier.verify("content", ImageFormat.SVG, 250, new byte[0]));
+        assertEquals(RenderVerifier.Outcome.SKIPPED, renderVerifier.verify("content", ImageFormat.PNG, 2048, png));
+        assertTrue(meterRegistry.find("qrcode.verify.decode").timers().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should never sample when the rate is zero and always when it is one")
+    void shouldSampleAtConfiguredRate() {
+        var always = new RenderVerifier(1.0, 1, 16, 1024, new SimpleMeterRegistry());
+        try {
+            for (int i = 0; i < 100; i++) {
+                assertFalse(renderVerifier.shouldSample());
+                assertTrue(always.shouldSample());
+            }
+        } finally {
+            always.destroy();
+        }
+    }
+
+    private static byte[] png(String content, int foreground, int background) throws Exception {
+        var symbol = Encoder.encode(content, ErrorCorrectionLevel.L);
+        return PngEncoder.encode(new SymbolRaster(symbol, 250, 4), foreground, background);
+    }
+
+}
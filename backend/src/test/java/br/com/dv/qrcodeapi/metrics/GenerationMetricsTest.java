@@ -0,0 +1,71 @@
+package br.com.dv.qrcodeapi.metrics;
+
+import br.com.dv.qrcodeapi.engine.ImageFormat;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GenerationMetrics generationMetrics = new GenerationMetrics(meterRegistry);
+
+    @ParameterizedTest
+    @CsvSource({
+            "1, le256",
+            "150, le256",
+            "256, le256",
+            "257, le512",
+            "350, le512",
+            "1024, le1024",
+            "4096, le4096",
+            "4097, gt4096"
+    })
+    @DisplayName("Should bucket sizes by the next power of two")
+    void shouldBucketSizes(int size, String bucket) {
+        assertEquals(bucket, GenerationMetrics.sizeBucket(size));
+    }
+
+    @Test
+    @DisplayName("Should record a stage into both the tagged timer and the request timings")
+    void shouldRecordStage() {
+        var timings = new StageTimings();
+
+        String result = generationMetrics.time(
+                GenerationStage.ENCODE, ImageFormat.GIF, ErrorCorrectionLevel.Q, 300, timings, () -> "symbol"
+        );
+
+        assertEquals("symbol", result);
+        Timer timer = meterRegistry.get("qrcode.generation.stage")
+                .tags("stage", "encode", "format", "gif", "correction", "Q", "size", "le512")
+                .timer();
+        assertEquals(1, timer.count());
+        assertEquals(timings.getNanos(GenerationStage.ENCODE), (long) timer.totalTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    @DisplayName("Should render no Server-Timing value when nothing was timed")
+    void shouldRenderEmptyServerTimingWithoutStages() {
+        assertEquals("", new StageTimings().toServerTiming());
+    }
+
+    @Test
+    @DisplayName("Should render Server-Timing durations in milliseconds")
+    void shouldRenderServerTimingInMilliseconds() {
+        var timings = new StageTimings();
+        timings.record(GenerationStage.VALIDATE, 40_000);
+        timings.record(GenerationStage.WRITE, 2_500_000);
+        timings.markRendered();
+
+        assertEquals("validate;dur=0.040, write;dur=2.500, cache;desc=miss", timings.toServerTiming());
+    }
+
+}
@@ -0,0 +1,53 @@
+package br.com.dv.qrcodeapi.render;
+
+import br.com.dv.qrcodeapi.engine.ImageFormat;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RenderSpecTest {
+
+    @Test
+    @DisplayName("Should return the same instance for equal parameters")
+    void shouldInternEqualSpecs() {
+        RenderSpec first = spec(new String("content".toCharArray()), 250, 0xFF000000);
+        RenderSpec second = spec(new String("content".toCharArray()), 250, 0xFF000000);
+
+        assertSame(first, second);
+        assertEquals(first.hash64(), second.hash64());
+    }
+
+    @Test
+    @DisplayName("Should produce different hashes when any field changes")
+    void shouldHashEveryField() {
+        Set<Long> hashes = new HashSet<>();
+        hashes.add(spec("content", 250, 0xFF000000).hash64());
+        hashes.add(spec("content!", 250, 0xFF000000).hash64());
+        hashes.add(spec("content", 251, 0xFF000000).hash64());
+        hashes.add(spec("content", 250, 0xFF000001).hash64());
+        hashes.add(RenderSpec.of("content", 250, ErrorCorrectionLevel.H, ImageFormat.PNG, 0xFF000000, 0xFFFFFFFF, 4).hash64());
+        hashes.add(RenderSpec.of("content", 250, ErrorCorrectionLevel.L, ImageFormat.GIF, 0xFF000000, 0xFFFFFFFF, 4).hash64());
+        hashes.add(RenderSpec.of("content", 250, ErrorCorrectionLevel.L, ImageFormat.PNG, 0xFF000000, 0xFFFFFFFE, 4).hash64());
+        hashes.add(RenderSpec.of("content", 250, ErrorCorrectionLevel.L, ImageFormat.PNG, 0xFF000000, 0xFFFFFFFF, 5).hash64());
+        hashes.add(RenderSpec.of("content", 250, ErrorCorrectionLevel.L, ImageFormat.PNG, 0xFF000000, 0xFFFFFFFF, 4, true, null).hash64());
+        hashes.add(RenderSpec.of("content", 250, ErrorCorrectionLevel.L, ImageFormat.PNG, 0xFF000000, 0xFFFFFFFF, 4, false, "logo").hash64());
+
+        assertEquals(10, hashes.size());
+    }
+
+    @Test
+    @DisplayName("Should not be equal when only the content differs")
+    void shouldCompareContent() {
+        assertNotEquals(spec("content-a", 250, 0xFF000000), spec("content-b", 250, 0xFF000000));
+    }
+
+    private static RenderSpec spec(String content, int size, int foregroundColor) {
+        return RenderSpec.of(content, size, ErrorCorrectionLevel.L, ImageFormat.PNG, foregroundColor, 0xFFFFFFFF, 4);
+    }
+
+}
@@ -0,0 +1,119 @@
+package br.com.dv.qrcodeapi.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private final RateLimitFilter rateLimitFilter = new RateLimitFilter(true, 60, 1000, 3, 1, 1, 2, 1);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should publish rate limit headers and answer 429 once a client runs out")
+    void shouldThrottleWithHeaders() throws Exception {
+        MockHttpServletResponse first = perform("/api/qrcode/generate", "10.0.0.1");
+        assertEquals(200, first.getStatus());
+        assertEquals("3", first.getHeader("RateLimit-Limit"));
+        assertEquals("2", first.getHeader("RateLimit-Remaining"));
+        assertEquals("20", first.getHeader("RateLimit-Reset"));
+        assertEquals("3;w=60", first.getHeader("RateLimit-Policy"));
+
+        perform("/api/qrcode/generate", "10.0.0.1");
+        perform("/api/qrcode/generate", "10.0.0.1");
+        MockHttpServletResponse throttled = perform("/api/qrcode/generate", "10.0.0.1");
+
+        assertEquals(429, throttled.getStatus());
+        assertEquals("0", throttled.getHeader("RateLimit-Remaining"));
+        assertEquals("20", throttled.getHeader("Retry-After"));
+        assertEquals("{\"error\":\"Too many requests\"}", throttled.getContentAsString());
+    }
+
+    @Test
+    @DisplayName("Should limit each class of endpoint separately and leave health checks alone")
+    void shouldLimitEndpointClassesSeparately() throws Exception {
+        assertEquals(200, perform("/api/qrcode/generate/batch", "10.0.0.1").getStatus());
+        assertEquals(429, perform("/api/qrcode/generate/batch", "10.0.0.1").getStatus());
+
+        assertEquals(200, perform("/api/qrcode/generate", "10.0.0.1").getStatus());
+        assertEquals(200, perform("/api/public/qrcode/generate", "10.0.0.1").getStatus());
+        assertEquals(200, perform("/api/qrcode/1", "10.0.0.1").getStatus());
+        assertEquals(200, perform("/api/qrcode/logos", "10.0.0.1").getStatus());
+        assertEquals(429, perform("/api/qrcode", "10.0.0.1").getStatus());
+
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletResponse health = perform("/api/health", "10.0.0.1");
+            assertEquals(200, health.getStatus());
+            assertNull(health.getHeader("RateLimit-Limit"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should limit signed-in users by account rather than by address")
+    void shouldLimitUsersByAccount() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "test@example.com", null, AuthorityUtils.createAuthorityList("ROLE_USER")
+        ));
+
+        assertEquals(200, perform("/api/qrcode/decode", "10.0.0.1").getStatus());
+        assertEquals(429, perform("/api/qrcode/decode", "10.0.0.2").getStatus());
+
+        SecurityContextHolder.clearContext();
+        assertEquals(200, perform("/api/qrcode/decode", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    @DisplayName("Should count allowed and throttled requests per endpoint class")
+    void shouldPublishMetrics() throws Exception {
+        var meterRegistry = new SimpleMeterRegistry();
+        rateLimitFilter.bindTo(meterRegistry);
+
+        perform("/api/auth/login", "10.0.0.1");
+        perform("/api/auth/login", "10.0.0.1");
+
+        assertEquals(1.0, meterRegistry.get("qrcode.ratelimit.requests")
+                .tags("endpoint", "auth", "outcome", "allowed").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("qrcode.ratelimit.requests")
+                .tags("endpoint", "auth", "outcome", "throttled").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("qrcode.ratelimit.clients").tag("endpoint", "auth").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should pass every request through when rate limiting is disabled")
+    void shouldPassThroughWhenDisabled() throws Exception {
+        var disabled = new RateLimitFilter(false, 60, 1000, 1, 1, 1, 1, 1);
+
+        for (int i = 0; i < 3; i++) {
+            var response = new MockHttpServletResponse();
+            disabled.doFilter(request("/api/qrcode/generate", "10.0.0.1"), response, new MockFilterChain());
+            assertEquals(200, response.getStatus());
+            assertNull(response.getHeader("RateLimit-Limit"));
+        }
+    }
+
+    private MockHttpServletResponse perform(String path, String address) throws Exception {
+        var response = new MockHttpServletResponse();
+        rateLimitFilter.doFilter(request(path, address), response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String path, String address) {
+        var request = new MockHttpServletRequest("GET", path);
+        request.setRemoteAddr(address);
+        return request;
+    }
+
+}
@@ -0,0 +1,105 @@
+package br.com.dv.qrcodeapi.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(-TimeUnit.DAYS.toNanos(1));
+
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new RateLimiter(10, Duration.ofSeconds(10), 1000, now::get);
+    }
+
+    @Test
+    @DisplayName("Should allow a burst of the limit and then throttle until a token refills")
+    void shouldThrottleAfterBurst() {
+        for (int i = 9; i >= 0; i--) {
+            RateLimiter.Decision decision = rateLimiter.tryAcquire("client");
+            assertTrue(decision.allowed());
+            assertEquals(i, decision.remaining());
+        }
+
+        RateLimiter.Decision throttled = rateLimiter.tryAcquire("client");
+        assertFalse(throttled.allowed());
+        assertEquals(0, throttled.remaining());
+        assertEquals(TimeUnit.SECONDS.toNanos(1), throttled.retryAfterNanos());
+        assertEquals(TimeUnit.SECONDS.toNanos(10), throttled.resetNanos());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertTrue(rateLimiter.tryAcquire("client").allowed());
+        assertFalse(rateLimiter.tryAcquire("client").allowed());
+
+        assertEquals(11, rateLimiter.allowedCount());
+        assertEquals(2, rateLimiter.throttledCount());
+    }
+
+    @Test
+    @DisplayName("Should refill a bucket completely after a full window and never beyond the limit")
+    void shouldRefillUpToLimit() {
+        for (int i = 0; i < 10; i++) {
+            rateLimiter.tryAcquire("client");
+        }
+
+        now.addAndGet(TimeUnit.MINUTES.toNanos(5));
+
+        assertEquals(9, rateLimiter.tryAcquire("client").remaining());
+    }
+
+    @Test
+    @DisplayName("Should keep a separate bucket for each client")
+    void shouldLimitClientsIndependently() {
+        for (int i = 0; i < 10; i++) {
+            rateLimiter.tryAcquire("first");
+        }
+
+        assertFalse(rateLimiter.tryAcquire("first").allowed());
+        assertTrue(rateLimiter.tryAcquire("second").allowed());
+        assertEquals(2, rateLimiter.clientCount());
+    }
+
+    @Test
+    @DisplayName("Should admit exactly the limit when one client races from many threads")
+    void shouldAdmitExactlyLimitUnderContention() throws Exception {
+        var limiter = new RateLimiter(1000, Duration.ofHours(1), 1000, now::get);
+        var admitted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        if (limiter.tryAcquire("client").allowed()) {
+                            admitted.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1000, admitted.get());
+        assertEquals(3000, limiter.throttledCount());
+    }
+
+}
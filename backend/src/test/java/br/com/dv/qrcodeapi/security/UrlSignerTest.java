@@ -0,0 +1,62 @@
+package br.com.dv.qrcodeapi.security;
+
+import br.com.dv.qrcodeapi.exception.InvalidExpiryException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UrlSignerTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+    private final UrlSigner urlSigner = signerAt(NOW);
+
+    @Test
+    @DisplayName("Should accept its own signatures until they expire")
+    void shouldVerifyUntilExpiry() {
+        long expiresAt = urlSigner.expiresAt(60L);
+        String signature = urlSigner.sign(expiresAt, "content", "250");
+
+        assertEquals(NOW.getEpochSecond() + 60, expiresAt);
+        assertTrue(urlSigner.verify(signature, expiresAt, "content", "250"));
+        assertTrue(signerAt(NOW.plusSeconds(59)).verify(signature, expiresAt, "content", "250"));
+        assertFalse(signerAt(NOW.plusSeconds(60)).verify(signature, expiresAt, "content", "250"));
+    }
+
+    @Test
+    @DisplayName("Should reject signatures for other fields, expiries or keys")
+    void shouldRejectForgedSignatures() {
+        long expiresAt = urlSigner.expiresAt(null);
+        String signature = urlSigner.sign(expiresAt, "ab", "c");
+
+        assertFalse(urlSigner.verify(signature, expiresAt, "a", "bc"));
+        assertFalse(urlSigner.verify(urlSigner.sign(expiresAt, "ab", null), expiresAt, "ab", ""));
+        assertFalse(urlSigner.verify(urlSigner.sign(expiresAt, "ab", ""), expiresAt, "ab", null));
+        assertFalse(urlSigner.verify(signature, expiresAt + 1, "ab", "c"));
+        assertFalse(urlSigner.verify("not base64!", expiresAt, "ab", "c"));
+        assertFalse(urlSigner.verify(null, expiresAt, "ab", "c"));
+
+        var otherKey = new UrlSigner("", 86400, 86400, Clock.fixed(NOW, ZoneOffset.UTC));
+        assertFalse(otherKey.verify(signature, expiresAt, "ab", "c"));
+    }
+
+    @Test
+    @DisplayName("Should only mint expiries within the configured maximum")
+    void shouldLimitExpiry() {
+        assertEquals(NOW.getEpochSecond() + 3600, urlSigner.expiresAt(null));
+        assertThrows(InvalidExpiryException.class, () -> urlSigner.expiresAt(0L));
+        assertThrows(InvalidExpiryException.class, () -> urlSigner.expiresAt(86401L));
+    }
+
+    private static UrlSigner signerAt(Instant now) {
+        return new UrlSigner(SECRET, 3600, 86400, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+}
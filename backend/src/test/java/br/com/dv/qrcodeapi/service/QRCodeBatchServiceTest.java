@@ -0,0 +1,247 @@
+package br.com.dv.qrcodeapi.service;
+
+import br.com.dv.qrcodeapi.cache.DisabledSharedImageCache;
+import br.com.dv.qrcodeapi.cache.LogoCache;
+import br.com.dv.qrcodeapi.cache.QRCodeDiskCache;
+import br.com.dv.qrcodeapi.cache.QRCodeImageCache;
+import br.com.dv.qrcodeapi.cache.QRCodeSymbolCache;
+import br.com.dv.qrcodeapi.cache.SymbolCacheKey;
+import br.com.dv.qrcodeapi.concurrency.RenderBulkhead;
+import br.com.dv.qrcodeapi.decode.RenderVerifier;
+import br.com.dv.qrcodeapi.dto.BatchManifest;
+import br.com.dv.qrcodeapi.metrics.GenerationMetrics;
+import br.com.dv.qrcodeapi.render.RenderSpec;
+import br.com.dv.qrcodeapi.validation.QRCodeParameterValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QRCodeBatchServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private QRCodeBatchServiceImpl qrCodeBatchService;
+    private RenderBulkhead renderBulkhead;
+    private RenderVerifier renderVerifier;
+
+    @BeforeEach
+    void setUp() {
+        renderBulkhead = new RenderBulkhead(2, 16, 16 * 1024 * 1024, 1);
+        renderVerifier = new RenderVerifier(0, 1, 16, 1024, new SimpleMeterRegistry());
+        qrCodeBatchService = batchService(renderBulkhead);
+    }
+
+    @AfterEach
+    void tearDown() {
+        qrCodeBatchService.destroy();
+        renderBulkhead.destroy();
+        renderVerifier.destroy();
+    }
+
+    @Test
+    @DisplayName("Should write one archive entry per spec from a JSON array, in request order")
+    void shouldGenerateArchiveFromJsonArray() throws IOException {
+        String specs = """
+                [
+                  {"contents": "first", "name": "label one"},
+                  {"contents": "second", "type": "gif", "size": 150},
+                  {"contents": "third", "fcolor": "RED", "margin": 0}
+                ]
+                """;
+
+        Map<String, byte[]> entries = generate(specs);
+
+        assertEquals(
+                List.of("000000-label_one.png", "000001.gif", "000002.png", "manifest.json"),
+                List.copyOf(entries.keySet())
+        );
+        assertNotNull(ImageIO.read(new ByteArrayInputStream(entries.get("000001.gif"))));
+
+        BatchManifest manifest = manifest(entries);
+        assertEquals(3, manifest.total());
+        assertEquals(3, manifest.succeeded());
+        assertTrue(manifest.failures().isEmpty());
+        assertNull(manifest.inputError());
+    }
+
+    @Test
+    @DisplayName("Should record invalid specs in the manifest instead of aborting the batch")
+    void shouldRecordFailuresInManifest() throws IOException {
+        String specs = """
+                {"contents": "valid"}
+                {"contents": "", "name": "empty"}
+                {"contents": "too big", "size": 5000}
+                {"contents": "also valid"}
+                """;
+
+        Map<String, byte[]> entries = generate(specs);
+
+        assertTrue(entries.containsKey("000000.png"));
+        assertTrue(entries.containsKey("000003.png"));
+
+        BatchManifest manifest = manifest(entries);
+        assertEquals(4, manifest.total());
+        assertEquals(2, manifest.succeeded());
+        assertEquals(2, manifest.failures().size());
+        assertEquals(1, manifest.failures().get(0).index());
+        assertEquals("empty", manifest.failures().get(0).name());
+        assertEquals(2, manifest.failures().get(1).index());
+    }
+
+    @Test
+    @DisplayName("Should decode items that ask for verification and list the ones that do not scan")
+    void shouldVerifyRequestedItems() throws IOException {
+        String specs = """
+                {"contents": "scans", "verify": true}
+                {"contents": "blank", "fcolor": "#FFFFFF", "bcolor": "#FFFFFF", "verify": true}
+                {"contents": "vector", "type": "svg", "verify": true}
+                {"contents": "unchecked", "fcolor": "#FFFFFF", "bcolor": "#FFFFFF"}
+                """;
+
+        Map<String, byte[]> entries = generate(specs);
+
+        assertTrue(entries.containsKey("000001.png"));
+        BatchManifest manifest = manifest(entries);
+        assertEquals(4, manifest.succeeded());
+        assertEquals(1, manifest.verificationFailures().size());
+        assertEquals(1, manifest.verificationFailures().get(0).index());
+        assertEquals("Rendered image could not be decoded", manifest.verificationFailures().get(0).error());
+    }
+
+    @Test
+    @DisplayName("Should keep the rendered items and report an input error when the stream is malformed")
+    void shouldReportMalformedInput() throws IOException {
+        String specs = """
+                {"contents": "valid"}
+                {"contents": 
+                """;
+
+        Map<String, byte[]> entries = generate(specs);
+
+        assertTrue(entries.containsKey("000000.png"));
+        BatchManifest manifest = manifest(entries);
+        assertEquals(1, manifest.succeeded());
+        assertNotNull(manifest.inputError());
+    }
+
+    @Test
+    @DisplayName("Should render batches larger than the in-flight window")
+    void shouldGenerateBatchLargerThanWindow() throws IOException {
+        String specs = IntStream.range(0, 50)
+                .mapToObj(i -> "{\"contents\": \"item-" + i + "\"}")
+                .collect(Collectors.joining("\n"));
+
+        Map<String, byte[]> entries = generate(specs);
+
+        assertEquals(51, entries.size());
+        assertEquals(50, manifest(entries).succeeded());
+    }
+
+    @Test
+    @DisplayName("Should render every item even when the render bulkhead admits nothing")
+    void shouldNotGoThroughRenderBulkhead() throws IOException {
+        var saturated = new RenderBulkhead(1, 0, 0, 1);
+        var service = batchService(saturated);
+        String specs = IntStream.range(0, 20)
+                .mapToObj(i -> "{\"contents\": \"item-" + i + "\"}")
+                .collect(Collectors.joining("\n"));
+
+        try {
+            Map<String, byte[]> entries = generate(service, specs);
+
+            assertEquals(20, manifest(entries).succeeded());
+            assertTrue(manifest(entries).failures().isEmpty());
+        } finally {
+            service.destroy();
+            saturated.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Should render items without filling the image or symbol caches")
+    void shouldNotCacheBatchItems() throws IOException {
+        var imageCache = new QRCodeImageCache(1024 * 1024);
+        var symbolCache = new QRCodeSymbolCache(1024 * 1024);
+        var service = batchService(renderBulkhead, imageCache, symbolCache);
+
+        try {
+            Map<String, byte[]> entries = generate(service, "{\"contents\": \"one-off\"}");
+
+            assertEquals(1, manifest(entries).succeeded());
+            RenderSpec spec = new QRCodeParameterValidator(4096, 350)
+                    .parse("one-off", 250, "L", "png", "#000000", "#FFFFFF", 4);
+            assertNull(imageCache.acquire(spec));
+            assertNull(symbolCache.getIfPresent(new SymbolCacheKey("one-off", ErrorCorrectionLevel.L, false)));
+        } finally {
+            service.destroy();
+        }
+    }
+
+    private Map<String, byte[]> generate(String specs) throws IOException {
+        return generate(qrCodeBatchService, specs);
+    }
+
+    private Map<String, byte[]> generate(QRCodeBatchServiceImpl service, String specs) throws IOException {
+        var outputStream = new ByteArrayOutputStream();
+        service.generateBatch(
+                new ByteArrayInputStream(specs.getBytes(StandardCharsets.UTF_8)),
+                outputStream
+        );
+
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (var zip = new ZipInputStream(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.put(entry.getName(), zip.readAllBytes());
+            }
+        }
+        return entries;
+    }
+
+    private BatchManifest manifest(Map<String, byte[]> entries) throws IOException {
+        return objectMapper.readValue(entries.get("manifest.json"), BatchManifest.class);
+    }
+
+    private QRCodeBatchServiceImpl batchService(RenderBulkhead bulkhead) {
+        return batchService(bulkhead, new QRCodeImageCache(1024 * 1024), new QRCodeSymbolCache(1024 * 1024));
+    }
+
+    private QRCodeBatchServiceImpl batchService(
+            RenderBulkhead bulkhead,
+            QRCodeImageCache imageCache,
+            QRCodeSymbolCache symbolCache
+    ) {
+        var qrCodeGenerationService = new QRCodeGenerationServiceImpl(
+                new QRCodeParameterValidator(4096, 350),
+                imageCache,
+                new QRCodeDiskCache("", 0, 0, 0, 0),
+                symbolCache,
+                bulkhead,
+                new GenerationMetrics(new SimpleMeterRegistry()),
+                renderVerifier,
+                new LogoCache("", 32 * 1024 * 1024),
+                new DisabledSharedImageCache()
+        );
+        return new QRCodeBatchServiceImpl(qrCodeGenerationService, renderVerifier, objectMapper, 2);
+    }
+
+}
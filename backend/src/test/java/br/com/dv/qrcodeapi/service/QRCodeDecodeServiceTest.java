@@ -0,0 +1,149 @@
+package br.com.dv.qrcodeapi.service;
+
+import br.com.dv.qrcodeapi.decode.QRCodeDecoder;
+import br.com.dv.qrcodeapi.dto.DecodeResult.DecodedSymbol;
+import br.com.dv.qrcodeapi.dto.DecodeResult;
+import br.com.dv.qrcodeapi.engine.SymbolUtils;
+import br.com.dv.qrcodeapi.util.ImageUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.Encoder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QRCodeDecodeServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private QRCodeDecodeServiceImpl qrCodeDecodeService;
+
+    @BeforeEach
+    void setUp() {
+        qrCodeDecodeService = new QRCodeDecodeServiceImpl(
+                new QRCodeDecoder(2048, 64 * 1024, 50_000_000),
+                objectMapper,
+                2
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        qrCodeDecodeService.destroy();
+    }
+
+    @Test
+    @DisplayName("Should write one result line for a single image")
+    void shouldDecodeSingleImage() throws IOException {
+        var outputStream = new ByteArrayOutputStream();
+
+        qrCodeDecodeService.decodeImage(new ByteArrayInputStream(png("single")), outputStream);
+
+        List<DecodeResult> results = readResults(outputStream);
+        assertEquals(1, results.size());
+        assertEquals(0, results.get(0).index());
+        assertNull(results.get(0).error());
+        assertEquals(List.of("single"), texts(results.get(0)));
+    }
+
+    @Test
+    @DisplayName("Should decode every multipart image and keep upload order and file names")
+    void shouldDecodeMultipartImages() throws IOException {
+        var parts = new ArrayList<MultipartFile>();
+        for (int i = 0; i < 10; i++) {
+            parts.add(new MockMultipartFile("images", "image-" + i + ".png", "image/png", png("content-" + i)));
+        }
+        var outputStream = new ByteArrayOutputStream();
+
+        qrCodeDecodeService.decodeParts(parts, outputStream);
+
+        List<DecodeResult> results = readResults(outputStream);
+        assertEquals(10, results.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, results.get(i).index());
+            assertEquals("image-" + i + ".png", results.get(i).name());
+            assertEquals(List.of("content-" + i), texts(results.get(i)));
+        }
+    }
+
+    @Test
+    @DisplayName("Should decode archive entries, skipping directories and reporting failed images inline")
+    void shouldDecodeArchive() throws IOException {
+        var zipBytes = new ByteArrayOutputStream();
+        try (var zip = new ZipOutputStream(zipBytes)) {
+            zip.putNextEntry(new ZipEntry("sheets/"));
+            zip.closeEntry();
+            addEntry(zip, "sheets/first.png", png("first"));
+            addEntry(zip, "sheets/broken.png", "not an image".getBytes(StandardCharsets.UTF_8));
+            addEntry(zip, "sheets/huge.png", new byte[128 * 1024]);
+            addEntry(zip, "sheets/last.png", png("last"));
+        }
+        var outputStream = new ByteArrayOutputStream();
+
+        qrCodeDecodeService.decodeArchive(new ByteArrayInputStream(zipBytes.toByteArray()), outputStream);
+
+        List<DecodeResult> results = readResults(outputStream);
+        assertEquals(4, results.size());
+        assertEquals(List.of("first"), texts(results.get(0)));
+        assertEquals("sheets/broken.png", results.get(1).name());
+        assertEquals("Image could not be read", results.get(1).error());
+        assertTrue(results.get(2).error().startsWith("Image must be at most 65536 bytes"));
+        assertEquals(List.of("last"), texts(results.get(3)));
+    }
+
+    @Test
+    @DisplayName("Should write nothing for an empty archive")
+    void shouldHandleEmptyArchive() throws IOException {
+        var outputStream = new ByteArrayOutputStream();
+
+        qrCodeDecodeService.decodeArchive(new ByteArrayInputStream(new byte[0]), outputStream);
+
+        assertEquals(0, outputStream.size());
+    }
+
+    private List<DecodeResult> readResults(ByteArrayOutputStream outputStream) throws IOException {
+        List<DecodeResult> results = new ArrayList<>();
+        for (String line : outputStream.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) {
+                results.add(objectMapper.readValue(line, DecodeResult.class));
+            }
+        }
+        return results;
+    }
+
+    private static List<String> texts(DecodeResult result) {
+        return result.symbols().stream().map(DecodedSymbol::text).toList();
+    }
+
+    private static void addEntry(ZipOutputStream zip, String name, byte[] data) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(data);
+        zip.closeEntry();
+    }
+
+    private static byte[] png(String content) {
+        try {
+            var symbol = Encoder.encode(content, ErrorCorrectionLevel.M);
+            var image = MatrixToImageWriter.toBufferedImage(SymbolUtils.toBitMatrix(symbol, 200, 4));
+            return ImageUtils.writeImageToByteArray(image, "png");
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
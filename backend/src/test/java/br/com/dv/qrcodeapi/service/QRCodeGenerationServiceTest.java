@@ -1,47 +1,96 @@
 package br.com.dv.qrcodeapi.service;
 
+import br.com.dv.qrcodeapi.cache.DisabledSharedImageCache;
+import br.com.dv.qrcodeapi.cache.InMemorySharedImageCache;
+import br.com.dv.qrcodeapi.cache.LogoCache;
+import br.com.dv.qrcodeapi.cache.QRCodeDiskCache;
+import br.com.dv.qrcodeapi.cache.QRCodeImageCache;
+import br.com.dv.qrcodeapi.cache.QRCodeSymbolCache;
+import br.com.dv.qrcodeapi.cache.SharedImageCache;
+import br.com.dv.qrcodeapi.concurrency.RenderBulkhead;
+import br.com.dv.qrcodeapi.decode.RenderVerifier;
+import br.com.dv.qrcodeapi.dto.ImageResponse;
+import br.com.dv.qrcodeapi.dto.StreamingImageResponse;
+import br.com.dv.qrcodeapi.dto.SymbolInfo;
+import br.com.dv.qrcodeapi.engine.ImageFormat;
 import br.com.dv.qrcodeapi.exception.InvalidColorException;
 import br.com.dv.qrcodeapi.exception.InvalidCorrectionLevelException;
 import br.com.dv.qrcodeapi.exception.InvalidMarginException;
+import br.com.dv.qrcodeapi.exception.LogoNotFoundException;
+import br.com.dv.qrcodeapi.exception.LogoNotSupportedException;
+import br.com.dv.qrcodeapi.exception.RenderCapacityExceededException;
+import br.com.dv.qrcodeapi.metrics.GenerationMetrics;
+import br.com.dv.qrcodeapi.metrics.StageTimings;
+import br.com.dv.qrcodeapi.render.RenderSpec;
+import br.com.dv.qrcodeapi.util.ImageUtils;
 import br.com.dv.qrcodeapi.validation.QRCodeParameterValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.doNothing;
-import static org.mockito.Mockito.doThrow;
 
-@ExtendWith(MockitoExtension.class)
 class QRCodeGenerationServiceTest {
 
-    @Mock
-    private QRCodeParameterValidator qrCodeParameterValidator;
+    private final QRCodeParameterValidator qrCodeParameterValidator = new QRCodeParameterValidator(4096, 350);
 
     private QRCodeGenerationService qrCodeGenerationService;
+    private RenderBulkhead renderBulkhead;
+    private RenderVerifier renderVerifier;
+    private SimpleMeterRegistry meterRegistry;
+    private LogoCache logoCache;
+
+    @TempDir
+    Path logoDirectory;
 
     @BeforeEach
     void setUp() {
-        qrCodeGenerationService = new QRCodeGenerationServiceImpl(qrCodeParameterValidator);
+        meterRegistry = new SimpleMeterRegistry();
+        renderBulkhead = new RenderBulkhead(2, 16, 16 * 1024 * 1024, 1);
+        renderVerifier = new RenderVerifier(1.0, 1, 64, 1024, meterRegistry);
+        logoCache = new LogoCache(logoDirectory.toString(), 32 * 1024 * 1024);
+        qrCodeGenerationService = new QRCodeGenerationServiceImpl(
+                qrCodeParameterValidator,
+                new QRCodeImageCache(1024 * 1024),
+                new QRCodeDiskCache("", 0, 0, 0, 0),
+                new QRCodeSymbolCache(1024 * 1024),
+                renderBulkhead,
+                new GenerationMetrics(meterRegistry),
+                renderVerifier,
+                logoCache,
+                new DisabledSharedImageCache()
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        renderBulkhead.destroy();
+        renderVerifier.destroy();
     }
 
     @Test
     @DisplayName("Should successfully generate QR code image when all parameters are valid")
     void shouldGenerateQRCodeWithValidParameters() {
-        doNothing().when(qrCodeParameterValidator).validate(
-                "content", 250, "L", "png",
-                "#000000", "#FFFFFF", 4
-        );
-
-        var qrCode = qrCodeGenerationService.generateQRCode(
-                "content", 250, "L", "png",
-                "#000000", "#FFFFFF", 4
+        var qrCode = generate(
+                qrCodeGenerationService, "content", 250, "L", "png",
+                "#000000", "#FFFFFF", 4, false, null
         );
 
         assertNotNull(qrCode);
@@ -55,19 +104,17 @@ class QRCodeGenerationServiceTest {
             "L,png,#000000,#FFFFFF,4,image/png",
             "M,jpeg,RED,WHITE,10,image/jpeg",
             "Q,gif,BLUE,#FFFF00,0,image/gif",
-            "H,png,#808080,#0000FF,50,image/png"
+            "H,png,#808080,#0000FF,50,image/png",
+            "M,svg,PURPLE,#FFFFFF,4,image/svg+xml",
+            "Q,matrix,#000000,#FFFFFF,4,application/vnd.qrcode.matrix",
+            "H,matrix_json,#000000,#FFFFFF,4,application/json"
     })
     @DisplayName("Should generate QR code with correct media type for different format combinations")
     void shouldGenerateQRCodeWithCorrectMediaType(
             String correction, String format, String fcolor, String bcolor, int margin, String expectedMediaType) {
-        doNothing().when(qrCodeParameterValidator).validate(
-                "content", 250, correction, format,
-                fcolor, bcolor, margin
-        );
-
-        var qrCode = qrCodeGenerationService.generateQRCode(
-                "content", 250, correction, format,
-                fcolor, bcolor, margin
+        var qrCode = generate(
+                qrCodeGenerationService, "content", 250, correction, format,
+                fcolor, bcolor, margin, false, null
         );
 
         assertNotNull(qrCode);
@@ -78,56 +125,36 @@ class QRCodeGenerationServiceTest {
     @Test
     @DisplayName("Should throw InvalidCorrectionLevelException when correction level is not valid")
     void shouldThrowExceptionForInvalidCorrectionLevel() {
-        doNothing().when(qrCodeParameterValidator).validate(
-                "content", 250, "invalid", "png",
-                "#000000", "#FFFFFF", 4
-        );
-
-        assertThrows(InvalidCorrectionLevelException.class, () -> qrCodeGenerationService.generateQRCode(
-                "content", 250, "invalid", "png",
-                "#000000", "#FFFFFF", 4)
+        assertThrows(InvalidCorrectionLevelException.class, () -> generate(
+                qrCodeGenerationService, "content", 250, "invalid", "png",
+                "#000000", "#FFFFFF", 4, false, null)
         );
     }
 
     @Test
     @DisplayName("Should throw InvalidColorException when color format is not valid")
     void shouldThrowExceptionForInvalidColor() {
-        doNothing().when(qrCodeParameterValidator).validate(
-                "content", 250, "L", "png",
-                "INVALID", "#FFFFFF", 4
-        );
-
-        assertThrows(InvalidColorException.class, () -> qrCodeGenerationService.generateQRCode(
-                "content", 250, "L", "png",
-                "INVALID", "#FFFFFF", 4)
+        assertThrows(InvalidColorException.class, () -> generate(
+                qrCodeGenerationService, "content", 250, "L", "png",
+                "INVALID", "#FFFFFF", 4, false, null)
         );
     }
 
     @Test
     @DisplayName("Should throw InvalidMarginException when margin value is out of allowed range")
     void shouldThrowExceptionForInvalidMargin() {
-        doThrow(new InvalidMarginException()).when(qrCodeParameterValidator).validate(
-                "content", 250, "L", "png",
-                "#000000", "#FFFFFF", 999
-        );
-
-        assertThrows(InvalidMarginException.class, () -> qrCodeGenerationService.generateQRCode(
-                "content", 250, "L", "png",
-                "#000000", "#FFFFFF", 999)
+        assertThrows(InvalidMarginException.class, () -> generate(
+                qrCodeGenerationService, "content", 250, "L", "png",
+                "#000000", "#FFFFFF", 999, false, null)
         );
     }
 
     @Test
     @DisplayName("Should successfully generate QR code with minimum allowed size")
     void shouldGenerateQRCodeWithMinimumSize() {
-        doNothing().when(qrCodeParameterValidator).validate(
-                "content", 150, "L", "png",
-                "#000000", "#FFFFFF", 4
-        );
-
-        var qrCode = qrCodeGenerationService.generateQRCode(
-                "content", 150, "L", "png",
-                "#000000", "#FFFFFF", 4
+        var qrCode = generate(
+                qrCodeGenerationService, "content", 150, "L", "png",
+                "#000000", "#FFFFFF", 4, false, null
         );
 
         assertNotNull(qrCode);
@@ -138,14 +165,9 @@ class QRCodeGenerationServiceTest {
     @Test
     @DisplayName("Should successfully generate QR code with maximum allowed size")
     void shouldGenerateQRCodeWithMaximumSize() {
-        doNothing().when(qrCodeParameterValidator).validate(
-                "content", 350, "L", "png",
-                "#000000", "#FFFFFF", 4
-        );
-
-        var qrCode = qrCodeGenerationService.generateQRCode(
-                "content", 350, "L", "png",
-                "#000000", "#FFFFFF", 4
+        var qrCode = generate(
+                qrCodeGenerationService, "content", 350, "L", "png",
+                "#000000", "#FFFFFF", 4, false, null
         );
 
         assertNotNull(qrCode);
@@ -156,14 +178,9 @@ class QRCodeGenerationServiceTest {
     @Test
     @DisplayName("Should successfully generate QR code with named colors")
     void shouldGenerateQRCodeWithNamedColors() {
-        doNothing().when(qrCodeParameterValidator).validate(
-                "content", 250, "L", "png",
-                "BLACK", "WHITE", 4
-        );
-
-        var qrCode = qrCodeGenerationService.generateQRCode(
-                "content", 250, "L", "png",
-                "BLACK", "WHITE", 4
+        var qrCode = generate(
+                qrCodeGenerationService, "content", 250, "L", "png",
+                "BLACK", "WHITE", 4, false, null
         );
 
         assertNotNull(qrCode);
@@ -174,14 +191,9 @@ class QRCodeGenerationServiceTest {
     @Test
     @DisplayName("Should successfully generate QR code with hex color codes")
     void shouldGenerateQRCodeWithHexColors() {
-        doNothing().when(qrCodeParameterValidator).validate(
-                "content", 250, "L", "png",
-                "#FF0000", "#00FF00", 4
-        );
-
-        var qrCode = qrCodeGenerationService.generateQRCode(
-                "content", 250, "L", "png",
-                "#FF0000", "#00FF00", 4
+        var qrCode = generate(
+                qrCodeGenerationService, "content", 250, "L", "png",
+                "#FF0000", "#00FF00", 4, false, null
         );
 
         assertNotNull(qrCode);
@@ -192,14 +204,9 @@ class QRCodeGenerationServiceTest {
     @Test
     @DisplayName("Should successfully generate QR code with minimum margin value")
     void shouldGenerateQRCodeWithMinimumMargin() {
-        doNothing().when(qrCodeParameterValidator).validate(
-                "content", 250, "L", "png",
-                "#000000", "#FFFFFF", 0
-        );
-
-        var qrCode = qrCodeGenerationService.generateQRCode(
-                "content", 250, "L", "png",
-                "#000000", "#FFFFFF", 0
+        var qrCode = generate(
+                qrCodeGenerationService, "content", 250, "L", "png",
+                "#000000", "#FFFFFF", 0, false, null
         );
 
         assertNotNull(qrCode);
@@ -210,14 +217,9 @@ class QRCodeGenerationServiceTest {
     @Test
     @DisplayName("Should successfully generate QR code with maximum margin value")
     void shouldGenerateQRCodeWithMaximumMargin() {
-        doNothing().when(qrCodeParameterValidator).validate(
-                "content", 250, "L", "png",
-                "#000000", "#FFFFFF", 50
-        );
-
-        var qrCode = qrCodeGenerationService.generateQRCode(
-                "content", 250, "L", "png",
-                "#000000", "#FFFFFF", 50
+        var qrCode = generate(
+                qrCodeGenerationService, "content", 250, "L", "png",
+                "#000000", "#FFFFFF", 50, false, null
         );
 
         assertNotNull(qrCode);
@@ -229,14 +231,9 @@ class QRCodeGenerationServiceTest {
     @DisplayName("Should successfully generate QR code when content exceeds typical length")
     void shouldGenerateQRCodeWithLongContent() {
         String longContent = "a".repeat(1000);
-        doNothing().when(qrCodeParameterValidator).validate(
-                longContent, 250, "L", "png",
-                "#000000", "#FFFFFF", 4
-        );
-
-        var qrCode = qrCodeGenerationService.generateQRCode(
-                longContent, 250, "L", "png",
-                "#000000", "#FFFFFF", 4
+        var qrCode = generate(
+                qrCodeGenerationService, longContent, 250, "L", "png",
+                "#000000", "#FFFFFF", 4, false, null
         );
 
         assertNotNull(qrCode);
@@ -248,14 +245,9 @@ class QRCodeGenerationServiceTest {
     @DisplayName("Should successfully generate QR code when content contains special characters")
     void shouldGenerateQRCodeWithSpecialCharacters() {
         String specialContent = "Hello! こんにちは! ❤️ #@$%";
-        doNothing().when(qrCodeParameterValidator).validate(
-                specialContent, 250, "L", "png",
-                "#000000", "#FFFFFF", 4
-        );
-
-        var qrCode = qrCodeGenerationService.generateQRCode(
-                specialContent, 250, "L", "png",
-                "#000000", "#FFFFFF", 4
+        var qrCode = generate(
+                qrCodeGenerationService, specialContent, 250, "L", "png",
+                "#000000", "#FFFFFF", 4, false, null
         );
 
         assertNotNull(qrCode);
@@ -263,4 +255,480 @@ class QRCodeGenerationServiceTest {
         assertTrue(qrCode.imageData().length > 0);
     }
 
+    @Test
+    @DisplayName("Should return the cached image when colors are spelled differently but resolve to the same value")
+    void shouldReuseCachedImageForEquivalentColors() {
+        var first = generate(
+                qrCodeGenerationService, "content", 250, "l", "PNG",
+                "black", "WHITE", 4, false, null
+        );
+        var second = generate(
+                qrCodeGenerationService, "content", 250, "L", "png",
+                "#000000", "#FFFFFF", 4, false, null
+        );
+
+        assertArrayEquals(first.imageData(), second.imageData());
+        assertFalse(second.timings().isRendered());
+    }
+
+    @Test
+    @DisplayName("Should render a new image when any generation parameter changes")
+    void shouldNotReuseCachedImageForDifferentParameters() {
+        var first = generate(
+                qrCodeGenerationService, "content", 250, "L", "png",
+                "#000000", "#FFFFFF", 4, false, null
+        );
+        var second = generate(
+                qrCodeGenerationService, "content", 250, "L", "png",
+                "#000000", "#FFFFFF", 5, false, null
+        );
+
+        assertNotSame(first.imageData(), second.imageData());
+    }
+
+    @Test
+    @DisplayName("Should stream the same bytes as the buffered path when the image is not cached")
+    void shouldStreamUncachedImage() throws Exception {
+        var streamed = stream(
+                qrCodeGenerationService, "content", 250, "L", "png",
+                "#000000", "#FFFFFF", 4, false, null
+        );
+        var outputStream = new ByteArrayOutputStream();
+        streamed.body().writeTo(outputStream);
+
+        var buffered = generate(
+                qrCodeGenerationService, "content", 250, "L", "png",
+                "#000000", "#FFFFFF", 4, false, null
+        );
+
+        assertFalse(streamed.hasContentLength());
+        assertEquals(MediaType.IMAGE_PNG, streamed.mediaType());
+        assertArrayEquals(buffered.imageData(), outputStream.toByteArray());
+    }
+
+    @Test
+    @DisplayName("Should render and stream print-resolution PNGs")
+    void shouldRenderLargePng() throws Exception {
+        var buffered = generate(
+                qrCodeGenerationService, "content", 4096, "L", "png",
+                "#000000", "#FFFFFF", 4, false, null
+        );
+        var streamed = stream(
+                qrCodeGenerationService, "content", 4096, "M", "png",
+                "#000000", "#FFFFFF", 4, false, null
+        );
+        var outputStream = new ByteArrayOutputStream();
+        streamed.body().writeTo(outputStream);
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(buffered.imageData()));
+        assertEquals(4096, image.getWidth());
+        assertEquals(4096, image.getHeight());
+        assertEquals(4096, ImageIO.read(new ByteArrayInputStream(outputStream.toByteArray())).getWidth());
+    }
+
+    @Test
+    @DisplayName("Should stream a cached image with its exact Content-Length")
+    void shouldStreamCachedImageWithContentLength() throws Exception {
+        var buffered = generate(
+                qrCodeGenerationService, "content", 250, "L", "gif",
+                "#000000", "#FFFFFF", 4, false, null
+        );
+
+        var streamed = stream(
+                qrCodeGenerationService, "content", 250, "L", "gif",
+                "#000000", "#FFFFFF", 4, false, null
+        );
+        var outputStream = new ByteArrayOutputStream();
+        streamed.body().writeTo(outputStream);
+
+        assertEquals(buffered.imageData().length, streamed.contentLength());
+        assertArrayEquals(buffered.imageData(), outputStream.toByteArray());
+    }
+
+    @Test
+    @DisplayName("Should hand out a stored image only once it has been cached")
+    void shouldReturnStoredImageOnlyWhenCached() throws Exception {
+        RenderSpec spec = qrCodeParameterValidator.parse(
+                "content", 250, "L", "png", "#000000", "#FFFFFF", 4, false, null
+        );
+        assertNull(qrCodeGenerationService.getStoredQRCode(spec, new StageTimings()));
+
+        var buffered = qrCodeGenerationService.generateQRCode(spec, new StageTimings());
+        var stored = qrCodeGenerationService.getStoredQRCode(spec, new StageTimings());
+        var outputStream = new ByteArrayOutputStream();
+        stored.body().writeTo(outputStream);
+        stored.discard();
+
+        assertEquals(buffered.imageData().length, stored.contentLength());
+        assertArrayEquals(buffered.imageData(), outputStream.toByteArray());
+        assertEquals(buffered.symbol(), stored.symbol());
+    }
+
+    @Test
+    @DisplayName("Should serve images rendered before a restart from the disk cache")
+    void shouldServeImagesFromDiskAfterRestart(@TempDir Path directory) throws Exception {
+        var diskCache = new QRCodeDiskCache(directory.toString(), 1024 * 1024, 64 * 1024, 0, 0.5);
+        var rendered = generate(
+                serviceWith(diskCache), "content", 250, "L", "png",
+                "#000000", "#FFFFFF", 4, false, null
+        );
+        diskCache.destroy();
+
+        var restartedDiskCache = new QRCodeDiskCache(directory.toString(), 1024 * 1024, 64 * 1024, 0, 0.5);
+        try {
+            var restarted = serviceWith(restartedDiskCache);
+            var streamed = stream(
+                    restarted, "content", 250, "L", "png",
+                    "#000000", "#FFFFFF", 4, false, null
+            );
+            var outputStream = new ByteArrayOutputStream();
+            streamed.body().writeTo(outputStream);
+            var loaded = generate(
+                    restarted, "content", 250, "L", "png",
+                    "#000000", "#FFFFFF", 4, false, null
+            );
+
+            assertEquals(rendered.imageData().length, streamed.contentLength());
+            assertArrayEquals(rendered.imageData(), outputStream.toByteArray());
+            assertArrayEquals(rendered.imageData(), loaded.imageData());
+            assertFalse(loaded.timings().isRendered());
+            // Segments do not record the symbol, and a hit never encodes it again to find out.
+            assertNull(streamed.symbol());
+            assertNull(loaded.symbol());
+        } finally {
+            restartedDiskCache.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Should serve images another node rendered from the shared tier")
+    void shouldServeImagesFromSharedTier() throws Exception {
+        var sharedImageCache = new InMemorySharedImageCache(1024 * 1024);
+        var rendered = generate(
+                serviceWith(new QRCodeDiskCache("", 0, 0, 0, 0), sharedImageCache), "content", 250, "L", "png",
+                "#000000", "#FFFFFF", 4, false, null
+        );
+
+        var otherNode = serviceWith(new QRCodeDiskCache("", 0, 0, 0, 0), sharedImageCache);
+        var streamed = stream(
+                otherNode, "content", 250, "L", "png",
+                "#000000", "#FFFFFF", 4, false, null
+        );
+        var outputStream = new ByteArrayOutputStream();
+        streamed.body().writeTo(outputStream);
+        var loaded = generate(
+                otherNode, "content", 250, "L", "png",
+                "#000000", "#FFFFFF", 4, false, null
+        );
+
+        assertEquals(rendered.imageData().length, streamed.contentLength());
+        assertArrayEquals(rendered.imageData(), outputStream.toByteArray());
+        assertArrayEquals(rendered.imageData(), loaded.imageData());
+        assertFalse(streamed.timings().isRendered());
+        assertFalse(loaded.timings().isRendered());
+    }
+
+    @Test
+    @DisplayName("Should time every stage of a render and report a cache miss")
+    void shouldTimeStagesOfRender() {
+        var qrCode = generate(
+                qrCodeGenerationService, "timed", 250, "L", "png", "#000000", "#FFFFFF", 4, false, null
+        );
+
+        String serverTiming = qrCode.timings().toServerTiming();
+        assertTrue(serverTiming.matches(
+                "validate;dur=[0-9.]+, encode;dur=[0-9.]+, rasterize;dur=[0-9.]+, write;dur=[0-9.]+, cache;desc=miss"
+        ), serverTiming);
+        for (String stage : new String[]{"validate", "encode", "rasterize", "write"}) {
+            assertEquals(1, meterRegistry.get("qrcode.generation.stage")
+                    .tags("stage", stage, "format", "png", "correction", "L", "size", "le256")
+                    .timer()
+                    .count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should only time validation when the image is served from the cache")
+    void shouldOnlyTimeValidationOnCacheHit() {
+        generate(qrCodeGenerationService, "timed", 250, "L", "png", "#000000", "#FFFFFF", 4, false, null);
+
+        var qrCode = generate(
+                qrCodeGenerationService, "timed", 250, "L", "png", "#000000", "#FFFFFF", 4, false, null
+        );
+
+        assertTrue(qrCode.timings().toServerTiming().matches("validate;dur=[0-9.]+, cache;desc=hit"));
+        assertEquals(1, meterRegistry.get("qrcode.generation.stage").tag("stage", "write").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should verify sampled renders off the request thread, buffered and streamed")
+    void shouldVerifySampledRenders() throws Exception {
+        generate(
+                qrCodeGenerationService, "buffered", 250, "L", "png",
+                "#000000", "#FFFFFF", 4, false, null
+        );
+        stream(
+                qrCodeGenerationService, "streamed", 250, "M", "gif",
+                "#000000", "#FFFFFF", 4, false, null
+        ).body().writeTo(new ByteArrayOutputStream());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (verifiedMatches() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(2, verifiedMatches());
+        assertEquals(0, meterRegistry.find("qrcode.verify.results").tag("outcome", "unreadable").counters().size());
+    }
+
+    @Test
+    @DisplayName("Should compute the same ETag for equivalent parameter spellings")
+    void shouldComputeStableETagForEquivalentParameters() {
+        String first = renderKey(
+                "content", 250, "l", "PNG",
+                "black", "white", 4, false, null
+        );
+        String second = renderKey(
+                "content", 250, "L", "png",
+                "#000000", "#FFFFFF", 4, false, null
+        );
+
+        assertEquals(first, second);
+        assertTrue(first.matches("[0-9a-f]{32}"), first);
+    }
+
+    @Test
+    @DisplayName("Should compute a different ETag when any generation parameter changes")
+    void shouldComputeDifferentETagForDifferentParameters() {
+        String first = renderKey(
+                "content", 250, "L", "png",
+                "#000000", "#FFFFFF", 4, false, null
+        );
+        String second = renderKey(
+                "content", 250, "L", "gif",
+                "#000000", "#FFFFFF", 4, false, null
+        );
+
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    @DisplayName("Should encode mixed content in a smaller, still readable symbol in compact mode")
+    void shouldEncodeSmallerSymbolInCompactMode() {
+        String content = "https://example.com/orders/" + "1234567890".repeat(6);
+
+        var standard = generate(
+                qrCodeGenerationService, content, 250, "L", "png", "#000000", "#FFFFFF", 4, false, null
+        );
+        var compact = generate(
+                qrCodeGenerationService, content, 250, "L", "png", "#000000", "#FFFFFF", 4, true, null
+        );
+
+        assertTrue(compact.symbol().version() < standard.symbol().version());
+        assertEquals(17 + 4 * compact.symbol().version(), compact.symbol().modules());
+        assertEquals(RenderVerifier.Outcome.MATCH,
+                renderVerifier.verify(content, ImageFormat.PNG, 250, compact.imageData()));
+        assertNotEquals(
+                renderKey(content, 250, "L", "png", "#000000", "#FFFFFF", 4, false, null),
+                renderKey(content, 250, "L", "png", "#000000", "#FFFFFF", 4, true, null)
+        );
+    }
+
+    @Test
+    @DisplayName("Should report the symbol size of streamed and cached images")
+    void shouldReportSymbolSizeOfStreamedImages() {
+        var streamed = stream(
+                qrCodeGenerationService, "content", 250, "L", "png", "#000000", "#FFFFFF", 4, false, null
+        );
+        generate(qrCodeGenerationService, "content", 250, "L", "png", "#000000", "#FFFFFF", 4, false, null);
+        var cached = stream(
+                qrCodeGenerationService, "content", 250, "L", "png", "#000000", "#FFFFFF", 4, false, null
+        );
+
+        assertEquals(new SymbolInfo(1, 21), streamed.symbol());
+        assertEquals(new SymbolInfo(1, 21), cached.symbol());
+    }
+
+    @Test
+    @DisplayName("Should release the render capacity of a streamed image that is discarded unwritten")
+    void shouldReleaseCapacityOfDiscardedStream() throws Exception {
+        renderBulkhead.destroy();
+        renderBulkhead = new RenderBulkhead(1, 1, 16 * 1024 * 1024, 1);
+        var service = serviceWith(new QRCodeDiskCache("", 0, 0, 0, 0));
+
+        var first = stream(service, "first", 250, "L", "png", "#000000", "#FFFFFF", 4, false, null);
+        assertThrows(RenderCapacityExceededException.class, () -> stream(
+                service, "second", 250, "L", "png", "#000000", "#FFFFFF", 4, false, null
+        ));
+
+        first.discard();
+        var second = stream(service, "second", 250, "L", "png", "#000000", "#FFFFFF", 4, false, null);
+        var outputStream = new ByteArrayOutputStream();
+        second.body().writeTo(outputStream);
+        second.discard();
+
+        assertTrue(outputStream.size() > 0);
+        assertThrows(IllegalStateException.class, () -> first.body().writeTo(new ByteArrayOutputStream()));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"png", "jpeg"})
+    @DisplayName("Should draw an uploaded logo over a still readable code")
+    void shouldDrawReadableLogo(String format) throws Exception {
+        String logo = uploadLogo(Color.RED, 400, 200);
+
+        var qrCode = generate(
+                qrCodeGenerationService, "https://example.com", 300, "L", format, "#000000", "#FFFFFF", 4, false, logo
+        );
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(qrCode.imageData()));
+        int center = image.getRGB(150, 150);
+        assertTrue((center >> 16 & 0xFF) > 200 && (center >> 8 & 0xFF) < 60, "center is not the logo");
+        assertEquals(RenderVerifier.Outcome.MATCH,
+                renderVerifier.verify("https://example.com", ImageUtils.getImageFormat(format), 300,
+                        qrCode.imageData()));
+    }
+
+    @Test
+    @DisplayName("Should stream the same logo image it generates")
+    void shouldStreamLogoImage() throws Exception {
+        String logo = uploadLogo(Color.BLUE, 64, 64);
+
+        var streamed = stream(
+                qrCodeGenerationService, "content", 250, "L", "png", "#000000", "#FFFFFF", 4, false, logo
+        );
+        var output = new ByteArrayOutputStream();
+        streamed.body().writeTo(output);
+
+        var generated = generate(
+                serviceWith(new QRCodeDiskCache("", 0, 0, 0, 0)), "content", 250, "L", "png", "#000000", "#FFFFFF", 4, false, logo
+        );
+        assertArrayEquals(generated.imageData(), output.toByteArray());
+        assertEquals(RenderVerifier.Outcome.MATCH,
+                renderVerifier.verify("content", ImageFormat.PNG, 250, output.toByteArray()));
+    }
+
+    @Test
+    @DisplayName("Should raise error correction and mark the ETag of images with a logo")
+    void shouldUseHighestCorrectionWithLogo() {
+        String logo = uploadLogo(Color.RED, 32, 32);
+
+        var withLogo = generate(
+                qrCodeGenerationService, "content", 250, "L", "png", "#000000", "#FFFFFF", 4, false, logo
+        );
+        var highest = generate(
+                qrCodeGenerationService, "content", 250, "H", "png", "#000000", "#FFFFFF", 4, false, null
+        );
+
+        assertEquals(highest.symbol(), withLogo.symbol());
+        assertNotEquals(
+                renderKey("content", 250, "H", "png", "#000000", "#FFFFFF", 4, false, null),
+                renderKey("content", 250, "L", "png", "#000000", "#FFFFFF", 4, false, logo)
+        );
+    }
+
+    @Test
+    @DisplayName("Should reject unknown logos and formats logos cannot be drawn on")
+    void shouldRejectInvalidLogos() {
+        String logo = uploadLogo(Color.RED, 32, 32);
+
+        assertThrows(LogoNotFoundException.class, () -> generate(
+                qrCodeGenerationService, "content", 250, "L", "png", "#000000", "#FFFFFF", 4, false, "0".repeat(32)
+        ));
+        assertThrows(LogoNotFoundException.class, () -> stream(
+                qrCodeGenerationService, "content", 250, "L", "png", "#000000", "#FFFFFF", 4, false, "../logo"
+        ));
+        assertThrows(LogoNotSupportedException.class, () -> generate(
+                qrCodeGenerationService, "content", 250, "L", "svg", "#000000", "#FFFFFF", 4, false, logo
+        ));
+    }
+
+    private double verifiedMatches() {
+        return meterRegistry.find("qrcode.verify.results").tag("outcome", "match").counters().stream()
+                .mapToDouble(counter -> counter.count())
+                .sum();
+    }
+
+    private String renderKey(
+            String content,
+            int size,
+            String correction,
+            String format,
+            String fcolor,
+            String bcolor,
+            int margin,
+            boolean compact,
+            String logo
+    ) {
+        return qrCodeParameterValidator.parse(content, size, correction, format, fcolor, bcolor, margin, compact, logo)
+                .renderKey();
+    }
+
+    private static ImageResponse generate(
+            QRCodeGenerationService service,
+            String content,
+            int size,
+            String correction,
+            String format,
+            String fcolor,
+            String bcolor,
+            int margin,
+            boolean compact,
+            String logo
+    ) {
+        var timings = new StageTimings();
+        RenderSpec spec = service.parse(content, size, correction, format, fcolor, bcolor, margin, compact, logo, timings);
+        return service.generateQRCode(spec, timings);
+    }
+
+    private static StreamingImageResponse stream(
+            QRCodeGenerationService service,
+            String content,
+            int size,
+            String correction,
+            String format,
+            String fcolor,
+            String bcolor,
+            int margin,
+            boolean compact,
+            String logo
+    ) {
+        var timings = new StageTimings();
+        RenderSpec spec = service.parse(content, size, correction, format, fcolor, bcolor, margin, compact, logo, timings);
+        return service.streamQRCode(spec, timings);
+    }
+
+    private String uploadLogo(Color color, int width, int height) {
+        var image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(color);
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+
+        var logoService = new LogoServiceImpl(logoCache, 1024 * 1024, 1024 * 1024, 256);
+        try {
+            return logoService.upload(new ByteArrayInputStream(ImageUtils.writeImageToByteArray(image, "png"))).id();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private QRCodeGenerationService serviceWith(QRCodeDiskCache diskCache) {
+        return serviceWith(diskCache, new DisabledSharedImageCache());
+    }
+
+    private QRCodeGenerationService serviceWith(QRCodeDiskCache diskCache, SharedImageCache sharedImageCache) {
+        return new QRCodeGenerationServiceImpl(
+                qrCodeParameterValidator,
+                new QRCodeImageCache(1024 * 1024),
+                diskCache,
+                new QRCodeSymbolCache(1024 * 1024),
+                renderBulkhead,
+                new GenerationMetrics(meterRegistry),
+                renderVerifier,
+                logoCache,
+                sharedImageCache
+        );
+    }
+
 }
@@ -231,7 +231,8 @@ class QRCodeManagementServiceTest {
                 "#000000",
                 "#FFFFFF",
                 4,
-                "M"
+                "M",
+                false
         );
     }
 
@@ -265,6 +266,7 @@ class QRCodeManagementServiceTest {
                 qrCode.getBackgroundColor(),
                 qrCode.getMargin(),
                 qrCode.getErrorCorrection(),
+                qrCode.isCompact(),
                 qrCode.getCreatedAt(),
                 qrCode.getUpdatedAt()
         );
@@ -1,6 +1,9 @@
 package br.com.dv.qrcodeapi.validation;
 
+import br.com.dv.qrcodeapi.engine.ImageFormat;
 import br.com.dv.qrcodeapi.exception.*;
+import br.com.dv.qrcodeapi.render.RenderSpec;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
@@ -10,6 +13,9 @@ import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.NullAndEmptySource;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class QRCodeParameterValidatorTest {
@@ -18,13 +24,13 @@ class QRCodeParameterValidatorTest {
 
     @BeforeEach
     void setUp() {
-        qrCodeParameterValidator = new QRCodeParameterValidator();
+        qrCodeParameterValidator = new QRCodeParameterValidator(4096, 350);
     }
 
     @Test
     @DisplayName("Should successfully validate QR code parameters when all inputs are valid")
     void shouldValidateWithValidParameters() {
-        assertDoesNotThrow(() -> qrCodeParameterValidator.validate(
+        assertDoesNotThrow(() -> qrCodeParameterValidator.parse(
                 "content", 250, "L", "png", "#000000", "#FFFFFF", 4
         ));
     }
@@ -34,25 +40,39 @@ class QRCodeParameterValidatorTest {
     @ValueSource(strings = {" ", "   ", "\t", "\n"})
     @DisplayName("Should throw InvalidContentException when content is null, empty, or blank")
     void shouldThrowExceptionForInvalidContent(String content) {
-        assertThrows(InvalidContentException.class, () -> qrCodeParameterValidator.validate(
+        assertThrows(InvalidContentException.class, () -> qrCodeParameterValidator.parse(
                 content, 250, "L", "png", "#000000", "#FFFFFF", 4
         ));
     }
 
     @ParameterizedTest
-    @ValueSource(ints = {0, 50, 149, 351, 500})
+    @ValueSource(ints = {0, 50, 149, 4097, 10000})
     @DisplayName("Should throw InvalidImageSizeException when size is outside allowed range")
     void shouldThrowExceptionForInvalidSize(int size) {
-        assertThrows(InvalidImageSizeException.class, () -> qrCodeParameterValidator.validate(
+        var exception = assertThrows(InvalidImageSizeException.class, () -> qrCodeParameterValidator.parse(
                 "content", size, "L", "png", "#000000", "#FFFFFF", 4
         ));
+        assertEquals("Image size must be between 150 and 4096 pixels", exception.getMessage());
     }
 
     @ParameterizedTest
-    @ValueSource(ints = {150, 200, 250, 300, 350})
+    @ValueSource(strings = {"jpeg", "gif"})
+    @DisplayName("Should apply the lower size ceiling to formats rendered through a full BufferedImage")
+    void shouldLimitFullRasterFormats(String format) {
+        assertDoesNotThrow(() -> qrCodeParameterValidator.parse(
+                "content", 350, "L", format, "#000000", "#FFFFFF", 4
+        ));
+        var exception = assertThrows(InvalidImageSizeException.class, () -> qrCodeParameterValidator.parse(
+                "content", 351, "L", format, "#000000", "#FFFFFF", 4
+        ));
+        assertEquals("Image size must be between 150 and 350 pixels", exception.getMessage());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {150, 200, 250, 300, 350, 1000, 4096})
     @DisplayName("Should successfully validate QR code parameters when size is within allowed range")
     void shouldValidateWithValidSize(int size) {
-        assertDoesNotThrow(() -> qrCodeParameterValidator.validate(
+        assertDoesNotThrow(() -> qrCodeParameterValidator.parse(
                 "content", size, "L", "png", "#000000", "#FFFFFF", 4
         ));
     }
@@ -61,7 +81,7 @@ class QRCodeParameterValidatorTest {
     @ValueSource(strings = {"l", "m", "q", "h", "L", "M", "Q", "H"})
     @DisplayName("Should successfully validate QR code parameters when correction level is valid")
     void shouldValidateWithValidCorrectionLevel(String correction) {
-        assertDoesNotThrow(() -> qrCodeParameterValidator.validate(
+        assertDoesNotThrow(() -> qrCodeParameterValidator.parse(
                 "content", 250, correction, "png", "#000000", "#FFFFFF", 4
         ));
     }
@@ -70,25 +90,25 @@ class QRCodeParameterValidatorTest {
     @ValueSource(strings = {"A", "B", "X", "Y", "invalid", "1", "LOW", "MEDIUM"})
     @DisplayName("Should throw InvalidCorrectionLevelException when correction level is not L, M, Q, or H")
     void shouldThrowExceptionForInvalidCorrectionLevel(String correction) {
-        assertThrows(InvalidCorrectionLevelException.class, () -> qrCodeParameterValidator.validate(
+        assertThrows(InvalidCorrectionLevelException.class, () -> qrCodeParameterValidator.parse(
                 "content", 250, correction, "png", "#000000", "#FFFFFF", 4
         ));
     }
 
     @ParameterizedTest
-    @ValueSource(strings = {"png", "PNG", "jpeg", "JPEG", "gif", "GIF"})
+    @ValueSource(strings = {"png", "PNG", "jpeg", "JPEG", "gif", "GIF", "svg", "SVG", "matrix", "matrix_json"})
     @DisplayName("Should successfully validate QR code parameters when format is supported")
     void shouldValidateWithValidFormat(String format) {
-        assertDoesNotThrow(() -> qrCodeParameterValidator.validate(
+        assertDoesNotThrow(() -> qrCodeParameterValidator.parse(
                 "content", 250, "L", format, "#000000", "#FFFFFF", 4
         ));
     }
 
     @ParameterizedTest
-    @ValueSource(strings = {"bmp", "tiff", "webp", "svg", "raw", ""})
+    @ValueSource(strings = {"bmp", "tiff", "webp", "pdf", "raw", ""})
     @DisplayName("Should throw InvalidImageFormatException when format is not supported")
     void shouldThrowExceptionForInvalidFormat(String format) {
-        assertThrows(InvalidImageFormatException.class, () -> qrCodeParameterValidator.validate(
+        assertThrows(InvalidImageFormatException.class, () -> qrCodeParameterValidator.parse(
                 "content", 250, "L", format, "#000000", "#FFFFFF", 4
         ));
     }
@@ -97,22 +117,22 @@ class QRCodeParameterValidatorTest {
     @ValueSource(strings = {"#000000", "BLACK", "RED", "#FFFFFF", "BLUE", "#00FF00"})
     @DisplayName("Should successfully validate QR code parameters when color format is valid")
     void shouldValidateWithValidColor(String color) {
-        assertDoesNotThrow(() -> qrCodeParameterValidator.validate(
+        assertDoesNotThrow(() -> qrCodeParameterValidator.parse(
                 "content", 250, "L", "png", color, "#FFFFFF", 4
         ));
-        assertDoesNotThrow(() -> qrCodeParameterValidator.validate(
+        assertDoesNotThrow(() -> qrCodeParameterValidator.parse(
                 "content", 250, "L", "png", "#000000", color, 4
         ));
     }
 
     @ParameterizedTest
-    @ValueSource(strings = {"RANDOM", "RAINBOW", "PINK", "#12345", "#XYZABC"})
+    @ValueSource(strings = {"RANDOM", "RAINBOW", "PINK", "#12345", "#XYZABC", "#1234567", "#00\u0663000"})
     @DisplayName("Should throw InvalidColorException when color format is not valid")
     void shouldThrowExceptionForInvalidColor(String color) {
-        assertThrows(InvalidColorException.class, () -> qrCodeParameterValidator.validate(
+        assertThrows(InvalidColorException.class, () -> qrCodeParameterValidator.parse(
                 "content", 250, "L", "png", color, "#FFFFFF", 4
         ));
-        assertThrows(InvalidColorException.class, () -> qrCodeParameterValidator.validate(
+        assertThrows(InvalidColorException.class, () -> qrCodeParameterValidator.parse(
                 "content", 250, "L", "png", "#000000", color, 4
         ));
     }
@@ -121,7 +141,7 @@ class QRCodeParameterValidatorTest {
     @DisplayName("Should successfully validate QR code parameters when content contains special characters")
     void shouldValidateWithSpecialCharacters() {
         String specialContent = "Hello! こんにちは! ❤️ #@$%";
-        assertDoesNotThrow(() -> qrCodeParameterValidator.validate(
+        assertDoesNotThrow(() -> qrCodeParameterValidator.parse(
                 specialContent, 250, "L", "png", "#000000", "#FFFFFF", 4
         ));
     }
@@ -129,7 +149,7 @@ class QRCodeParameterValidatorTest {
     @Test
     @DisplayName("Should successfully validate QR code parameters when content exceeds typical length")
     void shouldValidateWithLongContent() {
-        assertDoesNotThrow(() -> qrCodeParameterValidator.validate(
+        assertDoesNotThrow(() -> qrCodeParameterValidator.parse(
                 "a".repeat(1000), 250, "L", "png", "#000000", "#FFFFFF", 4
         ));
     }
@@ -138,7 +158,7 @@ class QRCodeParameterValidatorTest {
     @DisplayName("Should successfully validate QR code parameters when content is a URL")
     void shouldValidateWithUrlContent() {
         String urlContent = "https://example.com/path?param1=value1&param2=value2";
-        assertDoesNotThrow(() -> qrCodeParameterValidator.validate(
+        assertDoesNotThrow(() -> qrCodeParameterValidator.parse(
                 urlContent, 250, "L", "png", "#000000", "#FFFFFF", 4
         ));
     }
@@ -146,10 +166,10 @@ class QRCodeParameterValidatorTest {
     @Test
     @DisplayName("Should throw InvalidMarginException when margin is outside allowed range")
     void shouldThrowExceptionForInvalidMargin() {
-        assertThrows(InvalidMarginException.class, () -> qrCodeParameterValidator.validate(
+        assertThrows(InvalidMarginException.class, () -> qrCodeParameterValidator.parse(
                 "content", 250, "L", "png", "#000000", "#FFFFFF", -1
         ));
-        assertThrows(InvalidMarginException.class, () -> qrCodeParameterValidator.validate(
+        assertThrows(InvalidMarginException.class, () -> qrCodeParameterValidator.parse(
                 "content", 250, "L", "png", "#000000", "#FFFFFF", 51
         ));
     }
@@ -166,9 +186,54 @@ class QRCodeParameterValidatorTest {
             String content, int size, String correction, String format,
             String fcolor, String bcolor, int margin
     ) {
-        assertDoesNotThrow(() -> qrCodeParameterValidator.validate(
+        assertDoesNotThrow(() -> qrCodeParameterValidator.parse(
                 content, size, correction, format, fcolor, bcolor, margin
         ));
     }
 
+    @Test
+    @DisplayName("Should parse parameters into a spec with enum constants and packed ARGB colors")
+    void shouldParseIntoRenderSpec() {
+        RenderSpec spec = qrCodeParameterValidator.parse(
+                "content", 300, "q", "Gif", "purple", "#a0B1c2", 7
+        );
+
+        assertEquals("content", spec.content());
+        assertEquals(300, spec.size());
+        assertEquals(ErrorCorrectionLevel.Q, spec.correction());
+        assertEquals(ImageFormat.GIF, spec.format());
+        assertEquals(0xFF800080, spec.foregroundColor());
+        assertEquals(0xFFA0B1C2, spec.backgroundColor());
+        assertEquals(7, spec.margin());
+    }
+
+    @Test
+    @DisplayName("Should parse equivalent spellings into the same spec instance")
+    void shouldParseEquivalentSpellingsIntoSameSpec() {
+        RenderSpec named = qrCodeParameterValidator.parse("content", 250, "l", "PNG", "black", "White", 4);
+        RenderSpec hex = qrCodeParameterValidator.parse("content", 250, "L", "png", "#000000", "#ffffff", 4);
+        RenderSpec defaults = qrCodeParameterValidator.parse("content", 250, "L", "png", null, null, 4);
+
+        assertSame(named, hex);
+        assertSame(named, defaults);
+    }
+
+    @Test
+    @DisplayName("Should use the highest error correction for logos and only draw them on raster formats")
+    void shouldParseLogo() {
+        String logo = "0123456789abcdef0123456789abcdef";
+        RenderSpec spec = qrCodeParameterValidator.parse(
+                "content", 250, "L", "png", "#000000", "#FFFFFF", 4, false, logo
+        );
+
+        assertEquals(logo, spec.logo());
+        assertEquals(ErrorCorrectionLevel.H, spec.correction());
+        assertNull(qrCodeParameterValidator.parse(
+                "content", 250, "L", "png", "#000000", "#FFFFFF", 4, false, " "
+        ).logo());
+        assertThrows(LogoNotSupportedException.class, () -> qrCodeParameterValidator.parse(
+                "content", 250, "L", "svg", "#000000", "#FFFFFF", 4, false, logo
+        ));
+    }
+
 }
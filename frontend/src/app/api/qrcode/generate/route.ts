@@ -11,6 +11,8 @@ export async function GET(request: NextRequest) {
       fcolor: searchParams.get('fcolor') ?? '',
       bcolor: searchParams.get('bcolor') ?? '',
       margin: searchParams.get('margin') ?? '',
+      compact: searchParams.get('compact') ?? 'false',
+      logo: searchParams.get('logo') ?? '',
     });
 
     const cookie = request.headers.get('cookie') ?? '';
@@ -32,6 +32,7 @@ const IMAGE_FORMATS = [
   { value: 'png', label: 'PNG' },
   { value: 'jpeg', label: 'JPEG' },
   { value: 'gif', label: 'GIF' },
+  { value: 'svg', label: 'SVG' },
 ];
 
 interface EditQRCodeFormProps {
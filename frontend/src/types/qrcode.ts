@@ -9,6 +9,7 @@ export interface QRCodeResponse {
   backgroundColor: string;
   margin: number;
   errorCorrection: string;
+  compact: boolean;
   createdAt: string;
   updatedAt: string;
 }
@@ -27,6 +28,7 @@ export interface SaveQRCodeRequest {
   backgroundColor: string;
   margin: number;
   errorCorrection: string;
+  compact?: boolean;
 }
 
 export interface CreateQRCodeFormValues {